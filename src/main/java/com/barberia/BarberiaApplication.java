@@ -3,6 +3,7 @@ package com.barberia;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Clase principal de la aplicación Spring Boot
@@ -19,9 +20,12 @@ import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
  * Spring detecta automáticamente los beans AuditorAware por tipo:
  * - AuditorAware<Usuario> para campos @CreatedBy/@LastModifiedBy de tipo Usuario
  * - AuditorAware<Negocio> para campos @CreatedBy de tipo Negocio
+ *
+ * @EnableScheduling habilita las tareas @Scheduled (relay del outbox de reservas)
  */
 @SpringBootApplication
 @EnableJpaAuditing
+@EnableScheduling
 public class BarberiaApplication {
 
 	public static void main(String[] args) {
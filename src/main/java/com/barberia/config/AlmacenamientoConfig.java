@@ -0,0 +1,47 @@
+package com.barberia.config;
+
+import com.barberia.services.almacenamiento.AlmacenamientoArchivos;
+import com.barberia.services.almacenamiento.AlmacenamientoLocal;
+import com.barberia.services.almacenamiento.AlmacenamientoS3;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+/**
+ * Elige dónde se guardan los archivos subidos según almacenamiento.tipo.
+ *
+ * - local (por defecto): carpeta file.upload-dir servida por /uploads. Sirve para
+ *   desarrollo y para un solo nodo
+ * - s3: bucket S3 o compatible; necesario con varios nodos detrás de un balanceador
+ *   (todos ven los mismos archivos). Las URLs nuevas son absolutas (url-publica)
+ *
+ * Las URLs ya guardadas en BD no se migran solas: al pasar de local a s3 hay que subir
+ * la carpeta uploads al bucket con las mismas claves y reescribir las URLs.
+ */
+@Configuration
+public class AlmacenamientoConfig {
+
+    @Bean(destroyMethod = "detener")
+    public AlmacenamientoArchivos almacenamientoArchivos(
+            @Value("${almacenamiento.tipo:local}") String tipo,
+            @Value("${file.upload-dir:uploads}") String uploadDirectory,
+            @Value("${almacenamiento.s3.endpoint:https://s3.amazonaws.com}") String endpoint,
+            @Value("${almacenamiento.s3.region:us-east-1}") String region,
+            @Value("${almacenamiento.s3.bucket:}") String bucket,
+            @Value("${almacenamiento.s3.access-key:}") String accessKey,
+            @Value("${almacenamiento.s3.secret-key:}") String secretKey,
+            @Value("${almacenamiento.s3.path-style:true}") boolean pathStyle,
+            @Value("${almacenamiento.s3.url-publica:}") String urlPublica,
+            @Value("${almacenamiento.s3.tamano-parte-mb:8}") int tamanoParteMb,
+            @Value("${almacenamiento.s3.hilos:4}") int hilos) {
+        return switch (tipo.trim().toLowerCase()) {
+            case "local" -> new AlmacenamientoLocal(Paths.get(uploadDirectory));
+            // S3 rechaza partes de menos de 5MB (salvo la última)
+            case "s3" -> new AlmacenamientoS3(endpoint, region, bucket, accessKey, secretKey, pathStyle,
+                    urlPublica, Math.max(5, tamanoParteMb) * 1024L * 1024L, hilos);
+            default -> throw new IllegalStateException("almacenamiento.tipo desconocido: " + tipo + " (local o s3)");
+        };
+    }
+}
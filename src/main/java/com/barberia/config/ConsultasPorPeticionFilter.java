@@ -0,0 +1,85 @@
+package com.barberia.config;
+
+import com.barberia.services.common.ContadorConsultas;
+import com.barberia.services.common.Metricas;
+import io.micrometer.core.instrument.DistributionSummary;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Cuenta las sentencias SQL de cada petición HTTP (ver ContadorConsultas).
+ *
+ * Con consultas.inspector.habilitado:
+ * - registra la cantidad en "barberia.consultas.peticion" (uri = patrón del endpoint, metodo)
+ * - si supera consultas.umbral, deja un WARN con el endpoint y la sentencia más repetida,
+ *   que en un N+1 es la consulta que se ejecuta una vez por fila
+ *
+ * Va antes que Spring Security para contar también la carga del usuario del JWT.
+ * Deshabilitado no mide nada; habilitado agrupa las sentencias en un mapa por petición.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ConsultasPorPeticionFilter extends OncePerRequestFilter {
+
+    private final Metricas metricas;
+    private final boolean habilitado;
+    private final int umbral;
+
+    public ConsultasPorPeticionFilter(Metricas metricas,
+                                      @Value("${consultas.inspector.habilitado:false}") boolean habilitado,
+                                      @Value("${consultas.umbral:30}") int umbral) {
+        this.metricas = metricas;
+        this.habilitado = habilitado;
+        this.umbral = umbral;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !habilitado;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        try (ContadorConsultas.Medicion medicion = ContadorConsultas.iniciar(true)) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                registrar(request, medicion);
+            }
+        }
+    }
+
+    private void registrar(HttpServletRequest request, ContadorConsultas.Medicion medicion) {
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = patron != null ? patron.toString() : "NO_ENCONTRADO";
+
+        DistributionSummary.builder("barberia.consultas.peticion")
+                .baseUnit("sentencias")
+                .tags("uri", uri, "metodo", request.getMethod())
+                .register(metricas.getRegistry())
+                .record(medicion.total());
+
+        if (medicion.total() > umbral) {
+            Map.Entry<String, Integer> masRepetida = medicion.sentencias().get(0);
+            log.warn("{} {} ejecutó {} sentencias SQL (umbral {}). La más repetida ({} veces): {}",
+                    request.getMethod(), request.getRequestURI(), medicion.total(), umbral,
+                    masRepetida.getValue(), masRepetida.getKey());
+        }
+    }
+}
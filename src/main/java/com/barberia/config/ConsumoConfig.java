@@ -0,0 +1,33 @@
+package com.barberia.config;
+
+import com.barberia.services.consumo.DataSourceMedido;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Envuelve el DataSource del pool con DataSourceMedido para medir el consumo de BD de
+ * cada petición por negocio (ver ConsumoNegocioService).
+ *
+ * Es un BeanPostProcessor (static: se crea antes que el resto de beans) para no tener que
+ * declarar el DataSource a mano y perder la autoconfiguración de Hikari.
+ */
+@Configuration
+@ConditionalOnProperty(name = "consumo.habilitado", havingValue = "true", matchIfMissing = true)
+public class ConsumoConfig {
+
+    @Bean
+    public static BeanPostProcessor dataSourceMedidoPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && !(bean instanceof DataSourceMedido)
+                        ? new DataSourceMedido(dataSource)
+                        : bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,207 @@
+package com.barberia.config;
+
+import com.barberia.services.common.Metricas;
+import com.barberia.services.consumo.ConsumoJdbc;
+import com.barberia.services.consumo.ConsumoNegocioService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+
+/**
+ * Mide el consumo de cada petición y lo suma al negocio del JWT (ver ConsumoNegocioService).
+ *
+ * - BD: abre una medición ConsumoJdbc que llena DataSourceMedido (sentencias, tiempo, filas)
+ * - Respuesta: cuenta los bytes escritos; si la respuesta no pasó por el stream (archivos
+ *   servidos con sendfile) usa el Content-Length declarado
+ * - Negocio: lo deja JwtAuthenticationFilter en el atributo Metricas.ATRIBUTO_NEGOCIO, así
+ *   que se lee al terminar la cadena; sin token la petición va a "sin negocio"
+ *
+ * Va antes que ConsultasPorPeticionFilter y Spring Security para incluir la carga del
+ * usuario del JWT en el consumo de la petición.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+public class ConsumoPorNegocioFilter extends OncePerRequestFilter {
+
+    private final ConsumoNegocioService consumoNegocioService;
+    private final boolean habilitado;
+
+    public ConsumoPorNegocioFilter(ConsumoNegocioService consumoNegocioService,
+                                   @Value("${consumo.habilitado:true}") boolean habilitado) {
+        this.consumoNegocioService = consumoNegocioService;
+        this.habilitado = habilitado;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !habilitado;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        RespuestaContada respuesta = new RespuestaContada(response);
+        ConsumoJdbc consumo = ConsumoJdbc.iniciar();
+        try {
+            filterChain.doFilter(request, respuesta);
+        } finally {
+            ConsumoJdbc.terminar();
+            Object negocioId = request.getAttribute(Metricas.ATRIBUTO_NEGOCIO);
+            consumoNegocioService.registrar(negocioId instanceof Long id ? id : null,
+                    consumo.getSentencias(), consumo.getNanosBd(), consumo.getFilas(), respuesta.bytes());
+        }
+    }
+
+    /**
+     * Respuesta que cuenta lo escrito. El Writer cuenta caracteres (las respuestas JSON de
+     * Spring van por el OutputStream, así que en la práctica es exacto).
+     *
+     * El Content-Length declarado se guarda al pasar por el wrapper: Tomcat no lo devuelve en
+     * getHeader("Content-Length") después de setContentLengthLong, solo en containsHeader.
+     */
+    private static final class RespuestaContada extends HttpServletResponseWrapper {
+
+        private static final String CONTENT_LENGTH = "Content-Length";
+
+        private long escritos;
+        private long declarado;
+        private ServletOutputStream stream;
+        private PrintWriter writer;
+
+        RespuestaContada(HttpServletResponse response) {
+            super(response);
+        }
+
+        long bytes() {
+            return escritos > 0 ? escritos : declarado;
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            super.setContentLength(len);
+            declarado = Math.max(len, 0);
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            super.setContentLengthLong(len);
+            declarado = Math.max(len, 0);
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            super.setHeader(name, value);
+            declarar(name, value);
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            super.addHeader(name, value);
+            declarar(name, value);
+        }
+
+        @Override
+        public void setIntHeader(String name, int value) {
+            super.setIntHeader(name, value);
+            declarar(name, Integer.toString(value));
+        }
+
+        @Override
+        public void addIntHeader(String name, int value) {
+            super.addIntHeader(name, value);
+            declarar(name, Integer.toString(value));
+        }
+
+        private void declarar(String name, String value) {
+            if (!CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                return;
+            }
+            try {
+                declarado = value != null ? Math.max(Long.parseLong(value.trim()), 0) : 0;
+            } catch (NumberFormatException e) {
+                declarado = 0;
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (stream == null) {
+                ServletOutputStream original = super.getOutputStream();
+                stream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        original.write(b);
+                        escritos++;
+                    }
+
+                    @Override
+                    public void write(@NonNull byte[] b, int off, int len) throws IOException {
+                        original.write(b, off, len);
+                        escritos += len;
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        original.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        original.close();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return original.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        original.setWriteListener(listener);
+                    }
+                };
+            }
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                Writer original = super.getWriter();
+                writer = new PrintWriter(new Writer() {
+                    @Override
+                    public void write(@NonNull char[] cbuf, int off, int len) throws IOException {
+                        original.write(cbuf, off, len);
+                        escritos += len;
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        original.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        original.close();
+                    }
+                });
+            }
+            return writer;
+        }
+    }
+}
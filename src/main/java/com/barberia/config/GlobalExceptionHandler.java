@@ -1,5 +1,9 @@
 package com.barberia.config;
 
+import com.barberia.security.DemasiadosIntentosException;
+import com.barberia.security.ServicioSaturadoException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -26,6 +30,7 @@ import java.util.Map;
  * 3. Respuestas consistentes
  * 4. Oculta detalles internos al cliente
  */
+@Slf4j
 @RestControllerAdvice
 public class GlobalExceptionHandler {
     
@@ -71,6 +76,38 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
     }
     
+    /**
+     * Maneja el límite de intentos de login (LoginRateLimiter)
+     */
+    @ExceptionHandler(DemasiadosIntentosException.class)
+    public ResponseEntity<Map<String, Object>> handleDemasiadosIntentos(DemasiadosIntentosException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        response.put("error", "Demasiados intentos");
+        response.put("message", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getReintentarEnSegundos()))
+                .body(response);
+    }
+
+    /**
+     * Maneja el rechazo del pool de hashing de contraseñas (PasswordEncoderAcotado)
+     */
+    @ExceptionHandler(ServicioSaturadoException.class)
+    public ResponseEntity<Map<String, Object>> handleServicioSaturado(ServicioSaturadoException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.put("error", "Servicio saturado");
+        response.put("message", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getReintentarEnSegundos()))
+                .body(response);
+    }
+
     /**
      * Maneja usuario no encontrado
      */
@@ -134,8 +171,8 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleGlobalException(Exception ex) {
-        // Imprimir el stack trace en los logs para debugging
-        ex.printStackTrace();
+        // Stack trace en los logs para debugging
+        log.error("Error no controlado", ex);
         
         Map<String, Object> response = new HashMap<>();
         response.put("timestamp", LocalDateTime.now());
@@ -0,0 +1,33 @@
+package com.barberia.config;
+
+import com.barberia.repositories.DashboardRepository;
+import com.barberia.services.common.Metricas;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.actuate.metrics.data.DefaultRepositoryTagsProvider;
+import org.springframework.boot.actuate.metrics.data.RepositoryTagsProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Métricas de las consultas a repositorios.
+ *
+ * Actuator ya mide cada invocación a un repositorio de Spring Data en el timer
+ * "spring.data.repository.invocations" (repository, method, state, exception). Aquí se le
+ * agrega la etiqueta "negocio", con valor solo para DashboardRepository: así cada consulta
+ * del dashboard (las más pesadas, agregaciones sobre reservas) se puede ver por negocio sin
+ * multiplicar las series de todos los demás repositorios, que quedan con negocio="todos".
+ */
+@Configuration
+public class MetricasConfig {
+
+    static final String TODOS = "todos";
+
+    @Bean
+    public RepositoryTagsProvider repositoryTagsProvider(Metricas metricas) {
+        DefaultRepositoryTagsProvider base = new DefaultRepositoryTagsProvider();
+        return invocation -> Tags.of(base.repositoryTags(invocation)).and("negocio",
+                DashboardRepository.class.isAssignableFrom(invocation.getRepositoryInterface())
+                        ? metricas.negocio(Metricas.negocioActual())
+                        : TODOS);
+    }
+}
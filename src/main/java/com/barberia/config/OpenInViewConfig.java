@@ -0,0 +1,38 @@
+package com.barberia.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Open-in-view (OSIV) en todas las rutas menos en el login.
+ *
+ * Con OSIV el EntityManager vive toda la petición y, fuera de una transacción, Hibernate
+ * no suelta la conexión que tomó hasta cerrarlo: en el login la primera consulta (cargar
+ * el usuario) toma una conexión del pool y la retiene mientras BCrypt compara el password
+ * (~100 ms), aunque login() no sea @Transactional.
+ *
+ * Por eso spring.jpa.open-in-view=false (Spring Boot ya no registra su interceptor) y se
+ * registra aquí el mismo interceptor excluyendo /api/auth/login. El resto de endpoints
+ * sigue igual: sus mappers y controladores leen relaciones LAZY fuera de la transacción.
+ */
+@Configuration
+public class OpenInViewConfig implements WebMvcConfigurer {
+
+    static final String[] SIN_OPEN_IN_VIEW = {"/api/auth/login"};
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public OpenInViewConfig(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        OpenEntityManagerInViewInterceptor interceptor = new OpenEntityManagerInViewInterceptor();
+        interceptor.setEntityManagerFactory(entityManagerFactory);
+        registry.addWebRequestInterceptor(interceptor).excludePathPatterns(SIN_OPEN_IN_VIEW);
+    }
+}
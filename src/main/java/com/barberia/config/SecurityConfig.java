@@ -1,9 +1,13 @@
 package com.barberia.config;
 
+import com.barberia.security.ExpresionesPermisosHandler;
 import com.barberia.security.JwtAuthenticationFilter;
+import com.barberia.security.PasswordEncoderAcotado;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -59,7 +63,7 @@ public class SecurityConfig {
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(List.of("*"));
         configuration.setAllowCredentials(true);
-        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type", "Idempotent-Replayed"));
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
@@ -68,7 +72,8 @@ public class SecurityConfig {
     
     @Bean
     @Profile("!dev")
-    public SecurityFilterChain securityFilterChainProduction(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChainProduction(HttpSecurity http,
+                                                             AuthenticationProvider authenticationProvider) throws Exception {
         http
                 .cors(cors -> cors.configurationSource(corsConfigurationSourceProd()))
                 .csrf(AbstractHttpConfigurer::disable)
@@ -77,14 +82,17 @@ public class SecurityConfig {
                                 "/api/auth/**",
                                 "/api/public/**",
                                 "/uploads/**",
-                                "/error"
+                                "/error",
+                                // Actuator escucha en management.server.port (red interna, no publicada)
+                                "/actuator/health",
+                                "/actuator/prometheus"
                         ).permitAll()
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
-                .authenticationProvider(authenticationProvider())
+                .authenticationProvider(authenticationProvider)
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
         
         return http.build();
@@ -101,9 +109,9 @@ public class SecurityConfig {
                 "https://app.mi-barberia.com"
         ));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Accept"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Accept", "Idempotency-Key"));
         configuration.setAllowCredentials(true);
-        configuration.setExposedHeaders(Arrays.asList("Authorization"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "Idempotent-Replayed"));
         configuration.setMaxAge(3600L);
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -114,10 +122,10 @@ public class SecurityConfig {
     // Proveedor de autenticación es donde definimos cómo se cargan los usuarios y cómo se validan las contraseñas
     // Usamos DaoAuthenticationProvider con nuestro UserDetailsService y un PasswordEncoder (BCrypt)
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 
@@ -127,9 +135,23 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
 
-    // Bean para el PasswordEncoder que usaremos para encriptar y verificar contraseñas
+    // Bean para el PasswordEncoder que usaremos para encriptar y verificar contraseñas.
+    // BCrypt corre en un pool acotado (ver PasswordEncoderAcotado) para que una ráfaga
+    // de logins no ocupe toda la CPU; hilos = 0 usa la mitad de los núcleos.
+    @Bean(destroyMethod = "detener")
+    public PasswordEncoderAcotado passwordEncoder(
+            @Value("${seguridad.hashing.hilos:0}") int hilos,
+            @Value("${seguridad.hashing.cola:64}") int cola,
+            @Value("${seguridad.hashing.espera-maxima-ms:5000}") long esperaMaximaMs) {
+        int hilosEfectivos = hilos > 0 ? hilos : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new PasswordEncoderAcotado(new BCryptPasswordEncoder(), hilosEfectivos, cola, esperaMaximaMs);
+    }
+
+    // Handler de @PreAuthorize: hasRole/hasAuthority se resuelven con los bits de los permisos
+    // compilados del usuario (ver RegistroPermisos) en vez de copiar las authorities a un Set.
+    // static para que Spring lo registre antes que la configuración de seguridad de métodos.
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    static MethodSecurityExpressionHandler methodSecurityExpressionHandler() {
+        return new ExpresionesPermisosHandler();
     }
 }
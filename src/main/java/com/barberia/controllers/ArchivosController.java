@@ -0,0 +1,37 @@
+package com.barberia.controllers;
+
+import com.barberia.services.ArchivoEstaticoService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * Archivos subidos (imágenes, logos, etc.) guardados localmente:
+ * - GET http://localhost:8080/uploads/logos/uuid.png
+ *
+ * SEGURIDAD: público (/uploads/** permitido en SecurityConfig.java)
+ *
+ * El envío, caché HTTP (ETag, 304) y rangos están en ArchivoEstaticoService.
+ *
+ * MIGRACIÓN A LA NUBE:
+ * Cuando se migre a S3/Cloudinary este controlador deja de usarse,
+ * ya que las URLs serán externas (https://s3.amazonaws.com/...)
+ */
+@RestController
+public class ArchivosController {
+
+    private final ArchivoEstaticoService archivoEstaticoService;
+
+    public ArchivosController(ArchivoEstaticoService archivoEstaticoService) {
+        this.archivoEstaticoService = archivoEstaticoService;
+    }
+
+    @RequestMapping(value = "/uploads/**", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void servir(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        archivoEstaticoService.servir(request, response);
+    }
+}
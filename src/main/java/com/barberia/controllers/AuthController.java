@@ -3,10 +3,14 @@ package com.barberia.controllers;
 import com.barberia.dto.auth.AuthResponse;
 import com.barberia.dto.auth.LoginRequest;
 import com.barberia.dto.auth.RegisterRequest;
+import com.barberia.security.LoginRateLimiter;
+import com.barberia.security.PasswordEncoderAcotado;
 import com.barberia.services.AuthenticationService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 /**
@@ -29,9 +33,15 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
     
     private final AuthenticationService authenticationService;
+    private final LoginRateLimiter loginRateLimiter;
+    private final PasswordEncoderAcotado passwordEncoder;
     
-    public AuthController(AuthenticationService authenticationService) {
+    public AuthController(AuthenticationService authenticationService,
+                          LoginRateLimiter loginRateLimiter,
+                          PasswordEncoderAcotado passwordEncoder) {
         this.authenticationService = authenticationService;
+        this.loginRateLimiter = loginRateLimiter;
+        this.passwordEncoder = passwordEncoder;
     }
     
     /**
@@ -113,11 +123,17 @@ public class AuthController {
      * Si las credenciales son incorrectas, AuthenticationService lanza excepción
      * Deberías tener un @ControllerAdvice para manejar excepciones globalmente
      * 
+     * LÍMITES:
+     * - 429 si se superan los intentos por email o por IP (LoginRateLimiter)
+     * - 503 si el pool de BCrypt está lleno (PasswordEncoderAcotado)
+     * 
      * @param request Credenciales del usuario
      * @return Respuesta con token JWT
      */
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
+    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request,
+                                              HttpServletRequest httpRequest) {
+        loginRateLimiter.verificar(request.getEmail(), httpRequest.getRemoteAddr());
         AuthResponse response = authenticationService.login(request);
         return ResponseEntity.ok(response);
     }
@@ -136,4 +152,15 @@ public class AuthController {
     public ResponseEntity<String> publicEndpoint() {
         return ResponseEntity.ok("Este es un endpoint público - No requiere autenticación");
     }
+
+    /**
+     * Estado del pool de hashing de contraseñas (para medir el login bajo carga)
+     * 
+     * GET /api/auth/login/estadisticas
+     */
+    @GetMapping("/login/estadisticas")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PasswordEncoderAcotado.Estadisticas> estadisticasLogin() {
+        return ResponseEntity.ok(passwordEncoder.estadisticas());
+    }
 }
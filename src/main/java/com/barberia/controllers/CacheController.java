@@ -0,0 +1,48 @@
+package com.barberia.controllers;
+
+import com.barberia.dto.ApiResponse;
+import com.barberia.dto.cache.CacheEstadisticasResponse;
+import com.barberia.services.common.CacheEstadisticasService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Diagnóstico de la caché de segundo nivel
+ *
+ * SEGURIDAD: Requiere rol ADMIN (los contadores son del nodo, no de un negocio)
+ */
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    private final CacheEstadisticasService cacheEstadisticasService;
+
+    public CacheController(CacheEstadisticasService cacheEstadisticasService) {
+        this.cacheEstadisticasService = cacheEstadisticasService;
+    }
+
+    @GetMapping("/estadisticas")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<CacheEstadisticasResponse>> estadisticas() {
+        try {
+            CacheEstadisticasResponse estadisticas = cacheEstadisticasService.obtener();
+            ApiResponse<CacheEstadisticasResponse> response = ApiResponse.<CacheEstadisticasResponse>builder()
+                    .code(200)
+                    .success(true)
+                    .message("Estadísticas de caché")
+                    .data(estadisticas)
+                    .build();
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            ApiResponse<CacheEstadisticasResponse> response = ApiResponse.<CacheEstadisticasResponse>builder()
+                    .code(500)
+                    .success(false)
+                    .message("Error al obtener estadísticas de caché: " + e.getMessage())
+                    .build();
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+}
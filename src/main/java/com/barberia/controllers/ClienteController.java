@@ -9,6 +9,7 @@ import com.barberia.dto.cliente.ClienteRequest;
 import com.barberia.dto.cliente.ClienteRequestCliente;
 import com.barberia.dto.cliente.ClienteResponse;
 import com.barberia.services.ClienteService;
+import com.barberia.services.common.IdempotencyService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -40,10 +41,12 @@ import java.util.List;
 public class ClienteController {
 
     private final ClienteService clienteService;
+    private final IdempotencyService idempotencyService;
 
     @Autowired
-    public ClienteController(ClienteService clienteService) {
+    public ClienteController(ClienteService clienteService, IdempotencyService idempotencyService) {
         this.clienteService = clienteService;
+        this.idempotencyService = idempotencyService;
     }
 
     /**
@@ -55,49 +58,58 @@ public class ClienteController {
      * 
      * @PreAuthorize evalúa la expresión ANTES de ejecutar el método
      * Si retorna false → HTTP 403 Forbidden
+     *
+     * IDEMPOTENCIA: si se envía el header Idempotency-Key, los reintentos con la
+     * misma clave devuelven el cliente ya creado en vez de duplicarlo.
      */
     @PostMapping({"/register"})
     @PreAuthorize("hasRole('ADMIN') or hasAuthority('CREATE_CLIENTS')")
     public ResponseEntity<ApiResponse<ClienteResponse>> createClienteProtegido(
-            @Valid @RequestBody ClienteRequest request) {
-        try {
-            ClienteResponse clienteResponse = clienteService.createClienteProtegido(request);
-            ApiResponse<ClienteResponse> response = ApiResponse.<ClienteResponse>builder()
-                    .code(201)
-                    .success(true)
-                    .message("Cliente creado exitosamente")
-                    .data(clienteResponse)
-                    .build();
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
-        } catch (Exception e) {
-            ApiResponse<ClienteResponse> response = ApiResponse.<ClienteResponse>builder()
-                    .code(400)
-                    .success(false)
-                    .message("Error al crear el cliente: " + e.getMessage())
-                    .build();
-            return ResponseEntity.badRequest().body(response);
-        }
+            @Valid @RequestBody ClienteRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.ejecutar("clientes.register", idempotencyKey, request, ClienteResponse.class, () -> {
+            try {
+                ClienteResponse clienteResponse = clienteService.createClienteProtegido(request);
+                ApiResponse<ClienteResponse> response = ApiResponse.<ClienteResponse>builder()
+                        .code(201)
+                        .success(true)
+                        .message("Cliente creado exitosamente")
+                        .data(clienteResponse)
+                        .build();
+                return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            } catch (Exception e) {
+                ApiResponse<ClienteResponse> response = ApiResponse.<ClienteResponse>builder()
+                        .code(400)
+                        .success(false)
+                        .message("Error al crear el cliente: " + e.getMessage())
+                        .build();
+                return ResponseEntity.badRequest().body(response);
+            }
+        });
     }
     @PostMapping({"registerCliente"})
     public ResponseEntity<ApiResponse<ClienteResponse>> createCliente(
-            @Valid @RequestBody ClienteRequestCliente request) {
-        try {
-            ClienteResponse clienteResponse = clienteService.create(request);
-            ApiResponse<ClienteResponse> response = ApiResponse.<ClienteResponse>builder()
-                    .code(201)
-                    .success(true)
-                    .message("Cliente creado exitosamente")
-                    .data(clienteResponse)
-                    .build();
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
-        } catch (Exception e) {
-            ApiResponse<ClienteResponse> response = ApiResponse.<ClienteResponse>builder()
-                    .code(400)
-                    .success(false)
-                    .message("Error al crear el cliente: " + e.getMessage())
-                    .build();
-            return ResponseEntity.badRequest().body(response);
-        }
+            @Valid @RequestBody ClienteRequestCliente request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.ejecutar("clientes.registerCliente", idempotencyKey, request, ClienteResponse.class, () -> {
+            try {
+                ClienteResponse clienteResponse = clienteService.create(request);
+                ApiResponse<ClienteResponse> response = ApiResponse.<ClienteResponse>builder()
+                        .code(201)
+                        .success(true)
+                        .message("Cliente creado exitosamente")
+                        .data(clienteResponse)
+                        .build();
+                return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            } catch (Exception e) {
+                ApiResponse<ClienteResponse> response = ApiResponse.<ClienteResponse>builder()
+                        .code(400)
+                        .success(false)
+                        .message("Error al crear el cliente: " + e.getMessage())
+                        .build();
+                return ResponseEntity.badRequest().body(response);
+            }
+        });
     }
 
 
@@ -2,14 +2,22 @@ package com.barberia.controllers;
 
 import com.barberia.dto.ApiResponse;
 import com.barberia.dto.dashboard.DashboardResumenResponse;
+import com.barberia.dto.dashboard.SerieTemporalResponse;
+import com.barberia.dto.dashboard.UtilizacionResponse;
 import com.barberia.services.DashboardService;
+import com.barberia.services.dashboard.SerieTemporalService;
+import com.barberia.services.dashboard.UtilizacionService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
+
 /**
  * ============================================================
  * CONTROLLER - DASHBOARD
@@ -17,6 +25,8 @@ import org.springframework.web.bind.annotation.RestController;
  * Endpoint para obtener el resumen del dashboard.
  *
  * GET /api/dashboard/resumen
+ * GET /api/dashboard/series
+ * GET /api/dashboard/utilizacion
  *
  * Retorna métricas, gráficos y widgets según los permisos
  * del usuario autenticado y su negocio.
@@ -26,9 +36,15 @@ import org.springframework.web.bind.annotation.RestController;
 public class DashboardController {
 
     private final DashboardService dashboardService;
+    private final SerieTemporalService serieTemporalService;
+    private final UtilizacionService utilizacionService;
 
-    public DashboardController(DashboardService dashboardService) {
+    public DashboardController(DashboardService dashboardService,
+                               SerieTemporalService serieTemporalService,
+                               UtilizacionService utilizacionService) {
         this.dashboardService = dashboardService;
+        this.serieTemporalService = serieTemporalService;
+        this.utilizacionService = utilizacionService;
     }
 
     /**
@@ -68,4 +84,107 @@ public class DashboardController {
             );
         }
     }
+
+    /**
+     * Serie temporal de reservas, cancelaciones e ingreso del negocio.
+     * Ejemplo: /api/dashboard/series?desde=2024-01-01&hasta=2025-12-31&desglose=profesional
+     *
+     * @param granularidad "auto" (default), "dia", "semana" o "mes"
+     * @param desglose     opcional: "profesional" o "servicio"
+     */
+    @GetMapping("/series")
+    @PreAuthorize("hasAnyRole('ADMIN','MANAGER','SUPER_ADMIN') or hasAnyAuthority('FULL_ACCESS','VIEW_DASHBOARD_ADMIN')")
+    public ResponseEntity<ApiResponse<SerieTemporalResponse>> getSerie(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "auto") String granularidad,
+            @RequestParam(required = false) String desglose) {
+        try {
+            SerieTemporalResponse serie = serieTemporalService.getSerie(desde, hasta, granularidad, desglose);
+            return ResponseEntity.ok(
+                    ApiResponse.<SerieTemporalResponse>builder()
+                            .code(200)
+                            .success(true)
+                            .message("Serie cargada exitosamente")
+                            .data(serie)
+                            .build()
+            );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
+                    ApiResponse.<SerieTemporalResponse>builder()
+                            .code(400)
+                            .success(false)
+                            .message(e.getMessage())
+                            .build()
+            );
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                    ApiResponse.<SerieTemporalResponse>builder()
+                            .code(401)
+                            .success(false)
+                            .message("Error de autenticación: " + e.getMessage())
+                            .build()
+            );
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                    ApiResponse.<SerieTemporalResponse>builder()
+                            .code(500)
+                            .success(false)
+                            .message("Error al cargar serie: " + e.getMessage())
+                            .build()
+            );
+        }
+    }
+
+    /**
+     * Utilización de los profesionales (minutos reservados / minutos de horario),
+     * huecos libres y mapa de calor por día de la semana y hora.
+     * Ejemplo: /api/dashboard/utilizacion?desde=2025-06-01&hasta=2025-06-30
+     *
+     * @param granularidad  "auto" (default), "dia" o "semana"
+     * @param profesionalId opcional: solo ese profesional
+     */
+    @GetMapping("/utilizacion")
+    @PreAuthorize("hasAnyRole('ADMIN','MANAGER','SUPER_ADMIN') or hasAnyAuthority('FULL_ACCESS','VIEW_DASHBOARD_ADMIN')")
+    public ResponseEntity<ApiResponse<UtilizacionResponse>> getUtilizacion(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "auto") String granularidad,
+            @RequestParam(required = false) Long profesionalId) {
+        try {
+            UtilizacionResponse utilizacion = utilizacionService.getUtilizacion(desde, hasta, granularidad, profesionalId);
+            return ResponseEntity.ok(
+                    ApiResponse.<UtilizacionResponse>builder()
+                            .code(200)
+                            .success(true)
+                            .message("Utilización cargada exitosamente")
+                            .data(utilizacion)
+                            .build()
+            );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
+                    ApiResponse.<UtilizacionResponse>builder()
+                            .code(400)
+                            .success(false)
+                            .message(e.getMessage())
+                            .build()
+            );
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                    ApiResponse.<UtilizacionResponse>builder()
+                            .code(401)
+                            .success(false)
+                            .message("Error de autenticación: " + e.getMessage())
+                            .build()
+            );
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                    ApiResponse.<UtilizacionResponse>builder()
+                            .code(500)
+                            .success(false)
+                            .message("Error al cargar utilización: " + e.getMessage())
+                            .build()
+            );
+        }
+    }
 }
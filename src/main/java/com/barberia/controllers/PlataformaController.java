@@ -0,0 +1,199 @@
+package com.barberia.controllers;
+
+import com.barberia.dto.ApiResponse;
+import com.barberia.dto.plataforma.AprovisionamientoLoteRequest;
+import com.barberia.dto.plataforma.AprovisionamientoResponse;
+import com.barberia.dto.plataforma.ConsumoNegociosResponse;
+import com.barberia.dto.plataforma.NegocioAprovisionarRequest;
+import com.barberia.dto.plataforma.PlataformaResumenResponse;
+import com.barberia.services.consumo.ConsumoNegocioService;
+import com.barberia.services.plataforma.AprovisionamientoService;
+import com.barberia.services.plataforma.PlataformaAnaliticaService;
+import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+/**
+ * Analítica de plataforma: métricas de todos los negocios
+ * Alta de negocios con su administrador, configuración y horarios iniciales
+ * Consumo de recursos por negocio (negocios ruidosos)
+ *
+ * SEGURIDAD: Solo SUPER_ADMIN (cruza datos de todos los negocios)
+ */
+@RestController
+@RequestMapping("/api/plataforma")
+public class PlataformaController {
+
+    private final PlataformaAnaliticaService plataformaAnaliticaService;
+    private final AprovisionamientoService aprovisionamientoService;
+    private final ConsumoNegocioService consumoNegocioService;
+
+    public PlataformaController(PlataformaAnaliticaService plataformaAnaliticaService,
+                                AprovisionamientoService aprovisionamientoService,
+                                ConsumoNegocioService consumoNegocioService) {
+        this.plataformaAnaliticaService = plataformaAnaliticaService;
+        this.aprovisionamientoService = aprovisionamientoService;
+        this.consumoNegocioService = consumoNegocioService;
+    }
+
+    /**
+     * Resumen de los últimos meses: reservas, ingreso, negocios activos, crecimiento
+     */
+    @GetMapping("/resumen")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<ApiResponse<PlataformaResumenResponse>> resumen(
+            @RequestParam(defaultValue = "12") int meses,
+            @RequestParam(defaultValue = "10") int top) {
+        try {
+            PlataformaResumenResponse resumen = plataformaAnaliticaService.getResumen(meses, top);
+            return ResponseEntity.ok(
+                    ApiResponse.<PlataformaResumenResponse>builder()
+                            .code(200)
+                            .success(true)
+                            .message("Resumen de plataforma")
+                            .data(resumen)
+                            .build()
+            );
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(
+                    ApiResponse.<PlataformaResumenResponse>builder()
+                            .code(500)
+                            .success(false)
+                            .message("Error al obtener resumen de plataforma: " + e.getMessage())
+                            .build()
+            );
+        }
+    }
+
+    /**
+     * Recalcula el rollup completo (o desde un mes, formato yyyy-MM-dd)
+     */
+    @PostMapping("/actualizar")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<ApiResponse<Integer>> actualizar(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde) {
+        try {
+            int filas = plataformaAnaliticaService.actualizar(desde);
+            if (filas < 0) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                        ApiResponse.<Integer>builder()
+                                .code(409)
+                                .success(false)
+                                .message("Ya hay una actualización en curso")
+                                .build()
+                );
+            }
+            return ResponseEntity.ok(
+                    ApiResponse.<Integer>builder()
+                            .code(200)
+                            .success(true)
+                            .message("Métricas de plataforma actualizadas")
+                            .data(filas)
+                            .build()
+            );
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(
+                    ApiResponse.<Integer>builder()
+                            .code(500)
+                            .success(false)
+                            .message("Error al actualizar métricas de plataforma: " + e.getMessage())
+                            .build()
+            );
+        }
+    }
+
+    /**
+     * Negocios que más recursos consumen en este nodo (últimos minutos, ver consumo.ventana-minutos)
+     * orden: peticiones, bd (tiempo de BD), filas o bytes
+     */
+    @GetMapping("/consumo")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<ApiResponse<ConsumoNegociosResponse>> consumo(
+            @RequestParam(defaultValue = "bd") String orden,
+            @RequestParam(defaultValue = "10") int limite) {
+        try {
+            ConsumoNegociosResponse consumo = consumoNegocioService.top(orden, limite);
+            return ResponseEntity.ok(
+                    ApiResponse.<ConsumoNegociosResponse>builder()
+                            .code(200)
+                            .success(true)
+                            .message("Consumo por negocio")
+                            .data(consumo)
+                            .build()
+            );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(
+                    ApiResponse.<ConsumoNegociosResponse>builder()
+                            .code(400)
+                            .success(false)
+                            .message(e.getMessage())
+                            .build()
+            );
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(
+                    ApiResponse.<ConsumoNegociosResponse>builder()
+                            .code(500)
+                            .success(false)
+                            .message("Error al obtener consumo por negocio: " + e.getMessage())
+                            .build()
+            );
+        }
+    }
+
+    /**
+     * Alta de un negocio con su administrador y los datos de la plantilla
+     */
+    @PostMapping("/negocios")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<ApiResponse<AprovisionamientoResponse>> aprovisionar(
+            @Valid @RequestBody NegocioAprovisionarRequest request) {
+        return aprovisionar(() -> aprovisionamientoService.aprovisionar(request), "Negocio creado");
+    }
+
+    /**
+     * Alta masiva: todos los negocios se validan antes de insertar el primero
+     */
+    @PostMapping("/negocios/lote")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<ApiResponse<AprovisionamientoResponse>> aprovisionarLote(
+            @Valid @RequestBody AprovisionamientoLoteRequest request) {
+        return aprovisionar(() -> aprovisionamientoService.aprovisionarLote(request.getNegocios()), "Negocios creados");
+    }
+
+    private ResponseEntity<ApiResponse<AprovisionamientoResponse>> aprovisionar(
+            Supplier<AprovisionamientoResponse> alta, String mensaje) {
+        try {
+            AprovisionamientoResponse response = alta.get();
+            return ResponseEntity.status(HttpStatus.CREATED).body(
+                    ApiResponse.<AprovisionamientoResponse>builder()
+                            .code(201)
+                            .success(true)
+                            .message(mensaje + ": " + response.getCantidad())
+                            .data(response)
+                            .build()
+            );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(
+                    ApiResponse.<AprovisionamientoResponse>builder()
+                            .code(400)
+                            .success(false)
+                            .message(e.getMessage())
+                            .build()
+            );
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(
+                    ApiResponse.<AprovisionamientoResponse>builder()
+                            .code(500)
+                            .success(false)
+                            .message("Error al crear negocios: " + e.getMessage())
+                            .build()
+            );
+        }
+    }
+}
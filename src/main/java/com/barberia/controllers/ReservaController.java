@@ -5,6 +5,7 @@ import com.barberia.dto.EstadoRequestGlobal;
 import com.barberia.dto.reserva.ReservaRequest;
 import com.barberia.dto.reserva.ReservaResponse;
 import com.barberia.services.ReservaService;
+import com.barberia.services.common.IdempotencyService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -19,55 +20,65 @@ import java.util.List;
 public class ReservaController {
 
     private final ReservaService reservaService;
-    public ReservaController(ReservaService reservaService) {
+    private final IdempotencyService idempotencyService;
+    public ReservaController(ReservaService reservaService, IdempotencyService idempotencyService) {
         this.reservaService = reservaService;
+        this.idempotencyService = idempotencyService;
     }
 
     @PostMapping({"/register"})
-    public ResponseEntity<ApiResponse<ReservaResponse>> create(@Valid @RequestBody ReservaRequest request) {
-        try {
-            ReservaResponse reservaResponse = reservaService.create(request);
-            return ResponseEntity.status(HttpStatus.CREATED).body(
-                    ApiResponse.<ReservaResponse>builder()
-                            .code(201)
-                            .success(true)
-                            .message("Reserva creada exitosamente")
-                            .data(reservaResponse)
-                            .build()
-            );
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
-                    ApiResponse.<ReservaResponse>builder()
-                            .code(400)
-                            .success(false)
-                            .message("Error al crear la reserva: " + e.getMessage())
-                            .build()
-            );
-        }
+    public ResponseEntity<ApiResponse<ReservaResponse>> create(
+            @Valid @RequestBody ReservaRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.ejecutar("reservas.register", idempotencyKey, request, ReservaResponse.class, () -> {
+            try {
+                ReservaResponse reservaResponse = reservaService.create(request);
+                return ResponseEntity.status(HttpStatus.CREATED).body(
+                        ApiResponse.<ReservaResponse>builder()
+                                .code(201)
+                                .success(true)
+                                .message("Reserva creada exitosamente")
+                                .data(reservaResponse)
+                                .build()
+                );
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
+                        ApiResponse.<ReservaResponse>builder()
+                                .code(400)
+                                .success(false)
+                                .message("Error al crear la reserva: " + e.getMessage())
+                                .build()
+                );
+            }
+        });
     }
 
     @PostMapping({"/register/admin"})
     @PreAuthorize("hasRole('ADMIN') or hasAuthority('CREATE_RESERVAS')")
-    public ResponseEntity<ApiResponse<ReservaResponse>> createAdmin(@Valid @RequestBody ReservaRequest request) {
-        try {
-            ReservaResponse reservaResponse = reservaService.createAdmin(request);
-            return ResponseEntity.status(HttpStatus.CREATED).body(
-                    ApiResponse.<ReservaResponse>builder()
-                            .code(201)
-                            .success(true)
-                            .message("Reserva creada exitosamente por admin")
-                            .data(reservaResponse)
-                            .build()
-            );
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
-                    ApiResponse.<ReservaResponse>builder()
-                            .code(400)
-                            .success(false)
-                            .message("Error al crear la reserva por admin: " + e.getMessage())
-                            .build()
-            );
-        }
+    public ResponseEntity<ApiResponse<ReservaResponse>> createAdmin(
+            @Valid @RequestBody ReservaRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.ejecutar("reservas.register.admin", idempotencyKey, request, ReservaResponse.class, () -> {
+            try {
+                ReservaResponse reservaResponse = reservaService.createAdmin(request);
+                return ResponseEntity.status(HttpStatus.CREATED).body(
+                        ApiResponse.<ReservaResponse>builder()
+                                .code(201)
+                                .success(true)
+                                .message("Reserva creada exitosamente por admin")
+                                .data(reservaResponse)
+                                .build()
+                );
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
+                        ApiResponse.<ReservaResponse>builder()
+                                .code(400)
+                                .success(false)
+                                .message("Error al crear la reserva por admin: " + e.getMessage())
+                                .build()
+                );
+            }
+        });
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,56 @@
+package com.barberia.dto.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Estadísticas de la caché de segundo nivel de Hibernate (desde que arrancó el nodo)
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheEstadisticasResponse {
+
+    /** false si hibernate.generate_statistics está apagado (todos los contadores en 0) */
+    private boolean estadisticasHabilitadas;
+
+    /** Totales de todas las regiones de entidades y colecciones */
+    private ContadoresCache segundoNivel;
+
+    /** Caché de consultas (@QueryHints cacheable) */
+    private ContadoresCache consultas;
+
+    /** Detalle por región (negocios, servicios, roles_permisos, ...) */
+    private List<RegionEstadistica> regiones;
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ContadoresCache {
+        private long aciertos;
+        private long fallos;
+        private long escrituras;
+        /** aciertos / (aciertos + fallos), 0 si no hubo lecturas */
+        private double tasaAciertos;
+    }
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RegionEstadistica {
+        private String region;
+        private long aciertos;
+        private long fallos;
+        private long escrituras;
+        private double tasaAciertos;
+        /** Entradas en memoria (-1 si el proveedor no lo informa) */
+        private long elementos;
+    }
+}
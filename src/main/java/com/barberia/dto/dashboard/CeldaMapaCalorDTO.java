@@ -0,0 +1,31 @@
+package com.barberia.dto.dashboard;
+
+import com.barberia.models.enums.DiaSemana;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Una celda del mapa de calor: día de la semana + hora (0-23).
+ * Solo se envían las celdas con horario (capacidad > 0).
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CeldaMapaCalorDTO {
+
+    private DiaSemana diaSemana;
+
+    private Integer hora;
+
+    private Long capacidadMinutos;
+
+    private Long ocupadosMinutos;
+
+    /** ocupados / capacidad en porcentaje */
+    private BigDecimal saturacion;
+}
@@ -0,0 +1,33 @@
+package com.barberia.dto.dashboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Resultado de DashboardRepository.compararPeriodos: los números del período actual
+ * y del anterior, calculados en una sola pasada sobre las reservas.
+ *
+ * reservas e ingreso excluyen canceladas; cancelaciones cuenta solo las canceladas.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ComparativaPeriodosDTO {
+
+    private Long reservasActual;
+
+    private Long reservasAnterior;
+
+    private Long cancelacionesActual;
+
+    private Long cancelacionesAnterior;
+
+    private BigDecimal ingresoActual;
+
+    private BigDecimal ingresoAnterior;
+}
@@ -0,0 +1,30 @@
+package com.barberia.dto.dashboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Un punto de una serie temporal: totales de una cubeta (día, semana o mes).
+ *
+ * reservas e ingreso excluyen canceladas; cancelaciones cuenta solo las canceladas.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PuntoSerieDTO {
+
+    /** Primer día de la cubeta (el día, el lunes de la semana o el día 1 del mes) */
+    private LocalDate inicio;
+
+    private Long reservas;
+
+    private Long cancelaciones;
+
+    private BigDecimal ingreso;
+}
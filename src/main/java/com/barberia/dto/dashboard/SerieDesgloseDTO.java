@@ -0,0 +1,26 @@
+package com.barberia.dto.dashboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Serie de un profesional o servicio cuando se pide desglose.
+ * Tiene los mismos puntos (misma cantidad y mismas cubetas) que la serie total.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SerieDesgloseDTO {
+
+    /** Id del profesional o servicio (0 = reservas sin profesional) */
+    private Long id;
+
+    private String nombre;
+
+    private List<PuntoSerieDTO> puntos;
+}
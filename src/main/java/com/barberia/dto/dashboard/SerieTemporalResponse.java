@@ -0,0 +1,37 @@
+package com.barberia.dto.dashboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Respuesta de GET /api/dashboard/series.
+ *
+ * granularidad es la usada realmente ("dia", "semana" o "mes"); con "auto" se elige
+ * según el largo del rango. Las cubetas sin reservas vienen con ceros.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SerieTemporalResponse {
+
+    private LocalDate desde;
+
+    private LocalDate hasta;
+
+    private String granularidad;
+
+    /** null, "profesional" o "servicio" */
+    private String desglose;
+
+    /** Totales del negocio */
+    private List<PuntoSerieDTO> puntos;
+
+    /** Una serie por profesional o servicio (vacío si no se pidió desglose) */
+    private List<SerieDesgloseDTO> series;
+}
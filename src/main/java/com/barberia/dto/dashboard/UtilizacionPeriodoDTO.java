@@ -0,0 +1,28 @@
+package com.barberia.dto.dashboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Utilización de un profesional en un día o semana.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UtilizacionPeriodoDTO {
+
+    /** El día, o el lunes de la semana */
+    private LocalDate inicio;
+
+    private Long capacidadMinutos;
+
+    private Long ocupadosMinutos;
+
+    private BigDecimal utilizacion;
+}
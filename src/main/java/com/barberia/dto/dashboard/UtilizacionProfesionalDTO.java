@@ -0,0 +1,42 @@
+package com.barberia.dto.dashboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Utilización de un profesional en el rango, con detalle por día o semana.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UtilizacionProfesionalDTO {
+
+    private Long profesionalId;
+
+    private String nombre;
+
+    private Long capacidadMinutos;
+
+    private Long ocupadosMinutos;
+
+    /** Minutos de horario sin reservas */
+    private Long libresMinutos;
+
+    private BigDecimal utilizacion;
+
+    /** Huecos libres de al menos analitica.utilizacion.hueco-minimo-minutos */
+    private Long huecos;
+
+    private Long huecoMaximoMinutos;
+
+    /** Minutos reservados fuera del horario (no cuentan en la utilización) */
+    private Long fueraDeHorarioMinutos;
+
+    private List<UtilizacionPeriodoDTO> periodos;
+}
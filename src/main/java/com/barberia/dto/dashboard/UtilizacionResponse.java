@@ -0,0 +1,41 @@
+package com.barberia.dto.dashboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Respuesta de GET /api/dashboard/utilizacion.
+ *
+ * Utilización = minutos reservados dentro del horario / minutos de horario (capacidad).
+ * Los porcentajes van de 0 a 100 con un decimal.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UtilizacionResponse {
+
+    private LocalDate desde;
+
+    private LocalDate hasta;
+
+    /** Cubeta del detalle por profesional: "dia" o "semana" */
+    private String granularidad;
+
+    private Long capacidadMinutos;
+
+    private Long ocupadosMinutos;
+
+    private BigDecimal utilizacion;
+
+    private List<UtilizacionProfesionalDTO> profesionales;
+
+    /** Saturación por día de la semana y hora, de todo el negocio */
+    private List<CeldaMapaCalorDTO> mapaCalor;
+}
@@ -32,6 +32,14 @@ public class BusinessPublicResponse {
     private String logoUrl;
     private String heroImageUrl;
     private List<String> galeriaUrls;
+    /**
+     * srcset listos para <img srcset>: variantes redimensionadas + original.
+     * null mientras se generan o si la imagen no tiene variantes (usar la URL)
+     */
+    private String logoSrcset;
+    private String heroImageSrcset;
+    /** Galería con srcset, en el mismo orden que galeriaUrls */
+    private List<ImagenPublicaDto> galeria;
 
     // ====== COLORES (theming dinámico) ======
     private String colorPrimary;
@@ -88,6 +96,15 @@ public class BusinessPublicResponse {
         private String whatsapp;
     }
 
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ImagenPublicaDto {
+        private String url;
+        private String srcset;
+    }
+
     @Data
     @Builder
     @NoArgsConstructor
@@ -0,0 +1,23 @@
+package com.barberia.dto.plataforma;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Alta masiva de negocios (cadenas, migraciones)
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AprovisionamientoLoteRequest {
+
+    @NotEmpty(message = "Debe enviar al menos un negocio")
+    private List<@Valid NegocioAprovisionarRequest> negocios;
+}
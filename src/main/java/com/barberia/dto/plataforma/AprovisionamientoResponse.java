@@ -0,0 +1,38 @@
+package com.barberia.dto.plataforma;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resultado de un aprovisionamiento con sus tiempos (para medir el throughput de altas masivas)
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AprovisionamientoResponse {
+
+    private List<NegocioAprovisionadoDTO> negocios;
+
+    private Integer cantidad;
+
+    // Transacciones usadas (una por cada aprovisionamiento.tamano-lote negocios)
+    private Integer lotes;
+
+    // Filas insertadas en total (negocios, usuarios, roles, configuración, horarios)
+    private Long filas;
+
+    // Tiempo cifrando contraseñas (fuera de la transacción)
+    private Long hashMs;
+
+    // Tiempo dentro de las transacciones de inserción
+    private Long insercionMs;
+
+    private Long totalMs;
+
+    private Double negociosPorSegundo;
+}
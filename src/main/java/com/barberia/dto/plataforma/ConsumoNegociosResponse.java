@@ -0,0 +1,32 @@
+package com.barberia.dto.plataforma;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reporte de negocios ruidosos: los que más recursos consumieron desde "desde".
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConsumoNegociosResponse {
+
+    private LocalDateTime desde;
+
+    /** peticiones, bd, filas o bytes */
+    private String orden;
+
+    private Integer negocios;
+
+    private Long peticiones;
+
+    private Long tiempoBdMs;
+
+    private List<NegocioConsumoDTO> top;
+}
@@ -0,0 +1,38 @@
+package com.barberia.dto.plataforma;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Totales de todos los negocios en un mes.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MetricaMensualPlataformaDTO {
+
+    /** Día 1 del mes */
+    private LocalDate mes;
+
+    private Long reservas;
+
+    private Long cancelaciones;
+
+    private BigDecimal ingreso;
+
+    private Long clientesNuevos;
+
+    /** Negocios con al menos una reserva en el mes */
+    private Long negociosActivos;
+
+    /** % frente al mes anterior (null si el anterior fue 0) */
+    private BigDecimal crecimientoReservas;
+
+    private BigDecimal crecimientoIngreso;
+}
@@ -0,0 +1,26 @@
+package com.barberia.dto.plataforma;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Negocio creado por el aprovisionamiento
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class NegocioAprovisionadoDTO {
+
+    private Long negocioId;
+
+    private String nombre;
+
+    private String slug;
+
+    private Long adminUsuarioId;
+
+    private String adminEmail;
+}
@@ -0,0 +1,59 @@
+package com.barberia.dto.plataforma;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Un negocio a dar de alta con su usuario administrador.
+ * Configuración de reservas y horarios salen de la plantilla (aprovisionamiento.plantilla).
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class NegocioAprovisionarRequest {
+
+    @NotBlank(message = "El nombre del negocio es obligatorio")
+    @Size(max = 100, message = "El nombre no puede exceder 100 caracteres")
+    private String nombre;
+
+    // Opcional: si no viene se genera del nombre (con sufijo si ya existe)
+    @Size(max = 100, message = "El slug no puede exceder 100 caracteres")
+    private String slug;
+
+    @Size(max = 20, message = "El RUC no puede exceder 20 caracteres")
+    private String ruc;
+
+    @Size(max = 200, message = "La dirección no puede exceder 200 caracteres")
+    private String direccion;
+
+    @Size(max = 100, message = "La ciudad no puede exceder 100 caracteres")
+    private String ciudad;
+
+    @Size(max = 20, message = "El teléfono no puede exceder 20 caracteres")
+    private String telefono;
+
+    @Email(message = "El email debe ser válido")
+    @Size(max = 100, message = "El email no puede exceder 100 caracteres")
+    private String email;
+
+    @NotBlank(message = "El nombre del administrador es obligatorio")
+    @Size(max = 50, message = "El nombre del administrador no puede exceder 50 caracteres")
+    private String adminNombre;
+
+    @NotBlank(message = "El email del administrador es obligatorio")
+    @Email(message = "El email del administrador debe ser válido")
+    @Size(max = 100, message = "El email del administrador no puede exceder 100 caracteres")
+    private String adminEmail;
+
+    @NotBlank(message = "La contraseña del administrador es obligatoria")
+    @Size(min = 6, max = 72, message = "La contraseña debe tener entre 6 y 72 caracteres")
+    private String adminPassword;
+}
@@ -0,0 +1,36 @@
+package com.barberia.dto.plataforma;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Consumo de recursos de un negocio en la ventana del reporte.
+ * negocioId null = peticiones sin negocio (públicas, login, anónimas).
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class NegocioConsumoDTO {
+
+    private Long negocioId;
+
+    private String nombre;
+
+    private Long peticiones;
+
+    private Long sentencias;
+
+    private Long tiempoBdMs;
+
+    private Long filas;
+
+    private Long bytes;
+
+    /** Parte del tiempo de BD de toda la plataforma (0-100) */
+    private Double porcentajeBd;
+
+    private Double tiempoBdMsPorPeticion;
+}
@@ -0,0 +1,26 @@
+package com.barberia.dto.plataforma;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Un negocio del ranking de la plataforma.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class NegocioDestacadoDTO {
+
+    private Long negocioId;
+
+    private String nombre;
+
+    private Long reservas;
+
+    private BigDecimal ingreso;
+}
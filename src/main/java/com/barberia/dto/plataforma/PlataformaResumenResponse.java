@@ -0,0 +1,30 @@
+package com.barberia.dto.plataforma;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Respuesta de GET /api/plataforma/resumen (super admin).
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PlataformaResumenResponse {
+
+    private Long negociosRegistrados;
+
+    /** Un elemento por mes, del más antiguo al actual */
+    private List<MetricaMensualPlataformaDTO> meses;
+
+    /** Negocios con más ingreso en el mes actual */
+    private List<NegocioDestacadoDTO> negociosDestacados;
+
+    /** Última vez que se actualizó el rollup */
+    private LocalDateTime actualizadoEn;
+}
@@ -7,6 +7,8 @@ import com.barberia.models.enums.EstadoReserva;
 
 import org.springframework.stereotype.Component;
 
+import java.util.function.Function;
+
 
 
 @Component// sirve para que spring lo detecte como un bean es decir un componente gestionado por el contenedor de spring
@@ -32,6 +34,14 @@ public class ReservaMapper {
     }
 
     public ReservaResponse toResponse(Reserva reserva) {
+        return toResponse(reserva, null);
+    }
+
+    /**
+     * Igual que toResponse(reserva), pero toma los nombres de servicio de una fuente en memoria
+     * (el catálogo en caché) para no inicializar cada Servicio cuando es una referencia perezosa.
+     */
+    public ReservaResponse toResponse(Reserva reserva, Function<Long, String> nombreServicio) {
         ReservaResponse response = new ReservaResponse();
         
         // Datos básicos
@@ -66,8 +76,10 @@ public class ReservaMapper {
                 reserva.getServicios().stream()
                     .map(rs -> {
                         ReservaResponse.ServicioReservaDTO dto = new ReservaResponse.ServicioReservaDTO();
-                        dto.setServicioId(rs.getServicio().getId());
-                        dto.setServicioNombre(rs.getServicio().getNombre());
+                        Long servicioId = rs.getServicio().getId();
+                        String nombre = nombreServicio != null ? nombreServicio.apply(servicioId) : null;
+                        dto.setServicioId(servicioId);
+                        dto.setServicioNombre(nombre != null ? nombre : rs.getServicio().getNombre());
                         dto.setDuracionMinutos(rs.getDuracionMinutos());
                         dto.setPrecio(rs.getPrecio());
                         return dto;
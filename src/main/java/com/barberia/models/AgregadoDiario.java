@@ -0,0 +1,75 @@
+package com.barberia.models;
+
+import com.barberia.models.enums.DimensionAgregado;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Totales de reservas de UN día, por profesional o por servicio.
+ *
+ * Es la base de las series temporales del dashboard: en vez de recorrer miles de
+ * reservas para un rango de varios años, se suman estas filas (una por día y referencia).
+ *
+ * - dimension = PROFESIONAL: una fila por profesional; reservas/cancelaciones cuentan
+ *   reservas y el ingreso es precio_total. La suma de estas filas es el total del negocio.
+ * - dimension = SERVICIO: una fila por servicio; cuentan líneas de reserva_servicios
+ *   y el ingreso es el precio de cada línea.
+ *
+ * semana (lunes) y mes (día 1) se guardan ya calculados para agrupar por columna
+ * sin funciones de fecha propias de cada motor.
+ *
+ * La mantiene AgregadosDiariosService; no se edita desde la API.
+ */
+@Entity
+@Table(name = "reserva_agregados_diarios",
+        uniqueConstraints = @UniqueConstraint(name = "uk_agregado_dia",
+                columnNames = {"negocio_id", "dimension", "fecha", "referencia_id"}),
+        indexes = {
+                @Index(name = "idx_agregado_negocio_semana", columnList = "negocio_id, dimension, semana"),
+                @Index(name = "idx_agregado_negocio_mes", columnList = "negocio_id, dimension, mes")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgregadoDiario {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "negocio_id", nullable = false)
+    private Long negocioId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private DimensionAgregado dimension;
+
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    @Column(nullable = false)
+    private LocalDate semana;
+
+    @Column(nullable = false)
+    private LocalDate mes;
+
+    /** Id del profesional o del servicio según la dimensión */
+    @Column(name = "referencia_id", nullable = false)
+    private Long referenciaId;
+
+    @Column(nullable = false)
+    private Long reservas;
+
+    @Column(nullable = false)
+    private Long cancelaciones;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal ingreso;
+}
@@ -0,0 +1,68 @@
+package com.barberia.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Archivo subido guardado por contenido ("/uploads/galeria/{sha256}.jpg").
+ *
+ * Varios registros (logos, galería, fotos) de uno o varios negocios pueden apuntar al mismo
+ * archivo; 'referencias' cuenta cuántos lo usan. Con 0 referencias por más de
+ * archivos.limpieza.gracia-horas, LimpiezaArchivosService borra el archivo y la fila.
+ *
+ * Los archivos anteriores (nombre UUID) no tienen fila y se borran directamente.
+ */
+@Entity
+@Table(name = "archivos_subidos",
+        uniqueConstraints = @UniqueConstraint(name = "uk_archivos_subidos_url", columnNames = "url"),
+        indexes = @Index(name = "idx_archivos_subidos_referencias", columnList = "referencias, updated_at"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivoSubido {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * URL relativa (ej: "/uploads/logos/9f86d0...0f00a08.png")
+     */
+    @Column(nullable = false, length = 255)
+    private String url;
+
+    /**
+     * SHA-256 del contenido en hexadecimal
+     */
+    @Column(nullable = false, length = 64)
+    private String hash;
+
+    @Column(nullable = false)
+    private Long tamano;
+
+    @Column(nullable = false)
+    private Integer referencias;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Último cambio de referencias (la limpieza espera la gracia desde acá)
+     */
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (updatedAt == null) {
+            updatedAt = createdAt;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.barberia.models;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.LastModifiedBy;
@@ -14,6 +16,8 @@ import java.util.List;
 @Data//esto es para generar los metodos get y set
 @Entity//esto es para indicar que es una entidad de base de datos
 @Table(name = "categorias")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "categorias")
 @EntityListeners({AuditingEntityListener.class, com.barberia.config.NegocioEntityListener.class})//esto es para auditar quien creo o modifico el registro
 public class Categoria {
     @Id
@@ -56,6 +60,7 @@ public class Categoria {
     private Negocio negocio;
 
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "categorias_servicios")
     @OneToMany(mappedBy = "categoria", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Servicio> servicios = new ArrayList<>();
 
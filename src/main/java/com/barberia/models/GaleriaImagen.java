@@ -42,6 +42,12 @@ public class GaleriaImagen {
     @Column(name = "imagen_url", nullable = false, length = 500)
     private String imagenUrl;
 
+    /**
+     * srcset con las variantes redimensionadas (ver ImagenVariantesService); null si no hay
+     */
+    @Column(length = 1000)
+    private String srcset;
+
     /**
      * Orden de visualización en la galería (menor = primero)
      */
@@ -3,6 +3,8 @@ package com.barberia.models;
 import com.barberia.models.enums.DiaSemana;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.LastModifiedBy;
@@ -13,6 +15,8 @@ import java.time.LocalTime;
 @Data//esto es para generar los metodos get y set
 @Entity//esto es para indicar que es una entidad de base de datos
 @Table(name = "horarios_negocio")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "horarios_negocio")
 @EntityListeners({AuditingEntityListener.class})
 public class HorarioNegocio {
 
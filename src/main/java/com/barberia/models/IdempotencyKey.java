@@ -0,0 +1,81 @@
+package com.barberia.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro persistente de una clave de idempotencia (header Idempotency-Key).
+ *
+ * Solo se usa cuando idempotency.persistente=true (despliegues con varios nodos).
+ * En un solo nodo basta con el almacén en memoria de IdempotencyService.
+ *
+ * CICLO DE VIDA:
+ * - EN_PROCESO: un nodo reclamó la clave y está ejecutando la operación
+ * - COMPLETADA: la operación terminó con éxito y la respuesta quedó guardada para repetirla
+ * - Al vencer expiraEn la fila se elimina en la siguiente purga
+ */
+@Entity
+@Table(name = "idempotency_keys",
+        uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_scope_clave", columnNames = {"scope", "clave"}),
+        indexes = @Index(name = "idx_idempotency_expira", columnList = "expira_en"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyKey {
+
+    public static final String EN_PROCESO = "EN_PROCESO";
+    public static final String COMPLETADA = "COMPLETADA";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Operación + negocio + usuario. Ejemplo: "reservas.register:n5:u:cliente@mail.com"
+     * (anónimos: operación + IP + hash del cuerpo, ver IdempotencyService)
+     */
+    @Column(nullable = false, length = 200)
+    private String scope;
+
+    /**
+     * Valor recibido en el header Idempotency-Key
+     */
+    @Column(nullable = false, length = 100)
+    private String clave;
+
+    /**
+     * SHA-256 del cuerpo de la petición; detecta reutilizar la clave con otro payload
+     */
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    @Column(nullable = false, length = 20)
+    private String estado;
+
+    @Column(name = "status_code")
+    private Integer statusCode;
+
+    /**
+     * Respuesta serializada en JSON (ApiResponse completo)
+     */
+    @Lob
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expira_en", nullable = false)
+    private LocalDateTime expiraEn;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,56 @@
+package com.barberia.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Resumen mensual de UN negocio para la analítica de plataforma (super admin).
+ *
+ * Es la tabla de rollup: las consultas globales (reservas por negocio, ingreso,
+ * negocios activos, crecimiento) suman estas filas en vez de recorrer las reservas
+ * de todos los negocios. La mantiene PlataformaAnaliticaService.
+ */
+@Entity
+@Table(name = "plataforma_metricas_mensuales",
+        uniqueConstraints = @UniqueConstraint(name = "uk_metrica_negocio_mes", columnNames = {"negocio_id", "mes"}),
+        indexes = @Index(name = "idx_metrica_mes", columnList = "mes"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricaPlataformaMensual {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "negocio_id", nullable = false)
+    private Long negocioId;
+
+    /** Día 1 del mes */
+    @Column(nullable = false)
+    private LocalDate mes;
+
+    /** Reservas no canceladas */
+    @Column(nullable = false)
+    private Long reservas;
+
+    @Column(nullable = false)
+    private Long cancelaciones;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal ingreso;
+
+    @Column(name = "clientes_nuevos", nullable = false)
+    private Long clientesNuevos;
+
+    @Column(name = "actualizado_en", nullable = false)
+    private LocalDateTime actualizadoEn;
+}
@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
@@ -32,6 +34,8 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "negocios")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "negocios")
 @Data
 @Builder
 @NoArgsConstructor
@@ -141,6 +145,17 @@ public class Negocio {
     @Column(name = "hero_image_url", length = 500)
     private String heroImageUrl;
 
+    /**
+     * srcset con las variantes redimensionadas del logo y del hero
+     * (ej: "/uploads/hero/uuid-w320.jpg 320w, ..., /uploads/hero/uuid.jpg 2400w").
+     * Los genera ImagenVariantesService en segundo plano; null mientras tanto o si no aplica.
+     */
+    @Column(name = "logo_srcset", length = 1000)
+    private String logoSrcset;
+
+    @Column(name = "hero_image_srcset", length = 1000)
+    private String heroImageSrcset;
+
     // ====== REDES SOCIALES ======
 
     @Column(length = 255)
@@ -0,0 +1,123 @@
+package com.barberia.models;
+
+import com.barberia.models.enums.EstadoReserva;
+import com.barberia.models.enums.TipoEventoReserva;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Evento de reserva pendiente de publicar (patrón "transactional outbox").
+ *
+ * Se inserta en la MISMA transacción que el cambio de la Reserva: si la reserva se guarda,
+ * el evento también; si hay rollback, ninguno de los dos existe.
+ * Después, OutboxRelay lo lee en lotes y lo entrega a los ReservaEventoListener.
+ *
+ * ESTADOS:
+ * - PENDIENTE: aún no se entregó (o falló y se reintentará)
+ * - PROCESADO: todos los listeners lo recibieron sin error
+ * - FALLIDO: superó el máximo de intentos; queda para revisión manual
+ *
+ * Guarda una copia de los datos de la reserva en ese momento, así los listeners
+ * no necesitan volver a consultar la tabla reservas.
+ */
+@Entity
+@Table(name = "reserva_outbox",
+        indexes = {
+                @Index(name = "idx_outbox_estado_id", columnList = "estado, id"),
+                @Index(name = "idx_outbox_procesado_en", columnList = "procesado_en")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvento {
+
+    public static final String PENDIENTE = "PENDIENTE";
+    public static final String PROCESADO = "PROCESADO";
+    public static final String FALLIDO = "FALLIDO";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TipoEventoReserva tipo;
+
+    @Column(name = "negocio_id")
+    private Long negocioId;
+
+    @Column(name = "reserva_id", nullable = false)
+    private Long reservaId;
+
+    /**
+     * Clave de orden: los eventos de un mismo profesional se entregan en orden de id
+     */
+    @Column(name = "profesional_id")
+    private Long profesionalId;
+
+    /**
+     * Profesional que tenía la reserva antes de este cambio, solo si cambió. El evento
+     * se ordena también con los de ese profesional (ver OutboxRelay)
+     */
+    @Column(name = "profesional_anterior_id")
+    private Long profesionalAnteriorId;
+
+    @Column(name = "cliente_id")
+    private Long clienteId;
+
+    private LocalDate fecha;
+
+    /**
+     * Fecha que tenía la reserva antes de este cambio, solo si cambió (reprogramación)
+     */
+    @Column(name = "fecha_anterior")
+    private LocalDate fechaAnterior;
+
+    @Column(name = "hora_inicio")
+    private LocalTime horaInicio;
+
+    @Column(name = "hora_fin")
+    private LocalTime horaFin;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado_reserva", length = 20)
+    private EstadoReserva estadoReserva;
+
+    @Column(name = "precio_total", precision = 10, scale = 2)
+    private BigDecimal precioTotal;
+
+    @Column(nullable = false, length = 20)
+    private String estado;
+
+    @Column(nullable = false)
+    private Integer intentos;
+
+    @Column(name = "ultimo_error", length = 500)
+    private String ultimoError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "procesado_en")
+    private LocalDateTime procesadoEn;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (estado == null) {
+            estado = PENDIENTE;
+        }
+        if (intentos == null) {
+            intentos = 0;
+        }
+    }
+}
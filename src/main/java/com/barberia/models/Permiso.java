@@ -3,6 +3,8 @@ package com.barberia.models;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
@@ -15,6 +17,8 @@ import java.util.Set;
 @AllArgsConstructor
 @Entity
 @Table(name = "permisos")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "permisos")
 public class Permiso {
 
 
@@ -2,6 +2,8 @@ package com.barberia.models;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.LastModifiedBy;
@@ -13,6 +15,8 @@ import java.time.LocalDateTime;
 @Data//esto es para generar los metodos get y set
 @Entity
 @Table(name = "profesionales")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "profesionales")
 @EntityListeners({AuditingEntityListener.class, com.barberia.config.NegocioEntityListener.class})
 public class Profesional {
     @Id
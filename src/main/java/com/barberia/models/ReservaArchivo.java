@@ -0,0 +1,120 @@
+package com.barberia.models;
+
+import com.barberia.models.enums.EstadoReserva;
+import com.barberia.models.enums.TipoReserva;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reserva histórica movida desde la tabla caliente "reservas".
+ *
+ * Misma estructura (y mismo id) que Reserva, más la fecha de archivado.
+ * La llena ReservaArchivoService con INSERT ... SELECT; la aplicación solo la lee.
+ *
+ * POR QUÉ: las validaciones de cruce, la disponibilidad y el dashboard solo miran
+ * fechas recientes y futuras; con el histórico aparte, sus índices se mantienen chicos.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "reservas_archivo",
+        indexes = @Index(name = "idx_reservas_archivo_negocio_fecha", columnList = "negocio_id, fecha"))
+public class ReservaArchivo {
+
+    @Id
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "negocio_id")
+    private Negocio negocio;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "profesional_id")
+    private Profesional profesional;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "cliente_id")
+    private Cliente cliente;
+
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    @Column(nullable = false)
+    private LocalTime horaInicio;
+
+    @Column(nullable = false)
+    private LocalTime horaFin;
+
+    @Enumerated(EnumType.STRING)
+    private EstadoReserva estado;
+
+    @Enumerated(EnumType.STRING)
+    private TipoReserva tipo;
+
+    @OneToMany(mappedBy = "reserva")
+    private List<ReservaServicioArchivo> servicios = new ArrayList<>();
+
+    @Column(nullable = false)
+    private Integer duracionTotalMinutos;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal precioTotal;
+
+    @Column(name = "reg_estado", nullable = false)
+    private Integer regEstado;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_registro")
+    private Usuario usuarioRegistroId;
+
+    @Column(name = "archivado_en", nullable = false)
+    private LocalDateTime archivadoEn;
+
+    /**
+     * Copia de solo lectura como Reserva (NO se persiste), para reutilizar ReservaMapper
+     */
+    public Reserva toReserva() {
+        Reserva reserva = new Reserva();
+        reserva.setId(id);
+        reserva.setNegocio(negocio);
+        reserva.setProfesional(profesional);
+        reserva.setCliente(cliente);
+        reserva.setFecha(fecha);
+        reserva.setHoraInicio(horaInicio);
+        reserva.setHoraFin(horaFin);
+        reserva.setEstado(estado);
+        reserva.setTipo(tipo);
+        reserva.setDuracionTotalMinutos(duracionTotalMinutos);
+        reserva.setPrecioTotal(precioTotal);
+        reserva.setRegEstado(regEstado);
+        reserva.setCreatedAt(createdAt);
+        reserva.setUpdatedAt(updatedAt);
+        reserva.setUsuarioRegistroId(usuarioRegistroId);
+        for (ReservaServicioArchivo archivado : servicios) {
+            ReservaServicio rs = new ReservaServicio();
+            rs.setId(archivado.getId());
+            rs.setReserva(reserva);
+            rs.setServicio(archivado.getServicio());
+            rs.setDuracionMinutos(archivado.getDuracionMinutos());
+            rs.setPrecio(archivado.getPrecio());
+            reserva.getServicios().add(rs);
+        }
+        return reserva;
+    }
+}
@@ -0,0 +1,32 @@
+package com.barberia.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Servicio de una reserva archivada (copia de reserva_servicios, ver ReservaArchivo)
+ */
+@Data
+@Entity
+@Table(name = "reserva_servicios_archivo")
+public class ReservaServicioArchivo {
+
+    @Id
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "reserva_id")
+    private ReservaArchivo reserva;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "servicio_id")
+    private Servicio servicio;
+
+    @Column(nullable = false)
+    private Integer duracionMinutos;
+
+    @Column(nullable = false)
+    private BigDecimal precio;
+}
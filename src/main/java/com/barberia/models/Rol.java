@@ -3,6 +3,8 @@ package com.barberia.models;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
@@ -15,6 +17,8 @@ import java.util.Set;
 @AllArgsConstructor
 @Entity
 @Table(name = "roles")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "roles")
 public class Rol {
 
     @Id
@@ -47,12 +51,15 @@ public class Rol {
      * Role USER podría tener: READ_CLIENTS
      */
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "roles_permisos")
     @ManyToMany(fetch = FetchType.EAGER, cascade = CascadeType.MERGE)
     @JoinTable(
             name = "role_permissions",
             joinColumns = @JoinColumn(name = "rol_id"),
             inverseJoinColumns = @JoinColumn(name = "permiso_id")
     )
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @Builder.Default
     private Set<Permiso> permissions = new HashSet<>();
 
@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.LastModifiedBy;
@@ -15,6 +17,8 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "servicios")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "servicios")
 @EntityListeners({AuditingEntityListener.class, com.barberia.config.NegocioEntityListener.class})
 @Data
 @Builder
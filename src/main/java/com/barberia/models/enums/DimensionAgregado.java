@@ -0,0 +1,9 @@
+package com.barberia.models.enums;
+
+/**
+ * Por qué se agrupa una fila de AgregadoDiario
+ */
+public enum DimensionAgregado {
+    PROFESIONAL,
+    SERVICIO
+}
@@ -0,0 +1,8 @@
+package com.barberia.models.enums;
+
+public enum TipoEventoReserva {
+    CREADA,      // nueva reserva (cliente o interna)
+    ACTUALIZADA, // cambio de fecha, hora, profesional o servicios
+    CANCELADA,   // estado pasó a CANCELADA
+    ELIMINADA    // eliminación lógica (regEstado = 0)
+}
@@ -0,0 +1,124 @@
+package com.barberia.repositories;
+
+import com.barberia.models.AgregadoDiario;
+import com.barberia.models.enums.DimensionAgregado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repositorio de los agregados diarios de reservas (series temporales).
+ *
+ * Tiene dos grupos de consultas:
+ * - ORIGEN: agrupan reservas (tabla caliente y archivo) por día para recalcular agregados
+ * - SERIE: suman agregados por día, semana o mes para un rango
+ */
+public interface AgregadoDiarioRepository extends JpaRepository<AgregadoDiario, Long> {
+
+    @Modifying
+    @Query("DELETE FROM AgregadoDiario a WHERE a.negocioId = :negocioId AND a.fecha BETWEEN :desde AND :hasta")
+    int deleteByNegocioIdAndRango(@Param("negocioId") Long negocioId,
+                                  @Param("desde") LocalDate desde,
+                                  @Param("hasta") LocalDate hasta);
+
+    // ========== ORIGEN: reservas agrupadas por día ==========
+    // Retornan [fecha, referenciaId, reservas, cancelaciones, ingreso]
+    // (referenciaId null = reserva sin profesional asignado)
+
+    @Query("SELECT r.fecha, p.id, " +
+            "SUM(CASE WHEN r.estado <> 'CANCELADA' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN r.estado = 'CANCELADA' THEN 1 ELSE 0 END), " +
+            "COALESCE(SUM(CASE WHEN r.estado <> 'CANCELADA' THEN r.precioTotal ELSE 0 END), 0) " +
+            "FROM Reserva r LEFT JOIN r.profesional p " +
+            "WHERE r.negocio.id = :negocioId " +
+            "AND r.fecha BETWEEN :desde AND :hasta " +
+            "AND r.regEstado <> 0 " +
+            "GROUP BY r.fecha, p.id")
+    List<Object[]> agruparPorProfesional(@Param("negocioId") Long negocioId,
+                                         @Param("desde") LocalDate desde,
+                                         @Param("hasta") LocalDate hasta);
+
+    @Query("SELECT r.fecha, p.id, " +
+            "SUM(CASE WHEN r.estado <> 'CANCELADA' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN r.estado = 'CANCELADA' THEN 1 ELSE 0 END), " +
+            "COALESCE(SUM(CASE WHEN r.estado <> 'CANCELADA' THEN r.precioTotal ELSE 0 END), 0) " +
+            "FROM ReservaArchivo r LEFT JOIN r.profesional p " +
+            "WHERE r.negocio.id = :negocioId " +
+            "AND r.fecha BETWEEN :desde AND :hasta " +
+            "AND r.regEstado <> 0 " +
+            "GROUP BY r.fecha, p.id")
+    List<Object[]> agruparArchivoPorProfesional(@Param("negocioId") Long negocioId,
+                                                @Param("desde") LocalDate desde,
+                                                @Param("hasta") LocalDate hasta);
+
+    @Query("SELECT r.fecha, rs.servicio.id, " +
+            "SUM(CASE WHEN r.estado <> 'CANCELADA' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN r.estado = 'CANCELADA' THEN 1 ELSE 0 END), " +
+            "COALESCE(SUM(CASE WHEN r.estado <> 'CANCELADA' THEN rs.precio ELSE 0 END), 0) " +
+            "FROM ReservaServicio rs JOIN rs.reserva r " +
+            "WHERE r.negocio.id = :negocioId " +
+            "AND r.fecha BETWEEN :desde AND :hasta " +
+            "AND r.regEstado <> 0 " +
+            "GROUP BY r.fecha, rs.servicio.id")
+    List<Object[]> agruparPorServicio(@Param("negocioId") Long negocioId,
+                                      @Param("desde") LocalDate desde,
+                                      @Param("hasta") LocalDate hasta);
+
+    @Query("SELECT r.fecha, rs.servicio.id, " +
+            "SUM(CASE WHEN r.estado <> 'CANCELADA' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN r.estado = 'CANCELADA' THEN 1 ELSE 0 END), " +
+            "COALESCE(SUM(CASE WHEN r.estado <> 'CANCELADA' THEN rs.precio ELSE 0 END), 0) " +
+            "FROM ReservaServicioArchivo rs JOIN rs.reserva r " +
+            "WHERE r.negocio.id = :negocioId " +
+            "AND r.fecha BETWEEN :desde AND :hasta " +
+            "AND r.regEstado <> 0 " +
+            "GROUP BY r.fecha, rs.servicio.id")
+    List<Object[]> agruparArchivoPorServicio(@Param("negocioId") Long negocioId,
+                                             @Param("desde") LocalDate desde,
+                                             @Param("hasta") LocalDate hasta);
+
+    /** Primera y última fecha con reservas del negocio (tabla caliente). Retorna [min, max] */
+    @Query("SELECT MIN(r.fecha), MAX(r.fecha) FROM Reserva r WHERE r.negocio.id = :negocioId")
+    List<Object[]> rangoReservas(@Param("negocioId") Long negocioId);
+
+    /** Primera fecha archivada del negocio (null si no hay archivo) */
+    @Query("SELECT MIN(r.fecha) FROM ReservaArchivo r WHERE r.negocio.id = :negocioId")
+    LocalDate primeraFechaArchivada(@Param("negocioId") Long negocioId);
+
+    // ========== SERIE: agregados sumados por cubeta ==========
+    // Retornan [inicioCubeta, referenciaId, reservas, cancelaciones, ingreso]
+
+    @Query("SELECT a.fecha, a.referenciaId, SUM(a.reservas), SUM(a.cancelaciones), SUM(a.ingreso) " +
+            "FROM AgregadoDiario a " +
+            "WHERE a.negocioId = :negocioId AND a.dimension = :dimension " +
+            "AND a.fecha BETWEEN :desde AND :hasta " +
+            "GROUP BY a.fecha, a.referenciaId")
+    List<Object[]> sumarPorDia(@Param("negocioId") Long negocioId,
+                               @Param("dimension") DimensionAgregado dimension,
+                               @Param("desde") LocalDate desde,
+                               @Param("hasta") LocalDate hasta);
+
+    @Query("SELECT a.semana, a.referenciaId, SUM(a.reservas), SUM(a.cancelaciones), SUM(a.ingreso) " +
+            "FROM AgregadoDiario a " +
+            "WHERE a.negocioId = :negocioId AND a.dimension = :dimension " +
+            "AND a.fecha BETWEEN :desde AND :hasta " +
+            "GROUP BY a.semana, a.referenciaId")
+    List<Object[]> sumarPorSemana(@Param("negocioId") Long negocioId,
+                                  @Param("dimension") DimensionAgregado dimension,
+                                  @Param("desde") LocalDate desde,
+                                  @Param("hasta") LocalDate hasta);
+
+    @Query("SELECT a.mes, a.referenciaId, SUM(a.reservas), SUM(a.cancelaciones), SUM(a.ingreso) " +
+            "FROM AgregadoDiario a " +
+            "WHERE a.negocioId = :negocioId AND a.dimension = :dimension " +
+            "AND a.fecha BETWEEN :desde AND :hasta " +
+            "GROUP BY a.mes, a.referenciaId")
+    List<Object[]> sumarPorMes(@Param("negocioId") Long negocioId,
+                               @Param("dimension") DimensionAgregado dimension,
+                               @Param("desde") LocalDate desde,
+                               @Param("hasta") LocalDate hasta);
+}
@@ -0,0 +1,269 @@
+package com.barberia.repositories;
+
+import com.barberia.models.enums.DiaSemana;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Inserciones por lotes para el alta de negocios (ver AprovisionamientoService).
+ *
+ * ¿POR QUÉ JDBC Y NO saveAll()?
+ * Las entidades usan IDENTITY y Hibernate desactiva el batching de INSERT con IDENTITY:
+ * saveAll() de 500 negocios son 500 viajes a la BD, y lo mismo para usuarios, roles,
+ * configuración y los horarios de cada día. Acá cada tabla es UN batch JDBC
+ * (con rewriteBatchedStatements=true, MySQL lo envía como INSERT multi-fila) y las
+ * claves generadas se leen del mismo batch, en el orden de las filas.
+ *
+ * Los valores por defecto que las entidades ponen en Java (colores, estado, timestamps)
+ * se replican acá; si se agrega un campo obligatorio a esas entidades hay que agregarlo aquí.
+ */
+@Repository
+public class AprovisionamientoRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public AprovisionamientoRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    public record FilaNegocio(String nombre, String slug, String ruc, String direccion,
+                              String ciudad, String telefono, String email) {
+    }
+
+    public record FilaUsuario(String nombre, String email, String passwordHash, Long negocioId) {
+    }
+
+    public record ConfiguracionInicial(Integer anticipacionHoras, Integer anticipacionMaximaDias,
+                                       boolean permiteMismoDia, Integer intervaloTurnosMinutos,
+                                       Integer anticipacionMinimaHoras, boolean permiteCancelacion,
+                                       Integer horasMinimasCancelacion) {
+    }
+
+    public record HorarioInicial(DiaSemana dia, LocalTime horaInicio, LocalTime horaFin) {
+    }
+
+    // ========== VALIDACIÓN (una consulta por columna, no una por negocio) ==========
+
+    public Set<String> emailsExistentes(Collection<String> emails) {
+        return existentes("SELECT email FROM usuarios WHERE email IN (:valores)", emails);
+    }
+
+    public Set<String> slugsExistentes(Collection<String> slugs) {
+        return existentes("SELECT slug FROM negocios WHERE slug IN (:valores)", slugs);
+    }
+
+    /**
+     * Slugs que empiezan con el prefijo (para elegir el sufijo -2, -3, ... de un slug repetido)
+     */
+    public Set<String> slugsConPrefijo(String prefijo) {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT slug FROM negocios WHERE slug LIKE ?", String.class, prefijo + "%"));
+    }
+
+    public Set<String> rucsExistentes(Collection<String> rucs) {
+        return existentes("SELECT ruc FROM negocios WHERE ruc IN (:valores)", rucs);
+    }
+
+    private Set<String> existentes(String sql, Collection<String> valores) {
+        if (valores.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> resultado = new HashSet<>();
+        // IN de a 1000 para no pasarse del límite de parámetros del driver
+        List<String> lista = new ArrayList<>(valores);
+        for (int i = 0; i < lista.size(); i += 1000) {
+            resultado.addAll(namedJdbcTemplate.queryForList(sql,
+                    new MapSqlParameterSource("valores", lista.subList(i, Math.min(i + 1000, lista.size()))),
+                    String.class));
+        }
+        return resultado;
+    }
+
+    public Long findRolIdByName(String nombre) {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM roles WHERE name = ?", Long.class, nombre);
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    // ========== INSERCIONES ==========
+
+    /**
+     * @return ids generados, en el mismo orden que las filas
+     */
+    public List<Long> insertarNegocios(List<FilaNegocio> filas, LocalDateTime ahora) {
+        String sql = "INSERT INTO negocios (nombre, slug, tipo_negocio, ruc, direccion, ciudad, telefono, email, " +
+                "estado, color_principal, color_secundario, color_acento, modo_mapa, configuracion_cerrada, " +
+                "created_at, updated_at) VALUES (?, ?, 'barberia', ?, ?, ?, ?, ?, TRUE, '#000000', '#1e293b', " +
+                "'#f59e0b', 'mapa', FALSE, ?, ?)";
+        Timestamp momento = Timestamp.valueOf(ahora);
+        return insertarConClaves(sql, filas.size(), (ps, i) -> {
+            FilaNegocio fila = filas.get(i);
+            ps.setString(1, fila.nombre());
+            ps.setString(2, fila.slug());
+            setStringONull(ps, 3, fila.ruc());
+            setStringONull(ps, 4, fila.direccion());
+            setStringONull(ps, 5, fila.ciudad());
+            setStringONull(ps, 6, fila.telefono());
+            setStringONull(ps, 7, fila.email());
+            ps.setTimestamp(8, momento);
+            ps.setTimestamp(9, momento);
+        });
+    }
+
+    /**
+     * @return ids generados, en el mismo orden que las filas
+     */
+    public List<Long> insertarUsuarios(List<FilaUsuario> filas, Long usuarioRegistroId, LocalDateTime ahora) {
+        String sql = "INSERT INTO usuarios (name, email, password, tipo_usuario, negocio_id, reg_estado, " +
+                "usuario_registro, created_at, updated_at) VALUES (?, ?, ?, 1, ?, 1, ?, ?, ?)";
+        Timestamp momento = Timestamp.valueOf(ahora);
+        return insertarConClaves(sql, filas.size(), (ps, i) -> {
+            FilaUsuario fila = filas.get(i);
+            ps.setString(1, fila.nombre());
+            ps.setString(2, fila.email());
+            ps.setString(3, fila.passwordHash());
+            ps.setLong(4, fila.negocioId());
+            setLongONull(ps, 5, usuarioRegistroId);
+            ps.setTimestamp(6, momento);
+            ps.setTimestamp(7, momento);
+        });
+    }
+
+    public int insertarRolesUsuario(List<Long> usuarioIds, Long rolId) {
+        return lote("INSERT INTO user_roles (usuario_id, rol_id) VALUES (?, ?)", usuarioIds.size(), (ps, i) -> {
+            ps.setLong(1, usuarioIds.get(i));
+            ps.setLong(2, rolId);
+        });
+    }
+
+    public int insertarConfiguraciones(List<Long> negocioIds, List<Long> usuarioRegistroIds,
+                                       ConfiguracionInicial configuracion, LocalDateTime ahora) {
+        String sql = "INSERT INTO configuracion_reservas (negocio_id, anticipacion_horas, anticipacion_maxima_dias, " +
+                "permite_mismo_dia, intervalo_turnos_minutos, anticipacion_minima_horas, permite_cancelacion, " +
+                "horas_minimas_cancelacion, reg_estado, usuario_registro, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 1, ?, ?, ?)";
+        Timestamp momento = Timestamp.valueOf(ahora);
+        return lote(sql, negocioIds.size(), (ps, i) -> {
+            ps.setLong(1, negocioIds.get(i));
+            setIntONull(ps, 2, configuracion.anticipacionHoras());
+            setIntONull(ps, 3, configuracion.anticipacionMaximaDias());
+            ps.setBoolean(4, configuracion.permiteMismoDia());
+            setIntONull(ps, 5, configuracion.intervaloTurnosMinutos());
+            setIntONull(ps, 6, configuracion.anticipacionMinimaHoras());
+            ps.setBoolean(7, configuracion.permiteCancelacion());
+            setIntONull(ps, 8, configuracion.horasMinimasCancelacion());
+            ps.setLong(9, usuarioRegistroIds.get(i));
+            ps.setTimestamp(10, momento);
+            ps.setTimestamp(11, momento);
+        });
+    }
+
+    /**
+     * Inserta los mismos horarios para cada negocio (negocios × horarios filas en un batch)
+     */
+    public int insertarHorarios(List<Long> negocioIds, List<Long> usuarioRegistroIds,
+                                List<HorarioInicial> horarios, LocalDateTime ahora) {
+        if (horarios.isEmpty()) {
+            return 0;
+        }
+        String sql = "INSERT INTO horarios_negocio (negocio_id, dia_semana, hora_inicio, hora_fin, reg_estado, " +
+                "usuario_registro, created_at, updated_at) VALUES (?, ?, ?, ?, 1, ?, ?, ?)";
+        Timestamp momento = Timestamp.valueOf(ahora);
+        int porNegocio = horarios.size();
+        return lote(sql, negocioIds.size() * porNegocio, (ps, i) -> {
+            int negocio = i / porNegocio;
+            HorarioInicial horario = horarios.get(i % porNegocio);
+            ps.setLong(1, negocioIds.get(negocio));
+            ps.setString(2, horario.dia().name());
+            ps.setObject(3, horario.horaInicio(), Types.TIME);
+            ps.setObject(4, horario.horaFin(), Types.TIME);
+            ps.setLong(5, usuarioRegistroIds.get(negocio));
+            ps.setTimestamp(6, momento);
+            ps.setTimestamp(7, momento);
+        });
+    }
+
+    // ========== AUXILIARES ==========
+
+    @FunctionalInterface
+    private interface Fila {
+        void cargar(PreparedStatement ps, int i) throws SQLException;
+    }
+
+    private int lote(String sql, int cantidad, Fila fila) {
+        if (cantidad == 0) {
+            return 0;
+        }
+        int[] resultados = jdbcTemplate.batchUpdate(sql, setter(cantidad, fila));
+        return resultados.length;
+    }
+
+    private List<Long> insertarConClaves(String sql, int cantidad, Fila fila) {
+        if (cantidad == 0) {
+            return List.of();
+        }
+        GeneratedKeyHolder claves = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(sql, new String[]{"id"}), setter(cantidad, fila), claves);
+        List<Map<String, Object>> filas = claves.getKeyList();
+        if (filas.size() != cantidad) {
+            throw new IllegalStateException("Se esperaban " + cantidad + " claves generadas y se obtuvieron " + filas.size());
+        }
+        List<Long> ids = new ArrayList<>(cantidad);
+        for (Map<String, Object> clave : filas) {
+            // MySQL devuelve GENERATED_KEY, H2 el nombre de la columna
+            ids.add(((Number) clave.values().iterator().next()).longValue());
+        }
+        return ids;
+    }
+
+    private static BatchPreparedStatementSetter setter(int cantidad, Fila fila) {
+        return new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                fila.cargar(ps, i);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return cantidad;
+            }
+        };
+    }
+
+    private static void setStringONull(PreparedStatement ps, int indice, String valor) throws SQLException {
+        if (valor == null || valor.isBlank()) {
+            ps.setNull(indice, Types.VARCHAR);
+        } else {
+            ps.setString(indice, valor);
+        }
+    }
+
+    private static void setIntONull(PreparedStatement ps, int indice, Integer valor) throws SQLException {
+        if (valor == null) {
+            ps.setNull(indice, Types.INTEGER);
+        } else {
+            ps.setInt(indice, valor);
+        }
+    }
+
+    private static void setLongONull(PreparedStatement ps, int indice, Long valor) throws SQLException {
+        if (valor == null) {
+            ps.setNull(indice, Types.BIGINT);
+        } else {
+            ps.setLong(indice, valor);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.barberia.repositories;
+
+import com.barberia.models.ArchivoSubido;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio de archivos subidos con conteo de referencias (ver FileStorageService)
+ */
+@Repository
+public interface ArchivoSubidoRepository extends JpaRepository<ArchivoSubido, Long> {
+
+    /**
+     * Suma una referencia; 0 si el archivo todavía no tiene fila
+     */
+    @Modifying
+    @Query("UPDATE ArchivoSubido a SET a.referencias = a.referencias + 1, a.updatedAt = :ahora WHERE a.url = :url")
+    int incrementarReferencias(@Param("url") String url, @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Resta una referencia (nunca baja de 0)
+     */
+    @Modifying
+    @Query("UPDATE ArchivoSubido a SET a.referencias = a.referencias - 1, a.updatedAt = :ahora " +
+            "WHERE a.url = :url AND a.referencias > 0")
+    int decrementarReferencias(@Param("url") String url, @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Archivos sin referencias desde antes del límite
+     */
+    @Query("SELECT a.id FROM ArchivoSubido a WHERE a.referencias = 0 AND a.updatedAt < :limite ORDER BY a.id")
+    List<Long> findIdsSinReferencias(@Param("limite") LocalDateTime limite, Pageable pageable);
+
+    /**
+     * Bloquea la fila si sigue sin referencias (un alta concurrente del mismo contenido espera
+     * a que termine la limpieza y luego vuelve a crear la fila y el archivo)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM ArchivoSubido a WHERE a.id = :id AND a.referencias = 0")
+    Optional<ArchivoSubido> bloquearSinReferencias(@Param("id") Long id);
+
+    boolean existsByUrl(String url);
+
+    /**
+     * Pone en 0 un contador que quedó alto (ver LimpiezaArchivosService.reconciliar): solo si
+     * no se tocó desde el límite, así una subida en curso del mismo contenido no se pierde
+     */
+    @Modifying
+    @Query("UPDATE ArchivoSubido a SET a.referencias = 0, a.updatedAt = :ahora " +
+            "WHERE a.url = :url AND a.referencias > 0 AND a.updatedAt < :limite")
+    int reiniciarReferencias(@Param("url") String url, @Param("ahora") LocalDateTime ahora,
+                             @Param("limite") LocalDateTime limite);
+
+    /**
+     * Todas las URLs de archivos que usan las entidades (logos, hero, og, servicios,
+     * profesionales, galería), sin importar estado ni negocio. Pueden venir URLs externas
+     * (ogImageUrl es texto libre): quien las use debe filtrarlas con AlmacenamientoArchivos.esPropia
+     */
+    @Query("SELECT n.logoUrl FROM Negocio n WHERE n.logoUrl IS NOT NULL " +
+            "UNION SELECT n.heroImageUrl FROM Negocio n WHERE n.heroImageUrl IS NOT NULL " +
+            "UNION SELECT n.ogImageUrl FROM Negocio n WHERE n.ogImageUrl IS NOT NULL " +
+            "UNION SELECT s.imagenUrl FROM Servicio s WHERE s.imagenUrl IS NOT NULL " +
+            "UNION SELECT p.fotoUrl FROM Profesional p WHERE p.fotoUrl IS NOT NULL " +
+            "UNION SELECT g.imagenUrl FROM GaleriaImagen g WHERE g.imagenUrl IS NOT NULL")
+    List<String> findUrlsReferenciadas();
+}
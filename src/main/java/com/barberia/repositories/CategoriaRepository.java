@@ -1,8 +1,11 @@
 package com.barberia.repositories;
 
 import com.barberia.models.Categoria;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
 
@@ -22,6 +25,7 @@ public interface CategoriaRepository  extends JpaRepository<Categoria, Long> {
     @Query("SELECT c FROM Categoria c WHERE LOWER(c.nombre) LIKE LOWER(CONCAT('%', :nombre, '%')) AND c.regEstado != :regEstado AND c.negocio.id = :negocioId")
     List<Categoria> findByNombreAndRegEstadoNotAndNegocioId(String nombre, int regEstado, Long negocioId);
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Categoria> findByRegEstadoNotAndNegocioId(int regEstado, Long negocioId);
     
     @Query("SELECT COUNT(c) > 0 FROM Categoria c WHERE c.nombre = :nombre AND c.regEstado != 0 AND c.negocio.id = :negocioId")
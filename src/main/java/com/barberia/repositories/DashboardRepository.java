@@ -1,5 +1,6 @@
 package com.barberia.repositories;
 
+import com.barberia.dto.dashboard.ComparativaPeriodosDTO;
 import com.barberia.models.Reserva;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -25,34 +26,70 @@ public interface DashboardRepository extends JpaRepository<Reserva, Long> {
 
     // ========== MÉTRICAS DE RESERVAS ==========
 
-    /** Cuenta reservas activas de un negocio en una fecha dada */
-    @Query("SELECT COUNT(r) FROM Reserva r " +
+    /**
+     * Reservas, cancelaciones e ingresos del período actual y del anterior en UNA pasada.
+     *
+     * Recorre una sola vez las reservas de [rangoDesde, rangoHasta] (la unión de ambos
+     * períodos) y reparte cada fila con sumas condicionales. Antes eran seis consultas
+     * (count, cancelaciones e ingresos, por cada período) sobre las mismas filas.
+     */
+    @Query("SELECT new com.barberia.dto.dashboard.ComparativaPeriodosDTO(" +
+            "COALESCE(SUM(CASE WHEN r.fecha BETWEEN :desde AND :hasta AND r.estado <> 'CANCELADA' THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN r.fecha BETWEEN :desdeAnterior AND :hastaAnterior AND r.estado <> 'CANCELADA' THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN r.fecha BETWEEN :desde AND :hasta AND r.estado = 'CANCELADA' THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN r.fecha BETWEEN :desdeAnterior AND :hastaAnterior AND r.estado = 'CANCELADA' THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN r.fecha BETWEEN :desde AND :hasta AND r.estado <> 'CANCELADA' THEN r.precioTotal ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN r.fecha BETWEEN :desdeAnterior AND :hastaAnterior AND r.estado <> 'CANCELADA' THEN r.precioTotal ELSE 0 END), 0)) " +
+            "FROM Reserva r " +
             "WHERE r.negocio.id = :negocioId " +
-            "AND r.fecha = :fecha " +
-            "AND r.regEstado <> 0 " +
-            "AND r.estado <> 'CANCELADA'")
-    Long countReservasByFecha(@Param("negocioId") Long negocioId,
-                              @Param("fecha") LocalDate fecha);
+            "AND r.fecha BETWEEN :rangoDesde AND :rangoHasta " +
+            "AND r.regEstado <> 0")
+    ComparativaPeriodosDTO compararPeriodos(@Param("negocioId") Long negocioId,
+                                            @Param("desde") LocalDate desde,
+                                            @Param("hasta") LocalDate hasta,
+                                            @Param("desdeAnterior") LocalDate desdeAnterior,
+                                            @Param("hastaAnterior") LocalDate hastaAnterior,
+                                            @Param("rangoDesde") LocalDate rangoDesde,
+                                            @Param("rangoHasta") LocalDate rangoHasta);
+
+    /**
+     * Reservas de una fecha en TODOS los negocios, para los contadores de hoy.
+     * Retorna [reservaId, negocioId, profesionalId, estado, precioTotal]
+     */
+    @Query("SELECT r.id, r.negocio.id, p.id, r.estado, r.precioTotal FROM Reserva r " +
+            "LEFT JOIN r.profesional p " +
+            "WHERE r.fecha = :fecha " +
+            "AND r.regEstado <> 0")
+    List<Object[]> findAportesDelDia(@Param("fecha") LocalDate fecha);
 
-    /** Cuenta reservas activas en un rango de fechas */
-    @Query("SELECT COUNT(r) FROM Reserva r " +
+    // ========== UTILIZACIÓN ==========
+
+    /**
+     * Horarios ocupados por reservas no canceladas con profesional, en un rango.
+     * Retorna [profesionalId, fecha, horaInicio, horaFin]
+     */
+    @Query("SELECT r.profesional.id, r.fecha, r.horaInicio, r.horaFin FROM Reserva r " +
             "WHERE r.negocio.id = :negocioId " +
-            "AND r.fecha BETWEEN :fechaDesde AND :fechaHasta " +
-            "AND r.regEstado <> 0 " +
-            "AND r.estado <> 'CANCELADA'")
-    Long countReservasByRangoFechas(@Param("negocioId") Long negocioId,
-                                    @Param("fechaDesde") LocalDate fechaDesde,
-                                    @Param("fechaHasta") LocalDate fechaHasta);
+            "AND r.fecha BETWEEN :desde AND :hasta " +
+            "AND r.profesional IS NOT NULL " +
+            "AND r.estado <> 'CANCELADA' " +
+            "AND r.regEstado <> 0")
+    List<Object[]> findIntervalosOcupados(@Param("negocioId") Long negocioId,
+                                          @Param("desde") LocalDate desde,
+                                          @Param("hasta") LocalDate hasta);
 
-    /** Cuenta cancelaciones en un rango de fechas */
-    @Query("SELECT COUNT(r) FROM Reserva r " +
+    /**
+     * Igual que findIntervalosOcupados pero sobre reservas_archivo
+     */
+    @Query("SELECT r.profesional.id, r.fecha, r.horaInicio, r.horaFin FROM ReservaArchivo r " +
             "WHERE r.negocio.id = :negocioId " +
-            "AND r.fecha BETWEEN :fechaDesde AND :fechaHasta " +
-            "AND r.regEstado <> 0 " +
-            "AND r.estado = 'CANCELADA'")
-    Long countCancelaciones(@Param("negocioId") Long negocioId,
-                            @Param("fechaDesde") LocalDate fechaDesde,
-                            @Param("fechaHasta") LocalDate fechaHasta);
+            "AND r.fecha BETWEEN :desde AND :hasta " +
+            "AND r.profesional IS NOT NULL " +
+            "AND r.estado <> 'CANCELADA' " +
+            "AND r.regEstado <> 0")
+    List<Object[]> findIntervalosOcupadosArchivo(@Param("negocioId") Long negocioId,
+                                                 @Param("desde") LocalDate desde,
+                                                 @Param("hasta") LocalDate hasta);
 
     // ========== MÉTRICAS DE CLIENTES ==========
 
@@ -78,27 +115,6 @@ public interface DashboardRepository extends JpaRepository<Reserva, Long> {
             "AND p.regEstado <> 0")
     Long countProfesionalesActivos(@Param("negocioId") Long negocioId);
 
-    // ========== INGRESOS ESTIMADOS ==========
-
-    /** Ingreso estimado (suma de precios) de reservas no canceladas en una fecha */
-    @Query("SELECT COALESCE(SUM(r.precioTotal), 0) FROM Reserva r " +
-            "WHERE r.negocio.id = :negocioId " +
-            "AND r.fecha = :fecha " +
-            "AND r.regEstado <> 0 " +
-            "AND r.estado <> 'CANCELADA'")
-    java.math.BigDecimal sumaIngresosByFecha(@Param("negocioId") Long negocioId,
-                                              @Param("fecha") LocalDate fecha);
-
-    /** Ingreso estimado en un rango de fechas */
-    @Query("SELECT COALESCE(SUM(r.precioTotal), 0) FROM Reserva r " +
-            "WHERE r.negocio.id = :negocioId " +
-            "AND r.fecha BETWEEN :fechaDesde AND :fechaHasta " +
-            "AND r.regEstado <> 0 " +
-            "AND r.estado <> 'CANCELADA'")
-    java.math.BigDecimal sumaIngresosByRango(@Param("negocioId") Long negocioId,
-                                              @Param("fechaDesde") LocalDate fechaDesde,
-                                              @Param("fechaHasta") LocalDate fechaHasta);
-
     // ========== GRÁFICOS: RESERVAS POR DÍA (últimos N días) ==========
 
     /** Reservas agrupadas por día en un rango. Retorna [fecha, count] */
@@ -158,10 +174,12 @@ public interface DashboardRepository extends JpaRepository<Reserva, Long> {
 
     // ========== WIDGETS: PRÓXIMAS RESERVAS ==========
 
-    /** Próximas reservas del negocio (hoy, después de la hora actual) */
+    /** Próximas reservas del negocio (hoy, después de la hora actual), con sus servicios para el widget */
     @Query("SELECT r FROM Reserva r " +
             "LEFT JOIN FETCH r.cliente " +
             "LEFT JOIN FETCH r.profesional " +
+            "LEFT JOIN FETCH r.servicios rs " +
+            "LEFT JOIN FETCH rs.servicio " +
             "WHERE r.negocio.id = :negocioId " +
             "AND r.fecha = :fecha " +
             "AND r.horaInicio >= :horaActual " +
@@ -12,7 +12,7 @@ import java.util.Optional;
  * Repositorio para la galería de imágenes por negocio
  */
 @Repository
-public interface GaleriaImagenRepository extends JpaRepository<GaleriaImagen, Long> {
+public interface GaleriaImagenRepository extends JpaRepository<GaleriaImagen, Long>, GaleriaImagenRepositoryCustom {
 
     /**
      * Obtener todas las imágenes de un negocio ordenadas por 'orden' ascendente
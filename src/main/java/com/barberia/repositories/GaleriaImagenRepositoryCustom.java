@@ -0,0 +1,16 @@
+package com.barberia.repositories;
+
+import java.util.List;
+
+/**
+ * Operaciones de la galería que no se expresan con consultas derivadas (ver GaleriaImagenRepositoryImpl)
+ */
+public interface GaleriaImagenRepositoryCustom {
+
+    /**
+     * Asigna orden 1..n según la posición de cada id, en una sola sentencia UPDATE
+     *
+     * @return filas actualizadas (menos que imagenesIds.size() si alguna no es del negocio)
+     */
+    int actualizarOrden(Long negocioId, List<Long> imagenesIds);
+}
@@ -0,0 +1,45 @@
+package com.barberia.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reordenamiento de la galería con un UPDATE ... CASE por JDBC.
+ *
+ * ANTES: un SELECT y un UPDATE por imagen (40 sentencias para 20 imágenes).
+ * AHORA: UPDATE galeria_imagenes SET orden = CASE id WHEN ? THEN 1 WHEN ? THEN 2 ... END
+ *        WHERE negocio_id = ? AND id IN (...)
+ * GaleriaImagen no está en la caché L2 ni en la caché de consultas, así que no hay
+ * nada que invalidar al escribir por JDBC.
+ */
+public class GaleriaImagenRepositoryImpl implements GaleriaImagenRepositoryCustom {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public GaleriaImagenRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int actualizarOrden(Long negocioId, List<Long> imagenesIds) {
+        if (imagenesIds.isEmpty()) {
+            return 0;
+        }
+        StringBuilder sql = new StringBuilder("UPDATE galeria_imagenes SET orden = CASE id");
+        List<Object> parametros = new ArrayList<>(imagenesIds.size() * 3 + 1);
+        for (int i = 0; i < imagenesIds.size(); i++) {
+            sql.append(" WHEN ? THEN ?");
+            parametros.add(imagenesIds.get(i));
+            parametros.add(i + 1);
+        }
+        sql.append(" END WHERE negocio_id = ? AND id IN (")
+                .append(String.join(", ", Collections.nCopies(imagenesIds.size(), "?")))
+                .append(")");
+        parametros.add(negocioId);
+        parametros.addAll(imagenesIds);
+        return jdbcTemplate.update(sql.toString(), parametros.toArray());
+    }
+}
@@ -2,9 +2,12 @@ package com.barberia.repositories;
 
 import com.barberia.models.HorarioNegocio;
 import com.barberia.models.enums.DiaSemana;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.time.LocalTime;
 import java.util.List;
@@ -46,6 +49,7 @@ public interface HorarioNegocioRepository extends JpaRepository<HorarioNegocio,
     );
 
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("""
     SELECT h
     FROM HorarioNegocio h
@@ -65,6 +69,7 @@ public interface HorarioNegocioRepository extends JpaRepository<HorarioNegocio,
         """)
     void desactivarPorNegocioYDiaSemana(Long negocio, DiaSemana diaSemana);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("""
     SELECT h
     FROM HorarioNegocio h
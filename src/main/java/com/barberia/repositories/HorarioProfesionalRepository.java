@@ -79,4 +79,11 @@ public interface HorarioProfesionalRepository  extends JpaRepository<HorarioProf
     """)
     List<HorarioProfesional> findByProfesionalIdAndDiaSemana(Long id, DiaSemana diaSemana);
 
+    @Query("""
+    SELECT h
+    FROM HorarioProfesional h
+    WHERE h.negocio.id = :negocioId and h.regEstado != 0
+    """)
+    List<HorarioProfesional> findActivosByNegocioId(Long negocioId);
+
 }
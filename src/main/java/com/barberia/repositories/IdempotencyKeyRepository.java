@@ -0,0 +1,40 @@
+package com.barberia.repositories;
+
+import com.barberia.models.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repositorio de claves de idempotencia (modo multi-nodo)
+ */
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Long> {
+
+    /**
+     * Buscar la clave dentro de su scope (operación + negocio + usuario)
+     */
+    Optional<IdempotencyKey> findByScopeAndClave(String scope, String clave);
+
+    /**
+     * Liberar una clave reclamada cuyo resultado no se debe repetir (error o excepción)
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyKey k WHERE k.scope = :scope AND k.clave = :clave")
+    int deleteByScopeAndClave(@Param("scope") String scope, @Param("clave") String clave);
+
+    /**
+     * Purga de claves vencidas
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyKey k WHERE k.expiraEn < :ahora")
+    int deleteExpiradas(@Param("ahora") LocalDateTime ahora);
+}
@@ -0,0 +1,85 @@
+package com.barberia.repositories;
+
+import com.barberia.models.MetricaPlataformaMensual;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio de la analítica de plataforma (todos los negocios).
+ *
+ * Las consultas de ORIGEN trabajan por rango de ids de negocio [idDesde, idHasta] para
+ * poder repartir el recorrido en trozos que se ejecutan en paralelo.
+ */
+public interface MetricaPlataformaRepository extends JpaRepository<MetricaPlataformaMensual, Long> {
+
+    // ========== ORIGEN (por rango de negocios) ==========
+
+    /** Primer y último id de negocio. Retorna [min, max] */
+    @Query("SELECT MIN(n.id), MAX(n.id) FROM Negocio n")
+    List<Object[]> rangoNegocios();
+
+    /**
+     * Totales mensuales desde los agregados diarios (dimensión PROFESIONAL = total del negocio).
+     * Retorna [negocioId, mes, reservas, cancelaciones, ingreso]
+     */
+    @Query("SELECT a.negocioId, a.mes, SUM(a.reservas), SUM(a.cancelaciones), SUM(a.ingreso) " +
+            "FROM AgregadoDiario a " +
+            "WHERE a.dimension = com.barberia.models.enums.DimensionAgregado.PROFESIONAL " +
+            "AND a.negocioId BETWEEN :idDesde AND :idHasta " +
+            "AND a.fecha >= :desde " +
+            "GROUP BY a.negocioId, a.mes")
+    List<Object[]> sumarReservasPorMes(@Param("idDesde") Long idDesde,
+                                       @Param("idHasta") Long idHasta,
+                                       @Param("desde") LocalDate desde);
+
+    /**
+     * Clientes registrados por mes. Retorna [negocioId, año, mes, cantidad]
+     */
+    @Query("SELECT c.negocio.id, YEAR(c.createdAt), MONTH(c.createdAt), COUNT(c) " +
+            "FROM Cliente c " +
+            "WHERE c.negocio.id BETWEEN :idDesde AND :idHasta " +
+            "AND c.createdAt >= :desde " +
+            "AND c.regEstado <> 0 " +
+            "GROUP BY c.negocio.id, YEAR(c.createdAt), MONTH(c.createdAt)")
+    List<Object[]> contarClientesNuevosPorMes(@Param("idDesde") Long idDesde,
+                                              @Param("idHasta") Long idHasta,
+                                              @Param("desde") LocalDateTime desde);
+
+    @Modifying
+    @Query("DELETE FROM MetricaPlataformaMensual m WHERE m.negocioId BETWEEN :idDesde AND :idHasta AND m.mes >= :desde")
+    int deleteByRango(@Param("idDesde") Long idDesde,
+                      @Param("idHasta") Long idHasta,
+                      @Param("desde") LocalDate desde);
+
+    // ========== LECTURA ==========
+
+    /**
+     * Totales de la plataforma por mes.
+     * Retorna [mes, reservas, cancelaciones, ingreso, clientesNuevos, negociosActivos]
+     */
+    @Query("SELECT m.mes, SUM(m.reservas), SUM(m.cancelaciones), SUM(m.ingreso), SUM(m.clientesNuevos), " +
+            "SUM(CASE WHEN m.reservas > 0 THEN 1 ELSE 0 END) " +
+            "FROM MetricaPlataformaMensual m " +
+            "WHERE m.mes BETWEEN :desde AND :hasta " +
+            "GROUP BY m.mes ORDER BY m.mes")
+    List<Object[]> sumarPorMes(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    /**
+     * Negocios con más ingreso en un mes. Retorna [negocioId, nombre, reservas, ingreso]
+     */
+    @Query("SELECT m.negocioId, n.nombre, m.reservas, m.ingreso " +
+            "FROM MetricaPlataformaMensual m, Negocio n " +
+            "WHERE n.id = m.negocioId AND m.mes = :mes " +
+            "ORDER BY m.ingreso DESC")
+    List<Object[]> findTopNegocios(@Param("mes") LocalDate mes, Pageable pageable);
+
+    @Query("SELECT MAX(m.actualizadoEn) FROM MetricaPlataformaMensual m")
+    LocalDateTime ultimaActualizacion();
+}
@@ -1,8 +1,11 @@
 package com.barberia.repositories;
 
 import com.barberia.models.Negocio;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -17,6 +20,7 @@ public interface NegocioRepository extends JpaRepository<Negocio, Long> {
 
 //    findNegocioById
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Negocio> findNegocioById(Long id);
 
     /**
@@ -37,6 +41,7 @@ public interface NegocioRepository extends JpaRepository<Negocio, Long> {
     /**
      * Buscar negocio por slug (para web pública)
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Negocio> findBySlugAndEstadoTrue(String slug);
 
     /**
@@ -0,0 +1,65 @@
+package com.barberia.repositories;
+
+import com.barberia.models.OutboxEvento;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio del outbox de eventos de reserva
+ */
+@Repository
+public interface OutboxEventoRepository extends JpaRepository<OutboxEvento, Long> {
+
+    /**
+     * Siguiente lote de eventos pendientes, en orden de inserción
+     */
+    @Query("SELECT e FROM OutboxEvento e WHERE e.estado = 'PENDIENTE' ORDER BY e.id")
+    List<OutboxEvento> findPendientes(Pageable pageable);
+
+    /**
+     * Marcar como entregados los eventos de un grupo
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEvento e SET e.estado = 'PROCESADO', e.procesadoEn = :ahora WHERE e.id IN :ids")
+    int marcarProcesados(@Param("ids") Collection<Long> ids, @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Registrar un fallo de entrega con el estado que decidió el relay (PENDIENTE o FALLIDO).
+     *
+     * El estado no se calcula en el UPDATE a partir de intentos: MySQL evalúa las asignaciones
+     * de izquierda a derecha y H2 contra la fila original, así que un CASE sobre e.intentos
+     * daba resultados distintos según la base de datos.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEvento e SET e.estado = :estado, e.procesadoEn = :procesadoEn, " +
+            "e.ultimoError = :error, e.intentos = e.intentos + 1 WHERE e.id = :id")
+    int registrarFallo(@Param("id") Long id,
+                       @Param("error") String error,
+                       @Param("estado") String estado,
+                       @Param("procesadoEn") LocalDateTime procesadoEn);
+
+    /**
+     * Limpieza de eventos ya entregados
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboxEvento e WHERE e.estado = 'PROCESADO' AND e.procesadoEn < :limite")
+    int deleteProcesadosAntesDe(@Param("limite") LocalDateTime limite);
+
+    /**
+     * Eventos pendientes (monitoreo del atraso del relay)
+     */
+    @Query("SELECT COUNT(e) FROM OutboxEvento e WHERE e.estado = 'PENDIENTE'")
+    long countPendientes();
+}
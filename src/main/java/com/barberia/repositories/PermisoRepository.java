@@ -1,7 +1,10 @@
 package com.barberia.repositories;
 
 import com.barberia.models.Permiso;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -18,6 +21,7 @@ public interface PermisoRepository extends JpaRepository<Permiso, Long> {
      * @param name nombre del permiso (READ_CLIENTS, CREATE_LOAN, etc.)
      * @return Optional con el permiso si existe
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Permiso> findByName(String name);
 
     /**
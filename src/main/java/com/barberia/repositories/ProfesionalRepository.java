@@ -1,8 +1,11 @@
 package com.barberia.repositories;
 
 import com.barberia.models.Profesional;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -22,6 +25,7 @@ public interface ProfesionalRepository  extends JpaRepository<Profesional, Long>
     @Query("SELECT p FROM Profesional p WHERE (LOWER(p.nombreCompleto) LIKE LOWER(CONCAT('%', :query, '%')) OR LOWER(p.documentoIdentidad) LIKE LOWER(CONCAT('%', :query, '%'))) AND p.regEstado != :regEstado AND p.negocio.id = :negocioId")
     List<Profesional> findByNombreCompletoOrDocumentoIdentidadAndRegEstadoNotAndNegocioId(String query, int regEstado, Long negocioId);
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Profesional> findByRegEstadoNotAndNegocioId(int regEstado, Long negocioId);
     
     @Query("SELECT COUNT(c) > 0 FROM Profesional c WHERE c.nombreCompleto = :nombreCompleto AND c.regEstado != 0 AND c.negocio.id = :negocioId")
@@ -0,0 +1,96 @@
+package com.barberia.repositories;
+
+import com.barberia.models.ReservaArchivo;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio del archivo histórico de reservas.
+ *
+ * Las consultas nativas mueven lotes de la tabla caliente (reservas, reserva_servicios)
+ * a la de archivo (reservas_archivo, reserva_servicios_archivo). Deben ejecutarse
+ * dentro de una transacción: copiar y borrar un lote es todo o nada.
+ *
+ * Cada DML nativo declara la tabla que modifica (HINT_NATIVE_SPACES); sin eso Hibernate
+ * vaciaría TODA la caché de segundo nivel en cada lote.
+ */
+public interface ReservaArchivoRepository extends JpaRepository<ReservaArchivo, Long> {
+
+    /**
+     * Mismo filtro que ReservaRepository.findByFilters, sobre el archivo
+     */
+    @Query("""
+    SELECT r
+    FROM ReservaArchivo r
+    WHERE r.negocio.id = :negocioId
+      AND (:profesionalId IS NULL OR r.profesional.id = :profesionalId)
+      AND (:fechaDesde IS NULL OR r.fecha >= :fechaDesde)
+      AND (:fechaHasta IS NULL OR r.fecha <= :fechaHasta)
+      AND (:clienteId IS NULL OR r.cliente.id = :clienteId)
+      AND (:estado IS NULL OR r.estado = :estado)
+      AND r.regEstado <> 0
+""")
+    List<ReservaArchivo> findByFilters(
+            @Param("negocioId") Long negocioId,
+            @Param("profesionalId") Long profesionalId,
+            @Param("clienteId") Long clienteId,
+            @Param("fechaDesde") LocalDate fechaDesde,
+            @Param("fechaHasta") LocalDate fechaHasta,
+            @Param("estado") String estado
+    );
+
+    // ========== MOVIMIENTO DE LOTES (SQL nativo) ==========
+
+    /**
+     * Ids de reservas cerradas (atendidas, canceladas o eliminadas) anteriores a la fecha límite
+     */
+    @Query(value = """
+        SELECT r.id FROM reservas r
+        WHERE r.fecha < :limite
+          AND (r.estado IN ('ATENDIDA', 'CANCELADA') OR r.reg_estado = 0)
+        ORDER BY r.id
+        LIMIT :tamano
+    """, nativeQuery = true)
+    List<Long> findIdsArchivables(@Param("limite") LocalDate limite, @Param("tamano") int tamano);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "reservas_archivo"))
+    @Query(value = """
+        INSERT INTO reservas_archivo (id, negocio_id, profesional_id, cliente_id, fecha, hora_inicio, hora_fin,
+                                      estado, tipo, duracion_total_minutos, precio_total, reg_estado,
+                                      created_at, updated_at, usuario_registro, archivado_en)
+        SELECT id, negocio_id, profesional_id, cliente_id, fecha, hora_inicio, hora_fin,
+               estado, tipo, duracion_total_minutos, precio_total, reg_estado,
+               created_at, updated_at, usuario_registro, CURRENT_TIMESTAMP
+        FROM reservas WHERE id IN (:ids)
+    """, nativeQuery = true)
+    int copiarReservas(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "reserva_servicios_archivo"))
+    @Query(value = """
+        INSERT INTO reserva_servicios_archivo (id, reserva_id, servicio_id, duracion_minutos, precio)
+        SELECT id, reserva_id, servicio_id, duracion_minutos, precio
+        FROM reserva_servicios WHERE reserva_id IN (:ids)
+    """, nativeQuery = true)
+    int copiarServicios(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "reserva_servicios"))
+    @Query(value = "DELETE FROM reserva_servicios WHERE reserva_id IN (:ids)", nativeQuery = true)
+    int borrarServiciosCalientes(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "reservas"))
+    @Query(value = "DELETE FROM reservas WHERE id IN (:ids)", nativeQuery = true)
+    int borrarReservasCalientes(@Param("ids") Collection<Long> ids);
+}
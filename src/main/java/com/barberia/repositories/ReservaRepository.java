@@ -1,6 +1,8 @@
 package com.barberia.repositories;
 
+import com.barberia.models.Profesional;
 import com.barberia.models.Reserva;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -8,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface ReservaRepository extends JpaRepository<Reserva, Long> {
 
@@ -54,6 +57,9 @@ public interface ReservaRepository extends JpaRepository<Reserva, Long> {
     );
 
 
+    // Trae en la misma consulta lo que recorre ReservaMapper.toResponse: sin esto, una
+    // consulta de servicios por reserva (N+1) y una por cada profesional/cliente distinto
+    @EntityGraph(attributePaths = {"profesional", "cliente", "servicios"})
     @Query("""
     SELECT r
     FROM Reserva r
@@ -84,4 +90,45 @@ public interface ReservaRepository extends JpaRepository<Reserva, Long> {
     List<Reserva> findByProfesionalIdAndFechaAndRegEstadoNot(Long profesionalId, LocalDate fecha, Integer regEstado);
 
     List<Reserva> findByProfesionalIdAndFecha(Long profesionalId, LocalDate fecha);
+
+    // ========== VALIDACIÓN DE ESCRITURA (un solo viaje a la BD) ==========
+
+    /**
+     * Profesional (con su negocio) y cliente en una sola consulta, verificando que ambos
+     * pertenezcan al negocio y no estén eliminados. Cada fila es [Profesional, Cliente];
+     * sin filas = alguno no existe o es de otro negocio.
+     */
+    @Query("""
+        SELECT p, c
+        FROM Profesional p
+        JOIN FETCH p.negocio n,
+             Cliente c
+        WHERE p.id = :profesionalId
+          AND n.id = :negocioId
+          AND p.regEstado <> 0
+          AND c.id = :clienteId
+          AND c.negocio.id = :negocioId
+          AND c.regEstado <> 0
+    """)
+    List<Object[]> findProfesionalYClienteDelNegocio(
+            @Param("profesionalId") Long profesionalId,
+            @Param("clienteId") Long clienteId,
+            @Param("negocioId") Long negocioId
+    );
+
+    /**
+     * Profesional (con su negocio) solo si pertenece al negocio y no está eliminado
+     */
+    @Query("""
+        SELECT p
+        FROM Profesional p
+        JOIN FETCH p.negocio n
+        WHERE p.id = :profesionalId
+          AND n.id = :negocioId
+          AND p.regEstado <> 0
+    """)
+    Optional<Profesional> findProfesionalDelNegocio(
+            @Param("profesionalId") Long profesionalId,
+            @Param("negocioId") Long negocioId
+    );
 }
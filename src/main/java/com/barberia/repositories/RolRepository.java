@@ -1,7 +1,10 @@
 package com.barberia.repositories;
 
 import com.barberia.models.Rol;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -29,5 +32,6 @@ public interface RolRepository extends JpaRepository<Rol, Long> {
     /**
      * Busca un rol por nombre (sin Optional)
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Rol findByName(String name);
 }
@@ -65,4 +65,15 @@ public interface ServicioRepository extends JpaRepository<Servicio, Long> {
 
     @Query("SELECT COUNT(c) > 0 FROM Servicio c WHERE c.nombre = :nombre AND c.regEstado != 0 AND c.negocio.id = :negocioId")
     boolean existsByNombreAndRegEstadoNotEliminadoAndNegocioId(String nombre, Long negocioId);
+
+    /**
+     * Servicios no eliminados del negocio con su categoría (para CatalogoCacheService).
+     * Incluye inactivos: el filtro por estado lo hace cada consumidor del catálogo.
+     */
+    @Query("SELECT s FROM Servicio s " +
+            "JOIN FETCH s.categoria " +
+            "WHERE s.negocio.id = :negocioId " +
+            "AND s.regEstado != 0 " +
+            "ORDER BY s.id")
+    List<Servicio> findCatalogoByNegocioId(Long negocioId);
 }
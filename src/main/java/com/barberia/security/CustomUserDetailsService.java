@@ -1,22 +1,12 @@
 package com.barberia.security;
 
-import com.barberia.models.Permiso;
-import com.barberia.models.Rol;
 import com.barberia.models.Usuario;
 import com.barberia.repositories.UsuarioRepository;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.stream.Collectors;
-
 /**
  * Servicio personalizado para cargar usuarios desde la base de datos
  * 
@@ -36,9 +26,11 @@ import java.util.stream.Collectors;
 public class CustomUserDetailsService implements UserDetailsService {
     
     private final UsuarioRepository usuarioRepository;
+    private final RegistroPermisos registroPermisos;
     
-    public CustomUserDetailsService(UsuarioRepository usuarioRepository) {
+    public CustomUserDetailsService(UsuarioRepository usuarioRepository, RegistroPermisos registroPermisos) {
         this.usuarioRepository = usuarioRepository;
+        this.registroPermisos = registroPermisos;
     }
     
     /**
@@ -70,20 +62,18 @@ public class CustomUserDetailsService implements UserDetailsService {
                         "Usuario no encontrado con email: " + username
                 ));
         
-        // 2. EXTRAE LAS AUTHORITIES (ROLES + PERMISOS)
-        Collection<GrantedAuthority> authorities = getAuthorities(usuario);
+        // 2. OBTIENE LAS AUTHORITIES (ROLES + PERMISOS) YA COMPILADAS
+        // Usuarios con el mismo rol comparten el mismo objeto (ver RegistroPermisos)
+        PermisosCompilados permisos = getAuthorities(usuario);
         
         // 3. RETORNA UN USERDETAILS
-        // User.builder() es una clase de Spring Security que implementa UserDetails
-        return User.builder()
-                .username(usuario.getEmail())      // Email como username
-                .password(usuario.getPassword())    // Password encriptado
-                .authorities(authorities)           // Roles y permisos
-                .accountExpired(false)              // Cuenta no expirada
-                .accountLocked(false)               // Cuenta no bloqueada
-                .credentialsExpired(false)          // Credenciales no expiradas
-                .disabled(usuario.getRegEstado() != 1) // Deshabilitado si regEstado != 1
-                .build();
+        // UsuarioAutenticado implementa UserDetails y expone los permisos como bitset
+        return new UsuarioAutenticado(
+                usuario.getEmail(),                 // Email como username
+                usuario.getPassword(),              // Password encriptado
+                usuario.getRegEstado() == 1,        // Deshabilitado si regEstado != 1
+                permisos                            // Roles y permisos
+        );
     }
     
     /**
@@ -109,27 +99,9 @@ public class CustomUserDetailsService implements UserDetailsService {
      * - CREATE_BOOKING
      * 
      * @param usuario Usuario desde la BD
-     * @return Collection de GrantedAuthority
+     * @return Permisos compilados (bitset + lista de GrantedAuthority)
      */
-    private Collection<GrantedAuthority> getAuthorities(Usuario usuario) {
-        Set<GrantedAuthority> authorities = new HashSet<>();
-        
-        // ITERA CADA ROL DEL USUARIO
-        for (Rol rol : usuario.getRoles()) {
-            
-            // 1. AGREGA EL ROL CON EL PREFIJO "ROLE_"
-            // "ADMIN" → "ROLE_ADMIN"
-            authorities.add(new SimpleGrantedAuthority("ROLE_" + rol.getName()));
-            
-            // 2. AGREGA TODOS LOS PERMISOS DEL ROL
-            // No llevan prefijo, se agregan tal cual
-            Set<GrantedAuthority> permissions = rol.getPermissions().stream()
-                    .map(permiso -> new SimpleGrantedAuthority(permiso.getName()))
-                    .collect(Collectors.toSet());
-            
-            authorities.addAll(permissions);
-        }
-        
-        return authorities;
+    private PermisosCompilados getAuthorities(Usuario usuario) {
+        return registroPermisos.compilar(usuario.getRoles());
     }
 }
@@ -0,0 +1,18 @@
+package com.barberia.security;
+
+/**
+ * Se superó el límite de intentos de login por email o por IP (429).
+ */
+public class DemasiadosIntentosException extends RuntimeException {
+
+    private final long reintentarEnSegundos;
+
+    public DemasiadosIntentosException(String message, long reintentarEnSegundos) {
+        super(message);
+        this.reintentarEnSegundos = reintentarEnSegundos;
+    }
+
+    public long getReintentarEnSegundos() {
+        return reintentarEnSegundos;
+    }
+}
@@ -0,0 +1,149 @@
+package com.barberia.security;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.core.Authentication;
+
+import java.util.function.Supplier;
+
+/**
+ * Handler de @PreAuthorize que resuelve hasRole/hasAuthority con los bits de PermisosCompilados.
+ *
+ * SecurityExpressionRoot (el root por defecto) copia las authorities a un Set nuevo en cada
+ * evaluación y sus métodos son final, así que se envuelve: hasRole, hasAnyRole, hasAuthority
+ * y hasAnyAuthority van al bitset del usuario; el resto se delega al root original.
+ * Si el principal no es un UsuarioAutenticado (tests, anónimos) todo se delega.
+ */
+public class ExpresionesPermisosHandler extends DefaultMethodSecurityExpressionHandler {
+
+    @Override
+    public EvaluationContext createEvaluationContext(Supplier<Authentication> authentication, MethodInvocation mi) {
+        EvaluationContext contexto = super.createEvaluationContext(authentication, mi);
+        if (contexto instanceof StandardEvaluationContext estandar
+                && estandar.getRootObject().getValue() instanceof MethodSecurityExpressionOperations original) {
+            estandar.setRootObject(new Raiz(original));
+        }
+        return contexto;
+    }
+
+    /**
+     * Root de las expresiones; el Authentication se resuelve recién al primer uso, como en Spring
+     */
+    static final class Raiz implements MethodSecurityExpressionOperations {
+
+        private final MethodSecurityExpressionOperations original;
+        private PermisosCompilados permisos;
+        private boolean resuelto;
+
+        Raiz(MethodSecurityExpressionOperations original) {
+            this.original = original;
+        }
+
+        private PermisosCompilados permisos() {
+            if (!resuelto) {
+                permisos = RegistroPermisos.de(original.getAuthentication());
+                resuelto = true;
+            }
+            return permisos;
+        }
+
+        @Override
+        public boolean hasAuthority(String authority) {
+            PermisosCompilados p = permisos();
+            return p != null ? p.tieneAuthority(authority) : original.hasAuthority(authority);
+        }
+
+        @Override
+        public boolean hasAnyAuthority(String... authorities) {
+            PermisosCompilados p = permisos();
+            return p != null ? p.tieneAlgunaAuthority(authorities) : original.hasAnyAuthority(authorities);
+        }
+
+        @Override
+        public boolean hasRole(String role) {
+            PermisosCompilados p = permisos();
+            return p != null ? p.tieneRol(role) : original.hasRole(role);
+        }
+
+        @Override
+        public boolean hasAnyRole(String... roles) {
+            PermisosCompilados p = permisos();
+            return p != null ? p.tieneAlgunRol(roles) : original.hasAnyRole(roles);
+        }
+
+        // ---- Delegados ----
+
+        @Override
+        public Authentication getAuthentication() {
+            return original.getAuthentication();
+        }
+
+        @Override
+        public boolean permitAll() {
+            return original.permitAll();
+        }
+
+        @Override
+        public boolean denyAll() {
+            return original.denyAll();
+        }
+
+        @Override
+        public boolean isAnonymous() {
+            return original.isAnonymous();
+        }
+
+        @Override
+        public boolean isAuthenticated() {
+            return original.isAuthenticated();
+        }
+
+        @Override
+        public boolean isRememberMe() {
+            return original.isRememberMe();
+        }
+
+        @Override
+        public boolean isFullyAuthenticated() {
+            return original.isFullyAuthenticated();
+        }
+
+        @Override
+        public boolean hasPermission(Object target, Object permission) {
+            return original.hasPermission(target, permission);
+        }
+
+        @Override
+        public boolean hasPermission(Object targetId, String targetType, Object permission) {
+            return original.hasPermission(targetId, targetType, permission);
+        }
+
+        @Override
+        public void setFilterObject(Object filterObject) {
+            original.setFilterObject(filterObject);
+        }
+
+        @Override
+        public Object getFilterObject() {
+            return original.getFilterObject();
+        }
+
+        @Override
+        public void setReturnObject(Object returnObject) {
+            original.setReturnObject(returnObject);
+        }
+
+        @Override
+        public Object getReturnObject() {
+            return original.getReturnObject();
+        }
+
+        @Override
+        public Object getThis() {
+            return original.getThis();
+        }
+    }
+}
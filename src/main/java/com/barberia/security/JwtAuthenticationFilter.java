@@ -1,5 +1,8 @@
 package com.barberia.security;
 
+import com.barberia.services.common.Metricas;
+import com.barberia.services.jfr.JwtEvento;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,6 +17,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.function.Function;
 
 /**
  * Filtro JWT para autenticación stateless
@@ -37,17 +41,26 @@ import java.io.IOException;
  * STATELESS:
  * No guardamos sesión en el servidor
  * Cada request debe traer su JWT para ser autenticado
+ *
+ * MÉTRICAS:
+ * La verificación (firma, carga del usuario y validez) se mide en "barberia.jwt.verificacion"
+ * con resultado ok, invalido (firma, formato o expiración) o rechazado (el usuario no coincide),
+ * y en el evento JFR "barberia.Jwt" con el negocio sin acotar y las filas leídas.
+ * El negocioId del token queda en el atributo Metricas.ATRIBUTO_NEGOCIO del request para
+ * etiquetar las demás métricas de la petición.
  */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final Metricas metricas;
     
     // Constructor explícito (reemplaza @RequiredArgsConstructor)
-    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService, Metricas metricas) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.metricas = metricas;
     }
     
     /**
@@ -79,12 +92,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // "Bearer eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9..." → "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9..."
         final String jwt = authHeader.substring(7);
         
-        // 4. EXTRAE EL EMAIL DEL TOKEN
+        // 4. EXTRAE LOS CLAIMS (EMAIL Y NEGOCIO) DEL TOKEN
+        // Parsear verifica la firma; el paso 7 valida con estos mismos claims, así que la
+        // firma se verifica una sola vez por petición
+        final long inicio = System.nanoTime();
+        final JwtEvento evento = new JwtEvento();
+        evento.iniciar();
+        final Claims claims;
         final String userEmail;
+        final Long negocioId;
         try {
-            userEmail = jwtService.extractUsername(jwt);
+            claims = jwtService.extractClaim(jwt, Function.identity());
+            userEmail = claims.getSubject();
+            negocioId = claims.get("negocioId") instanceof Number numero ? numero.longValue() : null;
         } catch (Exception e) {
             // Token inválido o mal formado
+            metricas.registrar("barberia.jwt.verificacion", null, System.nanoTime() - inicio,
+                    "invalido", e.getClass().getSimpleName());
+            evento.registrar(null, "invalido");
             filterChain.doFilter(request, response);
             return;
         }
@@ -98,8 +123,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // 6. CARGA LOS DETALLES DEL USUARIO DESDE LA BASE DE DATOS
             UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
             
-            // 7. VALIDA EL TOKEN
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            // 7. VALIDA EL TOKEN (usuario y expiración, con los claims del paso 4)
+            if (jwtService.isTokenValid(claims, userDetails)) {
                 
                 // 8. CREA EL OBJETO DE AUTENTICACIÓN
                 // UsernamePasswordAuthenticationToken: Representa un usuario autenticado en Spring Security
@@ -124,6 +149,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 // Spring Security puede acceder a esta autenticación en cualquier momento
                 // Los @PreAuthorize funcionarán correctamente
                 SecurityContextHolder.getContext().setAuthentication(authToken);
+                request.setAttribute(Metricas.ATRIBUTO_NEGOCIO, negocioId);
+                metricas.registrar("barberia.jwt.verificacion", negocioId, System.nanoTime() - inicio,
+                        "ok", "none");
+                evento.registrar(negocioId, "ok");
+            } else {
+                metricas.registrar("barberia.jwt.verificacion", negocioId, System.nanoTime() - inicio,
+                        "rechazado", "none");
+                evento.registrar(negocioId, "rechazado");
             }
         }
         
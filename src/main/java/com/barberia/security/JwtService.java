@@ -293,28 +293,24 @@ public class JwtService {
      * @return true si es válido, false si no
      */
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(extractAllClaims(token), userDetails);
     }
-    
-    /**
-     * Verifica si el token ha expirado
-     * 
-     * @param token JWT a verificar
-     * @return true si expiró, false si aún es válido
-     */
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-    
+
     /**
-     * Extrae la fecha de expiración del token
-     * 
-     * @param token JWT
-     * @return Fecha de expiración
+     * Valida el token a partir de claims ya extraídos (la firma ya se verificó al extraerlos).
+     *
+     * Lo usa JwtAuthenticationFilter, que necesita los claims antes de validar: así cada
+     * petición parsea y verifica la firma una sola vez.
+     *
+     * @param claims Claims del token, obtenidos con extractClaim / extractAllClaims
+     * @param userDetails Usuario con el que comparar
+     * @return true si es válido, false si no
      */
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        final String username = claims.getSubject();
+        final Date expiration = claims.getExpiration();
+        return username != null && username.equals(userDetails.getUsername())
+                && expiration != null && !expiration.before(new Date());
     }
     
     /**
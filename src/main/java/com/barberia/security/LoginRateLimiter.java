@@ -0,0 +1,132 @@
+package com.barberia.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Límite de intentos de login con "token bucket" en memoria, por email y por IP.
+ *
+ * Cada clave tiene una cubeta con "capacidad" fichas que se recarga a razón de
+ * "recarga-por-minuto". Cada intento consume una ficha de la IP y una del email;
+ * sin fichas se responde 429 antes de tocar la BD o BCrypt.
+ *
+ * - Por email: frena la fuerza bruta contra una cuenta desde muchas IPs
+ * - Por IP: frena el credential stuffing (muchas cuentas desde una IP)
+ *
+ * Las cubetas llenas e inactivas se eliminan cada minuto. Es por nodo: con N nodos el
+ * límite efectivo es N veces el configurado.
+ *
+ * Detrás de un proxy, la IP real llega con server.forward-headers-strategy=native.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final boolean habilitado;
+    private final Limite porEmail;
+    private final Limite porIp;
+    private final LongSupplier reloj;
+
+    private final Map<String, Cubeta> cubetas = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LoginRateLimiter(@Value("${seguridad.login.limite.habilitado:true}") boolean habilitado,
+                            @Value("${seguridad.login.limite.email.capacidad:5}") int capacidadEmail,
+                            @Value("${seguridad.login.limite.email.recarga-por-minuto:5}") int recargaEmail,
+                            @Value("${seguridad.login.limite.ip.capacidad:30}") int capacidadIp,
+                            @Value("${seguridad.login.limite.ip.recarga-por-minuto:30}") int recargaIp) {
+        this(habilitado, new Limite(capacidadEmail, recargaEmail), new Limite(capacidadIp, recargaIp), System::nanoTime);
+    }
+
+    LoginRateLimiter(boolean habilitado, Limite porEmail, Limite porIp, LongSupplier reloj) {
+        this.habilitado = habilitado;
+        this.porEmail = porEmail;
+        this.porIp = porIp;
+        this.reloj = reloj;
+    }
+
+    /**
+     * Consume un intento de la IP y del email.
+     *
+     * @throws DemasiadosIntentosException si alguna de las dos cubetas está vacía
+     */
+    public void verificar(String email, String ip) {
+        if (!habilitado) {
+            return;
+        }
+        long ahora = reloj.getAsLong();
+        if (ip != null) {
+            consumir("ip:" + ip, porIp, ahora);
+        }
+        if (email != null) {
+            consumir("email:" + email.trim().toLowerCase(Locale.ROOT), porEmail, ahora);
+        }
+    }
+
+    private void consumir(String clave, Limite limite, long ahora) {
+        Cubeta cubeta = cubetas.computeIfAbsent(clave, k -> new Cubeta(limite, ahora));
+        long espera = cubeta.consumir(ahora);
+        if (espera > 0) {
+            throw new DemasiadosIntentosException(
+                    "Demasiados intentos de inicio de sesión, intente nuevamente en " + espera + " segundos", espera);
+        }
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void limpiar() {
+        long ahora = reloj.getAsLong();
+        cubetas.values().removeIf(c -> c.llenaEInactiva(ahora));
+    }
+
+    int cantidadCubetas() {
+        return cubetas.size();
+    }
+
+    record Limite(int capacidad, int recargaPorMinuto) {
+        double fichasPorNano() {
+            return recargaPorMinuto / (double) TimeUnit.MINUTES.toNanos(1);
+        }
+    }
+
+    private static final class Cubeta {
+        private final Limite limite;
+        private double fichas;
+        private long ultimaRecarga;
+
+        Cubeta(Limite limite, long ahora) {
+            this.limite = limite;
+            this.fichas = limite.capacidad();
+            this.ultimaRecarga = ahora;
+        }
+
+        /**
+         * @return 0 si se consumió una ficha; si no, segundos hasta tener una
+         */
+        synchronized long consumir(long ahora) {
+            recargar(ahora);
+            if (fichas >= 1) {
+                fichas -= 1;
+                return 0;
+            }
+            double nanosFaltantes = (1 - fichas) / limite.fichasPorNano();
+            return Math.max(1, (long) Math.ceil(nanosFaltantes / TimeUnit.SECONDS.toNanos(1)));
+        }
+
+        synchronized boolean llenaEInactiva(long ahora) {
+            recargar(ahora);
+            return fichas >= limite.capacidad();
+        }
+
+        private void recargar(long ahora) {
+            fichas = Math.min(limite.capacidad(), fichas + (ahora - ultimaRecarga) * limite.fichasPorNano());
+            ultimaRecarga = ahora;
+        }
+    }
+}
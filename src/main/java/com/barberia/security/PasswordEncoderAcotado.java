@@ -0,0 +1,123 @@
+package com.barberia.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * PasswordEncoder que ejecuta BCrypt en un pool propio y acotado.
+ *
+ * PROBLEMA:
+ * BCrypt es CPU puro (~50-100 ms por comparación). Se ejecutaba en el hilo de Tomcat:
+ * una ráfaga de logins (o un ataque de credential stuffing) podía ocupar todos los
+ * núcleos y dejar sin CPU a las reservas.
+ *
+ * FUNCIONAMIENTO:
+ * - Como mucho "hilos" hashes a la vez (por defecto la mitad de los núcleos)
+ * - Hasta "cola" hashes esperando; si la cola está llena se rechaza al instante
+ *   con ServicioSaturadoException (503) en vez de acumular latencia
+ * - El hilo de la petición espera el resultado como mucho "esperaMaximaMs"
+ *
+ * Lleva contadores (completados, rechazados, tiempo medio) para medir el login
+ * bajo ráfagas.
+ */
+@Slf4j
+public class PasswordEncoderAcotado implements PasswordEncoder {
+
+    private final PasswordEncoder delegado;
+    private final ThreadPoolExecutor executor;
+    private final int capacidadCola;
+    private final long esperaMaximaMs;
+
+    private final LongAdder completados = new LongAdder();
+    private final LongAdder rechazados = new LongAdder();
+    private final LongAdder nanosHashing = new LongAdder();
+
+    public PasswordEncoderAcotado(PasswordEncoder delegado, int hilos, int capacidadCola, long esperaMaximaMs) {
+        this.delegado = delegado;
+        this.capacidadCola = capacidadCola;
+        this.esperaMaximaMs = esperaMaximaMs;
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return ejecutar(() -> delegado.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return ejecutar(() -> delegado.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegado.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T ejecutar(Callable<T> tarea) {
+        Future<T> futuro;
+        try {
+            futuro = executor.submit(() -> {
+                long inicio = System.nanoTime();
+                try {
+                    return tarea.call();
+                } finally {
+                    nanosHashing.add(System.nanoTime() - inicio);
+                    completados.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rechazados.increment();
+            throw new ServicioSaturadoException("Demasiados inicios de sesión simultáneos, intente nuevamente", 1);
+        }
+
+        try {
+            return futuro.get(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            futuro.cancel(true);
+            rechazados.increment();
+            throw new ServicioSaturadoException("El inicio de sesión tardó demasiado, intente nuevamente", 2);
+        } catch (InterruptedException e) {
+            futuro.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Hashing de contraseña interrumpido", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Error en hashing de contraseña", e.getCause());
+        }
+    }
+
+    public Estadisticas estadisticas() {
+        long total = completados.sum();
+        return new Estadisticas(
+                executor.getMaximumPoolSize(),
+                executor.getActiveCount(),
+                executor.getQueue().size(),
+                capacidadCola,
+                total,
+                rechazados.sum(),
+                total == 0 ? 0 : nanosHashing.sum() / total / 1_000_000.0);
+    }
+
+    public void detener() {
+        executor.shutdownNow();
+    }
+
+    public record Estadisticas(int hilos, int activos, int enCola, int capacidadCola,
+                               long completados, long rechazados, double promedioMs) {
+    }
+}
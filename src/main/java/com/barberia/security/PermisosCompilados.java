@@ -0,0 +1,79 @@
+package com.barberia.security;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Roles y permisos de un usuario compilados a un bitset (ver RegistroPermisos).
+ *
+ * Cada authority ("ROLE_ADMIN", "READ_CLIENTS", ...) tiene una posición fija dentro del
+ * índice con el que se compiló; verificarla es una búsqueda en un HashMap de String
+ * (hash ya calculado) y un test de bit, sin armar colecciones por petición.
+ *
+ * INMUTABLE: se comparte entre todas las peticiones de usuarios con el mismo rol.
+ */
+public final class PermisosCompilados {
+
+    private final RegistroPermisos.Indice indice;
+    private final BitSet bits;
+    private final List<GrantedAuthority> authorities;
+
+    PermisosCompilados(RegistroPermisos.Indice indice, BitSet bits, List<GrantedAuthority> authorities) {
+        this.indice = indice;
+        this.bits = bits;
+        this.authorities = authorities;
+    }
+
+    /**
+     * true si tiene la authority exacta ("ROLE_ADMIN" o "READ_CLIENTS")
+     */
+    public boolean tieneAuthority(String authority) {
+        return tieneBit(indice.posicion(authority));
+    }
+
+    public boolean tieneAlgunaAuthority(String... authorities) {
+        for (String authority : authorities) {
+            if (tieneAuthority(authority)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * true si tiene el rol; acepta "ADMIN" o "ROLE_ADMIN" como hasRole de Spring
+     */
+    public boolean tieneRol(String rol) {
+        return tieneBit(indice.posicionRol(rol));
+    }
+
+    public boolean tieneAlgunRol(String... roles) {
+        for (String rol : roles) {
+            if (tieneRol(rol)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Authorities para Spring Security (lista compartida, no modificable)
+     */
+    public List<GrantedAuthority> authorities() {
+        return authorities;
+    }
+
+    long version() {
+        return indice.version();
+    }
+
+    BitSet bits() {
+        return bits;
+    }
+
+    private boolean tieneBit(int posicion) {
+        return posicion >= 0 && bits.get(posicion);
+    }
+}
@@ -0,0 +1,214 @@
+package com.barberia.security;
+
+import com.barberia.models.Permiso;
+import com.barberia.models.Rol;
+import com.barberia.repositories.PermisoRepository;
+import com.barberia.repositories.RolRepository;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registro de permisos: asigna a cada authority una posición de bit y compila cada rol a un bitset.
+ *
+ * PROBLEMA:
+ * Por cada petición, CustomUserDetailsService armaba un HashSet de SimpleGrantedAuthority
+ * (un String concatenado por rol y uno por permiso) y cada @PreAuthorize volvía a copiar esas
+ * authorities a otro Set antes de buscar. DashboardService además las recorría con streams.
+ *
+ * FUNCIONAMIENTO:
+ * 1. El índice se compila una vez: permisos y roles ("ROLE_" + nombre) ordenados por nombre,
+ *    cada uno con su posición
+ * 2. Cada rol queda como un PermisosCompilados (bitset + lista de authorities) compartido
+ * 3. compilar(roles) devuelve el del rol (caso normal: un rol por usuario) o la unión si hay varios
+ * 4. RolService llama a invalidar() al escribir; el índice se vuelve a compilar en el próximo uso
+ *    y la invalidación se repite al confirmar la transacción (mismo esquema que CatalogoCacheService)
+ *
+ * Los permisos no se crean por la API (PermisoService es de solo lectura): un permiso nuevo
+ * cargado por SQL aparece al compilar un rol que lo use o al reiniciar.
+ */
+@Component
+public class RegistroPermisos {
+
+    private static final String PREFIJO_ROL = "ROLE_";
+
+    private final RolRepository rolRepository;
+    private final PermisoRepository permisoRepository;
+    private final TransactionTemplate lectura;
+
+    private final AtomicLong version = new AtomicLong();
+    private volatile Indice indice;
+
+    public RegistroPermisos(RolRepository rolRepository,
+                            PermisoRepository permisoRepository,
+                            PlatformTransactionManager transactionManager) {
+        this.rolRepository = rolRepository;
+        this.permisoRepository = permisoRepository;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+    }
+
+    /**
+     * Permisos compilados para un conjunto de roles de un usuario
+     */
+    public PermisosCompilados compilar(Collection<Rol> roles) {
+        Indice actual = indice();
+        if (roles == null || roles.isEmpty()) {
+            return actual.sinPermisos();
+        }
+        if (!actual.conoce(roles)) {
+            // Rol creado fuera de RolService (por ejemplo, por SQL): recompilar una vez
+            descartar();
+            actual = indice();
+        }
+        if (roles.size() == 1) {
+            PermisosCompilados delRol = actual.porRol().get(roles.iterator().next().getId());
+            return delRol != null ? delRol : actual.sinPermisos();
+        }
+        BitSet bits = new BitSet();
+        Set<GrantedAuthority> authorities = new LinkedHashSet<>();
+        for (Rol rol : roles) {
+            PermisosCompilados delRol = actual.porRol().get(rol.getId());
+            if (delRol != null) {
+                bits.or(delRol.bits());
+                authorities.addAll(delRol.authorities());
+            }
+        }
+        return new PermisosCompilados(actual, bits, List.copyOf(authorities));
+    }
+
+    /**
+     * Permisos compilados del usuario autenticado; null si no se autenticó con UsuarioAutenticado
+     */
+    public static PermisosCompilados de(Authentication authentication) {
+        if (authentication != null && authentication.getPrincipal() instanceof UsuarioAutenticado usuario) {
+            return usuario.getPermisos();
+        }
+        return null;
+    }
+
+    /**
+     * Descarta el índice. Llamar después de crear, modificar o eliminar roles o permisos.
+     */
+    public void invalidar() {
+        descartar();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    descartar();
+                }
+            });
+        }
+    }
+
+    private void descartar() {
+        version.incrementAndGet();
+        indice = null;
+    }
+
+    Indice indice() {
+        Indice actual = indice;
+        if (actual != null && actual.version() == version.get()) {
+            return actual;
+        }
+        synchronized (this) {
+            actual = indice;
+            long versionActual = version.get();
+            if (actual != null && actual.version() == versionActual) {
+                return actual;
+            }
+            Indice nuevo = lectura.execute(status ->
+                    construir(versionActual, permisoRepository.findAll(), rolRepository.findAll()));
+            if (version.get() == versionActual) {
+                indice = nuevo;
+            }
+            return nuevo;
+        }
+    }
+
+    /**
+     * Compila el índice a partir de los permisos y roles (con sus permisos cargados)
+     */
+    static Indice construir(long version, List<Permiso> permisos, List<Rol> roles) {
+        TreeSet<String> nombres = new TreeSet<>();
+        for (Permiso permiso : permisos) {
+            nombres.add(permiso.getName());
+        }
+        for (Rol rol : roles) {
+            nombres.add(PREFIJO_ROL + rol.getName());
+            for (Permiso permiso : rol.getPermissions()) {
+                nombres.add(permiso.getName());
+            }
+        }
+
+        Map<String, Integer> posiciones = new HashMap<>();
+        Map<String, Integer> posicionesRol = new HashMap<>();
+        for (String nombre : nombres) {
+            int posicion = posiciones.size();
+            posiciones.put(nombre, posicion);
+            if (nombre.startsWith(PREFIJO_ROL)) {
+                posicionesRol.put(nombre.substring(PREFIJO_ROL.length()), posicion);
+            }
+        }
+
+        Indice indice = new Indice(version, Map.copyOf(posiciones), Map.copyOf(posicionesRol), new HashMap<>());
+        for (Rol rol : roles) {
+            BitSet bits = new BitSet(posiciones.size());
+            List<GrantedAuthority> authorities = new ArrayList<>(rol.getPermissions().size() + 1);
+            String nombreRol = PREFIJO_ROL + rol.getName();
+            bits.set(posiciones.get(nombreRol));
+            authorities.add(new SimpleGrantedAuthority(nombreRol));
+            for (Permiso permiso : rol.getPermissions()) {
+                bits.set(posiciones.get(permiso.getName()));
+                authorities.add(new SimpleGrantedAuthority(permiso.getName()));
+            }
+            indice.porRol().put(rol.getId(), new PermisosCompilados(indice, bits, List.copyOf(authorities)));
+        }
+        return indice;
+    }
+
+    /**
+     * Foto inmutable del registro: posiciones de cada authority y bitset de cada rol.
+     * porRol solo se llena dentro de construir(), antes de publicarse.
+     */
+    record Indice(long version,
+                  Map<String, Integer> posiciones,
+                  Map<String, Integer> posicionesRol,
+                  Map<Long, PermisosCompilados> porRol) {
+
+        int posicion(String authority) {
+            Integer posicion = authority == null ? null : posiciones.get(authority);
+            return posicion == null ? -1 : posicion;
+        }
+
+        int posicionRol(String rol) {
+            Integer posicion = rol == null ? null : posicionesRol.get(rol);
+            if (posicion == null && rol != null && rol.startsWith(PREFIJO_ROL)) {
+                return posicion(rol);
+            }
+            return posicion == null ? -1 : posicion;
+        }
+
+        boolean conoce(Collection<Rol> roles) {
+            for (Rol rol : roles) {
+                if (!porRol.containsKey(rol.getId())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        PermisosCompilados sinPermisos() {
+            return new PermisosCompilados(this, new BitSet(), List.of());
+        }
+    }
+}
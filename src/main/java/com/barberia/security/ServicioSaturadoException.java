@@ -0,0 +1,19 @@
+package com.barberia.security;
+
+/**
+ * El pool de hashing de contraseñas está lleno: se rechaza rápido (503) en vez de
+ * encolar más trabajo de CPU. El cliente puede reintentar en unos segundos.
+ */
+public class ServicioSaturadoException extends RuntimeException {
+
+    private final long reintentarEnSegundos;
+
+    public ServicioSaturadoException(String message, long reintentarEnSegundos) {
+        super(message);
+        this.reintentarEnSegundos = reintentarEnSegundos;
+    }
+
+    public long getReintentarEnSegundos() {
+        return reintentarEnSegundos;
+    }
+}
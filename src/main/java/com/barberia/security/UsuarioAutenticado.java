@@ -0,0 +1,62 @@
+package com.barberia.security;
+
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+
+/**
+ * UserDetails del usuario autenticado con sus permisos ya compilados (ver RegistroPermisos).
+ *
+ * Reemplaza a User de Spring Security: User copia las authorities a un TreeSet nuevo
+ * por cada carga, acá se devuelve la lista compartida del rol.
+ */
+public class UsuarioAutenticado implements UserDetails, CredentialsContainer {
+
+    private final String username;
+    private String password;
+    private final boolean habilitado;
+    private final PermisosCompilados permisos;
+
+    public UsuarioAutenticado(String username, String password, boolean habilitado, PermisosCompilados permisos) {
+        this.username = username;
+        this.password = password;
+        this.habilitado = habilitado;
+        this.permisos = permisos;
+    }
+
+    public PermisosCompilados getPermisos() {
+        return permisos;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return permisos.authorities();
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return habilitado;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        this.password = null;
+    }
+
+    @Override
+    public String toString() {
+        return "UsuarioAutenticado[" + username + "]";
+    }
+}
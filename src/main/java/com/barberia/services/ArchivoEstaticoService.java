@@ -0,0 +1,290 @@
+package com.barberia.services;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sirve los archivos de /uploads (logos, hero, galería, fotos) sin pasarlos por el heap.
+ *
+ * ANTES: el ResourceHandler de Spring copiaba cada imagen por un buffer de la JVM y solo
+ * mandaba Cache-Control de 1 hora; el navegador volvía a pedir las mismas imágenes.
+ *
+ * AHORA:
+ * 1. CERO COPIAS: con Tomcat (NIO) se delega el envío con los atributos de sendfile:
+ *    el kernel copia del archivo al socket (FileChannel.transferTo). Sin soporte
+ *    (HTTPS en Tomcat, otro contenedor) se usa transferTo al stream de salida.
+ * 2. ETag FUERTE: hash SHA-256 del contenido (128 bits), calculado una vez por archivo y
+ *    guardado en memoria mientras no cambien tamaño ni fecha de modificación.
+ * 3. CACHÉ: los archivos con nombre UUID o SHA-256 nunca cambian de contenido (un archivo
+ *    nuevo tiene otro nombre), así que van con "max-age=1 año, immutable". El resto, 1 hora.
+ *    Si el nombre ya es el SHA-256 del contenido, el ETag sale del nombre sin leer el archivo.
+ * 4. 304: If-None-Match (o If-Modified-Since si no hay ETag del cliente).
+ * 5. RANGOS: "bytes=a-b", "bytes=a-" y "bytes=-n" con If-Range. Varios rangos a la vez
+ *    se responden con el archivo completo (la RFC lo permite).
+ */
+@Service
+public class ArchivoEstaticoService {
+
+    private static final String SENDFILE_SOPORTE = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_ARCHIVO = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_INICIO = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_FIN = "org.apache.tomcat.sendfile.end";
+
+    /** "uuid.jpg", "{sha256}.jpg" o sus variantes "uuid-w800.jpg" */
+    private static final Pattern NOMBRE_INMUTABLE = Pattern.compile(
+            "([0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}|[0-9a-f]{64})(-w\\d+)?\\.[a-z0-9]+");
+    private static final Pattern RANGO = Pattern.compile("bytes=(\\d*)-(\\d*)");
+
+    private static final String CACHE_INMUTABLE = "public, max-age=31536000, immutable";
+
+    private final FileStorageService fileStorageService;
+    private final String cacheMutable;
+    private final int maxEtags;
+    private final Map<Path, Etiqueta> etags = new ConcurrentHashMap<>();
+
+    private record Etiqueta(long tamano, long modificado, String etag) {
+    }
+
+    public ArchivoEstaticoService(FileStorageService fileStorageService,
+                                  @Value("${file.cache-segundos:3600}") long cacheSegundos,
+                                  @Value("${file.max-etags:20000}") int maxEtags) {
+        this.fileStorageService = fileStorageService;
+        this.cacheMutable = "public, max-age=" + cacheSegundos;
+        this.maxEtags = maxEtags;
+    }
+
+    /**
+     * Responde GET/HEAD de un archivo de /uploads
+     */
+    public void servir(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path ruta = fileStorageService.resolverRuta(request.getRequestURI().substring(request.getContextPath().length()));
+        BasicFileAttributes atributos = ruta != null ? atributos(ruta) : null;
+        if (atributos == null || !atributos.isRegularFile() || oculto(ruta)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        long tamano = atributos.size();
+        long modificado = atributos.lastModifiedTime().toMillis();
+        String nombre = ruta.getFileName().toString();
+        String etag = fileStorageService.esPorContenido(nombre)
+                ? "\"" + nombre.substring(0, 32) + "\""
+                : etag(ruta, tamano, modificado);
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, modificado);
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                NOMBRE_INMUTABLE.matcher(nombre).matches() ? CACHE_INMUTABLE : cacheMutable);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (noModificado(request, etag, modificado)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentType(MediaTypeFactory.getMediaType(nombre)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setHeader("X-Content-Type-Options", "nosniff");
+
+        long inicio = 0;
+        long fin = tamano;
+        String rango = request.getHeader(HttpHeaders.RANGE);
+        if (rango != null && aplicaRango(request, etag, modificado)) {
+            long[] limites = parsearRango(rango, tamano);
+            if (limites == null) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + tamano);
+                response.setContentLength(0);
+                return;
+            }
+            if (limites.length == 2) {
+                inicio = limites[0];
+                fin = limites[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + inicio + "-" + (fin - 1) + "/" + tamano);
+            }
+        }
+        response.setContentLengthLong(fin - inicio);
+
+        if ("HEAD".equals(request.getMethod()) || fin == inicio) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SOPORTE))) {
+            // Tomcat envía el archivo con sendfile al terminar la petición
+            request.setAttribute(SENDFILE_ARCHIVO, ruta.toString());
+            request.setAttribute(SENDFILE_INICIO, inicio);
+            request.setAttribute(SENDFILE_FIN, fin);
+            return;
+        }
+
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            WritableByteChannel salida = Channels.newChannel(response.getOutputStream());
+            long posicion = inicio;
+            while (posicion < fin) {
+                long enviados = canal.transferTo(posicion, fin - posicion, salida);
+                if (enviados <= 0) {
+                    break;
+                }
+                posicion += enviados;
+            }
+        }
+    }
+
+    /**
+     * @return {inicio, fin} (fin exclusivo) si el rango es válido; arreglo vacío si se ignora
+     *         el Range (varios rangos, sintaxis no reconocida); null si está fuera del archivo (416)
+     */
+    static long[] parsearRango(String cabecera, long tamano) {
+        Matcher m = RANGO.matcher(cabecera.trim());
+        if (cabecera.indexOf(',') >= 0 || !m.matches() || (m.group(1).isEmpty() && m.group(2).isEmpty())) {
+            // Varios rangos o sintaxis no reconocida: se ignora el Range
+            return new long[0];
+        }
+        try {
+            long inicio;
+            long fin;
+            if (m.group(1).isEmpty()) {
+                // Sufijo: los últimos n bytes
+                long ultimos = Long.parseLong(m.group(2));
+                if (ultimos == 0) {
+                    return null;
+                }
+                inicio = Math.max(0, tamano - ultimos);
+                fin = tamano;
+            } else {
+                inicio = Long.parseLong(m.group(1));
+                fin = m.group(2).isEmpty() ? tamano : Math.min(Long.parseLong(m.group(2)) + 1, tamano);
+                if (m.group(2).length() > 0 && Long.parseLong(m.group(2)) < inicio) {
+                    return new long[0];
+                }
+            }
+            if (inicio >= tamano) {
+                return null;
+            }
+            return new long[]{inicio, fin};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    private static boolean noModificado(HttpServletRequest request, String etag, long modificado) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return coincide(ifNoneMatch, etag);
+        }
+        long ifModifiedSince = fecha(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && modificado / 1000 <= ifModifiedSince / 1000;
+    }
+
+    /**
+     * If-Range: el rango solo aplica si el archivo sigue siendo el que el cliente tiene
+     */
+    private static boolean aplicaRango(HttpServletRequest request, String etag, long modificado) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        long fecha = fecha(request, HttpHeaders.IF_RANGE);
+        return fecha >= 0 && modificado / 1000 == fecha / 1000;
+    }
+
+    /**
+     * Comparación débil de If-None-Match ("*", lista separada por comas, prefijo W/)
+     */
+    private static boolean coincide(String cabecera, String etag) {
+        for (String valor : cabecera.split(",")) {
+            String v = valor.trim();
+            if (v.equals("*") || v.equals(etag) || (v.startsWith("W/") && v.substring(2).equals(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long fecha(HttpServletRequest request, String cabecera) {
+        try {
+            return request.getDateHeader(cabecera);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Temporales de subida (.tmp/) y de variantes (*.tmp) no se sirven
+     */
+    private boolean oculto(Path ruta) {
+        for (Path parte : fileStorageService.getUploadDirectory().relativize(ruta)) {
+            if (parte.toString().startsWith(".")) {
+                return true;
+            }
+        }
+        return ruta.getFileName().toString().endsWith(".tmp");
+    }
+
+    private static BasicFileAttributes atributos(Path ruta) {
+        try {
+            return Files.readAttributes(ruta, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private String etag(Path ruta, long tamano, long modificado) throws IOException {
+        Etiqueta actual = etags.get(ruta);
+        if (actual != null && actual.tamano() == tamano && actual.modificado() == modificado) {
+            return actual.etag();
+        }
+        String etag = "\"" + hash(ruta) + "\"";
+        if (etags.size() >= maxEtags) {
+            etags.clear();
+        }
+        etags.put(ruta, new Etiqueta(tamano, modificado, etag));
+        return etag;
+    }
+
+    private static String hash(Path ruta) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            while (canal.read(buffer) > 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        byte[] completo = digest.digest();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(completo, 16));
+    }
+}
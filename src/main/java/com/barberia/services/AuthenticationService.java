@@ -362,7 +362,10 @@ public class AuthenticationService {
 //     * @return AuthResponse con token JWT y datos del usuario
 //     * @throws BadCredentialsException si credenciales son incorrectas
 //     */
-    @Transactional(readOnly = true)
+    // SIN @Transactional y SIN open-in-view (OpenInViewConfig excluye esta ruta): BCrypt
+    // tarda ~100 ms y con la sesión abierta se retendría una conexión del pool mientras
+    // hashea; así cada consulta toma y devuelve su propia conexión (roles y permisos son
+    // EAGER y el mapper solo lee columnas, no hay carga perezosa que necesite la sesión)
     public AuthResponse login(LoginRequest request) {
         
         // ═══════════════════════════════════════════════════════════════════
@@ -6,6 +6,7 @@ import com.barberia.dto.EstadoRequestGlobal;
 import com.barberia.mappers.CategoriaMapper;
 import com.barberia.models.Categoria;
 import com.barberia.repositories.CategoriaRepository;
+import com.barberia.services.common.CatalogoCacheService;
 import com.barberia.services.common.SecurityContextService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,12 +20,14 @@ public class CategoriaService {
     private final CategoriaRepository categoriaRepository;
     private final CategoriaMapper categoriaMapper;
     private final SecurityContextService securityContextService;
+    private final CatalogoCacheService catalogoCacheService;
 
 
-    public CategoriaService(CategoriaRepository categoriaRepository, CategoriaMapper categoriaMapper, SecurityContextService securityContextService) {
+    public CategoriaService(CategoriaRepository categoriaRepository, CategoriaMapper categoriaMapper, SecurityContextService securityContextService, CatalogoCacheService catalogoCacheService) {
         this.categoriaRepository = categoriaRepository;
         this.categoriaMapper = categoriaMapper;
         this.securityContextService = securityContextService;
+        this.catalogoCacheService = catalogoCacheService;
     }
 
     @Transactional
@@ -39,6 +42,7 @@ public class CategoriaService {
         }
 
        Categoria nuevaCategoria = categoriaRepository.save(categoria);
+       catalogoCacheService.invalidar(negocioId);
        return categoriaMapper.toResponse(nuevaCategoria);
     }
 
@@ -73,6 +77,7 @@ public class CategoriaService {
         categoriaMapper.updateEntity(categoriaExistente, request);
 
         Categoria categoriaActualizada = categoriaRepository.save(categoriaExistente);
+        catalogoCacheService.invalidar(categoriaExistente.getNegocio().getId());
         return categoriaMapper.toResponse(categoriaActualizada);
     }
     @Transactional
@@ -83,6 +88,7 @@ public class CategoriaService {
         categoriaExistente.setRegEstado(regEstado.getRegEstado());
 
         Categoria categoriaActualizada = categoriaRepository.save(categoriaExistente);
+        catalogoCacheService.invalidar(categoriaExistente.getNegocio().getId());
         return categoriaMapper.toResponse(categoriaActualizada);
     }
     @Transactional
@@ -92,6 +98,7 @@ public class CategoriaService {
 
         categoriaExistente.setRegEstado(0); // Establecer el estado a eliminado (0)
         Categoria categoriaActualizada = categoriaRepository.save(categoriaExistente);
+        catalogoCacheService.invalidar(categoriaExistente.getNegocio().getId());
         return categoriaMapper.toResponse(categoriaActualizada);
     }
 
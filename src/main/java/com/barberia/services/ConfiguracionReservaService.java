@@ -6,6 +6,7 @@ import com.barberia.dto.horarioNegocio.HorarioNegocioResponse;
 import com.barberia.mappers.ConfiguracionReservaMapper;
 import com.barberia.models.ConfiguracionReserva;
 import com.barberia.repositories.ConfiguracionReservaRepository;
+import com.barberia.services.common.CatalogoCacheService;
 import com.barberia.services.common.SecurityContextService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,11 +18,13 @@ public class ConfiguracionReservaService {
     private final ConfiguracionReservaRepository configuracionReservaRepository;
     private final ConfiguracionReservaMapper configuracionReservaMapper;
     private final SecurityContextService securityContextService;
+    private final CatalogoCacheService catalogoCacheService;
 
-    public ConfiguracionReservaService(ConfiguracionReservaRepository configuracionReservaRepository, ConfiguracionReservaMapper configuracionReservaMapper, SecurityContextService securityContextService) {
+    public ConfiguracionReservaService(ConfiguracionReservaRepository configuracionReservaRepository, ConfiguracionReservaMapper configuracionReservaMapper, SecurityContextService securityContextService, CatalogoCacheService catalogoCacheService) {
         this.configuracionReservaRepository = configuracionReservaRepository;
         this.configuracionReservaMapper = configuracionReservaMapper;
         this.securityContextService = securityContextService;
+        this.catalogoCacheService = catalogoCacheService;
     }
 
     @Transactional
@@ -41,6 +44,7 @@ public class ConfiguracionReservaService {
         }
 
         ConfiguracionReserva nuevaConfiguracionReserva = configuracionReservaRepository.save(configuracionReserva);
+        catalogoCacheService.invalidar(negocioId);
         return configuracionReservaMapper.toResponse(nuevaConfiguracionReserva);
     }
 
@@ -71,6 +75,7 @@ public class ConfiguracionReservaService {
         }
 
         ConfiguracionReserva guardada = configuracionReservaRepository.save(actualizada);
+        catalogoCacheService.invalidar(guardada.getNegocio().getId());
         return configuracionReservaMapper.toResponse(guardada);
     }
 
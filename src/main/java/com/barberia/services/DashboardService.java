@@ -6,7 +6,13 @@ import com.barberia.models.ReservaServicio;
 import com.barberia.models.Usuario;
 import com.barberia.repositories.DashboardRepository;
 import com.barberia.repositories.UsuarioRepository;
+import com.barberia.security.PermisosCompilados;
+import com.barberia.security.RegistroPermisos;
 import com.barberia.services.common.SecurityContextService;
+import com.barberia.services.dashboard.ContadoresHoyService;
+import com.barberia.services.dashboard.ContadoresHoyService.ResumenHoy;
+import com.barberia.services.dashboard.DashboardCacheService;
+import com.barberia.services.jfr.DashboardEvento;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -40,6 +46,10 @@ import java.util.stream.Collectors;
  * - "dia"    → Hoy
  * - "semana" → Últimos 7 días (lun-dom de la semana actual)
  * - "mes"    → Mes actual
+ *
+ * CACHÉ: el resumen se guarda unos segundos por negocio/período/tipo en
+ * DashboardCacheService; los builders solo reciben datos ya resueltos (no leen el
+ * SecurityContext) para poder recalcularse en segundo plano.
  */
 @Service
 public class DashboardService {
@@ -50,36 +60,47 @@ public class DashboardService {
     private static final Set<String> PERIODOS_VALIDOS = Set.of("dia", "semana", "mes");
 
     // Permisos que otorgan acceso al dashboard administrativo
-    private static final Set<String> PERMISOS_ADMIN = Set.of(
+    private static final String[] PERMISOS_ADMIN = {
             "FULL_ACCESS",
             "VIEW_DASHBOARD_ADMIN"
-    );
+    };
 
     // Roles que por nombre otorgan acceso administrativo
-    private static final Set<String> ROLES_ADMIN = Set.of(
-            "ROLE_ADMIN",
-            "ROLE_MANAGER",
-            "ROLE_SUPER_ADMIN"
-    );
+    private static final String[] ROLES_ADMIN = {
+            "ADMIN",
+            "MANAGER",
+            "SUPER_ADMIN"
+    };
 
     private final DashboardRepository dashboardRepository;
     private final UsuarioRepository usuarioRepository;
     private final SecurityContextService securityContextService;
+    private final DashboardCacheService dashboardCacheService;
+    private final ContadoresHoyService contadoresHoyService;
 
     public DashboardService(DashboardRepository dashboardRepository,
                             UsuarioRepository usuarioRepository,
-                            SecurityContextService securityContextService) {
+                            SecurityContextService securityContextService,
+                            DashboardCacheService dashboardCacheService,
+                            ContadoresHoyService contadoresHoyService) {
         this.dashboardRepository = dashboardRepository;
         this.usuarioRepository = usuarioRepository;
         this.securityContextService = securityContextService;
+        this.dashboardCacheService = dashboardCacheService;
+        this.contadoresHoyService = contadoresHoyService;
     }
 
     /**
      * Genera el resumen del dashboard según permisos del usuario.
+     * Evento JFR "barberia.Dashboard": negocio, tipo, periodo, filas leídas y si se calculó
+     * en esta petición o salió de la caché.
      * @param periodo "dia", "semana" o "mes" (default: "dia")
      */
     @Transactional(readOnly = true)
     public DashboardResumenResponse getResumen(String periodo) {
+        DashboardEvento evento = new DashboardEvento();
+        evento.iniciar();
+
         // Validar periodo
         if (periodo == null || !PERIODOS_VALIDOS.contains(periodo.toLowerCase())) {
             periodo = "dia";
@@ -99,14 +120,48 @@ public class DashboardService {
 
         // Determinar tipo de dashboard basado en permisos
         boolean esAdmin = tieneAccesoAdministrativo();
-
-        if (esAdmin) {
-            return buildDashboardAdministrativo(negocioId, usuario.getName(), nombreNegocio, periodo);
-        } else {
-            return buildDashboardOperativo(negocioId, usuario, nombreNegocio, periodo);
+        Long profesionalId = esAdmin ? null : findProfesionalIdByUsuario(usuario);
+
+        String periodoFinal = periodo;
+        DashboardCacheService.Clave clave = new DashboardCacheService.Clave(
+                negocioId, LocalDate.now(), periodo,
+                esAdmin ? TIPO_ADMINISTRATIVO : TIPO_OPERATIVO, profesionalId);
+
+        // Calculado en este hilo; una recarga en segundo plano (stale) no cuenta
+        Thread hilo = Thread.currentThread();
+        boolean[] calculado = {false};
+        Throwable error = null;
+        try {
+            DashboardResumenResponse resumen = dashboardCacheService.obtener(clave, () -> {
+                calculado[0] |= Thread.currentThread() == hilo;
+                return esAdmin
+                        ? buildDashboardAdministrativo(negocioId, nombreNegocio, periodoFinal)
+                        : buildDashboardOperativo(negocioId, profesionalId, nombreNegocio, periodoFinal);
+            });
+            return conNombreUsuario(resumen, usuario.getName());
+        } catch (RuntimeException | Error e) {
+            error = e;
+            throw e;
+        } finally {
+            evento.registrar(negocioId, profesionalId, periodoFinal, clave.tipo(), calculado[0], error);
         }
     }
 
+    /**
+     * Copia del resumen (compartido en caché) con el nombre del usuario de esta petición
+     */
+    private DashboardResumenResponse conNombreUsuario(DashboardResumenResponse resumen, String nombreUsuario) {
+        return DashboardResumenResponse.builder()
+                .tipoDashboard(resumen.getTipoDashboard())
+                .nombreUsuario(nombreUsuario)
+                .nombreNegocio(resumen.getNombreNegocio())
+                .periodoActivo(resumen.getPeriodoActivo())
+                .metricas(resumen.getMetricas())
+                .graficos(resumen.getGraficos())
+                .widgets(resumen.getWidgets())
+                .build();
+    }
+
     // ============================================================
     // VALIDACIÓN DE PERMISOS
     // ============================================================
@@ -121,17 +176,24 @@ public class DashboardService {
             return false;
         }
 
-        Collection<? extends GrantedAuthority> authorities = auth.getAuthorities();
-
-        // Verificar por rol
-        boolean tieneRolAdmin = authorities.stream()
-                .map(GrantedAuthority::getAuthority)
-                .anyMatch(ROLES_ADMIN::contains);
+        // Permisos compilados del token: test de bits, sin recorrer authorities
+        PermisosCompilados permisos = RegistroPermisos.de(auth);
+        if (permisos != null) {
+            return permisos.tieneAlgunRol(ROLES_ADMIN) || permisos.tieneAlgunaAuthority(PERMISOS_ADMIN);
+        }
 
-        // Verificar por permiso específico
-        boolean tienePermisoAdmin = authorities.stream()
-                .map(GrantedAuthority::getAuthority)
-                .anyMatch(PERMISOS_ADMIN::contains);
+        // Otro tipo de autenticación (tests, etc.): verificar sobre las authorities
+        boolean tieneRolAdmin = false;
+        boolean tienePermisoAdmin = false;
+        for (GrantedAuthority authority : auth.getAuthorities()) {
+            String nombre = authority.getAuthority();
+            for (String rol : ROLES_ADMIN) {
+                tieneRolAdmin |= ("ROLE_" + rol).equals(nombre);
+            }
+            for (String permiso : PERMISOS_ADMIN) {
+                tienePermisoAdmin |= permiso.equals(nombre);
+            }
+        }
 
         return tieneRolAdmin || tienePermisoAdmin;
     }
@@ -141,7 +203,6 @@ public class DashboardService {
     // ============================================================
 
     private DashboardResumenResponse buildDashboardAdministrativo(Long negocioId,
-                                                                    String nombreUsuario,
                                                                     String nombreNegocio,
                                                                     String periodo) {
         LocalDate hoy = LocalDate.now();
@@ -179,13 +240,13 @@ public class DashboardService {
         // ---- MÉTRICAS ----
         List<MetricaDTO> metricas = new ArrayList<>();
 
+        // Reservas, cancelaciones e ingresos de ambos períodos en una sola consulta
+        ComparativaPeriodosDTO comparativa = compararPeriodos(negocioId,
+                inicioPeriodo, finPeriodo, inicioPeriodoAnterior, finPeriodoAnterior);
+
         // Reservas del período
-        Long reservasPeriodo = "dia".equals(periodo)
-                ? dashboardRepository.countReservasByFecha(negocioId, hoy)
-                : dashboardRepository.countReservasByRangoFechas(negocioId, inicioPeriodo, finPeriodo);
-        Long reservasPeriodoAnt = "dia".equals(periodo)
-                ? dashboardRepository.countReservasByFecha(negocioId, ayer)
-                : dashboardRepository.countReservasByRangoFechas(negocioId, inicioPeriodoAnterior, finPeriodoAnterior);
+        Long reservasPeriodo = comparativa.getReservasActual();
+        Long reservasPeriodoAnt = comparativa.getReservasAnterior();
         Double cambioReservas = calcularCambioPorcentual(reservasPeriodoAnt, reservasPeriodo);
         metricas.add(MetricaDTO.builder()
                 .clave("reservas_periodo")
@@ -224,21 +285,18 @@ public class DashboardService {
                 .build());
 
         // Cancelaciones del período
-        Long cancelaciones = dashboardRepository.countCancelaciones(negocioId, inicioPeriodo, finPeriodo);
+        Long cancelaciones = comparativa.getCancelacionesActual();
         metricas.add(MetricaDTO.builder()
                 .clave("cancelaciones")
                 .etiqueta("Cancelaciones " + etiquetaPeriodo)
                 .valor(cancelaciones)
+                .cambioPorcentual(calcularCambioPorcentual(comparativa.getCancelacionesAnterior(), cancelaciones))
                 .icono("x-circle")
                 .build());
 
         // Ingreso estimado del período
-        BigDecimal ingresoPeriodo = "dia".equals(periodo)
-                ? dashboardRepository.sumaIngresosByFecha(negocioId, hoy)
-                : dashboardRepository.sumaIngresosByRango(negocioId, inicioPeriodo, finPeriodo);
-        BigDecimal ingresoPeriodoAnt = "dia".equals(periodo)
-                ? dashboardRepository.sumaIngresosByFecha(negocioId, ayer)
-                : dashboardRepository.sumaIngresosByRango(negocioId, inicioPeriodoAnterior, finPeriodoAnterior);
+        BigDecimal ingresoPeriodo = comparativa.getIngresoActual();
+        BigDecimal ingresoPeriodoAnt = comparativa.getIngresoAnterior();
         Double cambioIngreso = calcularCambioPorcentualDecimal(ingresoPeriodoAnt, ingresoPeriodo);
         metricas.add(MetricaDTO.builder()
                 .clave("ingreso_periodo")
@@ -315,7 +373,6 @@ public class DashboardService {
 
         return DashboardResumenResponse.builder()
                 .tipoDashboard(TIPO_ADMINISTRATIVO)
-                .nombreUsuario(nombreUsuario)
                 .nombreNegocio(nombreNegocio)
                 .periodoActivo(periodo)
                 .metricas(metricas)
@@ -329,7 +386,7 @@ public class DashboardService {
     // ============================================================
 
     private DashboardResumenResponse buildDashboardOperativo(Long negocioId,
-                                                              Usuario usuario,
+                                                              Long profesionalId,
                                                               String nombreNegocio,
                                                               String periodo) {
         LocalDate hoy = LocalDate.now();
@@ -352,9 +409,6 @@ public class DashboardService {
 
         List<WidgetDTO> widgets = new ArrayList<>();
 
-        // Buscar si el usuario está asociado a un profesional
-        Long profesionalId = findProfesionalIdByUsuario(usuario);
-
         if (profesionalId != null) {
             // Agenda del día del profesional
             List<Reserva> agendaDelDia = dashboardRepository.findAgendaProfesional(
@@ -370,10 +424,20 @@ public class DashboardService {
         List<MetricaDTO> metricas = new ArrayList<>();
         String etiquetaPeriodo = getEtiquetaPeriodo(periodo);
 
+        // "dia": contadores en memoria (O(1)); si no están listos, la BD como antes
+        Optional<ResumenHoy> hoyNegocio = "dia".equals(periodo)
+                ? contadoresHoyService.obtener(negocioId, null)
+                : Optional.empty();
+
         // Reservas del período (todo el negocio o del profesional según disponibilidad)
-        Long reservasPeriodo = "dia".equals(periodo)
-                ? dashboardRepository.countReservasByFecha(negocioId, hoy)
-                : dashboardRepository.countReservasByRangoFechas(negocioId, inicioPeriodo, finPeriodo);
+        // Sin contadores: una consulta para reservas e ingreso (sin período anterior)
+        ComparativaPeriodosDTO comparativa = hoyNegocio.isPresent()
+                ? null
+                : compararPeriodos(negocioId, inicioPeriodo, finPeriodo, inicioPeriodo, finPeriodo);
+
+        Long reservasPeriodo = hoyNegocio.isPresent()
+                ? hoyNegocio.get().reservas()
+                : comparativa.getReservasActual();
         metricas.add(MetricaDTO.builder()
                 .clave("reservas_periodo")
                 .etiqueta("Reservas " + etiquetaPeriodo)
@@ -382,25 +446,19 @@ public class DashboardService {
                 .build());
 
         if (profesionalId != null) {
-            List<Reserva> agendaCompleta = dashboardRepository.findAgendaProfesional(
-                    negocioId, profesionalId, hoy);
-            long pendientes = agendaCompleta.stream()
-                    .filter(r -> r.getEstado() != null && "PENDIENTE".equals(r.getEstado().name()))
-                    .count();
-            long atendidas = agendaCompleta.stream()
-                    .filter(r -> r.getEstado() != null && "ATENDIDA".equals(r.getEstado().name()))
-                    .count();
+            ResumenHoy hoyProfesional = contadoresHoyService.obtener(negocioId, profesionalId)
+                    .orElseGet(() -> contarAgenda(negocioId, profesionalId, hoy));
 
             metricas.add(MetricaDTO.builder()
-                    .clave("pendientes").etiqueta("Pendientes Hoy").valor(pendientes).icono("clock").build());
+                    .clave("pendientes").etiqueta("Pendientes Hoy").valor(hoyProfesional.pendientes()).icono("clock").build());
             metricas.add(MetricaDTO.builder()
-                    .clave("atendidas").etiqueta("Atendidas Hoy").valor(atendidas).icono("check-circle").build());
+                    .clave("atendidas").etiqueta("Atendidas Hoy").valor(hoyProfesional.atendidas()).icono("check-circle").build());
         }
 
         // Ingreso del período
-        BigDecimal ingresoPeriodo = "dia".equals(periodo)
-                ? dashboardRepository.sumaIngresosByFecha(negocioId, hoy)
-                : dashboardRepository.sumaIngresosByRango(negocioId, inicioPeriodo, finPeriodo);
+        BigDecimal ingresoPeriodo = hoyNegocio.isPresent()
+                ? hoyNegocio.get().ingreso()
+                : comparativa.getIngresoActual();
         metricas.add(MetricaDTO.builder()
                 .clave("ingreso_periodo")
                 .etiqueta("Ingreso " + etiquetaPeriodo)
@@ -411,7 +469,6 @@ public class DashboardService {
 
         return DashboardResumenResponse.builder()
                 .tipoDashboard(TIPO_OPERATIVO)
-                .nombreUsuario(usuario.getName())
                 .nombreNegocio(nombreNegocio)
                 .periodoActivo(periodo)
                 .metricas(metricas)
@@ -420,6 +477,33 @@ public class DashboardService {
                 .build();
     }
 
+    /**
+     * Período actual y anterior en una sola consulta; el rango recorrido es la unión de ambos
+     */
+    private ComparativaPeriodosDTO compararPeriodos(Long negocioId,
+                                                    LocalDate desde, LocalDate hasta,
+                                                    LocalDate desdeAnterior, LocalDate hastaAnterior) {
+        LocalDate rangoDesde = desdeAnterior.isBefore(desde) ? desdeAnterior : desde;
+        LocalDate rangoHasta = hastaAnterior.isAfter(hasta) ? hastaAnterior : hasta;
+        return dashboardRepository.compararPeriodos(negocioId, desde, hasta,
+                desdeAnterior, hastaAnterior, rangoDesde, rangoHasta);
+    }
+
+    /**
+     * Pendientes y atendidas de hoy de un profesional desde la BD
+     * (solo si los contadores en memoria no están listos)
+     */
+    private ResumenHoy contarAgenda(Long negocioId, Long profesionalId, LocalDate hoy) {
+        List<Reserva> agendaCompleta = dashboardRepository.findAgendaProfesional(negocioId, profesionalId, hoy);
+        long pendientes = agendaCompleta.stream()
+                .filter(r -> r.getEstado() != null && "PENDIENTE".equals(r.getEstado().name()))
+                .count();
+        long atendidas = agendaCompleta.stream()
+                .filter(r -> r.getEstado() != null && "ATENDIDA".equals(r.getEstado().name()))
+                .count();
+        return new ResumenHoy(0, pendientes, atendidas, 0, BigDecimal.ZERO);
+    }
+
     // ============================================================
     // BUILDERS DE GRÁFICOS
     // ============================================================
@@ -6,7 +6,10 @@ import com.barberia.mappers.ProfesionalMapper;
 import com.barberia.models.*;
 import com.barberia.models.enums.DiaSemana;
 import com.barberia.repositories.*;
+import com.barberia.services.common.Metricas;
+import com.barberia.services.jfr.DisponibilidadEvento;
 import com.barberia.services.common.SecurityContextService;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,6 +18,7 @@ import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
 
+@Slf4j
 @Service
 public class DisponibilidadService {
     private final HorarioProfesionalRepository horarioProfesionalRepo;
@@ -25,6 +29,7 @@ public class DisponibilidadService {
     private final ReservaRepository reservaRepository;
     private final SecurityContextService securityContextService;
     private final ProfesionalMapper profesionalMapper;
+    private final Metricas metricas;
 
     public DisponibilidadService(HorarioProfesionalRepository horarioProfesionalRepo,
                                  HorarioNegocioRepository horarioNegocioRepo,
@@ -33,7 +38,8 @@ public class DisponibilidadService {
                                  ProfesionalRepository profesionalRepository,
                                  ReservaRepository reservaRepository,
                                  SecurityContextService securityContextService,
-                                 ProfesionalMapper profesionalMapper) {
+                                 ProfesionalMapper profesionalMapper,
+                                 Metricas metricas) {
         this.reservaRepository = reservaRepository;
         this.horarioProfesionalRepo = horarioProfesionalRepo;
         this.horarioNegocioRepo = horarioNegocioRepo;
@@ -42,6 +48,7 @@ public class DisponibilidadService {
         this.profesionalRepository = profesionalRepository;
         this.securityContextService = securityContextService;
         this.profesionalMapper = profesionalMapper;
+        this.metricas = metricas;
     }
 
 
@@ -55,12 +62,31 @@ public class DisponibilidadService {
      * 
      * El servicio NO define la disponibilidad base, pero debe validarse posteriormente
      * que su duración encaje en las horas disponibles mostradas.
+     *
+     * Se mide en el timer "barberia.disponibilidad" (negocio, resultado) y en el evento JFR
+     * "barberia.Disponibilidad" (negocio, profesional, fecha, horas disponibles, filas leídas).
      */
     @Transactional
     public DisponibilidadResponse disponibilidad(DisponibilidadRequest request) {
         // MULTI-TENANT: Obtener negocioId del JWT
         Long negocioId = securityContextService.getNegocioIdFromContext();
-        
+        DisponibilidadEvento evento = new DisponibilidadEvento();
+        evento.iniciar();
+        DisponibilidadResponse respuesta = null;
+        Throwable error = null;
+        try {
+            respuesta = metricas.medir("barberia.disponibilidad", negocioId, () -> calcular(request, negocioId));
+            return respuesta;
+        } catch (RuntimeException | Error e) {
+            error = e;
+            throw e;
+        } finally {
+            evento.registrar(negocioId, request.getProfesionalId(), request.getFecha(),
+                    respuesta != null ? respuesta.getCantidadHorasDisponibles() : null, error);
+        }
+    }
+
+    private DisponibilidadResponse calcular(DisponibilidadRequest request, Long negocioId) {
         LocalDate fecha = request.getFecha();
 
         // Convertir el día de la semana
@@ -122,13 +148,12 @@ public class DisponibilidadService {
                 throw new RuntimeException("El profesional no tiene horarios establecidos para el día: " + diaSemana);
             }
             
-            System.out.println("Cantidad de horarios encontrados: " + horarios.size());
+            log.debug("Cantidad de horarios encontrados: {}", horarios.size());
 
             // Procesar cada bloque de horario del profesional
             for (HorarioProfesional horario : horarios) {
-                System.out.println("Procesando horario: " + horario.getId() + " - " + 
-                                   horario.getDiaSemana() + " " + 
-                                   horario.getHoraInicio() + "-" + horario.getHoraFin());
+                log.debug("Procesando horario: {} - {} {}-{}", horario.getId(),
+                        horario.getDiaSemana(), horario.getHoraInicio(), horario.getHoraFin());
                 
                 List<LocalTime> slots = generarSlotsDisponibles(
                         horario.getHoraInicio(), 
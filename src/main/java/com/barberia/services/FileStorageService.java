@@ -1,16 +1,37 @@
 package com.barberia.services;
 
+import com.barberia.models.ArchivoSubido;
+import com.barberia.repositories.ArchivoSubidoRepository;
+import com.barberia.services.almacenamiento.AlmacenamientoArchivos;
+import com.barberia.services.common.Metricas;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.util.UUID;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.regex.Pattern;
 
 /**
  * Servicio para gestión de archivos (imágenes, documentos, etc.)
@@ -18,42 +39,101 @@ import java.util.UUID;
  * ARQUITECTURA ESCALABLE:
  * ══════════════════════════════════════════════════════════════════════════════
  * 
- * IMPLEMENTACIÓN ACTUAL:
- * - Almacenamiento local en carpeta 'uploads/'
- * - URL relativa guardada en BD
- * - Ideal para desarrollo y servidores pequeños
- * 
- * MIGRACIÓN FUTURA A LA NUBE:
- * - Cambiar implementación a AWS S3, Google Cloud Storage, Cloudinary, etc.
- * - Solo modificar este servicio sin tocar controllers ni services
- * - Las URLs en BD seguirán funcionando (cambiarán de relativas a absolutas)
+ * DÓNDE SE GUARDAN (AlmacenamientoArchivos, elegido con almacenamiento.tipo):
+ * - local: carpeta 'uploads/', URL relativa "/uploads/..." guardada en BD
+ * - s3: bucket S3 o compatible, URL absoluta (CDN) guardada en BD; varios nodos
+ *   comparten los mismos archivos
+ * - Este servicio valida, calcula el hash y lleva las referencias; los controllers y
+ *   services no saben dónde terminan los archivos
  * 
  * BUENAS PRÁCTICAS:
- * - Validación de tipos de archivo
- * - Nombres únicos con UUID para evitar colisiones
- * - Limpieza de archivos antiguos al actualizar
+ * - Validación de tipos de archivo por cabecera (bytes mágicos), no por Content-Type
+ *   ni por extensión: la extensión guardada es la del formato detectado
+ * - Dimensiones leídas de la cabecera sin decodificar la imagen; se rechazan las que
+ *   superan imagenes.max-pixeles (una imagen de 5MB puede descomprimirse a GB)
+ * - Limpieza de archivos antiguos al actualizar (incluye sus variantes redimensionadas,
+ *   ver ImagenVariantesService)
+ *
+ * ALMACENAMIENTO POR CONTENIDO (sin duplicados):
+ * - La subida se copia a un temporal calculando el SHA-256 al mismo tiempo y se publica
+ *   con la clave "{carpeta}/{sha256}.{ext}": subir otra vez el mismo logo o la misma foto
+ *   (otro negocio, otra sucursal) no ocupa disco y devuelve la misma URL
+ * - Cada URL tiene una fila en archivos_subidos con un contador de referencias:
+ *   guardar suma una, deleteFile resta una DESPUÉS del commit (si la transacción se
+ *   revierte, la imagen anterior sigue en uso) y LimpiezaArchivosService borra los
+ *   archivos que quedan en 0
+ * - El contenido nunca cambia para una URL: caché HTTP y variantes son estables
+ * - Los archivos anteriores con nombre UUID no tienen contador y se borran como antes
+ *
+ * SUBIDA EN DOS FASES (galería, logo y hero):
+ * - Los services llaman a saveXxx SIN transacción abierta: la copia, el hash y la
+ *   publicación no ocupan una conexión de la BD; solo el alta de la referencia usa una,
+ *   en su propia transacción corta
+ * - Después graban la entidad en otra transacción corta; si falla, compensan con
+ *   deleteFile (devuelve la referencia) y la limpieza borra el archivo
  * 
  * @author Barberia Team
  */
+@Slf4j
 @Service
 public class FileStorageService {
 
+    /** "{sha256}.ext": archivo guardado por contenido */
+    private static final Pattern NOMBRE_POR_CONTENIDO = Pattern.compile("[0-9a-f]{64}\\.[a-z0-9]+");
+
+    private final AlmacenamientoArchivos almacenamiento;
+    private final ArchivoSubidoRepository archivoSubidoRepository;
+    private final TransactionTemplate transaccionPropia;
+    private final Metricas metricas;
     private final Path uploadDir;
-    private final Path logoDir;
-    private final Path heroDir;
-    private final Path galeriaDir;
+    private final Path temporalDir;
+    private final long maxPixeles;
+    private final List<Integer> anchosVariantes;
+
+    /**
+     * Formatos aceptados, reconocidos por sus primeros bytes
+     */
+    public enum FormatoImagen {
+        JPEG(".jpg", "image/jpeg"), PNG(".png", "image/png"), GIF(".gif", "image/gif"), WEBP(".webp", "image/webp");
+
+        private final String extension;
+        private final String contentType;
+
+        FormatoImagen(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
 
-    public FileStorageService(@Value("${file.upload-dir:uploads}") String uploadDirectory) {
+        public String getContentType() {
+            return contentType;
+        }
+    }
+
+    public FileStorageService(AlmacenamientoArchivos almacenamiento,
+                              ArchivoSubidoRepository archivoSubidoRepository,
+                              PlatformTransactionManager transactionManager,
+                              Metricas metricas,
+                              @Value("${file.upload-dir:uploads}") String uploadDirectory,
+                              @Value("${imagenes.max-pixeles:40000000}") long maxPixeles,
+                              @Value("${imagenes.variantes.anchos:320,800,1600}") List<Integer> anchosVariantes) {
+        this.almacenamiento = almacenamiento;
+        this.archivoSubidoRepository = archivoSubidoRepository;
+        this.metricas = metricas;
+        // Las referencias se confirman en su propia transacción corta (ver registrarReferencia)
+        this.transaccionPropia = new TransactionTemplate(transactionManager);
+        this.transaccionPropia.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
         this.uploadDir = Paths.get(uploadDirectory).toAbsolutePath().normalize();
-        this.logoDir = this.uploadDir.resolve("logos");
-        this.heroDir = this.uploadDir.resolve("hero");
-        this.galeriaDir = this.uploadDir.resolve("galeria");
-        
+        // Temporales de subida siempre en disco local (también con S3: se sube ya con el hash)
+        this.temporalDir = this.uploadDir.resolve(".tmp");
+        this.maxPixeles = maxPixeles;
+        this.anchosVariantes = anchosVariantes.stream().distinct().sorted().toList();
+
         try {
-            Files.createDirectories(this.uploadDir);
-            Files.createDirectories(this.logoDir);
-            Files.createDirectories(this.heroDir);
-            Files.createDirectories(this.galeriaDir);
+            Files.createDirectories(this.temporalDir);
         } catch (IOException e) {
             throw new RuntimeException("No se pudo crear el directorio de almacenamiento: " + e.getMessage());
         }
@@ -63,7 +143,7 @@ public class FileStorageService {
      * Guarda un logo y retorna la URL relativa
      * 
      * @param file Archivo MultipartFile
-     * @return URL relativa del archivo (ej: "/uploads/logos/uuid-logo.png")
+     * @return URL relativa del archivo (ej: "/uploads/logos/{sha256}.png")
      */
     public String saveLogo(MultipartFile file) {
         return saveImage(file, "logos");
@@ -73,7 +153,7 @@ public class FileStorageService {
      * Guarda una imagen de hero y retorna la URL relativa
      * 
      * @param file Archivo MultipartFile
-     * @return URL relativa del archivo (ej: "/uploads/hero/uuid.jpg")
+     * @return URL relativa del archivo (ej: "/uploads/hero/{sha256}.jpg")
      */
     public String saveHero(MultipartFile file) {
         return saveImage(file, "hero");
@@ -83,7 +163,7 @@ public class FileStorageService {
      * Guarda una imagen de galería y retorna la URL relativa
      * 
      * @param file Archivo MultipartFile
-     * @return URL relativa del archivo (ej: "/uploads/galeria/uuid.jpg")
+     * @return URL relativa del archivo (ej: "/uploads/galeria/{sha256}.jpg")
      */
     public String saveGaleria(MultipartFile file) {
         return saveImage(file, "galeria");
@@ -97,6 +177,12 @@ public class FileStorageService {
      * @return URL relativa del archivo
      */
     public String saveImage(MultipartFile file, String folder) {
+        // Timer "barberia.archivos.subida" (negocio, carpeta, resultado): validación, hash y publicación
+        return metricas.medir("barberia.archivos.subida", Metricas.negocioActual(),
+                () -> guardarImagen(file, folder), "carpeta", folder);
+    }
+
+    private String guardarImagen(MultipartFile file, String folder) {
         if (file == null || file.isEmpty()) {
             throw new RuntimeException("El archivo está vacío");
         }
@@ -113,28 +199,51 @@ public class FileStorageService {
         }
 
         try {
-            // Crear directorio si no existe
-            Path targetDir = this.uploadDir.resolve(folder);
-            Files.createDirectories(targetDir);
+            // Validar que el contenido sea realmente una imagen
+            FormatoImagen formato = validarImagen(file);
+
+            // 1. Copiar a un temporal calculando el SHA-256 en la misma pasada
+            Path temporal = Files.createTempFile(this.temporalDir, "subida-", ".part");
+            try {
+                MessageDigest digest = sha256();
+                try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                    Files.copy(in, temporal, StandardCopyOption.REPLACE_EXISTING);
+                }
+                String hash = HexFormat.of().formatHex(digest.digest());
 
-            // Generar nombre único
-            String originalFilename = StringUtils.cleanPath(file.getOriginalFilename());
-            String extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            String filename = UUID.randomUUID().toString() + extension;
+                // Nombre según el contenido (extensión según el formato detectado, no según el nombre enviado)
+                String clave = folder + "/" + hash + formato.getExtension();
+                String url = almacenamiento.url(clave);
+                long tamano = Files.size(temporal);
 
-            // Guardar archivo
-            Path targetLocation = targetDir.resolve(filename);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+                // 2. Publicar ANTES de tocar la BD: con open-in-view la conexión que se usa en la
+                //    petición queda tomada hasta el final, y la escritura (disco o S3) es lo lento.
+                //    Si ya existía, el temporal se descarta: mismo contenido
+                if (!almacenamiento.existe(clave)) {
+                    almacenamiento.guardar(clave, temporal, formato.getContentType());
+                }
 
-            // Retornar URL relativa
-            return "/uploads/" + folder + "/" + filename;
+                // 3. Referencia. Si la fila no existía, la limpieza pudo borrar este mismo contenido
+                //    entre 2 y 3 (tenía una fila vieja en 0 y la bloqueó primero): se verifica
+                if (registrarReferencia(url, hash, tamano) && !almacenamiento.existe(clave)) {
+                    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                        liberarReferencia(url);
+                    }
+                    throw new RuntimeException("La imagen se estaba eliminando, vuelva a subirla");
+                }
+
+                return url;
+            } finally {
+                Files.deleteIfExists(temporal);
+            }
         } catch (IOException e) {
             throw new RuntimeException("Error al guardar el archivo: " + e.getMessage());
         }
     }
 
     /**
-     * Elimina un archivo del sistema
+     * Deja de usar un archivo: si está guardado por contenido resta una referencia al
+     * confirmarse la transacción actual (lo borra la limpieza); si no, lo elimina
      * 
      * @param fileUrl URL relativa del archivo (ej: "/uploads/logos/uuid-logo.png")
      */
@@ -142,48 +251,228 @@ public class FileStorageService {
         if (fileUrl == null || fileUrl.isEmpty()) {
             return;
         }
+        if (esPorContenido(fileUrl)) {
+            despuesDelCommit(() -> liberarReferencia(fileUrl));
+            return;
+        }
+        eliminarArchivo(fileUrl);
+    }
 
+    /**
+     * Elimina del almacenamiento el archivo y sus variantes, sin mirar referencias
+     */
+    public void eliminarArchivo(String fileUrl) {
+        // fileUrl = "/uploads/logos/uuid.png" → clave "logos/uuid.png"
+        String clave = almacenamiento.clave(fileUrl);
+        if (clave == null) {
+            return;
+        }
         try {
-            // Construir ruta completa desde la URL relativa
-            // fileUrl = "/uploads/logos/uuid.png" → "logos/uuid.png"
-            String relativePath = fileUrl.startsWith("/uploads/") 
-                    ? fileUrl.substring("/uploads/".length()) 
-                    : fileUrl;
-            Path filePath = this.uploadDir.resolve(relativePath);
-            
-            // Eliminar si existe
-            Files.deleteIfExists(filePath);
+            almacenamiento.eliminar(clave);
+
+            // Eliminar variantes redimensionadas (si se generaron)
+            for (int ancho : anchosVariantes) {
+                almacenamiento.eliminar(urlVariante(clave, ancho, ".jpg"));
+                almacenamiento.eliminar(urlVariante(clave, ancho, ".png"));
+            }
         } catch (IOException e) {
             // Log error pero no fallar (el archivo podría no existir)
-            System.err.println("No se pudo eliminar el archivo: " + e.getMessage());
+            log.warn("No se pudo eliminar el archivo {}: {}", fileUrl, e.getMessage());
         }
     }
 
+    // ========== REFERENCIAS ==========
+
     /**
-     * Valida si un archivo es una imagen válida
+     * true si la URL es de un archivo guardado por contenido (con contador de referencias)
      */
-    private boolean isValidImage(MultipartFile file) {
-        String contentType = file.getContentType();
-        return contentType != null && (
-                contentType.equals("image/jpeg") ||
-                contentType.equals("image/png") ||
-                contentType.equals("image/jpg") ||
-                contentType.equals("image/webp")
-        );
+    public boolean esPorContenido(String fileUrl) {
+        return fileUrl != null && NOMBRE_POR_CONTENIDO.matcher(fileUrl.substring(fileUrl.lastIndexOf('/') + 1)).matches();
     }
 
     /**
-     * Obtiene la ruta completa del directorio de logos
-     * Útil para servir archivos estáticos
+     * Suma una referencia en una transacción propia (la fila queda visible para la limpieza
+     * enseguida). Si la transacción del llamador se revierte, la referencia se devuelve;
+     * sin transacción, el llamador debe devolverla con deleteFile si algo falla después.
+     *
+     * @return true si se creó la fila (el archivo no tenía referencias registradas)
      */
-    public Path getLogoDirectory() {
-        return this.logoDir;
+    private boolean registrarReferencia(String url, String hash, long tamano) {
+        boolean filaNueva;
+        for (int intento = 1; ; intento++) {
+            try {
+                filaNueva = Boolean.TRUE.equals(transaccionPropia.execute(status -> {
+                    LocalDateTime ahora = LocalDateTime.now();
+                    if (archivoSubidoRepository.incrementarReferencias(url, ahora) > 0) {
+                        return false;
+                    }
+                    archivoSubidoRepository.saveAndFlush(ArchivoSubido.builder()
+                            .url(url)
+                            .hash(hash)
+                            .tamano(tamano)
+                            .referencias(1)
+                            .updatedAt(ahora)
+                            .build());
+                    return true;
+                }));
+                break;
+            } catch (DataIntegrityViolationException e) {
+                // Otra subida del mismo contenido creó la fila entre el UPDATE y el INSERT
+                if (intento == 3) {
+                    throw e;
+                }
+            }
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        liberarReferencia(url);
+                    }
+                }
+            });
+        }
+        return filaNueva;
+    }
+
+    private void liberarReferencia(String url) {
+        try {
+            transaccionPropia.executeWithoutResult(status ->
+                    archivoSubidoRepository.decrementarReferencias(url, LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            // Peor caso: el archivo queda en disco con una referencia de más
+            log.warn("No se pudo liberar la referencia de {}: {}", url, e.getMessage());
+        }
+    }
+
+    private static void despuesDelCommit(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     /**
-     * Obtiene la ruta completa del directorio de uploads
+     * Valida la cabecera del archivo y sus dimensiones
+     *
+     * @return formato detectado
+     */
+    private FormatoImagen validarImagen(MultipartFile file) throws IOException {
+        byte[] cabecera;
+        try (InputStream in = file.getInputStream()) {
+            cabecera = in.readNBytes(12);
+        }
+        FormatoImagen formato = detectarFormato(cabecera);
+        if (formato == null) {
+            throw new RuntimeException("El archivo debe ser una imagen JPEG, PNG, GIF o WebP");
+        }
+        // ImageIO no trae lector de WebP: solo se valida la cabecera
+        if (formato == FormatoImagen.WEBP) {
+            return formato;
+        }
+
+        try (InputStream in = file.getInputStream();
+             ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) {
+                throw new RuntimeException("El archivo debe ser una imagen");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                long pixeles = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixeles <= 0) {
+                    throw new RuntimeException("La imagen está dañada");
+                }
+                if (pixeles > maxPixeles) {
+                    throw new RuntimeException("La imagen es demasiado grande (" + reader.getWidth(0) + "x"
+                            + reader.getHeight(0) + " px)");
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("La imagen está dañada");
+            } finally {
+                reader.dispose();
+            }
+        }
+        return formato;
+    }
+
+    /**
+     * Formato según los bytes mágicos, o null si no es una imagen aceptada
+     */
+    static FormatoImagen detectarFormato(byte[] b) {
+        if (b.length >= 3 && (b[0] & 0xFF) == 0xFF && (b[1] & 0xFF) == 0xD8 && (b[2] & 0xFF) == 0xFF) {
+            return FormatoImagen.JPEG;
+        }
+        if (b.length >= 8 && (b[0] & 0xFF) == 0x89 && b[1] == 'P' && b[2] == 'N' && b[3] == 'G'
+                && b[4] == 0x0D && b[5] == 0x0A && b[6] == 0x1A && b[7] == 0x0A) {
+            return FormatoImagen.PNG;
+        }
+        if (b.length >= 6 && b[0] == 'G' && b[1] == 'I' && b[2] == 'F' && b[3] == '8'
+                && (b[4] == '7' || b[4] == '9') && b[5] == 'a') {
+            return FormatoImagen.GIF;
+        }
+        if (b.length >= 12 && b[0] == 'R' && b[1] == 'I' && b[2] == 'F' && b[3] == 'F'
+                && b[8] == 'W' && b[9] == 'E' && b[10] == 'B' && b[11] == 'P') {
+            return FormatoImagen.WEBP;
+        }
+        return null;
+    }
+
+    // ========== VARIANTES ==========
+
+    /**
+     * Anchos de las variantes redimensionadas, de menor a mayor
+     */
+    public List<Integer> getAnchosVariantes() {
+        return anchosVariantes;
+    }
+
+    /**
+     * Ruta en disco de un archivo a partir de su URL, o null si no es un archivo del
+     * almacenamiento local (URL ajena, fuera de uploads o almacenamiento en S3)
+     */
+    public Path resolverRuta(String fileUrl) {
+        String clave = almacenamiento.clave(fileUrl);
+        return clave != null ? almacenamiento.rutaLocal(clave) : null;
+    }
+
+    /**
+     * URL (o clave) de la variante de un archivo: "/uploads/hero/uuid.jpg" → "/uploads/hero/uuid-w800.jpg"
+     */
+    public String urlVariante(String fileUrl, int ancho, String extension) {
+        int barra = fileUrl.lastIndexOf('/');
+        int punto = fileUrl.lastIndexOf('.');
+        String base = punto > barra ? fileUrl.substring(0, punto) : fileUrl;
+        return base + "-w" + ancho + extension;
+    }
+
+    /**
+     * Obtiene la ruta completa del directorio de uploads (almacenamiento local y temporales)
      */
     public Path getUploadDirectory() {
         return this.uploadDir;
     }
+
+    /**
+     * Carpeta local para temporales (subidas en curso, variantes antes de publicarlas)
+     */
+    public Path getTemporalDirectory() {
+        return this.temporalDir;
+    }
 }
@@ -5,9 +5,12 @@ import com.barberia.models.Negocio;
 import com.barberia.repositories.GaleriaImagenRepository;
 import com.barberia.repositories.NegocioRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.HashSet;
 import java.util.List;
 
 /**
@@ -19,6 +22,10 @@ import java.util.List;
  * - Subir nueva imagen (auto-orden al final)
  * - Eliminar imagen (elimina archivo físico + registro BD)
  * - Reordenar imágenes
+ *
+ * CONEXIONES: subir y eliminar no son @Transactional. El archivo (disco o S3) se escribe
+ * o libera FUERA de la transacción y la transacción solo cubre las filas, así una ráfaga
+ * de subidas lentas no deja al pool de conexiones sin conexiones para el resto de la API.
  */
 @Service
 public class GaleriaImagenService {
@@ -26,6 +33,8 @@ public class GaleriaImagenService {
     private final GaleriaImagenRepository galeriaImagenRepository;
     private final NegocioRepository negocioRepository;
     private final FileStorageService fileStorageService;
+    private final ImagenVariantesService imagenVariantesService;
+    private final TransactionTemplate transactionTemplate;
 
     /** Máximo de imágenes por negocio */
     private static final int MAX_IMAGENES = 20;
@@ -33,10 +42,14 @@ public class GaleriaImagenService {
     public GaleriaImagenService(
             GaleriaImagenRepository galeriaImagenRepository,
             NegocioRepository negocioRepository,
-            FileStorageService fileStorageService) {
+            FileStorageService fileStorageService,
+            ImagenVariantesService imagenVariantesService,
+            PlatformTransactionManager transactionManager) {
         this.galeriaImagenRepository = galeriaImagenRepository;
         this.negocioRepository = negocioRepository;
         this.fileStorageService = fileStorageService;
+        this.imagenVariantesService = imagenVariantesService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
@@ -48,14 +61,37 @@ public class GaleriaImagenService {
     }
 
     /**
-     * Sube una nueva imagen a la galería
+     * Sube una nueva imagen a la galería en dos fases (ver FileStorageService):
+     * 1. Archivo: validación, hash y publicación sin transacción
+     * 2. Registro: una transacción corta con el límite, el orden y el INSERT
+     * Si la fase 2 falla se devuelve la referencia del archivo (compensación).
      *
      * @param negocioId ID del negocio
      * @param file Archivo de imagen
      * @return GaleriaImagen creada
      */
-    @Transactional
     public GaleriaImagen upload(Long negocioId, MultipartFile file) {
+        // Fase 1: archivo
+        String imagenUrl = fileStorageService.saveGaleria(file);
+
+        // Fase 2: registro
+        GaleriaImagen guardada;
+        try {
+            guardada = transactionTemplate.execute(status -> registrar(negocioId, imagenUrl));
+        } catch (RuntimeException e) {
+            fileStorageService.deleteFile(imagenUrl);
+            throw e;
+        }
+
+        // Variantes en segundo plano (ya no hay transacción abierta: se programan enseguida)
+        Long imagenId = guardada.getId();
+        imagenVariantesService.generarDespuesDelCommit(imagenUrl, srcset ->
+                galeriaImagenRepository.findById(imagenId).ifPresent(g -> g.setSrcset(srcset)));
+
+        return guardada;
+    }
+
+    private GaleriaImagen registrar(Long negocioId, String imagenUrl) {
         Negocio negocio = negocioRepository.findById(negocioId)
                 .orElseThrow(() -> new RuntimeException("Negocio no encontrado con ID: " + negocioId));
 
@@ -65,9 +101,6 @@ public class GaleriaImagenService {
             throw new RuntimeException("Se ha alcanzado el máximo de " + MAX_IMAGENES + " imágenes en la galería");
         }
 
-        // Guardar archivo
-        String imagenUrl = fileStorageService.saveGaleria(file);
-
         // Obtener siguiente orden
         Integer maxOrden = galeriaImagenRepository.findMaxOrdenByNegocioId(negocioId);
         int nuevoOrden = (maxOrden != null ? maxOrden : 0) + 1;
@@ -83,36 +116,38 @@ public class GaleriaImagenService {
     }
 
     /**
-     * Elimina una imagen de la galería (archivo físico + registro BD)
+     * Elimina una imagen de la galería: primero el registro (transacción corta) y después,
+     * ya confirmado, el archivo
      *
      * @param negocioId ID del negocio (seguridad multi-tenant)
      * @param imagenId ID de la imagen a eliminar
      */
-    @Transactional
     public void delete(Long negocioId, Long imagenId) {
-        GaleriaImagen imagen = galeriaImagenRepository.findByIdAndNegocioId(imagenId, negocioId)
-                .orElseThrow(() -> new RuntimeException("Imagen no encontrada"));
-
-        // Eliminar archivo físico
-        fileStorageService.deleteFile(imagen.getImagenUrl());
+        String imagenUrl = transactionTemplate.execute(status -> {
+            GaleriaImagen imagen = galeriaImagenRepository.findByIdAndNegocioId(imagenId, negocioId)
+                    .orElseThrow(() -> new RuntimeException("Imagen no encontrada"));
+            galeriaImagenRepository.delete(imagen);
+            return imagen.getImagenUrl();
+        });
 
-        // Eliminar registro
-        galeriaImagenRepository.delete(imagen);
+        // Eliminar archivo (o devolver su referencia) fuera de la transacción
+        fileStorageService.deleteFile(imagenUrl);
     }
 
     /**
-     * Actualiza el orden de las imágenes
+     * Actualiza el orden de las imágenes con una sola sentencia UPDATE
      *
      * @param negocioId ID del negocio
      * @param imagenesIds Lista de IDs en el nuevo orden deseado
      */
     @Transactional
     public void reordenar(Long negocioId, List<Long> imagenesIds) {
-        for (int i = 0; i < imagenesIds.size(); i++) {
-            GaleriaImagen imagen = galeriaImagenRepository.findByIdAndNegocioId(imagenesIds.get(i), negocioId)
-                    .orElseThrow(() -> new RuntimeException("Imagen no encontrada"));
-            imagen.setOrden(i + 1);
-            galeriaImagenRepository.save(imagen);
+        if (imagenesIds == null || new HashSet<>(imagenesIds).size() != imagenesIds.size()) {
+            throw new RuntimeException("La lista de imágenes es inválida o tiene repetidos");
+        }
+        // Si algún id no es del negocio se revierte todo
+        if (galeriaImagenRepository.actualizarOrden(negocioId, imagenesIds) != imagenesIds.size()) {
+            throw new RuntimeException("Imagen no encontrada");
         }
     }
 }
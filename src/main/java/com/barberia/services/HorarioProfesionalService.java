@@ -8,6 +8,7 @@ import com.barberia.mappers.HorarioProfesionalMapper;
 import com.barberia.models.HorarioProfesional;
 import com.barberia.models.enums.DiaSemana;
 import com.barberia.repositories.HorarioProfesionalRepository;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,6 +16,7 @@ import java.time.Duration;
 import java.util.List;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 public class HorarioProfesionalService {
     private final HorarioProfesionalRepository horarioProfesionalRepository;
@@ -27,7 +29,7 @@ public class HorarioProfesionalService {
 
     @Transactional
     public HorarioProfesionalResponse create(HorarioProfesionalRequest request) {
-        System.out.println("Profesional ID en Service: " + request.getProfesionalId());
+        log.debug("Creando horario del profesional {}", request.getProfesionalId());
         HorarioProfesional horarioProfesional = horarioProfesionalMapper.toEntity(request);
 
         if (!horarioProfesional.getHoraInicio().isBefore(request.getHoraFin())) {
@@ -55,7 +57,7 @@ public class HorarioProfesionalService {
 
     @Transactional(readOnly = true)
     public List<HorarioProfesionalResponse> findAll(Long profesionalId) {
-        System.out.println("Profesional ID: " + profesionalId);
+        log.debug("Listando horarios del profesional {}", profesionalId);
         List<HorarioProfesional> horariosProfesionales = horarioProfesionalRepository.findByProfesional(profesionalId);
 
         return horariosProfesionales.stream()
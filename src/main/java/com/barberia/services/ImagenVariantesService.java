@@ -0,0 +1,351 @@
+package com.barberia.services;
+
+import com.barberia.services.almacenamiento.AlmacenamientoArchivos;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Genera versiones redimensionadas de las imágenes subidas (logo, hero, galería).
+ *
+ * PROBLEMA:
+ * El original se guarda tal cual (hasta 5MB) y la web pública lo servía completo a
+ * celulares que lo muestran a 400px de ancho.
+ *
+ * FUNCIONAMIENTO:
+ * 1. FileStorageService guarda y valida el original (la subida responde enseguida)
+ * 2. Al confirmarse la transacción de la subida, un pool acotado (imagenes.variantes.hilos,
+ *    con cola de imagenes.variantes.cola) genera una variante por cada ancho de
+ *    imagenes.variantes.anchos menor al del original: "uuid-w320.jpg", "uuid-w800.jpg", ...
+ * 3. Arma el srcset ("/uploads/hero/uuid-w320.jpg 320w, ..., /uploads/hero/uuid.jpg 2400w")
+ *    y lo entrega al callback del llamador, dentro de una transacción, para guardarlo
+ *    en Negocio o GaleriaImagen
+ *
+ * ORIENTACIÓN: las fotos de celular se guardan sin rotar y con el tag EXIF Orientation;
+ * el navegador las muestra rotadas pero ImageIO lo ignora. Se lee el tag del original
+ * y se rota/voltea antes de redimensionar (las variantes no llevan EXIF, quedan derechas).
+ *
+ * FORMATO: JPEG (calidad imagenes.variantes.calidad) o PNG si el original tiene
+ * transparencia (logos). ImageIO no trae codificador WebP y no se agrega una librería nativa.
+ *
+ * Si el pool está lleno o la imagen no se puede decodificar (WebP, JPEG CMYK) no hay
+ * variantes: el srcset queda null y la web pública usa el original como antes.
+ * Solo hay un decodificado a la vez por hilo, lo que acota la memoria usada.
+ *
+ * El original se lee y las variantes se publican por AlmacenamientoArchivos: funciona
+ * igual con la carpeta local que con S3.
+ */
+@Slf4j
+@Service
+public class ImagenVariantesService {
+
+    private static final String CABECERA_EXIF = "Exif\0\0";
+
+    private final FileStorageService fileStorageService;
+    private final AlmacenamientoArchivos almacenamiento;
+    private final TransactionTemplate transactionTemplate;
+    private final float calidad;
+    private final ExecutorService executor;
+
+    public ImagenVariantesService(FileStorageService fileStorageService,
+                                  AlmacenamientoArchivos almacenamiento,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${imagenes.variantes.calidad:0.82}") float calidad,
+                                  @Value("${imagenes.variantes.hilos:2}") int hilos,
+                                  @Value("${imagenes.variantes.cola:200}") int cola) {
+        this.fileStorageService = fileStorageService;
+        this.almacenamiento = almacenamiento;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.calidad = calidad;
+
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(hilos, hilos, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(cola),
+                r -> {
+                    Thread t = new Thread(r, "imagen-variantes-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    t.setPriority(Thread.NORM_PRIORITY - 1);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void detener() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Programa las variantes de la imagen para después del commit de la transacción actual
+     * (o ya mismo si no hay transacción).
+     *
+     * @param fileUrl URL del original (ej: "/uploads/hero/uuid.jpg")
+     * @param registrarSrcset recibe el srcset; se ejecuta en otro hilo dentro de una transacción
+     *                        nueva, por lo que debe volver a cargar la entidad y comprobar que
+     *                        sigue teniendo la misma URL (pudo cambiar mientras tanto)
+     */
+    public void generarDespuesDelCommit(String fileUrl, Consumer<String> registrarSrcset) {
+        if (almacenamiento.clave(fileUrl) == null) {
+            return;
+        }
+        Runnable programar = () -> programar(fileUrl, registrarSrcset);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    programar.run();
+                }
+            });
+        } else {
+            programar.run();
+        }
+    }
+
+    private void programar(String fileUrl, Consumer<String> registrarSrcset) {
+        try {
+            executor.execute(() -> {
+                try {
+                    String srcset = generar(fileUrl);
+                    if (srcset != null) {
+                        transactionTemplate.executeWithoutResult(status -> registrarSrcset.accept(srcset));
+                    }
+                } catch (Exception e) {
+                    log.warn("No se generaron variantes de {}: {}", fileUrl, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Cola de variantes llena, {} se servirá sin variantes", fileUrl);
+        }
+    }
+
+    /**
+     * Genera las variantes y devuelve el srcset, o null si no corresponde
+     * (no existe, no se pudo decodificar o el original ya es más chico que la menor variante)
+     */
+    String generar(String fileUrl) throws IOException {
+        String clave = almacenamiento.clave(fileUrl);
+        if (clave == null) {
+            return null;
+        }
+        byte[] original;
+        try (InputStream in = almacenamiento.abrir(clave)) {
+            original = in.readAllBytes();
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            return null;
+        }
+        BufferedImage imagen = ImageIO.read(new ByteArrayInputStream(original));
+        if (imagen == null) {
+            return null;
+        }
+        imagen = orientar(imagen, orientacionExif(original));
+
+        boolean transparencia = imagen.getColorModel().hasAlpha();
+        String extension = transparencia ? ".png" : ".jpg";
+        List<String> srcset = new ArrayList<>();
+        for (int ancho : fileStorageService.getAnchosVariantes()) {
+            if (ancho >= imagen.getWidth()) {
+                break;
+            }
+            String claveVariante = fileStorageService.urlVariante(clave, ancho, extension);
+            // Mismo contenido (archivo guardado por hash) = mismas variantes: se reutilizan
+            if (!fileStorageService.esPorContenido(fileUrl) || !almacenamiento.existe(claveVariante)) {
+                escribir(redimensionar(imagen, ancho, transparencia), claveVariante, transparencia);
+            }
+            srcset.add(almacenamiento.url(claveVariante) + " " + ancho + "w");
+        }
+        if (srcset.isEmpty()) {
+            return null;
+        }
+        srcset.add(fileUrl + " " + imagen.getWidth() + "w");
+        return String.join(", ", srcset);
+    }
+
+    /**
+     * Valor del tag EXIF Orientation (0x0112) de un JPEG, de 1 a 8; 1 (sin cambios) si no
+     * es JPEG, no tiene EXIF o el bloque está dañado.
+     *
+     * Solo recorre los segmentos de cabecera hasta APP1 "Exif" y lee el IFD0 del bloque
+     * TIFF que contiene (orden de bytes "II" o "MM")
+     */
+    static int orientacionExif(byte[] datos) {
+        if (datos.length < 4 || (datos[0] & 0xFF) != 0xFF || (datos[1] & 0xFF) != 0xD8) {
+            return 1;
+        }
+        int i = 2;
+        while (i + 4 <= datos.length && (datos[i] & 0xFF) == 0xFF) {
+            int marcador = datos[i + 1] & 0xFF;
+            if (marcador == 0xDA || marcador == 0xD9) {
+                // Empiezan los datos de la imagen: no hay más cabeceras
+                return 1;
+            }
+            int largo = ((datos[i + 2] & 0xFF) << 8) | (datos[i + 3] & 0xFF);
+            int fin = i + 2 + largo;
+            if (largo < 2 || fin > datos.length) {
+                return 1;
+            }
+            if (marcador == 0xE1 && largo >= 16
+                    && CABECERA_EXIF.equals(new String(datos, i + 4, 6, StandardCharsets.ISO_8859_1))) {
+                return orientacionTiff(datos, i + 10, fin);
+            }
+            i = fin;
+        }
+        return 1;
+    }
+
+    private static int orientacionTiff(byte[] datos, int inicio, int fin) {
+        boolean little;
+        if (datos[inicio] == 'I' && datos[inicio + 1] == 'I') {
+            little = true;
+        } else if (datos[inicio] == 'M' && datos[inicio + 1] == 'M') {
+            little = false;
+        } else {
+            return 1;
+        }
+        long desplazamiento = entero(datos, inicio + 4, 4, little);
+        if (desplazamiento < 8 || inicio + desplazamiento + 2 > fin) {
+            return 1;
+        }
+        int ifd = inicio + (int) desplazamiento;
+        int entradas = (int) entero(datos, ifd, 2, little);
+        for (int k = 0; k < entradas; k++) {
+            int entrada = ifd + 2 + k * 12;
+            if (entrada + 12 > fin) {
+                return 1;
+            }
+            if (entero(datos, entrada, 2, little) == 0x0112) {
+                int valor = (int) entero(datos, entrada + 8, 2, little);
+                return valor >= 1 && valor <= 8 ? valor : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static long entero(byte[] datos, int desde, int bytes, boolean little) {
+        long valor = 0;
+        for (int b = 0; b < bytes; b++) {
+            int indice = little ? desde + bytes - 1 - b : desde + b;
+            valor = (valor << 8) | (datos[indice] & 0xFF);
+        }
+        return valor;
+    }
+
+    /**
+     * Aplica la orientación EXIF: la imagen queda como la muestra el navegador.
+     * 2-4 voltean o giran 180°; 5-8 intercambian ancho y alto (giros de 90°)
+     */
+    static BufferedImage orientar(BufferedImage origen, int orientacion) {
+        int w = origen.getWidth();
+        int h = origen.getHeight();
+        // (x, y) del original → posición en la imagen derecha
+        AffineTransform transformacion = switch (orientacion) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);   // espejo horizontal
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);  // 180°
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);   // espejo vertical
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);    // transpuesta
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);   // 90° horario
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);  // transversa
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, w);   // 90° antihorario
+            default -> null;
+        };
+        if (transformacion == null) {
+            return origen;
+        }
+        boolean girada = orientacion >= 5;
+        BufferedImage destino = new BufferedImage(girada ? h : w, girada ? w : h,
+                origen.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = destino.createGraphics();
+        try {
+            g.drawImage(origen, transformacion, null);
+        } finally {
+            g.dispose();
+        }
+        return destino;
+    }
+
+    /**
+     * Reduce a la mitad en pasos sucesivos y termina en el ancho pedido: con una sola
+     * interpolación bilineal de 4000px a 320px se pierden detalles y aparece aliasing
+     */
+    static BufferedImage redimensionar(BufferedImage origen, int ancho, boolean transparencia) {
+        int alto = Math.max(1, (int) Math.round((double) origen.getHeight() * ancho / origen.getWidth()));
+        int tipo = transparencia ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        BufferedImage actual = origen;
+        int w = origen.getWidth();
+        int h = origen.getHeight();
+        do {
+            w = Math.max(ancho, w / 2);
+            h = w == ancho ? alto : Math.max(alto, h / 2);
+            BufferedImage paso = new BufferedImage(w, h, tipo);
+            Graphics2D g = paso.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(actual, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            actual = paso;
+        } while (w > ancho);
+        return actual;
+    }
+
+    /**
+     * Escribe en un temporal local y lo publica: nunca se sirve una variante a medio escribir
+     */
+    private void escribir(BufferedImage imagen, String clave, boolean transparencia) throws IOException {
+        Path temporal = Files.createTempFile(fileStorageService.getTemporalDirectory(), "variante-", ".tmp");
+        try {
+            if (transparencia) {
+                ImageIO.write(imagen, "png", temporal.toFile());
+            } else {
+                ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+                try (ImageOutputStream salida = ImageIO.createImageOutputStream(temporal.toFile())) {
+                    ImageWriteParam parametros = writer.getDefaultWriteParam();
+                    parametros.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    parametros.setCompressionQuality(calidad);
+                    parametros.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                    writer.setOutput(salida);
+                    writer.write(null, new IIOImage(imagen, null, null), parametros);
+                } finally {
+                    writer.dispose();
+                }
+            }
+            almacenamiento.guardar(clave, temporal, transparencia ? "image/png" : "image/jpeg");
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.barberia.services;
+
+import com.barberia.models.ArchivoSubido;
+import com.barberia.repositories.ArchivoSubidoRepository;
+import com.barberia.services.almacenamiento.AlmacenamientoArchivos;
+import com.barberia.services.almacenamiento.ObjetoAlmacenado;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Borra los archivos subidos que ya nadie usa (contador de referencias en 0).
+ *
+ * JOB: cada noche (archivos.limpieza.cron) toma los archivos con 0 referencias desde hace
+ * más de archivos.limpieza.gracia-horas (la gracia cubre a un navegador que todavía muestra
+ * la imagen anterior) y, uno por uno en su propia transacción:
+ * 1. Bloquea la fila volviendo a verificar que siga en 0
+ * 2. Borra el archivo y sus variantes
+ * 3. Borra la fila
+ *
+ * Una subida del mismo contenido en ese momento espera el bloqueo en su UPDATE de
+ * referencias, encuentra la fila borrada, la vuelve a crear y, si el archivo ya no está,
+ * devuelve la referencia y pide subir la imagen de nuevo.
+ *
+ * RECONCILIACIÓN (archivos.reconciliacion.cron, semanal): los contadores pueden quedar mal
+ * (caída entre la subida y el commit, borrados directos en BD, archivos anteriores a los
+ * contadores) y dejar archivos que nadie usa para siempre, algo caro en un bucket S3.
+ * Se listan los archivos del almacenamiento con más de la gracia de antigüedad y se
+ * comparan con las URLs que guardan Negocio, Servicio, Profesional y GaleriaImagen
+ * (una variante "-w800" cuenta como su original):
+ * - Guardado por hash y sin uso: el contador vuelve a 0 (o se crea la fila en 0) y lo
+ *   borra la limpieza de arriba con su bloqueo; nunca se borra directo porque una subida
+ *   del mismo contenido podría estar reutilizándolo
+ * - Nombre UUID u otro (no se vuelve a crear nunca): se borra directo
+ * También se borran los temporales de subidas interrumpidas.
+ *
+ * Si alguna URL guardada no corresponde al almacenamiento actual (otro dominio de bucket,
+ * cambio de driver, URL escrita a mano) la reconciliación NO se ejecuta: no hay forma de
+ * saber qué archivo usa esa URL y se podría borrar una imagen en uso.
+ */
+@Slf4j
+@Service
+public class LimpiezaArchivosService {
+
+    /** Sufijo de las variantes redimensionadas: "{nombre}-w800.jpg" */
+    private static final Pattern SUFIJO_VARIANTE = Pattern.compile("-w\\d+\\.[a-z0-9]+$");
+
+    private final ArchivoSubidoRepository archivoSubidoRepository;
+    private final FileStorageService fileStorageService;
+    private final AlmacenamientoArchivos almacenamiento;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+    private final boolean reconciliacionHabilitada;
+    private final long graciaHoras;
+    private final int tamanoLote;
+
+    private final AtomicBoolean enCurso = new AtomicBoolean(false);
+    private final AtomicBoolean reconciliando = new AtomicBoolean(false);
+
+    public LimpiezaArchivosService(ArchivoSubidoRepository archivoSubidoRepository,
+                                   FileStorageService fileStorageService,
+                                   AlmacenamientoArchivos almacenamiento,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${archivos.limpieza.habilitado:true}") boolean habilitado,
+                                   @Value("${archivos.reconciliacion.habilitado:true}") boolean reconciliacionHabilitada,
+                                   @Value("${archivos.limpieza.gracia-horas:24}") long graciaHoras,
+                                   @Value("${archivos.limpieza.tamano-lote:200}") int tamanoLote) {
+        this.archivoSubidoRepository = archivoSubidoRepository;
+        this.fileStorageService = fileStorageService;
+        this.almacenamiento = almacenamiento;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.habilitado = habilitado;
+        this.reconciliacionHabilitada = reconciliacionHabilitada;
+        this.graciaHoras = graciaHoras;
+        this.tamanoLote = tamanoLote;
+    }
+
+    @Scheduled(cron = "${archivos.limpieza.cron:0 10 4 * * *}", zone = "America/Lima")
+    public void limpiarProgramado() {
+        if (!habilitado) {
+            return;
+        }
+        limpiar();
+    }
+
+    /**
+     * @return cantidad de archivos borrados
+     */
+    public int limpiar() {
+        if (!enCurso.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            LocalDateTime limite = LocalDateTime.now().minusHours(graciaHoras);
+            int total = 0;
+            long ultimoId = 0;
+            List<Long> ids;
+            do {
+                ids = archivoSubidoRepository.findIdsSinReferencias(limite, PageRequest.of(0, tamanoLote));
+                for (Long id : ids) {
+                    if (Boolean.TRUE.equals(transactionTemplate.execute(status -> borrar(id)))) {
+                        total++;
+                    }
+                }
+                // Si ninguna fila del lote se pudo borrar (volvieron a usarse) no se insiste
+                if (!ids.isEmpty() && ids.get(ids.size() - 1) == ultimoId) {
+                    break;
+                }
+                ultimoId = ids.isEmpty() ? ultimoId : ids.get(ids.size() - 1);
+            } while (ids.size() == tamanoLote);
+
+            if (total > 0) {
+                log.info("Limpieza de archivos: {} archivos sin referencias borrados", total);
+            }
+            return total;
+        } finally {
+            enCurso.set(false);
+        }
+    }
+
+    private boolean borrar(Long id) {
+        return archivoSubidoRepository.bloquearSinReferencias(id)
+                .map(archivo -> {
+                    fileStorageService.eliminarArchivo(archivo.getUrl());
+                    archivoSubidoRepository.delete(archivo);
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    // ========== RECONCILIACIÓN ==========
+
+    @Scheduled(cron = "${archivos.reconciliacion.cron:0 40 4 * * SUN}", zone = "America/Lima")
+    public void reconciliarProgramado() {
+        if (!reconciliacionHabilitada) {
+            return;
+        }
+        reconciliar();
+    }
+
+    /**
+     * @return cantidad de archivos sin uso encontrados (borrados o recién pasados a la limpieza)
+     */
+    public int reconciliar() {
+        if (!reconciliando.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            Instant limite = Instant.now().minus(graciaHoras, ChronoUnit.HOURS);
+
+            // 1. Nombres en uso, sin extensión (la consulta va antes del listado: lo que se
+            //    suba después es más nuevo que el límite y no se toca). Las URLs externas
+            //    (og:image del negocio apuntando a otro sitio) no son archivos nuestros y se
+            //    ignoran; una URL con nuestro prefijo que no da una clave cancela todo
+            Set<String> enUso = new HashSet<>();
+            List<String> sinClave = new ArrayList<>();
+            for (String url : archivoSubidoRepository.findUrlsReferenciadas()) {
+                if (!almacenamiento.esPropia(url)) {
+                    continue;
+                }
+                String clave = almacenamiento.clave(url);
+                if (clave == null) {
+                    sinClave.add(url);
+                } else {
+                    enUso.add(base(clave));
+                }
+            }
+            if (!sinClave.isEmpty()) {
+                log.error("Reconciliación de archivos cancelada: {} URLs del almacenamiento actual no corresponden " +
+                        "a ninguna clave (ejemplos: {}). Corregirlas antes de reconciliar",
+                        sinClave.size(), sinClave.subList(0, Math.min(sinClave.size(), 5)));
+                return 0;
+            }
+
+            // 2. Originales y variantes viejos que no usa nadie
+            Set<String> originales = new HashSet<>();
+            Map<String, ObjetoAlmacenado> porContenido = new LinkedHashMap<>();
+            List<String> sinContador = new ArrayList<>();
+            Map<String, List<String>> variantes = new HashMap<>();
+            almacenamiento.listar("", objeto -> {
+                String base = base(objeto.clave());
+                boolean variante = SUFIJO_VARIANTE.matcher(objeto.clave()).find();
+                if (!variante) {
+                    originales.add(base);
+                }
+                if (!objeto.modificado().isBefore(limite) || enUso.contains(base)) {
+                    return;
+                }
+                if (variante) {
+                    variantes.computeIfAbsent(base, b -> new ArrayList<>()).add(objeto.clave());
+                } else if (fileStorageService.esPorContenido(objeto.clave())) {
+                    porContenido.put(objeto.clave(), objeto);
+                } else {
+                    sinContador.add(objeto.clave());
+                }
+            });
+
+            // 3. Por hash: contador a 0 y que los borre la limpieza (con bloqueo)
+            int pasados = 0;
+            for (ObjetoAlmacenado objeto : porContenido.values()) {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> pasarALimpieza(objeto)))) {
+                    pasados++;
+                }
+            }
+            // 4. Nombre UUID u otro: archivo y variantes se borran ya
+            for (String clave : sinContador) {
+                fileStorageService.eliminarArchivo(almacenamiento.url(clave));
+            }
+            // 5. Variantes cuyo original ya no existe
+            int huerfanas = 0;
+            for (Map.Entry<String, List<String>> entrada : variantes.entrySet()) {
+                if (!originales.contains(entrada.getKey())) {
+                    for (String clave : entrada.getValue()) {
+                        almacenamiento.eliminar(clave);
+                        huerfanas++;
+                    }
+                }
+            }
+            borrarTemporales(limite);
+
+            int total = pasados + sinContador.size() + huerfanas;
+            if (total > 0) {
+                log.info("Reconciliación de archivos: {} por hash pasados a la limpieza, {} borrados, {} variantes huérfanas",
+                        pasados, sinContador.size(), huerfanas);
+            }
+            return total;
+        } catch (IOException e) {
+            log.warn("Reconciliación de archivos interrumpida: {}", e.getMessage());
+            return 0;
+        } finally {
+            reconciliando.set(false);
+        }
+    }
+
+    /**
+     * @return false si ya estaba esperando a la limpieza (fila en 0) o se volvió a usar
+     */
+    private boolean pasarALimpieza(ObjetoAlmacenado objeto) {
+        String url = almacenamiento.url(objeto.clave());
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime limite = ahora.minusHours(graciaHoras);
+        if (archivoSubidoRepository.reiniciarReferencias(url, ahora, limite) > 0) {
+            log.warn("Contador de referencias corregido para {}", url);
+            return true;
+        }
+        if (archivoSubidoRepository.existsByUrl(url)) {
+            return false;
+        }
+        // Archivo sin fila: se crea en 0 para que la limpieza lo borre después de la gracia
+        String nombre = objeto.clave().substring(objeto.clave().lastIndexOf('/') + 1);
+        archivoSubidoRepository.save(ArchivoSubido.builder()
+                .url(url)
+                .hash(nombre.substring(0, nombre.indexOf('.')))
+                .tamano(objeto.tamano())
+                .referencias(0)
+                .updatedAt(ahora)
+                .build());
+        return true;
+    }
+
+    /**
+     * Nombre sin extensión ni sufijo de variante: "galeria/abc-w800.jpg" → "galeria/abc".
+     * Sin extensión porque una variante puede ser .jpg y su original .png, .gif o .webp
+     */
+    static String base(String clave) {
+        String sinVariante = SUFIJO_VARIANTE.matcher(clave).replaceFirst("");
+        int barra = sinVariante.lastIndexOf('/');
+        int punto = sinVariante.lastIndexOf('.');
+        return punto > barra ? sinVariante.substring(0, punto) : sinVariante;
+    }
+
+    private void borrarTemporales(Instant limite) {
+        try (DirectoryStream<Path> temporales = Files.newDirectoryStream(fileStorageService.getTemporalDirectory())) {
+            for (Path temporal : temporales) {
+                if (Files.getLastModifiedTime(temporal).toInstant().isBefore(limite)) {
+                    Files.deleteIfExists(temporal);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("No se pudieron borrar temporales: {}", e.getMessage());
+        }
+    }
+}
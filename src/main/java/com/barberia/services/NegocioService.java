@@ -8,9 +8,12 @@ import com.barberia.models.Negocio;
 import com.barberia.repositories.NegocioRepository;
 import com.barberia.services.common.SecurityContextService;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -21,14 +24,19 @@ public class NegocioService {
     private final NegocioMapper negocioMapper;
     private final FileStorageService fileStorageService;
     private final SecurityContextService securityContextService;
+    private final ImagenVariantesService imagenVariantesService;
+    private final TransactionTemplate transactionTemplate;
 
 
     public NegocioService(NegocioRepository negocioRepository, NegocioMapper negocioMapper, 
-                         FileStorageService fileStorageService, SecurityContextService securityContextService) {
+                         FileStorageService fileStorageService, SecurityContextService securityContextService,
+                         ImagenVariantesService imagenVariantesService, PlatformTransactionManager transactionManager) {
         this.negocioRepository = negocioRepository;
         this.negocioMapper = negocioMapper;
         this.fileStorageService = fileStorageService;
         this.securityContextService = securityContextService;
+        this.imagenVariantesService = imagenVariantesService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Transactional
@@ -87,15 +95,62 @@ public class NegocioService {
     }
 
     /**
-     * Actualiza la configuración completa del negocio incluyendo logo y hero opcionales
+     * Actualiza la configuración completa del negocio incluyendo logo y hero opcionales.
+     *
+     * En dos fases para no tener una conexión de la BD tomada mientras se escriben las imágenes:
+     * 1. Se guardan logo y hero sin transacción (ver FileStorageService)
+     * 2. Transacción corta con las validaciones y los datos; si falla se devuelven las
+     *    referencias de las imágenes nuevas
+     * Ya confirmado, se liberan las imágenes reemplazadas y se programan las variantes.
+     *
      * @param id ID del negocio
      * @param request Datos del negocio a actualizar
      * @param logo Archivo de imagen del logo (opcional)
      * @param heroImage Archivo de imagen del hero/portada (opcional)
      * @return NegocioResponse con los datos actualizados
      */
-    @Transactional
     public NegocioResponse updateConfiguracion(Long id, NegocioUpdateRequest request, MultipartFile logo, MultipartFile heroImage) {
+        // Fase 1: archivos
+        String logoUrl = logo != null && !logo.isEmpty() ? fileStorageService.saveLogo(logo) : null;
+        String heroUrl;
+        try {
+            heroUrl = heroImage != null && !heroImage.isEmpty() ? fileStorageService.saveHero(heroImage) : null;
+        } catch (RuntimeException e) {
+            fileStorageService.deleteFile(logoUrl);
+            throw e;
+        }
+
+        // Fase 2: datos
+        List<String> reemplazadas = new ArrayList<>();
+        NegocioResponse response;
+        try {
+            response = transactionTemplate.execute(status ->
+                    actualizarConfiguracion(id, request, logoUrl, heroUrl, reemplazadas));
+        } catch (RuntimeException e) {
+            fileStorageService.deleteFile(logoUrl);
+            fileStorageService.deleteFile(heroUrl);
+            throw e;
+        }
+
+        // Imágenes anteriores y variantes, fuera de la transacción
+        reemplazadas.forEach(fileStorageService::deleteFile);
+        if (logoUrl != null) {
+            imagenVariantesService.generarDespuesDelCommit(logoUrl, srcset ->
+                    negocioRepository.findById(id)
+                            .filter(n -> logoUrl.equals(n.getLogoUrl()))
+                            .ifPresent(n -> n.setLogoSrcset(srcset)));
+        }
+        if (heroUrl != null) {
+            imagenVariantesService.generarDespuesDelCommit(heroUrl, srcset ->
+                    negocioRepository.findById(id)
+                            .filter(n -> heroUrl.equals(n.getHeroImageUrl()))
+                            .ifPresent(n -> n.setHeroImageSrcset(srcset)));
+        }
+        return response;
+    }
+
+    private NegocioResponse actualizarConfiguracion(Long id, NegocioUpdateRequest request, String logoUrl,
+                                                    String heroUrl, List<String> reemplazadas) {
         Negocio negocio = negocioRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Negocio no encontrado con ID: " + id));
 
@@ -121,26 +176,22 @@ public class NegocioService {
         // Actualizar datos básicos usando el mapper sobrecargado
         negocioMapper.updateEntity(negocio, request);
 
-        // Actualizar logo si se envió uno nuevo
-        if (logo != null && !logo.isEmpty()) {
-            // Eliminar logo anterior si existe
+        // Actualizar logo si se envió uno nuevo (el anterior se libera después del commit)
+        if (logoUrl != null) {
             if (negocio.getLogoUrl() != null && !negocio.getLogoUrl().isBlank()) {
-                fileStorageService.deleteFile(negocio.getLogoUrl());
+                reemplazadas.add(negocio.getLogoUrl());
             }
-            // Guardar nuevo logo
-            String logoUrl = fileStorageService.saveLogo(logo);
             negocio.setLogoUrl(logoUrl);
+            negocio.setLogoSrcset(null);
         }
 
         // Actualizar hero image si se envió una nueva
-        if (heroImage != null && !heroImage.isEmpty()) {
-            // Eliminar hero anterior si existe
+        if (heroUrl != null) {
             if (negocio.getHeroImageUrl() != null && !negocio.getHeroImageUrl().isBlank()) {
-                fileStorageService.deleteFile(negocio.getHeroImageUrl());
+                reemplazadas.add(negocio.getHeroImageUrl());
             }
-            // Guardar nueva hero image
-            String heroUrl = fileStorageService.saveHero(heroImage);
             negocio.setHeroImageUrl(heroUrl);
+            negocio.setHeroImageSrcset(null);
         }
 
         Negocio negocioActualizado = negocioRepository.save(negocio);
@@ -148,21 +199,24 @@ public class NegocioService {
     }
 
     /**
-     * Elimina el logo del negocio
+     * Elimina el logo del negocio (el archivo se libera después del commit)
      */
-    @Transactional
     public NegocioResponse deleteLogo(Long id) {
-        Negocio negocio = negocioRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Negocio no encontrado con ID: " + id));
-
-        // Eliminar logo del sistema de archivos
-        if (negocio.getLogoUrl() != null) {
-            fileStorageService.deleteFile(negocio.getLogoUrl());
-            negocio.setLogoUrl(null);
-            negocioRepository.save(negocio);
-        }
+        String[] logoAnterior = new String[1];
+        NegocioResponse response = transactionTemplate.execute(status -> {
+            Negocio negocio = negocioRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Negocio no encontrado con ID: " + id));
+            if (negocio.getLogoUrl() != null) {
+                logoAnterior[0] = negocio.getLogoUrl();
+                negocio.setLogoUrl(null);
+                negocio.setLogoSrcset(null);
+                negocioRepository.save(negocio);
+            }
+            return negocioMapper.toResponse(negocio);
+        });
 
-        return negocioMapper.toResponse(negocio);
+        fileStorageService.deleteFile(logoAnterior[0]);
+        return response;
     }
 
     @Transactional
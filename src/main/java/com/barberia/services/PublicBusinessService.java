@@ -4,6 +4,8 @@ import com.barberia.dto.negocio.BusinessPublicResponse;
 import com.barberia.models.*;
 import com.barberia.models.enums.DiaSemana;
 import com.barberia.repositories.*;
+import com.barberia.services.common.CatalogoCacheService;
+import com.barberia.services.common.CatalogoNegocio;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,20 +27,20 @@ import java.util.stream.Collectors;
 public class PublicBusinessService {
 
     private final NegocioRepository negocioRepository;
-    private final ServicioRepository servicioRepository;
+    private final CatalogoCacheService catalogoCacheService;
     private final ProfesionalRepository profesionalRepository;
     private final HorarioNegocioRepository horarioNegocioRepository;
     private final GaleriaImagenRepository galeriaImagenRepository;
 
     public PublicBusinessService(
             NegocioRepository negocioRepository,
-            ServicioRepository servicioRepository,
+            CatalogoCacheService catalogoCacheService,
             ProfesionalRepository profesionalRepository,
             HorarioNegocioRepository horarioNegocioRepository,
             GaleriaImagenRepository galeriaImagenRepository
     ) {
         this.negocioRepository = negocioRepository;
-        this.servicioRepository = servicioRepository;
+        this.catalogoCacheService = catalogoCacheService;
         this.profesionalRepository = profesionalRepository;
         this.horarioNegocioRepository = horarioNegocioRepository;
         this.galeriaImagenRepository = galeriaImagenRepository;
@@ -61,9 +63,9 @@ public class PublicBusinessService {
 
         Long negocioId = negocio.getId();
 
-        // Obtener servicios activos del negocio
-        List<Servicio> servicios = servicioRepository
-                .findByRegEstadoNotAndNegocioIdAndCategoriaEstadoNot(0, negocioId);
+        // Obtener servicios activos del negocio (desde el catálogo en caché)
+        List<CatalogoNegocio.ServicioCatalogo> servicios = catalogoCacheService.obtener(negocioId)
+                .serviciosPublicos();
 
         // Obtener profesionales activos del negocio
         List<Profesional> profesionales = profesionalRepository
@@ -86,7 +88,7 @@ public class PublicBusinessService {
      */
     private BusinessPublicResponse buildPublicResponse(
             Negocio negocio,
-            List<Servicio> servicios,
+            List<CatalogoNegocio.ServicioCatalogo> servicios,
             List<Profesional> profesionales,
             List<HorarioNegocio> horarios,
             List<GaleriaImagen> galeria
@@ -102,6 +104,14 @@ public class PublicBusinessService {
                 .galeriaUrls(galeria.stream()
                         .map(GaleriaImagen::getImagenUrl)
                         .collect(Collectors.toList()))
+                .logoSrcset(negocio.getLogoSrcset())
+                .heroImageSrcset(negocio.getHeroImageSrcset())
+                .galeria(galeria.stream()
+                        .map(g -> BusinessPublicResponse.ImagenPublicaDto.builder()
+                                .url(g.getImagenUrl())
+                                .srcset(g.getSrcset())
+                                .build())
+                        .collect(Collectors.toList()))
                 .colorPrimary(negocio.getColorPrincipal() != null ? negocio.getColorPrincipal() : "#2563eb")
                 .colorSecondary(negocio.getColorSecundario() != null ? negocio.getColorSecundario() : "#1e293b")
                 .colorAccent(negocio.getColorAcento() != null ? negocio.getColorAcento() : "#f59e0b")
@@ -129,7 +139,6 @@ public class PublicBusinessService {
                         .build())
                 .horarios(buildHorariosPublicos(horarios))
                 .servicios(servicios.stream()
-                        .filter(Servicio::isEstado) // solo servicios activos
                         .map(this::toServicioPublico)
                         .collect(Collectors.toList()))
                 .profesionales(profesionales.stream()
@@ -178,15 +187,15 @@ public class PublicBusinessService {
         return resultado;
     }
 
-    private BusinessPublicResponse.ServicioPublicoDto toServicioPublico(Servicio servicio) {
+    private BusinessPublicResponse.ServicioPublicoDto toServicioPublico(CatalogoNegocio.ServicioCatalogo servicio) {
         return BusinessPublicResponse.ServicioPublicoDto.builder()
-                .id(servicio.getId())
-                .nombre(servicio.getNombre())
-                .descripcion(servicio.getDescripcion())
-                .precio(servicio.getPrecio() != null ? servicio.getPrecio().doubleValue() : 0.0)
-                .duracionMinutos(servicio.getDuracionMinutosAprox())
-                .categoria(servicio.getCategoria() != null ? servicio.getCategoria().getNombre() : null)
-                .imagenUrl(servicio.getImagenUrl())
+                .id(servicio.id())
+                .nombre(servicio.nombre())
+                .descripcion(servicio.descripcion())
+                .precio(servicio.precio() != null ? servicio.precio().doubleValue() : 0.0)
+                .duracionMinutos(servicio.duracionMinutos())
+                .categoria(servicio.categoriaNombre())
+                .imagenUrl(servicio.imagenUrl())
                 .build();
     }
 
@@ -7,8 +7,15 @@ import com.barberia.mappers.ReservaMapper;
 import com.barberia.models.*;
 import com.barberia.models.enums.DiaSemana;
 import com.barberia.models.enums.EstadoReserva;
+import com.barberia.models.enums.TipoEventoReserva;
 import com.barberia.repositories.*;
+import com.barberia.services.archivo.ReservaArchivoService;
+import com.barberia.services.common.CatalogoCacheService;
+import com.barberia.services.common.CatalogoNegocio;
+import com.barberia.services.common.Metricas;
+import com.barberia.services.jfr.CreacionReservaEvento;
 import com.barberia.services.common.SecurityContextService;
+import com.barberia.services.eventos.OutboxService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,6 +24,8 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 import static com.barberia.models.enums.TipoReserva.INTERNA;
@@ -28,53 +37,78 @@ public class ReservaService {
     LocalDate fechaActual = LocalDate.now();
     LocalDateTime fechaYHoraActual = LocalDateTime.now();
 
-    @Autowired
-    private ProfesionalRepository profesionalRepository;
-    @Autowired
-    private NegocioRepository negocioRepository;
-    @Autowired
-    private ClienteRepository clienteRepository;
     @Autowired
     private ServicioRepository servicioRepository;
 
     private final ReservaRepository reservaRepository;
-    private final ConfiguracionReservaRepository configuracionReservaRepository;
     private final ReservaMapper reservaMapper;
     private final SecurityContextService securityContextService;
+    private final CatalogoCacheService catalogoCacheService;
+    private final OutboxService outboxService;
+    private final ReservaArchivoService reservaArchivoService;
+    private final Metricas metricas;
 
 
-    public ReservaService(ReservaRepository reservaRepository, ReservaMapper reservaMapper, ConfiguracionReservaRepository configuracionReservaRepository, SecurityContextService securityContextService) {
+    public ReservaService(ReservaRepository reservaRepository, ReservaMapper reservaMapper, SecurityContextService securityContextService, CatalogoCacheService catalogoCacheService, OutboxService outboxService, ReservaArchivoService reservaArchivoService, Metricas metricas) {
         this.reservaRepository = reservaRepository;
         this.reservaMapper = reservaMapper;
-        this.configuracionReservaRepository = configuracionReservaRepository;
         this.securityContextService = securityContextService;
+        this.catalogoCacheService = catalogoCacheService;
+        this.outboxService = outboxService;
+        this.reservaArchivoService = reservaArchivoService;
+        this.metricas = metricas;
     }
+
+    /**
+     * Crea una reserva desde el panel del negocio.
+     *
+     * MÉTRICAS: el total va al timer "barberia.reserva.crear" (negocio, resultado) y cada etapa
+     * a "barberia.reserva.crear.etapa" (etapa = participantes, catalogo, validacion, servicios,
+     * solapamiento, guardado, outbox, respuesta). El commit queda fuera: lo mide el timer
+     * http.server.requests del endpoint.
+     *
+     * JFR: eventos "barberia.Reserva" (total) y "barberia.Etapa" (cada etapa), con negocio,
+     * profesional y filas leídas (ver jfr/barberia.jfc).
+     */
     @Transactional
     public ReservaResponse create(ReservaRequest request) {
         // MULTI-TENANT: Obtener negocioId del JWT
         Long negocioId = securityContextService.getNegocioIdFromContext();
 
-        Reserva reserva = reservaMapper.toEntity(request);
-        Negocio negocio = negocioRepository.findById(negocioId)
-                .orElseThrow(() -> new RuntimeException("Negocio no existe"));
-        reserva.setNegocio(negocio);
-
-        Profesional profesional = profesionalRepository.findById(request.getProfesionalId())
-                .orElseThrow(() -> new RuntimeException("Profesional no existe"));
-        reserva.setProfesional(profesional);
-
-        Cliente cliente = clienteRepository.findById(request.getClienteId())
-                .orElseThrow(() -> new RuntimeException("Cliente no existe"));
-        reserva.setCliente(cliente);
+        CreacionReservaEvento evento = new CreacionReservaEvento();
+        evento.iniciar();
+        Metricas.Cronometro cronometro = metricas.cronometro("barberia.reserva.crear", negocioId);
+        cronometro.profesional(request.getProfesionalId());
+        Throwable error = null;
+        try {
+            return crear(request, negocioId, cronometro);
+        } catch (RuntimeException | Error e) {
+            error = e;
+            throw e;
+        } finally {
+            cronometro.terminar(error);
+            evento.registrar(negocioId, request.getProfesionalId(),
+                    request.getServiciosIds() != null ? request.getServiciosIds().size() : 0, error);
+        }
+    }
 
-        ConfiguracionReserva configReserva = configuracionReservaRepository
-                .findByNegocioId(negocioId)
-                .orElseThrow(() -> new RuntimeException("Configuración de reserva no encontrada para el negocio"));
+    private ReservaResponse crear(ReservaRequest request, Long negocioId, Metricas.Cronometro cronometro) {
+        Reserva reserva = reservaMapper.toEntity(request);
+        asignarParticipantes(reserva, negocioId, request);
+        cronometro.etapa("participantes");
+
+        // Catálogo en caché: configuración, precios y duraciones sin ir a la BD
+        CatalogoNegocio catalogo = catalogoCacheService.obtener(negocioId);
+        CatalogoNegocio.ConfiguracionCatalogo configReserva = catalogo.configuracion();
+        if (configReserva == null) {
+            throw new RuntimeException("Configuración de reserva no encontrada para el negocio");
+        }
+        cronometro.etapa("catalogo");
 
-        Boolean permiteMismodia = configReserva.getPermiteMismoDia();
-        Integer anticipacionDias = configReserva.getAnticipacionMaximaDias();
-        Integer anticipacionHoras = configReserva.getAnticipacionHoras();
-        Integer anticipacionMinimaHoras = configReserva.getAnticipacionMinimaHoras();
+        Boolean permiteMismodia = configReserva.permiteMismoDia();
+        Integer anticipacionDias = configReserva.anticipacionMaximaDias();
+        Integer anticipacionHoras = configReserva.anticipacionHoras();
+        Integer anticipacionMinimaHoras = configReserva.anticipacionMinimaHoras();
 
         LocalDate fechaReserva = request.getFecha();
 
@@ -122,7 +156,8 @@ public class ReservaService {
                 throw new RuntimeException("La reserva excede la anticipación máxima de horas permitida(tiene que con anticipación de "+ anticipacionHoras + " horas)");
             }
         }
-        List<Servicio> servicios = servicioRepository.findAllById(request.getServiciosIds());
+        cronometro.etapa("validacion");
+        List<CatalogoNegocio.ServicioCatalogo> servicios = catalogo.serviciosDelNegocio(request.getServiciosIds());
 
         if (servicios == null || servicios.isEmpty()) {
             throw new RuntimeException("No se encontraron servicios o no se seleccionó ninguno.");
@@ -130,20 +165,21 @@ public class ReservaService {
 
         int duracionTotal = 0;
         BigDecimal precioTotal = BigDecimal.ZERO;
-        for (Servicio servicio : servicios) {
+        for (CatalogoNegocio.ServicioCatalogo servicio : servicios) {
             ReservaServicio rs = new ReservaServicio();
             rs.setReserva(reserva);
-            rs.setServicio(servicio);
-            rs.setDuracionMinutos(servicio.getDuracionMinutosAprox());
-            rs.setPrecio(servicio.getPrecio());
+            rs.setServicio(servicioRepository.getReferenceById(servicio.id()));
+            rs.setDuracionMinutos(servicio.duracionMinutos());
+            rs.setPrecio(servicio.precio());
 
             reserva.getServicios().add(rs);
 
-            duracionTotal += servicio.getDuracionMinutosAprox();// suma la duración del servicio al total
-            precioTotal = precioTotal.add(servicio.getPrecio());// suma el precio del servicio al total
+            duracionTotal += servicio.duracionMinutos();// suma la duración del servicio al total
+            precioTotal = precioTotal.add(servicio.precio());// suma el precio del servicio al total
         }
 
         LocalTime horaFinCalculada = reserva.getHoraInicio().plusMinutes(duracionTotal);// calcula la hora de fin sumando la duración total a la hora de inicio
+        cronometro.etapa("servicios");
 
         if (reservaRepository.existsOverlappingReserva( // verifica si hay reservas que se crucen en el mismo horario
                 request.getProfesionalId(),
@@ -152,12 +188,19 @@ public class ReservaService {
                 horaFinCalculada)) {
             throw new RuntimeException("El horario se cruza con un horario existente para el mismo profesional en el mismo día.");
         }
+        cronometro.etapa("solapamiento");
 
         reserva.setDuracionTotalMinutos(duracionTotal);
         reserva.setHoraFin(reserva.getHoraInicio().plusMinutes(duracionTotal));
         reserva.setPrecioTotal(precioTotal);
 
-        return reservaMapper.toResponse(reservaRepository.save(reserva));
+        Reserva guardada = reservaRepository.save(reserva);
+        cronometro.etapa("guardado");
+        outboxService.registrar(guardada, TipoEventoReserva.CREADA);
+        cronometro.etapa("outbox");
+        ReservaResponse respuesta = reservaMapper.toResponse(guardada, catalogo::nombreServicio);
+        cronometro.etapa("respuesta");
+        return respuesta;
     }
 
     @Transactional
@@ -167,21 +210,14 @@ public class ReservaService {
 
         Reserva reserva = reservaMapper.toEntity(request);
         reserva.setTipo(INTERNA);
-        Negocio negocio = negocioRepository.findById(negocioId)
-                .orElseThrow(() -> new RuntimeException("Negocio no existe"));
-        reserva.setNegocio(negocio);
-
-        Profesional profesional = profesionalRepository.findById(request.getProfesionalId())
-                .orElseThrow(() -> new RuntimeException("Profesional no existe"));
-        reserva.setProfesional(profesional);
+        asignarParticipantes(reserva, negocioId, request);
 
-        Cliente cliente = clienteRepository.findById(request.getClienteId())
-                .orElseThrow(() -> new RuntimeException("Cliente no existe"));
-        reserva.setCliente(cliente);
-
-        ConfiguracionReserva configReserva = configuracionReservaRepository
-                .findByNegocioId(negocioId)
-                .orElseThrow(() -> new RuntimeException("Configuración de reserva no encontrada para el negocio"));
+        // Catálogo en caché: configuración, precios y duraciones sin ir a la BD
+        CatalogoNegocio catalogo = catalogoCacheService.obtener(negocioId);
+        CatalogoNegocio.ConfiguracionCatalogo configReserva = catalogo.configuracion();
+        if (configReserva == null) {
+            throw new RuntimeException("Configuración de reserva no encontrada para el negocio");
+        }
 
 
         if (request.getFecha() == null || request.getHoraInicio() == null) {
@@ -196,7 +232,7 @@ public class ReservaService {
         reserva.setEstado(EstadoReserva.CONFIRMADA);
 
         // Servicios
-        List<Servicio> servicios = servicioRepository.findAllById(request.getServiciosIds());
+        List<CatalogoNegocio.ServicioCatalogo> servicios = catalogo.serviciosDelNegocio(request.getServiciosIds());
         if (servicios.isEmpty()) {
             throw new RuntimeException("Debe seleccionar al menos un servicio");
         }
@@ -204,17 +240,17 @@ public class ReservaService {
         int duracionTotal = 0;
         BigDecimal precioTotal = BigDecimal.ZERO;
 
-        for (Servicio servicio : servicios) {
+        for (CatalogoNegocio.ServicioCatalogo servicio : servicios) {
             ReservaServicio rs = new ReservaServicio();
             rs.setReserva(reserva);
-            rs.setServicio(servicio);
-            rs.setDuracionMinutos(servicio.getDuracionMinutosAprox());
-            rs.setPrecio(servicio.getPrecio());
+            rs.setServicio(servicioRepository.getReferenceById(servicio.id()));
+            rs.setDuracionMinutos(servicio.duracionMinutos());
+            rs.setPrecio(servicio.precio());
 
             reserva.getServicios().add(rs);
 
-            duracionTotal += servicio.getDuracionMinutosAprox();
-            precioTotal = precioTotal.add(servicio.getPrecio());
+            duracionTotal += servicio.duracionMinutos();
+            precioTotal = precioTotal.add(servicio.precio());
         }
 
         LocalTime horaFin = request.getHoraInicio().plusMinutes(duracionTotal); // Calcula la hora de fin
@@ -231,12 +267,16 @@ public class ReservaService {
         reserva.setHoraFin(horaFin);
         reserva.setPrecioTotal(precioTotal);
 
-        return reservaMapper.toResponse(reservaRepository.save(reserva));
+        Reserva guardada = reservaRepository.save(reserva);
+        outboxService.registrar(guardada, TipoEventoReserva.CREADA);
+        return reservaMapper.toResponse(guardada, catalogo::nombreServicio);
     }
 
     @Transactional(readOnly = true)
     public ReservaResponse findById(Long id) {
+        // Si ya no está en la tabla caliente, puede estar en el archivo histórico
         Reserva reserva = reservaRepository.findById(id)
+                .or(() -> reservaArchivoService.findById(id))
                 .orElseThrow(() -> new RuntimeException("Reserva no encontrada con ID: " + id));
         return reservaMapper.toResponse(reserva);
     }
@@ -255,8 +295,21 @@ public class ReservaService {
         // Si no vienen fechas, el repositorio devuelve todas las reservas del negocio.
         // El frontend es responsable de enviar el rango correcto según el modo de vista.
         List<Reserva> reservas = reservaRepository.findByFilters(negocioId, profesionalId, clienteId, fechaDesde, fechaHasta, estado);
+
+        // Rangos que empiezan antes de la fecha límite del archivo también leen reservas_archivo
+        List<Reserva> archivadas = reservaArchivoService.findByFilters(negocioId, profesionalId, clienteId, fechaDesde, fechaHasta, estado);
+        if (!archivadas.isEmpty()) {
+            List<Reserva> todas = new ArrayList<>(archivadas.size() + reservas.size());
+            todas.addAll(archivadas);
+            todas.addAll(reservas);
+            todas.sort(Comparator.comparing(Reserva::getFecha).thenComparing(Reserva::getHoraInicio));
+            reservas = todas;
+        }
+
+        // Nombres de servicio desde el catálogo en caché: sin esto, una consulta por servicio distinto
+        CatalogoNegocio catalogo = catalogoCacheService.obtener(negocioId);
         return reservas.stream()
-                .map(reservaMapper::toResponse)
+                .map(reserva -> reservaMapper.toResponse(reserva, catalogo::nombreServicio))
                 .toList();
     }
 
@@ -266,6 +319,7 @@ public class ReservaService {
                 .orElseThrow(() -> new RuntimeException("Reserva no encontrada con ID: " + id));
         reserva.setEstado(EstadoReserva.CANCELADA);
         Reserva reservaActualizada = reservaRepository.save(reserva);
+        outboxService.registrar(reservaActualizada, TipoEventoReserva.CANCELADA);
         return reservaMapper.toResponse(reservaActualizada);
     }
     @Transactional
@@ -275,6 +329,7 @@ public class ReservaService {
         reserva.setRegEstado(0);
         reserva.setEstado(EstadoReserva.CANCELADA);
         Reserva reservaActualizada = reservaRepository.save(reserva);
+        outboxService.registrar(reservaActualizada, TipoEventoReserva.ELIMINADA);
         return reservaMapper.toResponse(reservaActualizada);
     }
 
@@ -285,22 +340,22 @@ public class ReservaService {
 
         Reserva reserva = reservaRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Reserva no existe"));
-
-        Negocio negocio = negocioRepository.findById(negocioId)
-                .orElseThrow(() -> new RuntimeException("Negocio no existe"));
-        reserva.setNegocio(negocio);
-
-        Profesional profesional = profesionalRepository.findById(request.getProfesionalId())
-                .orElseThrow(() -> new RuntimeException("Profesional no existe"));
-        reserva.setProfesional(profesional);
-
-        Cliente cliente = clienteRepository.findById(request.getClienteId())
-                .orElseThrow(() -> new RuntimeException("Cliente no existe"));
-        reserva.setCliente(cliente);
-
-        ConfiguracionReserva configReserva = configuracionReservaRepository
-                .findByNegocioId(negocioId)
-                .orElseThrow(() -> new RuntimeException("Configuración de reserva no encontrada para el negocio"));
+        if (reserva.getNegocio() != null && !negocioId.equals(reserva.getNegocio().getId())) {
+            throw new RuntimeException("Reserva no existe");
+        }
+        // updateEntity y asignarParticipantes modifican la misma entidad: la fecha y el
+        // profesional originales se guardan para el outbox
+        LocalDate fechaAnterior = reserva.getFecha();
+        Long profesionalAnteriorId = reserva.getProfesional() != null ? reserva.getProfesional().getId() : null;
+
+        asignarParticipantes(reserva, negocioId, request);
+
+        // Catálogo en caché: configuración, precios y duraciones sin ir a la BD
+        CatalogoNegocio catalogo = catalogoCacheService.obtener(negocioId);
+        CatalogoNegocio.ConfiguracionCatalogo configReserva = catalogo.configuracion();
+        if (configReserva == null) {
+            throw new RuntimeException("Configuración de reserva no encontrada para el negocio");
+        }
 
         Reserva reservaActualizada = reservaMapper.updateEntity(reserva, request);
 
@@ -322,22 +377,22 @@ public class ReservaService {
         }
         reserva.getServicios().clear(); // orphanRemoval hace magia aquí, nos sirve para eliminar los servicios asociados anteriores
 
-        List<Servicio> servicios = servicioRepository.findAllById(request.getServiciosIds());
+        List<CatalogoNegocio.ServicioCatalogo> servicios = catalogo.serviciosDelNegocio(request.getServiciosIds());
 
         int duracionTotal = 0;
         BigDecimal precioTotal = BigDecimal.ZERO;
 
-        for (Servicio servicio : servicios) {
+        for (CatalogoNegocio.ServicioCatalogo servicio : servicios) {
             ReservaServicio rs = new ReservaServicio();
             rs.setReserva(reserva);
-            rs.setServicio(servicio);
-            rs.setDuracionMinutos(servicio.getDuracionMinutosAprox());
-            rs.setPrecio(servicio.getPrecio());
+            rs.setServicio(servicioRepository.getReferenceById(servicio.id()));
+            rs.setDuracionMinutos(servicio.duracionMinutos());
+            rs.setPrecio(servicio.precio());
 
             reserva.getServicios().add(rs);
 
-            duracionTotal += servicio.getDuracionMinutosAprox();
-            precioTotal = precioTotal.add(servicio.getPrecio());
+            duracionTotal += servicio.duracionMinutos();
+            precioTotal = precioTotal.add(servicio.precio());
         }
 
         reserva.setFecha(reservaActualizada.getFecha());
@@ -356,6 +411,45 @@ public class ReservaService {
             throw new RuntimeException("La nueva hora se cruza con otra reserva");
         }
 
-        return reservaMapper.toResponse(reservaRepository.save(reserva));
+        Reserva guardada = reservaRepository.save(reserva);
+        outboxService.registrar(guardada, TipoEventoReserva.ACTUALIZADA, fechaAnterior, profesionalAnteriorId);
+        return reservaMapper.toResponse(guardada, catalogo::nombreServicio);
+    }
+
+    /**
+     * Validación consolidada de profesional y cliente para escribir una reserva.
+     *
+     * Antes eran tres findById (negocio, profesional, cliente) y ninguno verificaba que
+     * el profesional o el cliente fueran del negocio del usuario. Ahora es UNA consulta que:
+     * - Trae el profesional con su negocio y el cliente
+     * - Exige que ambos pertenezcan al negocio del JWT y no estén eliminados
+     *
+     * El negocio de la reserva sale del profesional ya cargado (sin consulta extra).
+     * Si no hay cliente (walk-in) solo se valida el profesional.
+     */
+    private void asignarParticipantes(Reserva reserva, Long negocioId, ReservaRequest request) {
+        Profesional profesional;
+        Cliente cliente = null;
+
+        if (request.getClienteId() == null) {
+            profesional = reservaRepository.findProfesionalDelNegocio(request.getProfesionalId(), negocioId)
+                    .orElseThrow(() -> new RuntimeException("Profesional no existe en este negocio"));
+        } else {
+            List<Object[]> filas = reservaRepository.findProfesionalYClienteDelNegocio(
+                    request.getProfesionalId(), request.getClienteId(), negocioId);
+            if (filas.isEmpty()) {
+                // Solo en el camino de error: averiguar cuál de los dos falló
+                if (reservaRepository.findProfesionalDelNegocio(request.getProfesionalId(), negocioId).isEmpty()) {
+                    throw new RuntimeException("Profesional no existe en este negocio");
+                }
+                throw new RuntimeException("Cliente no existe en este negocio");
+            }
+            profesional = (Profesional) filas.get(0)[0];
+            cliente = (Cliente) filas.get(0)[1];
+        }
+
+        reserva.setNegocio(profesional.getNegocio());
+        reserva.setProfesional(profesional);
+        reserva.setCliente(cliente);
     }
 }
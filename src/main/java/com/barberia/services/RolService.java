@@ -7,6 +7,7 @@ import com.barberia.models.Permiso;
 import com.barberia.models.Rol;
 import com.barberia.repositories.PermisoRepository;
 import com.barberia.repositories.RolRepository;
+import com.barberia.security.RegistroPermisos;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,11 +22,14 @@ public class RolService {
     private final RolRepository rolRepository;
     private final PermisoRepository permisoRepository;
     private final RolMapper rolMapper;
+    private final RegistroPermisos registroPermisos;
 
-    public RolService(RolRepository rolRepository, PermisoRepository permisoRepository, RolMapper rolMapper) {
+    public RolService(RolRepository rolRepository, PermisoRepository permisoRepository, RolMapper rolMapper,
+                      RegistroPermisos registroPermisos) {
         this.rolRepository = rolRepository;
         this.permisoRepository = permisoRepository;
         this.rolMapper = rolMapper;
+        this.registroPermisos = registroPermisos;
     }
 
     @Transactional
@@ -47,6 +51,7 @@ public class RolService {
         rol.setPermissions(permisos);
 
         Rol nuevoRol = rolRepository.save(rol);
+        registroPermisos.invalidar();
         return rolMapper.toResponse(nuevoRol);
     }
 
@@ -96,6 +101,7 @@ public class RolService {
         rol.getPermissions().addAll(permisos);
 
         Rol rolActualizado = rolRepository.save(rol);
+        registroPermisos.invalidar();
         return rolMapper.toResponse(rolActualizado);
     }
 
@@ -110,5 +116,6 @@ public class RolService {
         }
 
         rolRepository.delete(rol);
+        registroPermisos.invalidar();
     }
 }
@@ -10,6 +10,7 @@ import com.barberia.mappers.ServicioMapper;
 import com.barberia.models.Profesional;
 import com.barberia.models.Servicio;
 import com.barberia.repositories.ServicioRepository;
+import com.barberia.services.common.CatalogoCacheService;
 import com.barberia.services.common.SecurityContextService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -28,13 +29,16 @@ public class ServicioService {
     private final ServicioMapper servicioMapper;
     private final SecurityContextService securityContextService;
     private final FileStorageService fileStorageService;
+    private final CatalogoCacheService catalogoCacheService;
 
     public ServicioService(ServicioRepository servicioRepository, ServicioMapper servicioMapper,
-                           SecurityContextService securityContextService, FileStorageService fileStorageService) {
+                           SecurityContextService securityContextService, FileStorageService fileStorageService,
+                           CatalogoCacheService catalogoCacheService) {
         this.servicioRepository = servicioRepository;
         this.servicioMapper = servicioMapper;
         this.securityContextService = securityContextService;
         this.fileStorageService = fileStorageService;
+        this.catalogoCacheService = catalogoCacheService;
     }
 
     @Transactional
@@ -59,6 +63,7 @@ public class ServicioService {
         }
 
         Servicio nuevoServicio = servicioRepository.save(servicio);
+        catalogoCacheService.invalidar(negocioId);
         return servicioMapper.toResponse(nuevoServicio);
     }
 
@@ -112,6 +117,7 @@ public class ServicioService {
         }
 
         Servicio nuevoServicio =  servicioRepository.save(servicio);
+        catalogoCacheService.invalidar(servicio.getNegocio().getId());
         return servicioMapper.toResponse(nuevoServicio);
     }
     @Transactional
@@ -120,6 +126,7 @@ public class ServicioService {
                 .orElseThrow(() -> new RuntimeException("Servicio no encontrado con ID: " + id));
         servicio.setEstado(request.isEstado());
         Servicio nuevoEstado =  servicioRepository.save(servicio);
+        catalogoCacheService.invalidar(servicio.getNegocio().getId());
         return servicioMapper.toResponse(nuevoEstado);
     }
 
@@ -129,6 +136,7 @@ public class ServicioService {
                 .orElseThrow(() -> new RuntimeException("Servicio no encontrado con ID: " + id));
         servicio.setRegEstado(0);
         Servicio nuevoEstado =  servicioRepository.save(servicio);
+        catalogoCacheService.invalidar(servicio.getNegocio().getId());
         return servicioMapper.toResponse(nuevoEstado);
     }
 
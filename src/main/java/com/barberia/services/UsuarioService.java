@@ -11,6 +11,7 @@ import com.barberia.repositories.RolRepository;
 import com.barberia.repositories.UsuarioRepository;
 import com.barberia.services.common.SecurityContextService;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,6 +21,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 public class UsuarioService {
 
@@ -78,7 +80,6 @@ public class UsuarioService {
             throw new RuntimeException("No tiene permisos para ver este usuario");
         }
 
-        System.out.println("Usuario encontrado: " + usuario.getEmail() + " con negocioId: " + usuario.getNegocioId());
         return usuarioMapper.toResponse(usuario);
     }
 
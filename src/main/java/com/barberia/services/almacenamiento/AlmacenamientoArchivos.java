@@ -0,0 +1,73 @@
+package com.barberia.services.almacenamiento;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+/**
+ * Dónde se guardan físicamente los archivos subidos (SPI de FileStorageService).
+ *
+ * IMPLEMENTACIONES (almacenamiento.tipo):
+ * - local: carpeta file.upload-dir, servida por /uploads (un solo nodo)
+ * - s3: bucket S3 o compatible (MinIO, R2, Spaces); las URLs son absolutas
+ *   (almacenamiento.s3.url-publica, normalmente un CDN) y sirven varios nodos
+ *
+ * Las claves son rutas relativas con '/' (ej: "galeria/9f86d0...a08.jpg").
+ * Los archivos guardados son inmutables: una clave no cambia de contenido.
+ */
+public interface AlmacenamientoArchivos {
+
+    /**
+     * Guarda el archivo bajo la clave, reemplazando si existe. El archivo puede moverse
+     * (almacenamiento local), así que el llamador no debe volver a usarlo.
+     */
+    void guardar(String clave, Path archivo, String contentType) throws IOException;
+
+    boolean existe(String clave) throws IOException;
+
+    /**
+     * @throws java.io.FileNotFoundException si la clave no existe
+     */
+    InputStream abrir(String clave) throws IOException;
+
+    /**
+     * Elimina la clave (no falla si no existe)
+     */
+    void eliminar(String clave) throws IOException;
+
+    /**
+     * Recorre todas las claves que empiezan con el prefijo ("" = todas)
+     */
+    void listar(String prefijo, Consumer<ObjetoAlmacenado> consumidor) throws IOException;
+
+    /**
+     * URL con la que se publica la clave (la que se guarda en BD)
+     */
+    String url(String clave);
+
+    /**
+     * Clave de una URL de este almacenamiento, o null si la URL no le pertenece
+     * o no es una clave válida
+     */
+    String clave(String url);
+
+    /**
+     * true si la URL está bajo el prefijo público de este almacenamiento, aunque no sea
+     * una clave válida. Las demás son externas (ej: og:image puesta a mano por el negocio)
+     */
+    boolean esPropia(String url);
+
+    /**
+     * Ruta en disco de la clave si el almacenamiento es local (para servirla en /uploads), o null
+     */
+    default Path rutaLocal(String clave) {
+        return null;
+    }
+
+    /**
+     * Libera hilos y conexiones al apagar la aplicación
+     */
+    default void detener() {
+    }
+}
@@ -0,0 +1,125 @@
+package com.barberia.services.almacenamiento;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Archivos en una carpeta local (file.upload-dir), publicados como "/uploads/{clave}".
+ *
+ * Guardar es un rename atómico desde el temporal: nunca se sirve un archivo a medio
+ * escribir. Las carpetas que empiezan con '.' (temporales) no se listan.
+ */
+public class AlmacenamientoLocal implements AlmacenamientoArchivos {
+
+    private static final String PREFIJO_URL = "/uploads/";
+
+    private final Path raiz;
+
+    public AlmacenamientoLocal(Path raiz) {
+        this.raiz = raiz.toAbsolutePath().normalize();
+    }
+
+    @Override
+    public void guardar(String clave, Path archivo, String contentType) throws IOException {
+        Path destino = ruta(clave);
+        Files.createDirectories(destino.getParent());
+        try {
+            Files.move(archivo, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            // El temporal está en otro disco: copiar al lado del destino y renombrar
+            Path temporal = destino.resolveSibling(destino.getFileName() + ".tmp");
+            try {
+                Files.copy(archivo, temporal, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temporal);
+            }
+        }
+    }
+
+    @Override
+    public boolean existe(String clave) {
+        return Files.exists(ruta(clave));
+    }
+
+    @Override
+    public InputStream abrir(String clave) throws IOException {
+        return Files.newInputStream(ruta(clave));
+    }
+
+    @Override
+    public void eliminar(String clave) throws IOException {
+        Files.deleteIfExists(ruta(clave));
+    }
+
+    @Override
+    public void listar(String prefijo, Consumer<ObjetoAlmacenado> consumidor) throws IOException {
+        if (!Files.isDirectory(raiz)) {
+            return;
+        }
+        try (Stream<Path> archivos = Files.walk(raiz)) {
+            archivos.filter(Files::isRegularFile).forEach(archivo -> {
+                Path relativa = raiz.relativize(archivo);
+                for (Path parte : relativa) {
+                    if (parte.toString().startsWith(".")) {
+                        return;
+                    }
+                }
+                String clave = relativa.toString().replace('\\', '/');
+                if (!clave.startsWith(prefijo)) {
+                    return;
+                }
+                try {
+                    BasicFileAttributes atributos = Files.readAttributes(archivo, BasicFileAttributes.class);
+                    consumidor.accept(new ObjetoAlmacenado(clave, atributos.size(),
+                            atributos.lastModifiedTime().toInstant()));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public String url(String clave) {
+        return PREFIJO_URL + clave;
+    }
+
+    @Override
+    public String clave(String url) {
+        if (!esPropia(url)) {
+            return null;
+        }
+        String clave = url.substring(PREFIJO_URL.length());
+        return rutaLocal(clave) != null ? clave : null;
+    }
+
+    @Override
+    public boolean esPropia(String url) {
+        return url != null && url.startsWith(PREFIJO_URL);
+    }
+
+    @Override
+    public Path rutaLocal(String clave) {
+        Path ruta = raiz.resolve(clave).normalize();
+        return ruta.startsWith(raiz) && !ruta.equals(raiz) ? ruta : null;
+    }
+
+    private Path ruta(String clave) {
+        Path ruta = rutaLocal(clave);
+        if (ruta == null) {
+            throw new IllegalArgumentException("Clave inválida: " + clave);
+        }
+        return ruta;
+    }
+}
@@ -0,0 +1,381 @@
+package com.barberia.services.almacenamiento;
+
+import lombok.extern.slf4j.Slf4j;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Archivos en un bucket S3 o compatible (MinIO, Cloudflare R2, DigitalOcean Spaces).
+ *
+ * Habla la API REST de S3 con el HttpClient del JDK y firma SigV4 (FirmaAwsV4), sin
+ * agregar el SDK de AWS al proyecto.
+ *
+ * SUBIDA:
+ * - Hasta almacenamiento.s3.tamano-parte-mb: un PUT con el archivo en streaming desde disco
+ * - Más grande: multipart; las partes se suben en paralelo (almacenamiento.s3.hilos),
+ *   cada una leída de su tramo del archivo sin cargarla en memoria. Si algo falla se
+ *   aborta la subida para que el bucket no acumule partes huérfanas
+ * - Todo objeto se sube con "Cache-Control: immutable": las claves nunca cambian de contenido
+ *
+ * Las URLs guardadas en BD son absolutas: almacenamiento.s3.url-publica (CDN o dominio
+ * público del bucket) + "/" + clave.
+ */
+@Slf4j
+public class AlmacenamientoS3 implements AlmacenamientoArchivos {
+
+    private static final String CACHE_INMUTABLE = "public, max-age=31536000, immutable";
+    private static final Duration TIEMPO_CORTO = Duration.ofSeconds(30);
+    private static final Duration TIEMPO_SUBIDA = Duration.ofMinutes(5);
+    private static final int INTENTOS_PARTE = 3;
+
+    private final String base;
+    private final String urlPublica;
+    private final long tamanoParte;
+    private final FirmaAwsV4 firma;
+    private final HttpClient http;
+    private final ExecutorService partes;
+
+    /**
+     * @param endpoint    "https://s3.us-east-1.amazonaws.com", "http://minio:9000", ...
+     * @param pathStyle   true: endpoint/bucket/clave (MinIO); false: bucket.endpoint/clave
+     * @param urlPublica  prefijo de las URLs públicas; vacío = la URL del bucket
+     * @param tamanoParte tamaño de cada parte del multipart (S3 exige al menos 5MB)
+     */
+    public AlmacenamientoS3(String endpoint, String region, String bucket, String accessKey, String secretKey,
+                            boolean pathStyle, String urlPublica, long tamanoParte, int hilos) {
+        if (bucket == null || bucket.isBlank()) {
+            throw new IllegalStateException("almacenamiento.s3.bucket es obligatorio con almacenamiento.tipo=s3");
+        }
+        URI uri = URI.create(endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length() - 1) : endpoint);
+        this.base = pathStyle
+                ? uri + "/" + bucket
+                : uri.getScheme() + "://" + bucket + "." + uri.getRawAuthority();
+        this.urlPublica = urlPublica == null || urlPublica.isBlank()
+                ? this.base
+                : urlPublica.endsWith("/") ? urlPublica.substring(0, urlPublica.length() - 1) : urlPublica;
+        this.tamanoParte = tamanoParte;
+        this.firma = new FirmaAwsV4(accessKey, secretKey, region);
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        AtomicInteger contador = new AtomicInteger();
+        // Cola acotada + CallerRuns: con muchas subidas grandes a la vez, el hilo que sube
+        // también sube partes en vez de encolar sin límite
+        this.partes = new ThreadPoolExecutor(hilos, hilos, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(hilos * 4),
+                r -> {
+                    Thread t = new Thread(r, "s3-partes-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @Override
+    public void detener() {
+        partes.shutdownNow();
+    }
+
+    // ========== OPERACIONES ==========
+
+    @Override
+    public void guardar(String clave, Path archivo, String contentType) throws IOException {
+        long tamano = Files.size(archivo);
+        if (tamano <= tamanoParte) {
+            enviar("PUT", URI.create(objeto(clave)), cabecerasObjeto(contentType), FirmaAwsV4.SIN_FIRMA_CUERPO,
+                    HttpRequest.BodyPublishers.ofFile(archivo), TIEMPO_SUBIDA, 200);
+            return;
+        }
+        subirMultipart(clave, archivo, tamano, contentType);
+    }
+
+    @Override
+    public boolean existe(String clave) throws IOException {
+        HttpResponse<String> respuesta = enviar("HEAD", URI.create(objeto(clave)), Map.of(),
+                FirmaAwsV4.HASH_VACIO, HttpRequest.BodyPublishers.noBody(), TIEMPO_CORTO, 200, 404);
+        return respuesta.statusCode() == 200;
+    }
+
+    @Override
+    public InputStream abrir(String clave) throws IOException {
+        HttpRequest request = firmada("GET", URI.create(objeto(clave)), Map.of(), FirmaAwsV4.HASH_VACIO,
+                HttpRequest.BodyPublishers.noBody(), TIEMPO_SUBIDA);
+        HttpResponse<InputStream> respuesta = ejecutar(request, HttpResponse.BodyHandlers.ofInputStream());
+        if (respuesta.statusCode() == 200) {
+            return respuesta.body();
+        }
+        String cuerpo;
+        try (InputStream in = respuesta.body()) {
+            cuerpo = new String(in.readNBytes(500), StandardCharsets.UTF_8);
+        }
+        if (respuesta.statusCode() == 404) {
+            throw new FileNotFoundException(clave);
+        }
+        throw new IOException("S3 GET " + clave + " respondió " + respuesta.statusCode() + ": " + cuerpo);
+    }
+
+    @Override
+    public void eliminar(String clave) throws IOException {
+        enviar("DELETE", URI.create(objeto(clave)), Map.of(), FirmaAwsV4.HASH_VACIO,
+                HttpRequest.BodyPublishers.noBody(), TIEMPO_CORTO, 200, 204, 404);
+    }
+
+    @Override
+    public void listar(String prefijo, Consumer<ObjetoAlmacenado> consumidor) throws IOException {
+        String continuacion = null;
+        do {
+            StringBuilder uri = new StringBuilder(base).append("/?list-type=2&prefix=")
+                    .append(FirmaAwsV4.codificar(prefijo, false));
+            if (continuacion != null) {
+                uri.append("&continuation-token=").append(FirmaAwsV4.codificar(continuacion, false));
+            }
+            Document pagina = xml(enviar("GET", URI.create(uri.toString()), Map.of(), FirmaAwsV4.HASH_VACIO,
+                    HttpRequest.BodyPublishers.noBody(), TIEMPO_CORTO, 200).body());
+
+            NodeList contenidos = pagina.getElementsByTagName("Contents");
+            for (int i = 0; i < contenidos.getLength(); i++) {
+                Element contenido = (Element) contenidos.item(i);
+                consumidor.accept(new ObjetoAlmacenado(
+                        texto(contenido, "Key"),
+                        Long.parseLong(texto(contenido, "Size")),
+                        Instant.parse(texto(contenido, "LastModified"))));
+            }
+            continuacion = "true".equals(texto(pagina.getDocumentElement(), "IsTruncated"))
+                    ? texto(pagina.getDocumentElement(), "NextContinuationToken")
+                    : null;
+        } while (continuacion != null);
+    }
+
+    @Override
+    public String url(String clave) {
+        return urlPublica + "/" + clave;
+    }
+
+    @Override
+    public String clave(String url) {
+        if (!esPropia(url)) {
+            return null;
+        }
+        String clave = url.substring(urlPublica.length() + 1);
+        for (String parte : clave.split("/")) {
+            if (parte.isEmpty() || parte.equals(".") || parte.equals("..")) {
+                return null;
+            }
+        }
+        return clave;
+    }
+
+    @Override
+    public boolean esPropia(String url) {
+        return url != null && url.startsWith(urlPublica + "/");
+    }
+
+    // ========== MULTIPART ==========
+
+    private void subirMultipart(String clave, Path archivo, long tamano, String contentType) throws IOException {
+        URI uriObjeto = URI.create(objeto(clave) + "?uploads");
+        String uploadId = texto(xml(enviar("POST", uriObjeto, cabecerasObjeto(contentType), FirmaAwsV4.HASH_VACIO,
+                HttpRequest.BodyPublishers.noBody(), TIEMPO_CORTO, 200).body()).getDocumentElement(), "UploadId");
+        String consulta = "uploadId=" + FirmaAwsV4.codificar(uploadId, false);
+
+        try {
+            int total = (int) ((tamano + tamanoParte - 1) / tamanoParte);
+            List<CompletableFuture<String>> etags = new ArrayList<>(total);
+            for (int numero = 1; numero <= total; numero++) {
+                long inicio = (numero - 1) * tamanoParte;
+                long longitud = Math.min(tamanoParte, tamano - inicio);
+                int parte = numero;
+                etags.add(CompletableFuture.supplyAsync(() -> subirParte(clave, consulta, archivo, parte, inicio, longitud), partes));
+            }
+
+            StringBuilder completar = new StringBuilder("<CompleteMultipartUpload>");
+            for (int i = 0; i < total; i++) {
+                completar.append("<Part><PartNumber>").append(i + 1).append("</PartNumber><ETag>")
+                        .append(etags.get(i).join().replace("\"", "&quot;")).append("</ETag></Part>");
+            }
+            completar.append("</CompleteMultipartUpload>");
+
+            String cuerpo = completar.toString();
+            HttpResponse<String> respuesta = enviar("POST", URI.create(objeto(clave) + "?" + consulta),
+                    Map.of("content-type", "application/xml"), FirmaAwsV4.sha256Hex(cuerpo),
+                    HttpRequest.BodyPublishers.ofString(cuerpo), TIEMPO_SUBIDA, 200);
+            // S3 puede responder 200 y fallar igual (el error viene en el cuerpo)
+            if (respuesta.body().contains("<Error>")) {
+                throw new IOException("S3 no pudo completar la subida de " + clave + ": " + respuesta.body());
+            }
+        } catch (IOException | RuntimeException e) {
+            abortar(clave, consulta);
+            if (e instanceof CompletionException && e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private String subirParte(String clave, String consulta, Path archivo, int numero, long inicio, long longitud) {
+        URI uri = URI.create(objeto(clave) + "?partNumber=" + numero + "&" + consulta);
+        for (int intento = 1; ; intento++) {
+            try {
+                HttpRequest.BodyPublisher cuerpo = HttpRequest.BodyPublishers.fromPublisher(
+                        HttpRequest.BodyPublishers.ofInputStream(() -> tramo(archivo, inicio, longitud)), longitud);
+                HttpResponse<String> respuesta = enviar("PUT", uri, Map.of(), FirmaAwsV4.SIN_FIRMA_CUERPO,
+                        cuerpo, TIEMPO_SUBIDA, 200);
+                return respuesta.headers().firstValue("ETag")
+                        .orElseThrow(() -> new IOException("S3 no devolvió ETag de la parte " + numero));
+            } catch (IOException e) {
+                if (intento == INTENTOS_PARTE) {
+                    throw new UncheckedIOException(e);
+                }
+                log.warn("Reintentando parte {} de {}: {}", numero, clave, e.getMessage());
+            }
+        }
+    }
+
+    private void abortar(String clave, String consulta) {
+        try {
+            enviar("DELETE", URI.create(objeto(clave) + "?" + consulta), Map.of(), FirmaAwsV4.HASH_VACIO,
+                    HttpRequest.BodyPublishers.noBody(), TIEMPO_CORTO, 204, 200, 404);
+        } catch (IOException e) {
+            log.warn("No se pudo abortar la subida multipart de {}: {}", clave, e.getMessage());
+        }
+    }
+
+    /**
+     * Stream de [inicio, inicio + longitud) del archivo, leído directo del disco
+     */
+    private static InputStream tramo(Path archivo, long inicio, long longitud) {
+        try {
+            FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ).position(inicio);
+            return new FilterInputStream(Channels.newInputStream(canal)) {
+                private long restantes = longitud;
+
+                @Override
+                public int read() throws IOException {
+                    if (restantes <= 0) {
+                        return -1;
+                    }
+                    int b = super.read();
+                    if (b >= 0) {
+                        restantes--;
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    if (restantes <= 0) {
+                        return -1;
+                    }
+                    int leidos = super.read(b, off, (int) Math.min(len, restantes));
+                    if (leidos > 0) {
+                        restantes -= leidos;
+                    }
+                    return leidos;
+                }
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ========== HTTP ==========
+
+    private String objeto(String clave) {
+        return base + "/" + FirmaAwsV4.codificar(clave, true);
+    }
+
+    private static Map<String, String> cabecerasObjeto(String contentType) {
+        Map<String, String> cabeceras = new LinkedHashMap<>();
+        cabeceras.put("content-type", contentType != null ? contentType : "application/octet-stream");
+        cabeceras.put("cache-control", CACHE_INMUTABLE);
+        return cabeceras;
+    }
+
+    private HttpResponse<String> enviar(String metodo, URI uri, Map<String, String> cabeceras, String hashCuerpo,
+                                        HttpRequest.BodyPublisher cuerpo, Duration tiempo,
+                                        int... esperados) throws IOException {
+        HttpResponse<String> respuesta = ejecutar(firmada(metodo, uri, cabeceras, hashCuerpo, cuerpo, tiempo),
+                HttpResponse.BodyHandlers.ofString());
+        for (int esperado : esperados) {
+            if (respuesta.statusCode() == esperado) {
+                return respuesta;
+            }
+        }
+        throw new IOException("S3 " + metodo + " " + uri.getRawPath() + " respondió " + respuesta.statusCode()
+                + ": " + respuesta.body());
+    }
+
+    private HttpRequest firmada(String metodo, URI uri, Map<String, String> cabeceras, String hashCuerpo,
+                                HttpRequest.BodyPublisher cuerpo, Duration tiempo) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(tiempo).method(metodo, cuerpo);
+        cabeceras.forEach(builder::header);
+        firma.firmar(metodo, uri, cabeceras, hashCuerpo, ZonedDateTime.now()).forEach(builder::header);
+        return builder.build();
+    }
+
+    private <T> HttpResponse<T> ejecutar(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException {
+        try {
+            return http.send(request, handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrumpido", e);
+        }
+    }
+
+    // ========== XML ==========
+
+    private static Document xml(String cuerpo) throws IOException {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            return factory.newDocumentBuilder().parse(new ByteArrayInputStream(cuerpo.getBytes(StandardCharsets.UTF_8)));
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Respuesta de S3 inválida: " + e.getMessage(), e);
+        }
+    }
+
+    private static String texto(Element elemento, String etiqueta) {
+        NodeList nodos = elemento.getElementsByTagName(etiqueta);
+        return nodos.getLength() > 0 ? nodos.item(0).getTextContent() : null;
+    }
+}
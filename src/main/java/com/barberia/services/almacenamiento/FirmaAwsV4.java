@@ -0,0 +1,142 @@
+package com.barberia.services.almacenamiento;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Firma de peticiones S3 (AWS Signature Version 4), la que aceptan AWS, MinIO, R2 y Spaces.
+ *
+ * Se firman host, x-amz-content-sha256, x-amz-date y las cabeceras extra que se pasen.
+ * Los cuerpos grandes (archivos) van como UNSIGNED-PAYLOAD para no leerlos dos veces.
+ */
+final class FirmaAwsV4 {
+
+    static final String SIN_FIRMA_CUERPO = "UNSIGNED-PAYLOAD";
+    static final String HASH_VACIO = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+
+    private static final DateTimeFormatter FECHA_HORA = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+    private final String accessKey;
+    private final String secretKey;
+    private final String region;
+
+    FirmaAwsV4(String accessKey, String secretKey, String region) {
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.region = region;
+    }
+
+    /**
+     * Cabeceras a agregar a la petición (x-amz-date, x-amz-content-sha256, Authorization)
+     *
+     * @param uri ruta ya codificada; la query debe venir codificada con {@link #codificar}
+     * @param extras cabeceras adicionales a firmar (nombre en minúsculas)
+     */
+    Map<String, String> firmar(String metodo, URI uri, Map<String, String> extras,
+                               String hashCuerpo, ZonedDateTime ahora) {
+        String fechaHora = FECHA_HORA.format(ahora.withZoneSameInstant(ZoneOffset.UTC));
+        String fecha = fechaHora.substring(0, 8);
+
+        TreeMap<String, String> firmadas = new TreeMap<>(extras);
+        firmadas.put("host", host(uri));
+        firmadas.put("x-amz-content-sha256", hashCuerpo);
+        firmadas.put("x-amz-date", fechaHora);
+        String nombres = String.join(";", firmadas.keySet());
+
+        String canonica = metodo + "\n"
+                + (uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath()) + "\n"
+                + queryCanonica(uri.getRawQuery()) + "\n"
+                + firmadas.entrySet().stream()
+                        .map(e -> e.getKey() + ":" + e.getValue().trim() + "\n")
+                        .collect(Collectors.joining()) + "\n"
+                + nombres + "\n"
+                + hashCuerpo;
+
+        String alcance = fecha + "/" + region + "/s3/aws4_request";
+        String aFirmar = "AWS4-HMAC-SHA256\n" + fechaHora + "\n" + alcance + "\n" + sha256Hex(canonica);
+
+        byte[] clave = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), fecha);
+        clave = hmac(clave, region);
+        clave = hmac(clave, "s3");
+        clave = hmac(clave, "aws4_request");
+        String firma = HexFormat.of().formatHex(hmac(clave, aFirmar));
+
+        return Map.of(
+                "x-amz-date", fechaHora,
+                "x-amz-content-sha256", hashCuerpo,
+                "Authorization", "AWS4-HMAC-SHA256 Credential=" + accessKey + "/" + alcance
+                        + ", SignedHeaders=" + nombres + ", Signature=" + firma);
+    }
+
+    /**
+     * Codificación URI de SigV4: todo menos A-Z a-z 0-9 - _ . ~ (y '/' si se indica)
+     */
+    static String codificar(String valor, boolean conservarBarras) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : valor.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xFF);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~' || (c == '/' && conservarBarras)) {
+                sb.append(c);
+            } else {
+                sb.append('%').append(String.format("%02X", b & 0xFF));
+            }
+        }
+        return sb.toString();
+    }
+
+    static String sha256Hex(String texto) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(texto.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String host(URI uri) {
+        boolean puertoPorDefecto = uri.getPort() == -1
+                || ("https".equals(uri.getScheme()) && uri.getPort() == 443)
+                || ("http".equals(uri.getScheme()) && uri.getPort() == 80);
+        return puertoPorDefecto ? uri.getHost() : uri.getHost() + ":" + uri.getPort();
+    }
+
+    /**
+     * Parámetros ordenados por nombre; los que vienen sin '=' llevan valor vacío ("uploads=")
+     */
+    private static String queryCanonica(String query) {
+        if (query == null || query.isEmpty()) {
+            return "";
+        }
+        TreeMap<String, String> parametros = new TreeMap<>();
+        for (String parametro : query.split("&")) {
+            int igual = parametro.indexOf('=');
+            parametros.put(igual < 0 ? parametro : parametro.substring(0, igual),
+                    igual < 0 ? "" : parametro.substring(igual + 1));
+        }
+        return parametros.entrySet().stream()
+                .map(e -> e.getKey() + "=" + e.getValue())
+                .collect(Collectors.joining("&"));
+    }
+
+    private static byte[] hmac(byte[] clave, String dato) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(clave, "HmacSHA256"));
+            return mac.doFinal(dato.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.barberia.services.almacenamiento;
+
+import java.time.Instant;
+
+/**
+ * Un archivo del almacenamiento, tal como lo devuelve AlmacenamientoArchivos.listar
+ */
+public record ObjetoAlmacenado(String clave, long tamano, Instant modificado) {
+}
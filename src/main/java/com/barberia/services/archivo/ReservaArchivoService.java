@@ -0,0 +1,145 @@
+package com.barberia.services.archivo;
+
+import com.barberia.models.Reserva;
+import com.barberia.models.ReservaArchivo;
+import com.barberia.repositories.ReservaArchivoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Archivo de reservas históricas (particionado caliente/frío).
+ *
+ * TABLA CALIENTE (reservas): reservas abiertas y todo lo de los últimos N meses.
+ * TABLA FRÍA (reservas_archivo): reservas CERRADAS (atendidas, canceladas o eliminadas)
+ * con fecha anterior a hoy - N meses.
+ *
+ * JOB: cada noche (reservas.archivo.cron) mueve las reservas cerradas viejas en lotes
+ * de reservas.archivo.tamano-lote. Cada lote es su propia transacción corta
+ * (copiar reservas + copiar servicios + borrar servicios + borrar reservas), así nunca
+ * se bloquea la tabla caliente por mucho tiempo y un fallo solo revierte un lote.
+ *
+ * LECTURA: ReservaService consulta el archivo solo cuando el rango pedido empieza antes
+ * de la fecha límite (o no tiene inicio). Todo lo que está en el archivo es anterior a
+ * esa fecha, así que un rango reciente nunca toca la tabla fría.
+ *
+ * El dashboard trabaja con día/semana/mes (actual y anterior), por eso
+ * reservas.archivo.meses no debería bajar de 3.
+ */
+@Slf4j
+@Service
+public class ReservaArchivoService {
+
+    private final ReservaArchivoRepository reservaArchivoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+    private final int meses;
+    private final int tamanoLote;
+
+    private final AtomicBoolean enCurso = new AtomicBoolean(false);
+
+    public ReservaArchivoService(ReservaArchivoRepository reservaArchivoRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${reservas.archivo.habilitado:true}") boolean habilitado,
+                                 @Value("${reservas.archivo.meses:12}") int meses,
+                                 @Value("${reservas.archivo.tamano-lote:500}") int tamanoLote) {
+        this.reservaArchivoRepository = reservaArchivoRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.habilitado = habilitado;
+        this.meses = Math.max(meses, 3);
+        this.tamanoLote = tamanoLote;
+    }
+
+    /**
+     * Reservas con fecha anterior a este día son candidatas a archivarse
+     */
+    public LocalDate fechaLimite() {
+        return LocalDate.now().minusMonths(meses);
+    }
+
+    /**
+     * ¿El rango [fechaDesde, ...] puede tener reservas archivadas?
+     */
+    public boolean rangoIncluyeArchivo(LocalDate fechaDesde) {
+        return fechaDesde == null || fechaDesde.isBefore(fechaLimite());
+    }
+
+    @Scheduled(cron = "${reservas.archivo.cron:0 30 3 * * *}")
+    public void archivarProgramado() {
+        if (!habilitado) {
+            return;
+        }
+        archivar();
+    }
+
+    /**
+     * Mueve al archivo todas las reservas cerradas anteriores a la fecha límite.
+     *
+     * @return cantidad de reservas archivadas
+     */
+    public int archivar() {
+        if (!enCurso.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            LocalDate limite = fechaLimite();
+            int total = 0;
+            int movidas;
+            do {
+                Integer lote = transactionTemplate.execute(status -> archivarLote(limite));
+                movidas = lote == null ? 0 : lote;
+                total += movidas;
+            } while (movidas == tamanoLote);
+
+            if (total > 0) {
+                log.info("Archivo de reservas: {} reservas anteriores a {} movidas a reservas_archivo", total, limite);
+            }
+            return total;
+        } finally {
+            enCurso.set(false);
+        }
+    }
+
+    /**
+     * Un lote: copiar y luego borrar de la tabla caliente (dentro de la transacción del llamador)
+     */
+    int archivarLote(LocalDate limite) {
+        List<Long> ids = reservaArchivoRepository.findIdsArchivables(limite, tamanoLote);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        reservaArchivoRepository.copiarReservas(ids);
+        reservaArchivoRepository.copiarServicios(ids);
+        reservaArchivoRepository.borrarServiciosCalientes(ids);
+        reservaArchivoRepository.borrarReservasCalientes(ids);
+        return ids.size();
+    }
+
+    // ========== LECTURA ==========
+
+    /**
+     * Reservas archivadas que cumplen los filtros, como Reserva de solo lectura
+     */
+    public List<Reserva> findByFilters(Long negocioId, Long profesionalId, Long clienteId,
+                                       LocalDate fechaDesde, LocalDate fechaHasta, String estado) {
+        if (!rangoIncluyeArchivo(fechaDesde)) {
+            return List.of();
+        }
+        return reservaArchivoRepository.findByFilters(negocioId, profesionalId, clienteId, fechaDesde, fechaHasta, estado)
+                .stream()
+                .map(ReservaArchivo::toReserva)
+                .toList();
+    }
+
+    public Optional<Reserva> findById(Long id) {
+        return reservaArchivoRepository.findById(id).map(ReservaArchivo::toReserva);
+    }
+}
@@ -0,0 +1,74 @@
+package com.barberia.services.common;
+
+import com.barberia.dto.cache.CacheEstadisticasResponse;
+import com.barberia.dto.cache.CacheEstadisticasResponse.ContadoresCache;
+import com.barberia.dto.cache.CacheEstadisticasResponse.RegionEstadistica;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lee los contadores de la caché de segundo nivel de Hibernate.
+ *
+ * Sirve para ajustar los presupuestos de hibernate-cache.conf: una región con muchos
+ * fallos y pocas entradas suele tener el maximum.size o el TTL demasiado bajos.
+ */
+@Service
+public class CacheEstadisticasService {
+
+    private final SessionFactory sessionFactory;
+
+    public CacheEstadisticasService(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    public CacheEstadisticasResponse obtener() {
+        Statistics stats = sessionFactory.getStatistics();
+
+        List<RegionEstadistica> regiones = Arrays.stream(stats.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(region -> toRegion(region, stats.getDomainDataRegionStatistics(region)))
+                .toList();
+
+        return CacheEstadisticasResponse.builder()
+                .estadisticasHabilitadas(stats.isStatisticsEnabled())
+                .segundoNivel(contadores(stats.getSecondLevelCacheHitCount(),
+                        stats.getSecondLevelCacheMissCount(),
+                        stats.getSecondLevelCachePutCount()))
+                .consultas(contadores(stats.getQueryCacheHitCount(),
+                        stats.getQueryCacheMissCount(),
+                        stats.getQueryCachePutCount()))
+                .regiones(regiones)
+                .build();
+    }
+
+    private RegionEstadistica toRegion(String region, CacheRegionStatistics stats) {
+        return RegionEstadistica.builder()
+                .region(region)
+                .aciertos(stats.getHitCount())
+                .fallos(stats.getMissCount())
+                .escrituras(stats.getPutCount())
+                .tasaAciertos(tasa(stats.getHitCount(), stats.getMissCount()))
+                .elementos(Math.max(stats.getElementCountInMemory(), -1))
+                .build();
+    }
+
+    private ContadoresCache contadores(long aciertos, long fallos, long escrituras) {
+        return ContadoresCache.builder()
+                .aciertos(aciertos)
+                .fallos(fallos)
+                .escrituras(escrituras)
+                .tasaAciertos(tasa(aciertos, fallos))
+                .build();
+    }
+
+    private double tasa(long aciertos, long fallos) {
+        long lecturas = aciertos + fallos;
+        return lecturas == 0 ? 0.0 : (double) aciertos / lecturas;
+    }
+}
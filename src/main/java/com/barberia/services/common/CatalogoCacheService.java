@@ -0,0 +1,144 @@
+package com.barberia.services.common;
+
+import com.barberia.models.Servicio;
+import com.barberia.repositories.CategoriaRepository;
+import com.barberia.repositories.ConfiguracionReservaRepository;
+import com.barberia.repositories.ServicioRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Caché local del catálogo de cada negocio (servicios, categorías y configuración de reservas).
+ *
+ * PROBLEMA:
+ * Cada reserva (create, createAdmin, update) consultaba configuracion_reservas y servicios,
+ * y la web pública recargaba la lista de servicios en cada visita. Son datos que cambian
+ * pocas veces al día pero se leen en cada petición.
+ *
+ * FUNCIONAMIENTO:
+ * 1. obtener(negocioId) devuelve una foto inmutable (CatalogoNegocio); si no existe, la carga
+ * 2. Cada negocio tiene un número de versión; ServicioService, CategoriaService y
+ *    ConfiguracionReservaService llaman a invalidar() al escribir, lo que sube la versión
+ * 3. Una carga que empezó con una versión anterior no se publica (evita guardar datos viejos
+ *    si una escritura ocurrió mientras se cargaba)
+ * 4. La invalidación se repite al confirmar la transacción, para que nadie recargue
+ *    el estado previo al commit
+ *
+ * LÍMITES:
+ * - Máximo catalogo.cache.max-negocios fotos (LRU: se descarta el negocio menos usado)
+ * - Cada foto vence a los catalogo.cache.ttl-minutos, como red de seguridad ante cambios
+ *   hechos fuera de la API (scripts SQL)
+ * - Las versiones viven en un arreglo fijo de franjas (4 por negocio en caché, potencia de 2),
+ *   no en un mapa por negocio que crecería con cada negocio visto. Dos negocios que comparten
+ *   franja solo provocan alguna recarga de más al invalidar, nunca datos viejos
+ */
+@Service
+public class CatalogoCacheService {
+
+    private final ServicioRepository servicioRepository;
+    private final CategoriaRepository categoriaRepository;
+    private final ConfiguracionReservaRepository configuracionReservaRepository;
+
+    private final long ttlMillis;
+    private final Map<Long, Entrada> cache;
+    private final AtomicLongArray versiones;
+
+    public CatalogoCacheService(ServicioRepository servicioRepository,
+                                CategoriaRepository categoriaRepository,
+                                ConfiguracionReservaRepository configuracionReservaRepository,
+                                @Value("${catalogo.cache.max-negocios:500}") int maxNegocios,
+                                @Value("${catalogo.cache.ttl-minutos:30}") long ttlMinutos) {
+        this.servicioRepository = servicioRepository;
+        this.categoriaRepository = categoriaRepository;
+        this.configuracionReservaRepository = configuracionReservaRepository;
+        this.ttlMillis = Duration.ofMinutes(ttlMinutos).toMillis();
+        this.versiones = new AtomicLongArray(Integer.highestOneBit(Math.max(maxNegocios, 16) * 4 - 1) << 1);
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entrada> eldest) {
+                return size() > maxNegocios;
+            }
+        });
+    }
+
+    /**
+     * Catálogo vigente del negocio. Sin consultas a la BD si ya está en caché.
+     */
+    @Transactional(readOnly = true)
+    public CatalogoNegocio obtener(Long negocioId) {
+        int franja = franja(negocioId);
+        long versionActual = versiones.get(franja);
+        long ahora = System.currentTimeMillis();
+
+        Entrada entrada = cache.get(negocioId);
+        if (entrada != null && entrada.catalogo.version() == versionActual && ahora < entrada.venceEn) {
+            return entrada.catalogo;
+        }
+
+        CatalogoNegocio catalogo = cargar(negocioId, versionActual);
+        if (versiones.get(franja) == versionActual) {
+            cache.put(negocioId, new Entrada(catalogo, ahora + ttlMillis));
+        }
+        return catalogo;
+    }
+
+    /**
+     * Descarta el catálogo del negocio. Llamar después de cualquier escritura
+     * en servicios, categorías o configuración de reservas.
+     */
+    public void invalidar(Long negocioId) {
+        if (negocioId == null) {
+            return;
+        }
+        descartar(negocioId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    descartar(negocioId);
+                }
+            });
+        }
+    }
+
+    private void descartar(Long negocioId) {
+        versiones.incrementAndGet(franja(negocioId));
+        cache.remove(negocioId);
+    }
+
+    private int franja(Long negocioId) {
+        return Long.hashCode(negocioId) & (versiones.length() - 1);
+    }
+
+    private CatalogoNegocio cargar(Long negocioId, long version) {
+        Map<Long, CatalogoNegocio.ServicioCatalogo> servicios = new LinkedHashMap<>();
+        for (Servicio servicio : servicioRepository.findCatalogoByNegocioId(negocioId)) {
+            servicios.put(servicio.getId(), CatalogoNegocio.ServicioCatalogo.of(servicio));
+        }
+
+        List<CatalogoNegocio.CategoriaCatalogo> categorias = categoriaRepository
+                .findByRegEstadoNotAndNegocioId(0, negocioId).stream()
+                .map(CatalogoNegocio.CategoriaCatalogo::of)
+                .toList();
+
+        CatalogoNegocio.ConfiguracionCatalogo configuracion = configuracionReservaRepository
+                .findByNegocioId(negocioId)
+                .map(CatalogoNegocio.ConfiguracionCatalogo::of)
+                .orElse(null);
+
+        return new CatalogoNegocio(negocioId, version, Collections.unmodifiableMap(servicios), categorias, configuracion);
+    }
+
+    private record Entrada(CatalogoNegocio catalogo, long venceEn) {
+    }
+}
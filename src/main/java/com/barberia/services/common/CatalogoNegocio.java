@@ -0,0 +1,143 @@
+package com.barberia.services.common;
+
+import com.barberia.models.Categoria;
+import com.barberia.models.ConfiguracionReserva;
+import com.barberia.models.Servicio;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Foto inmutable del catálogo de un negocio: servicios, categorías y configuración de reservas.
+ *
+ * Se construye una vez a partir de las entidades y se comparte entre hilos sin bloqueos
+ * (todos los campos son records/colecciones inmutables). Nunca se modifica: cuando el
+ * catálogo cambia, CatalogoCacheService descarta la foto y carga una nueva con otra versión.
+ *
+ * @param negocioId     negocio al que pertenece
+ * @param version       versión con la que se cargó (ver CatalogoCacheService)
+ * @param servicios     servicios no eliminados (regEstado != 0), por id, en orden de id
+ * @param categorias    categorías no eliminadas
+ * @param configuracion configuración de reservas, o null si el negocio aún no la creó
+ */
+public record CatalogoNegocio(
+        Long negocioId,
+        long version,
+        Map<Long, ServicioCatalogo> servicios,
+        List<CategoriaCatalogo> categorias,
+        ConfiguracionCatalogo configuracion
+) {
+
+    /**
+     * Servicios pedidos, en el orden de la petición y sin repetidos.
+     * Los ids que no pertenecen al negocio (o están eliminados) se omiten,
+     * igual que hacía servicioRepository.findAllById.
+     */
+    public List<ServicioCatalogo> serviciosPorIds(Collection<Long> ids) {
+        List<ServicioCatalogo> resultado = new ArrayList<>();
+        if (ids == null) {
+            return resultado;
+        }
+        for (Long id : new LinkedHashSet<>(ids)) {
+            ServicioCatalogo servicio = servicios.get(id);
+            if (servicio != null) {
+                resultado.add(servicio);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Igual que serviciosPorIds, pero exige que TODOS los ids pertenezcan al negocio.
+     * Es la verificación multi-tenant de servicios al escribir una reserva.
+     */
+    public List<ServicioCatalogo> serviciosDelNegocio(Collection<Long> ids) {
+        List<ServicioCatalogo> encontrados = serviciosPorIds(ids);
+        int pedidos = ids == null ? 0 : new LinkedHashSet<>(ids).size();
+        if (encontrados.size() != pedidos) {
+            throw new RuntimeException("Uno o más servicios no existen en este negocio");
+        }
+        return encontrados;
+    }
+
+    /**
+     * Nombre de un servicio del catálogo (null si no está)
+     */
+    public String nombreServicio(Long servicioId) {
+        ServicioCatalogo servicio = servicios.get(servicioId);
+        return servicio != null ? servicio.nombre() : null;
+    }
+
+    /**
+     * Servicios visibles en la web pública: activos y con categoría activa
+     */
+    public List<ServicioCatalogo> serviciosPublicos() {
+        return servicios.values().stream()
+                .filter(ServicioCatalogo::estado)
+                .filter(ServicioCatalogo::categoriaActiva)
+                .toList();
+    }
+
+    public record ServicioCatalogo(
+            Long id,
+            String nombre,
+            String descripcion,
+            String imagenUrl,
+            BigDecimal precio,
+            Integer duracionMinutos,
+            boolean estado,
+            Long categoriaId,
+            String categoriaNombre,
+            boolean categoriaActiva
+    ) {
+        static ServicioCatalogo of(Servicio servicio) {
+            Categoria categoria = servicio.getCategoria();
+            return new ServicioCatalogo(
+                    servicio.getId(),
+                    servicio.getNombre(),
+                    servicio.getDescripcion(),
+                    servicio.getImagenUrl(),
+                    servicio.getPrecio(),
+                    servicio.getDuracionMinutosAprox(),
+                    servicio.isEstado(),
+                    categoria != null ? categoria.getId() : null,
+                    categoria != null ? categoria.getNombre() : null,
+                    categoria != null && categoria.isEstado() && !Integer.valueOf(0).equals(categoria.getRegEstado())
+            );
+        }
+    }
+
+    public record CategoriaCatalogo(Long id, String nombre, boolean estado) {
+        static CategoriaCatalogo of(Categoria categoria) {
+            return new CategoriaCatalogo(categoria.getId(), categoria.getNombre(), categoria.isEstado());
+        }
+    }
+
+    public record ConfiguracionCatalogo(
+            Long id,
+            Integer anticipacionHoras,
+            Integer anticipacionMaximaDias,
+            Boolean permiteMismoDia,
+            Integer intervaloTurnosMinutos,
+            Integer anticipacionMinimaHoras,
+            Boolean permiteCancelacion,
+            Integer horasMinimasCancelacion
+    ) {
+        static ConfiguracionCatalogo of(ConfiguracionReserva config) {
+            return new ConfiguracionCatalogo(
+                    config.getId(),
+                    config.getAnticipacionHoras(),
+                    config.getAnticipacionMaximaDias(),
+                    config.getPermiteMismoDia(),
+                    config.getIntervaloTurnosMinutos(),
+                    config.getAnticipacionMinimaHoras(),
+                    config.getPermiteCancelacion(),
+                    config.getHorasMinimasCancelacion()
+            );
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.barberia.services.common;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cuenta las sentencias SQL que Hibernate prepara en el hilo actual.
+ *
+ * PROBLEMA:
+ * Los mappers (ReservaMapper.toResponse, los resúmenes del dashboard) recorren asociaciones
+ * lazy: agregar un campo a un DTO puede sumar una consulta por fila (N+1) sin que nada
+ * falle. Solo se notaba cuando la página ya estaba lenta en producción.
+ *
+ * FUNCIONAMIENTO:
+ * - Hibernate llama a inspect() con cada sentencia antes de prepararla
+ *   (hibernate.session_factory.statement_inspector en application.yml)
+ * - Solo se cuenta dentro de una medición abierta con iniciar(); fuera de ella el costo
+ *   es leer un ThreadLocal
+ * - Las mediciones se anidan: la del test cuenta dentro de la de la petición
+ *   (ConsultasPorPeticionFilter) y ambas ven las mismas sentencias
+ *
+ * No ve lo que va por JdbcTemplate (repositorios *Impl con SQL a mano) ni lo que corre
+ * en otros hilos (variantes de imágenes, outbox).
+ */
+public class ContadorConsultas implements StatementInspector {
+
+    private static final ThreadLocal<Medicion> ACTUAL = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        Medicion medicion = ACTUAL.get();
+        if (medicion != null) {
+            medicion.registrar(sql);
+        }
+        return sql;
+    }
+
+    /**
+     * Abre una medición en el hilo actual; se cierra con close() (try-with-resources)
+     *
+     * @param agruparSentencias true para guardar cuántas veces se ejecutó cada sentencia
+     *                          (para el log y los mensajes de los tests); false solo cuenta
+     */
+    public static Medicion iniciar(boolean agruparSentencias) {
+        Medicion medicion = new Medicion(ACTUAL.get(), agruparSentencias);
+        ACTUAL.set(medicion);
+        return medicion;
+    }
+
+    public static final class Medicion implements AutoCloseable {
+
+        private final Medicion anterior;
+        private final Map<String, Integer> sentencias;
+        private int total;
+
+        private Medicion(Medicion anterior, boolean agruparSentencias) {
+            this.anterior = anterior;
+            this.sentencias = agruparSentencias ? new LinkedHashMap<>() : null;
+        }
+
+        private void registrar(String sql) {
+            total++;
+            if (sentencias != null) {
+                sentencias.merge(sql, 1, Integer::sum);
+            }
+            if (anterior != null) {
+                anterior.registrar(sql);
+            }
+        }
+
+        public int total() {
+            return total;
+        }
+
+        /**
+         * Sentencias distintas con su cantidad, de la más repetida a la menos (vacío si no
+         * se agrupan). Una sentencia repetida tantas veces como filas devuelve el endpoint
+         * es la firma de un N+1
+         */
+        public List<Map.Entry<String, Integer>> sentencias() {
+            if (sentencias == null) {
+                return Collections.emptyList();
+            }
+            List<Map.Entry<String, Integer>> ordenadas = new ArrayList<>(sentencias.entrySet());
+            ordenadas.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+            return ordenadas;
+        }
+
+        @Override
+        public void close() {
+            if (anterior != null) {
+                ACTUAL.set(anterior);
+            } else {
+                ACTUAL.remove();
+            }
+        }
+    }
+}
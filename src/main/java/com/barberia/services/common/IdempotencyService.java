@@ -0,0 +1,399 @@
+package com.barberia.services.common;
+
+import com.barberia.dto.ApiResponse;
+import com.barberia.models.IdempotencyKey;
+import com.barberia.repositories.IdempotencyKeyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Soporte del header Idempotency-Key para endpoints de creación.
+ *
+ * PROBLEMA:
+ * Los clientes móviles con mala conexión reintentan POST /api/reservas/register
+ * y POST /api/clientes/... Cada reintento repite toda la validación y suele terminar
+ * en un duplicado o en un falso error de "horario ocupado" (el choque es con la
+ * propia reserva creada por el primer intento).
+ *
+ * SOLUCIÓN:
+ * 1. La primera petición con una clave se ejecuta normalmente
+ * 2. Si termina con éxito (2xx), su respuesta se guarda durante ttl-minutos
+ * 3. Un reintento con la misma clave recibe la respuesta guardada (header Idempotent-Replayed: true)
+ * 4. Los reintentos que llegan MIENTRAS la primera sigue en curso esperan su resultado
+ *    (no se ejecuta dos veces)
+ * 5. Reutilizar la clave con otro cuerpo devuelve 422
+ *
+ * ALMACÉN:
+ * - En memoria, acotado a max-entradas y con expiración por TTL
+ * - Opcional (idempotency.persistente=true): tabla idempotency_keys para varios nodos
+ *
+ * ANÓNIMOS: sin usuario no hay con qué aislar las claves, y una clave común ("1", "reintento")
+ * haría que un visitante recibiera la respuesta de otro. El scope anónimo es la IP del
+ * cliente más el hash del cuerpo (que incluye el negocio): solo un reintento idéntico desde
+ * la misma IP repite la respuesta.
+ *
+ * Las respuestas de error NO se guardan: el cliente puede corregir y reintentar con la misma clave.
+ * Sin header, el endpoint funciona exactamente igual que antes.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String HEADER_REPLAYED = "Idempotent-Replayed";
+
+    private static final int MAX_LONGITUD_CLAVE = 100;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final SecurityContextService securityContextService;
+    private final ObjectMapper objectMapper;
+
+    private final long ttlMillis;
+    private final int maxEntradas;
+    private final long esperaMaximaMillis;
+    private final boolean persistente;
+
+    private final Map<String, Entrada> entradas = new ConcurrentHashMap<>();
+    private volatile long proximaPurga = 0;
+
+    public IdempotencyService(IdempotencyKeyRepository idempotencyKeyRepository,
+                              SecurityContextService securityContextService,
+                              ObjectMapper objectMapper,
+                              @Value("${idempotency.ttl-minutos:1440}") long ttlMinutos,
+                              @Value("${idempotency.max-entradas:10000}") int maxEntradas,
+                              @Value("${idempotency.espera-maxima-segundos:30}") long esperaMaximaSegundos,
+                              @Value("${idempotency.persistente:false}") boolean persistente) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.securityContextService = securityContextService;
+        this.objectMapper = objectMapper;
+        this.ttlMillis = Duration.ofMinutes(ttlMinutos).toMillis();
+        this.maxEntradas = maxEntradas;
+        this.esperaMaximaMillis = Duration.ofSeconds(esperaMaximaSegundos).toMillis();
+        this.persistente = persistente;
+    }
+
+    /**
+     * Ejecuta la acción una sola vez por (operación, negocio, usuario, clave).
+     *
+     * @param operacion identificador estable del endpoint. Ejemplo: "reservas.register"
+     * @param clave     valor del header Idempotency-Key (null o vacío = sin idempotencia)
+     * @param request   cuerpo de la petición, para detectar reutilización de clave con otro payload
+     * @param tipoData  clase del campo data de ApiResponse (necesaria para reconstruir desde la BD)
+     * @param accion    la lógica original del endpoint
+     */
+    public <T> ResponseEntity<ApiResponse<T>> ejecutar(String operacion,
+                                                        String clave,
+                                                        Object request,
+                                                        Class<T> tipoData,
+                                                        Supplier<ResponseEntity<ApiResponse<T>>> accion) {
+        if (clave == null || clave.isBlank()) {
+            return accion.get();
+        }
+        if (clave.length() > MAX_LONGITUD_CLAVE) {
+            return error(HttpStatus.BAD_REQUEST, "El header " + HEADER + " no puede exceder " + MAX_LONGITUD_CLAVE + " caracteres");
+        }
+
+        String fingerprint = fingerprint(request);
+        String scope = operacion + ":" + resolverScope(fingerprint);
+        String llave = scope + "|" + clave;
+        long ahora = System.currentTimeMillis();
+        purgarSiCorresponde(ahora);
+
+        Entrada propia = new Entrada(fingerprint, ahora + ttlMillis);
+        while (true) {
+            Entrada existente = entradas.putIfAbsent(llave, propia);
+            if (existente == null) {
+                break;
+            }
+            if (existente.expirada(ahora)) {
+                entradas.remove(llave, existente);
+                continue;
+            }
+            if (!existente.fingerprint.equals(fingerprint)) {
+                return error(HttpStatus.UNPROCESSABLE_ENTITY,
+                        "La clave " + HEADER + " ya fue usada con una petición diferente");
+            }
+            // Duplicado: esperar (si sigue en curso) y repetir la misma respuesta
+            return esperarResultado(existente);
+        }
+
+        return ejecutarComoPropietario(llave, scope, clave, propia, tipoData, accion);
+    }
+
+    private <T> ResponseEntity<ApiResponse<T>> ejecutarComoPropietario(String llave,
+                                                                        String scope,
+                                                                        String clave,
+                                                                        Entrada propia,
+                                                                        Class<T> tipoData,
+                                                                        Supplier<ResponseEntity<ApiResponse<T>>> accion) {
+        if (persistente) {
+            Optional<ResponseEntity<ApiResponse<T>>> resuelta = reclamarEnBaseDeDatos(scope, clave, propia, tipoData);
+            if (resuelta.isPresent()) {
+                ResponseEntity<ApiResponse<T>> respuesta = resuelta.get();
+                if (respuesta.getStatusCode().is2xxSuccessful()) {
+                    propia.resultado.complete(respuesta);
+                } else {
+                    entradas.remove(llave, propia);
+                    propia.resultado.complete(respuesta);
+                }
+                return respuesta;
+            }
+        }
+
+        ResponseEntity<ApiResponse<T>> respuesta;
+        try {
+            respuesta = accion.get();
+        } catch (RuntimeException e) {
+            liberar(llave, scope, clave, propia);
+            propia.resultado.completeExceptionally(e);
+            throw e;
+        }
+
+        if (respuesta.getStatusCode().is2xxSuccessful()) {
+            propia.resultado.complete(respuesta);
+            if (persistente) {
+                guardarEnBaseDeDatos(scope, clave, propia, respuesta);
+            }
+        } else {
+            // Los errores no se repiten: los que esperaban reciben este mismo resultado,
+            // pero un reintento posterior vuelve a ejecutar
+            liberar(llave, scope, clave, propia);
+            propia.resultado.complete(respuesta);
+        }
+        return respuesta;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<ApiResponse<T>> esperarResultado(Entrada existente) {
+        try {
+            ResponseEntity<?> respuesta = existente.resultado.get(esperaMaximaMillis, TimeUnit.MILLISECONDS);
+            return (ResponseEntity<ApiResponse<T>>) marcarRepetida(respuesta);
+        } catch (TimeoutException e) {
+            return error(HttpStatus.CONFLICT, "Una petición con la misma " + HEADER + " todavía está en proceso");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return error(HttpStatus.CONFLICT, "Una petición con la misma " + HEADER + " todavía está en proceso");
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(causa);
+        }
+    }
+
+    /**
+     * Modo multi-nodo: reclama la clave en la tabla o recupera la respuesta de otro nodo.
+     *
+     * @return respuesta ya resuelta (repetición o conflicto), o vacío si este nodo debe ejecutar
+     */
+    private <T> Optional<ResponseEntity<ApiResponse<T>>> reclamarEnBaseDeDatos(String scope,
+                                                                               String clave,
+                                                                               Entrada propia,
+                                                                               Class<T> tipoData) {
+        Optional<IdempotencyKey> registro = idempotencyKeyRepository.findByScopeAndClave(scope, clave);
+        if (registro.isPresent()) {
+            IdempotencyKey existente = registro.get();
+            if (existente.getExpiraEn().isBefore(LocalDateTime.now())) {
+                idempotencyKeyRepository.delete(existente);
+            } else if (!existente.getFingerprint().equals(propia.fingerprint)) {
+                return Optional.of(error(HttpStatus.UNPROCESSABLE_ENTITY,
+                        "La clave " + HEADER + " ya fue usada con una petición diferente"));
+            } else if (IdempotencyKey.COMPLETADA.equals(existente.getEstado())) {
+                return Optional.of(deserializar(existente, tipoData));
+            } else {
+                return Optional.of(error(HttpStatus.CONFLICT,
+                        "Una petición con la misma " + HEADER + " todavía está en proceso"));
+            }
+        }
+
+        try {
+            idempotencyKeyRepository.saveAndFlush(IdempotencyKey.builder()
+                    .scope(scope)
+                    .clave(clave)
+                    .fingerprint(propia.fingerprint)
+                    .estado(IdempotencyKey.EN_PROCESO)
+                    .expiraEn(LocalDateTime.now().plus(Duration.ofMillis(ttlMillis)))
+                    .build());
+            return Optional.empty();
+        } catch (DataIntegrityViolationException e) {
+            // Otro nodo reclamó la misma clave entre la consulta y el insert
+            return Optional.of(error(HttpStatus.CONFLICT,
+                    "Una petición con la misma " + HEADER + " todavía está en proceso"));
+        }
+    }
+
+    private void guardarEnBaseDeDatos(String scope, String clave, Entrada propia, ResponseEntity<?> respuesta) {
+        try {
+            IdempotencyKey registro = idempotencyKeyRepository.findByScopeAndClave(scope, clave)
+                    .orElseGet(() -> IdempotencyKey.builder()
+                            .scope(scope)
+                            .clave(clave)
+                            .fingerprint(propia.fingerprint)
+                            .build());
+            registro.setEstado(IdempotencyKey.COMPLETADA);
+            registro.setStatusCode(respuesta.getStatusCode().value());
+            registro.setResponseBody(objectMapper.writeValueAsString(respuesta.getBody()));
+            registro.setExpiraEn(LocalDateTime.now().plus(Duration.ofMillis(ttlMillis)));
+            idempotencyKeyRepository.save(registro);
+        } catch (JsonProcessingException | RuntimeException e) {
+            // La operación ya se hizo: un fallo al guardar la respuesta no debe convertirla en error.
+            // Se libera la fila para no dejar la clave bloqueada en EN_PROCESO.
+            idempotencyKeyRepository.deleteByScopeAndClave(scope, clave);
+        }
+    }
+
+    private <T> ResponseEntity<ApiResponse<T>> deserializar(IdempotencyKey registro, Class<T> tipoData) {
+        try {
+            JavaType tipo = objectMapper.getTypeFactory().constructParametricType(ApiResponse.class, tipoData);
+            ApiResponse<T> body = objectMapper.readValue(registro.getResponseBody(), tipo);
+            return ResponseEntity.status(registro.getStatusCode())
+                    .header(HEADER_REPLAYED, "true")
+                    .body(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo reconstruir la respuesta guardada: " + e.getMessage(), e);
+        }
+    }
+
+    private void liberar(String llave, String scope, String clave, Entrada propia) {
+        entradas.remove(llave, propia);
+        if (persistente) {
+            idempotencyKeyRepository.deleteByScopeAndClave(scope, clave);
+        }
+    }
+
+    private ResponseEntity<?> marcarRepetida(ResponseEntity<?> respuesta) {
+        return ResponseEntity.status(respuesta.getStatusCode())
+                .headers(respuesta.getHeaders())
+                .header(HEADER_REPLAYED, "true")
+                .body(respuesta.getBody());
+    }
+
+    /**
+     * Las claves se aíslan por negocio y usuario: dos negocios pueden usar el mismo valor sin chocar.
+     * Sin usuario (endpoints públicos) se aíslan por IP y cuerpo de la petición.
+     */
+    private String resolverScope(String fingerprint) {
+        String usuario = securityContextService.getUsernameFromContext();
+        if (usuario == null) {
+            return "publico:ip:" + ipCliente() + ":f:" + fingerprint;
+        }
+        String negocio;
+        try {
+            negocio = "n" + securityContextService.getNegocioIdFromContext();
+        } catch (IllegalStateException e) {
+            negocio = "publico";
+        }
+        return negocio + ":u:" + usuario;
+    }
+
+    private static String ipCliente() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes atributos) {
+            return atributos.getRequest().getRemoteAddr();
+        }
+        return "desconocida";
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(request);
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(json);
+            return HexFormat.of().formatHex(hash);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            // Sin fingerprint fiable se compara por hashCode (los DTOs son @Data)
+            return Integer.toHexString(String.valueOf(request).hashCode());
+        }
+    }
+
+    /**
+     * Purga de entradas vencidas cada minuto, o antes si se supera max-entradas.
+     * Si aun así sigue lleno, se descartan las completadas más antiguas.
+     */
+    private void purgarSiCorresponde(long ahora) {
+        if (ahora < proximaPurga && entradas.size() < maxEntradas) {
+            return;
+        }
+        synchronized (this) {
+            if (ahora < proximaPurga && entradas.size() < maxEntradas) {
+                return;
+            }
+            proximaPurga = ahora + TimeUnit.MINUTES.toMillis(1);
+            entradas.entrySet().removeIf(e -> e.getValue().expirada(ahora));
+
+            int excedente = entradas.size() - maxEntradas + 1;
+            if (excedente > 0) {
+                entradas.entrySet().stream()
+                        .filter(e -> e.getValue().resultado.isDone())
+                        .sorted(Comparator.comparingLong(e -> e.getValue().expiraEn))
+                        .limit(excedente)
+                        .map(Map.Entry::getKey)
+                        .toList()
+                        .forEach(entradas::remove);
+            }
+
+            if (persistente) {
+                idempotencyKeyRepository.deleteExpiradas(LocalDateTime.now());
+            }
+        }
+    }
+
+    /**
+     * Cantidad de claves retenidas en memoria (monitoreo y tests)
+     */
+    public int size() {
+        return entradas.size();
+    }
+
+    private static <T> ResponseEntity<ApiResponse<T>> error(HttpStatus status, String mensaje) {
+        return ResponseEntity.status(status).body(
+                ApiResponse.<T>builder()
+                        .code(status.value())
+                        .success(false)
+                        .message(mensaje)
+                        .build()
+        );
+    }
+
+    /**
+     * Una clave en memoria: el resultado es un futuro para que los duplicados
+     * concurrentes esperen a la ejecución original en lugar de repetirla.
+     */
+    private static final class Entrada {
+        private final String fingerprint;
+        private final long expiraEn;
+        private final CompletableFuture<ResponseEntity<?>> resultado = new CompletableFuture<>();
+
+        private Entrada(String fingerprint, long expiraEn) {
+            this.fingerprint = fingerprint;
+            this.expiraEn = expiraEn;
+        }
+
+        private boolean expirada(long ahora) {
+            // Una ejecución en curso nunca se purga aunque supere el TTL
+            return ahora > expiraEn && resultado.isDone();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.barberia.services.common;
+
+import com.barberia.services.jfr.EtapaEvento;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Timers y contadores de Micrometer para los caminos calientes (disponibilidad, reservas,
+ * dashboard, JWT, subidas), expuestos en /actuator/prometheus.
+ *
+ * ETIQUETAS:
+ * - negocio: id del negocio (tenant). Cada valor distinto es una serie nueva en Prometheus,
+ *   así que solo los primeros metricas.negocios-max negocios vistos conservan su id; el
+ *   resto se agrupa en "otros". Sin negocio (jobs, endpoints públicos): "ninguno"
+ * - resultado: "ok" o "error" (el nombre simple de la excepción va en la etiqueta "excepcion")
+ *
+ * El negocio de la petición lo deja JwtAuthenticationFilter en un atributo del request al
+ * verificar el token, para no volver a parsear el JWT en cada medición.
+ */
+@Component
+public class Metricas {
+
+    /** Atributo del request con el negocioId del JWT ya verificado */
+    public static final String ATRIBUTO_NEGOCIO = Metricas.class.getName() + ".negocioId";
+
+    static final String SIN_NEGOCIO = "ninguno";
+    static final String OTROS = "otros";
+
+    private final MeterRegistry registry;
+    private final int negociosMax;
+    private final Map<Long, String> negocios = new ConcurrentHashMap<>();
+
+    public Metricas(MeterRegistry registry,
+                    @Value("${metricas.negocios-max:100}") int negociosMax) {
+        this.registry = registry;
+        this.negociosMax = negociosMax;
+    }
+
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Valor de la etiqueta "negocio", con la cardinalidad acotada
+     */
+    public String negocio(Long negocioId) {
+        if (negocioId == null) {
+            return SIN_NEGOCIO;
+        }
+        String etiqueta = negocios.get(negocioId);
+        if (etiqueta != null) {
+            return etiqueta;
+        }
+        if (negocios.size() >= negociosMax) {
+            return OTROS;
+        }
+        return negocios.computeIfAbsent(negocioId, String::valueOf);
+    }
+
+    /**
+     * Negocio del JWT de la petición en curso (null fuera de una petición o sin token)
+     */
+    public static Long negocioActual() {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        if (atributos == null) {
+            return null;
+        }
+        Object negocioId = atributos.getAttribute(ATRIBUTO_NEGOCIO, RequestAttributes.SCOPE_REQUEST);
+        return negocioId instanceof Long id ? id : null;
+    }
+
+    /**
+     * Ejecuta y mide la operación con resultado ok/error
+     */
+    public <T> T medir(String nombre, Long negocioId, Supplier<T> operacion, String... tags) {
+        long inicio = System.nanoTime();
+        Throwable error = null;
+        try {
+            return operacion.get();
+        } catch (RuntimeException | Error e) {
+            error = e;
+            throw e;
+        } finally {
+            registrar(nombre, negocioId, System.nanoTime() - inicio, error, tags);
+        }
+    }
+
+    /**
+     * Registra una duración ya medida
+     */
+    public void registrar(String nombre, Long negocioId, long nanos, Throwable error, String... tags) {
+        timer(nombre, Tags.of(tags)
+                .and(Tag.of("negocio", negocio(negocioId)))
+                .and(resultado(error)))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Registra una duración con un resultado propio (ej: "rechazado" en la verificación del JWT)
+     */
+    public void registrar(String nombre, Long negocioId, long nanos, String resultado, String excepcion) {
+        timer(nombre, Tags.of("negocio", negocio(negocioId), "resultado", resultado, "excepcion", excepcion))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void contar(String nombre, Long negocioId, String... tags) {
+        registry.counter(nombre, Tags.of(tags).and("negocio", negocio(negocioId))).increment();
+    }
+
+    /**
+     * Cronómetro por etapas: cada etapa() registra el tiempo desde la etapa anterior en
+     * "{nombre}.etapa" (etiqueta etapa) y terminar() el total en "{nombre}".
+     * Cada etapa también es un evento JFR "barberia.Etapa" con el negocio sin acotar y el
+     * profesional, para ver en una grabación qué etapa es lenta para qué negocio.
+     */
+    public Cronometro cronometro(String nombre, Long negocioId) {
+        return new Cronometro(nombre, negocioId);
+    }
+
+    private Timer timer(String nombre, Tags tags) {
+        return Timer.builder(nombre).tags(tags).register(registry);
+    }
+
+    private static Tags resultado(Throwable error) {
+        return error == null
+                ? Tags.of("resultado", "ok", "excepcion", "none")
+                : Tags.of("resultado", "error", "excepcion", error.getClass().getSimpleName());
+    }
+
+    public final class Cronometro {
+
+        private final String nombre;
+        private final Long negocioId;
+        private final String negocio;
+        private final long inicio;
+        private long ultimaMarca;
+        private Long profesionalId;
+        private EtapaEvento evento;
+
+        private Cronometro(String nombre, Long negocioId) {
+            this.nombre = nombre;
+            this.negocioId = negocioId;
+            this.negocio = negocio(negocioId);
+            this.inicio = System.nanoTime();
+            this.ultimaMarca = inicio;
+            this.evento = new EtapaEvento();
+            evento.iniciar();
+        }
+
+        /**
+         * Profesional de la operación, solo para los eventos JFR (no es etiqueta de métricas)
+         */
+        public void profesional(Long profesionalId) {
+            this.profesionalId = profesionalId;
+        }
+
+        /**
+         * Cierra la etapa que terminó recién (el tiempo desde la marca anterior)
+         */
+        public void etapa(String etapa) {
+            long ahora = System.nanoTime();
+            timer(nombre + ".etapa", Tags.of("etapa", etapa, "negocio", negocio))
+                    .record(ahora - ultimaMarca, TimeUnit.NANOSECONDS);
+            ultimaMarca = ahora;
+            evento.registrar(nombre, etapa, negocioId, profesionalId);
+            evento = new EtapaEvento();
+            evento.iniciar();
+        }
+
+        /**
+         * Registra el total; con error, la etapa en curso no se cierra (se ve en el total)
+         */
+        public void terminar(Throwable error) {
+            timer(nombre, Tags.of("negocio", negocio).and(resultado(error)))
+                    .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+}
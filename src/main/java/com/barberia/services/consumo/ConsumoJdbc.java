@@ -0,0 +1,58 @@
+package com.barberia.services.consumo;
+
+/**
+ * Consumo de base de datos de la petición en curso (hilo actual): sentencias ejecutadas,
+ * tiempo esperando a la BD y filas leídas. Lo llena DataSourceMedido.
+ *
+ * Solo lo toca el hilo de la petición: contadores simples, sin sincronización. Al terminar
+ * la petición ConsumoPorNegocioFilter lo suma a los acumuladores del negocio.
+ */
+public final class ConsumoJdbc {
+
+    private static final ThreadLocal<ConsumoJdbc> ACTUAL = new ThreadLocal<>();
+
+    long sentencias;
+    long nanosBd;
+    long filas;
+
+    private ConsumoJdbc() {
+    }
+
+    /**
+     * Empieza a medir en el hilo actual (reemplaza una medición anterior sin cerrar)
+     */
+    public static ConsumoJdbc iniciar() {
+        ConsumoJdbc consumo = new ConsumoJdbc();
+        ACTUAL.set(consumo);
+        return consumo;
+    }
+
+    public static void terminar() {
+        ACTUAL.remove();
+    }
+
+    /** Medición abierta en el hilo actual, o null (jobs, hilos de fondo) */
+    static ConsumoJdbc actual() {
+        return ACTUAL.get();
+    }
+
+    /**
+     * Filas leídas hasta ahora en la petición en curso (0 si no se está midiendo)
+     */
+    public static long filasLeidas() {
+        ConsumoJdbc consumo = ACTUAL.get();
+        return consumo != null ? consumo.filas : 0;
+    }
+
+    public long getSentencias() {
+        return sentencias;
+    }
+
+    public long getNanosBd() {
+        return nanosBd;
+    }
+
+    public long getFilas() {
+        return filas;
+    }
+}
@@ -0,0 +1,206 @@
+package com.barberia.services.consumo;
+
+import com.barberia.dto.plataforma.ConsumoNegociosResponse;
+import com.barberia.dto.plataforma.NegocioConsumoDTO;
+import com.barberia.models.Negocio;
+import com.barberia.repositories.NegocioRepository;
+import com.barberia.services.common.Metricas;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Consumo de recursos por negocio (tenant): peticiones, sentencias y tiempo de BD, filas
+ * leídas y bytes de respuesta.
+ *
+ * PROBLEMA:
+ * Las métricas de la aplicación dicen que la BD está lenta, pero no QUIÉN la está usando.
+ * Un negocio con una integración que pide el listado de reservas cada segundo degrada a
+ * todos los demás y no había forma de encontrarlo sin revisar logs.
+ *
+ * FUNCIONAMIENTO:
+ * - ConsumoPorNegocioFilter mide cada petición (DataSourceMedido para la BD) y al terminar
+ *   llama a registrar() con el negocioId del JWT
+ * - Por negocio hay un acumulador de LongAdder: sumar desde muchos hilos no bloquea
+ * - Ventana: dos mapas (actual y anterior) que se rotan cada consumo.ventana-minutos; el
+ *   reporte suma ambos, así cubre entre 1 y 2 ventanas sin tener que recorrer historial
+ * - Métricas: contadores acumulados "barberia.negocio.*" con la etiqueta negocio acotada
+ *   (Metricas.negocio), para graficar y alertar desde Prometheus
+ *
+ * Los contadores son de este nodo; con varios nodos el reporte es el de cada uno y
+ * Prometheus suma las métricas.
+ */
+@Slf4j
+@Service
+public class ConsumoNegocioService {
+
+    public static final List<String> ORDENES = List.of("peticiones", "bd", "filas", "bytes");
+
+    private final NegocioRepository negocioRepository;
+    private final Metricas metricas;
+
+    private volatile Map<Long, Acumulador> actual = new ConcurrentHashMap<>();
+    private volatile Map<Long, Acumulador> anterior = new ConcurrentHashMap<>();
+    private volatile LocalDateTime desde = LocalDateTime.now();
+    private volatile LocalDateTime inicioActual = desde;
+
+    // Acumulados por etiqueta de negocio para Micrometer (nunca se rotan)
+    private final Map<String, Acumulador> totales = new ConcurrentHashMap<>();
+
+    // Peticiones sin negocio: la clave null no entra en un ConcurrentHashMap
+    private static final Long SIN_NEGOCIO = -1L;
+
+    public ConsumoNegocioService(NegocioRepository negocioRepository, Metricas metricas) {
+        this.negocioRepository = negocioRepository;
+        this.metricas = metricas;
+    }
+
+    /**
+     * Suma el consumo de una petición terminada
+     */
+    public void registrar(Long negocioId, long sentencias, long nanosBd, long filas, long bytes) {
+        Long clave = negocioId != null ? negocioId : SIN_NEGOCIO;
+        actual.computeIfAbsent(clave, k -> new Acumulador()).sumar(sentencias, nanosBd, filas, bytes);
+        totales.computeIfAbsent(metricas.negocio(negocioId), this::registrarMetricas)
+                .sumar(sentencias, nanosBd, filas, bytes);
+    }
+
+    /**
+     * Descarta la ventana anterior: el reporte pasa a cubrir solo los últimos minutos
+     */
+    @Scheduled(fixedDelayString = "${consumo.ventana-minutos:15}", initialDelayString = "${consumo.ventana-minutos:15}",
+            timeUnit = TimeUnit.MINUTES)
+    public void rotar() {
+        anterior = actual;
+        desde = inicioActual;
+        inicioActual = LocalDateTime.now();
+        actual = new ConcurrentHashMap<>();
+        log.debug("Ventana de consumo rotada: {} negocios en la anterior", anterior.size());
+    }
+
+    /**
+     * Los negocios que más consumieron, según el orden (peticiones, bd, filas o bytes)
+     */
+    public ConsumoNegociosResponse top(String orden, int limite) {
+        if (!ORDENES.contains(orden)) {
+            throw new IllegalArgumentException("Orden no válido: " + orden + ". Valores: " + ORDENES);
+        }
+        Map<Long, long[]> ventana = new HashMap<>();
+        for (Map<Long, Acumulador> mapa : List.of(anterior, actual)) {
+            mapa.forEach((negocioId, acumulador) -> {
+                long[] valores = ventana.computeIfAbsent(negocioId, k -> new long[5]);
+                long[] leidos = acumulador.leer();
+                for (int i = 0; i < valores.length; i++) {
+                    valores[i] += leidos[i];
+                }
+            });
+        }
+
+        long peticiones = ventana.values().stream().mapToLong(v -> v[Acumulador.PETICIONES]).sum();
+        long nanosBd = ventana.values().stream().mapToLong(v -> v[Acumulador.NANOS_BD]).sum();
+
+        ToLongFunction<long[]> criterio = switch (orden) {
+            case "bd" -> v -> v[Acumulador.NANOS_BD];
+            case "filas" -> v -> v[Acumulador.FILAS];
+            case "bytes" -> v -> v[Acumulador.BYTES];
+            default -> v -> v[Acumulador.PETICIONES];
+        };
+        List<Map.Entry<Long, long[]>> top = ventana.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<Long, long[]> e) -> criterio.applyAsLong(e.getValue())).reversed())
+                .limit(Math.max(limite, 1))
+                .toList();
+
+        Map<Long, String> nombres = negocioRepository.findAllById(top.stream()
+                        .map(Map.Entry::getKey)
+                        .filter(id -> !SIN_NEGOCIO.equals(id))
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(Negocio::getId, Negocio::getNombre));
+
+        List<NegocioConsumoDTO> items = new ArrayList<>(top.size());
+        for (Map.Entry<Long, long[]> e : top) {
+            long[] v = e.getValue();
+            boolean sinNegocio = SIN_NEGOCIO.equals(e.getKey());
+            items.add(NegocioConsumoDTO.builder()
+                    .negocioId(sinNegocio ? null : e.getKey())
+                    .nombre(sinNegocio ? "Sin negocio" : Objects.requireNonNullElse(nombres.get(e.getKey()), "(eliminado)"))
+                    .peticiones(v[Acumulador.PETICIONES])
+                    .sentencias(v[Acumulador.SENTENCIAS])
+                    .tiempoBdMs(TimeUnit.NANOSECONDS.toMillis(v[Acumulador.NANOS_BD]))
+                    .filas(v[Acumulador.FILAS])
+                    .bytes(v[Acumulador.BYTES])
+                    .porcentajeBd(nanosBd > 0 ? redondear(100.0 * v[Acumulador.NANOS_BD] / nanosBd) : 0.0)
+                    .tiempoBdMsPorPeticion(v[Acumulador.PETICIONES] > 0
+                            ? redondear(v[Acumulador.NANOS_BD] / 1_000_000.0 / v[Acumulador.PETICIONES])
+                            : 0.0)
+                    .build());
+        }
+
+        return ConsumoNegociosResponse.builder()
+                .desde(desde)
+                .orden(orden)
+                .negocios(ventana.size())
+                .peticiones(peticiones)
+                .tiempoBdMs(TimeUnit.NANOSECONDS.toMillis(nanosBd))
+                .top(items)
+                .build();
+    }
+
+    private Acumulador registrarMetricas(String negocio) {
+        Acumulador acumulador = new Acumulador();
+        MeterRegistry registry = metricas.getRegistry();
+        FunctionCounter.builder("barberia.negocio.peticiones", acumulador, a -> a.peticiones.sum())
+                .tag("negocio", negocio).register(registry);
+        FunctionCounter.builder("barberia.negocio.sentencias", acumulador, a -> a.sentencias.sum())
+                .tag("negocio", negocio).register(registry);
+        FunctionCounter.builder("barberia.negocio.bd", acumulador, a -> a.nanosBd.sum() / 1e9)
+                .baseUnit("seconds").tag("negocio", negocio).register(registry);
+        FunctionCounter.builder("barberia.negocio.filas", acumulador, a -> a.filas.sum())
+                .tag("negocio", negocio).register(registry);
+        FunctionCounter.builder("barberia.negocio.respuesta", acumulador, a -> a.bytes.sum())
+                .baseUnit("bytes").tag("negocio", negocio).register(registry);
+        return acumulador;
+    }
+
+    private static double redondear(double valor) {
+        return Math.round(valor * 100) / 100.0;
+    }
+
+    private static final class Acumulador {
+        static final int PETICIONES = 0, SENTENCIAS = 1, NANOS_BD = 2, FILAS = 3, BYTES = 4;
+
+        final LongAdder peticiones = new LongAdder();
+        final LongAdder sentencias = new LongAdder();
+        final LongAdder nanosBd = new LongAdder();
+        final LongAdder filas = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+
+        void sumar(long sentencias, long nanosBd, long filas, long bytes) {
+            this.peticiones.increment();
+            this.sentencias.add(sentencias);
+            this.nanosBd.add(nanosBd);
+            this.filas.add(filas);
+            this.bytes.add(bytes);
+        }
+
+        long[] leer() {
+            return new long[]{peticiones.sum(), sentencias.sum(), nanosBd.sum(), filas.sum(), bytes.sum()};
+        }
+    }
+}
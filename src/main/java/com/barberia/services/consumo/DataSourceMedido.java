@@ -0,0 +1,100 @@
+package com.barberia.services.consumo;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DataSource que mide, por petición, el tiempo de BD y las filas leídas (ver ConsumoJdbc).
+ *
+ * Envuelve al pool (Hikari) a nivel JDBC, así que ve todo: Hibernate, JdbcTemplate y SQL
+ * nativo. Cada execute* de un Statement suma una sentencia y su duración; cada next() que
+ * devuelve true suma una fila (y el tiempo de traer el siguiente bloque del cursor).
+ *
+ * COSTO: Connection y Statement van por un java.lang.reflect.Proxy, que es barato porque
+ * reciben pocas llamadas por sentencia. El ResultSet NO, porque sus getters se llaman una
+ * vez por columna y fila: se envuelve en ResultSetMedido, una clase que delega directo y
+ * solo intercepta next(). Sin medición abierta (jobs, hilos de fondo) el ResultSet del
+ * driver se devuelve tal cual.
+ *
+ * unwrap/isWrapperFor llegan al pool: las métricas de Hikari lo siguen encontrando.
+ */
+public class DataSourceMedido extends DelegatingDataSource {
+
+    public DataSourceMedido(DataSource destino) {
+        super(destino);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return conexion(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return conexion(super.getConnection(username, password));
+    }
+
+    private static Connection conexion(Connection conexion) {
+        return (Connection) Proxy.newProxyInstance(DataSourceMedido.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, metodo, args) -> {
+                    Object resultado = invocar(conexion, metodo, args);
+                    if (resultado instanceof CallableStatement s) {
+                        return sentencia(s, CallableStatement.class);
+                    }
+                    if (resultado instanceof PreparedStatement s) {
+                        return sentencia(s, PreparedStatement.class);
+                    }
+                    if (resultado instanceof Statement s) {
+                        return sentencia(s, Statement.class);
+                    }
+                    return resultado;
+                });
+    }
+
+    private static Object sentencia(Statement sentencia, Class<? extends Statement> tipo) {
+        InvocationHandler manejador = (proxy, metodo, args) -> {
+            String nombre = metodo.getName();
+            ConsumoJdbc consumo = ConsumoJdbc.actual();
+            if (consumo == null) {
+                return invocar(sentencia, metodo, args);
+            }
+            if (nombre.startsWith("execute")) {
+                long inicio = System.nanoTime();
+                try {
+                    return resultados(invocar(sentencia, metodo, args), consumo);
+                } finally {
+                    consumo.nanosBd += System.nanoTime() - inicio;
+                    consumo.sentencias++;
+                }
+            }
+            Object resultado = invocar(sentencia, metodo, args);
+            return nombre.equals("getResultSet") || nombre.equals("getGeneratedKeys")
+                    ? resultados(resultado, consumo)
+                    : resultado;
+        };
+        return Proxy.newProxyInstance(DataSourceMedido.class.getClassLoader(), new Class<?>[]{tipo}, manejador);
+    }
+
+    private static Object resultados(Object resultado, ConsumoJdbc consumo) {
+        return resultado instanceof ResultSet filas ? new ResultSetMedido(filas, consumo) : resultado;
+    }
+
+    private static Object invocar(Object destino, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(destino, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.barberia.services.dashboard;
+
+/**
+ * Evento de aplicación: terminó el arranque de los agregados diarios (AgregadosDiariosService).
+ *
+ * Lo que se calcula a partir de reserva_agregados_diarios (el rollup de plataforma) debe
+ * esperar a este evento y no a ApplicationReadyEvent: los listeners de ese evento no tienen
+ * orden entre sí y podrían leer la tabla antes de que el backfill la llene.
+ *
+ * @param regenerados true si la tabla estaba vacía y se generó todo el histórico ahora
+ */
+public record AgregadosDiariosListos(boolean regenerados) {
+}
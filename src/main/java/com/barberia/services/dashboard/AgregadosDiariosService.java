@@ -0,0 +1,241 @@
+package com.barberia.services.dashboard;
+
+import com.barberia.models.AgregadoDiario;
+import com.barberia.models.Negocio;
+import com.barberia.models.enums.DimensionAgregado;
+import com.barberia.repositories.AgregadoDiarioRepository;
+import com.barberia.repositories.NegocioRepository;
+import com.barberia.services.eventos.ReservaEvento;
+import com.barberia.services.eventos.ReservaEventoListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mantiene la tabla reserva_agregados_diarios (base de las series temporales).
+ *
+ * FUNCIONAMIENTO:
+ * - Cada evento de reserva (outbox) marca como "sucio" el día (negocio, fecha) de la reserva
+ *   y, si la reserva cambió de día, también el día anterior (fechaAnterior del evento)
+ * - Cada analitica.series.intervalo-ms se recalculan los días sucios: se borran sus
+ *   agregados y se vuelven a generar desde reservas + reservas_archivo (GROUP BY por día)
+ * - Cada noche (analitica.series.cron) se recalcula una ventana alrededor de hoy para
+ *   todos los negocios; corrige lo que los eventos no cubren (ver abajo)
+ * - Al arrancar, si la tabla está vacía, se genera todo el histórico mes a mes; al terminar
+ *   se publica AgregadosDiariosListos (lo espera el rollup de plataforma)
+ *
+ * Recalcular un día es idempotente, así que un evento duplicado solo repite trabajo.
+ *
+ * LIMITACIONES (las corrige la reconciliación nocturna):
+ * - Con varios nodos, los eventos llegan solo al nodo con el relay del outbox
+ */
+@Slf4j
+@Service
+public class AgregadosDiariosService implements ReservaEventoListener {
+
+    /** Referencia usada para reservas sin profesional asignado */
+    public static final long SIN_REFERENCIA = 0L;
+
+    private final AgregadoDiarioRepository agregadoDiarioRepository;
+    private final NegocioRepository negocioRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean habilitado;
+    private final int diasAtras;
+    private final int diasAdelante;
+
+    // Días pendientes de recalcular: negocioId → fechas
+    private final Map<Long, Set<LocalDate>> sucios = new ConcurrentHashMap<>();
+
+    public AgregadosDiariosService(AgregadoDiarioRepository agregadoDiarioRepository,
+                                   NegocioRepository negocioRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   ApplicationEventPublisher eventPublisher,
+                                   @Value("${analitica.series.habilitado:true}") boolean habilitado,
+                                   @Value("${analitica.series.reconciliacion.dias-atras:7}") int diasAtras,
+                                   @Value("${analitica.series.reconciliacion.dias-adelante:90}") int diasAdelante) {
+        this.agregadoDiarioRepository = agregadoDiarioRepository;
+        this.negocioRepository = negocioRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.habilitado = habilitado;
+        this.diasAtras = diasAtras;
+        this.diasAdelante = diasAdelante;
+    }
+
+    @Override
+    public void onReservaEvento(ReservaEvento evento) {
+        if (!habilitado || evento.negocioId() == null || evento.fecha() == null) {
+            return;
+        }
+        marcar(evento.negocioId(), evento.fecha());
+        if (evento.fechaAnterior() != null) {
+            marcar(evento.negocioId(), evento.fechaAnterior());
+        }
+    }
+
+    private void marcar(Long negocioId, LocalDate fecha) {
+        sucios.computeIfAbsent(negocioId, id -> ConcurrentHashMap.newKeySet()).add(fecha);
+    }
+
+    @Scheduled(fixedDelayString = "${analitica.series.intervalo-ms:60000}")
+    public void procesarSucios() {
+        if (!habilitado || sucios.isEmpty()) {
+            return;
+        }
+        for (Long negocioId : new ArrayList<>(sucios.keySet())) {
+            Set<LocalDate> fechas = sucios.remove(negocioId);
+            if (fechas == null) {
+                continue;
+            }
+            for (LocalDate fecha : fechas) {
+                try {
+                    recalcular(negocioId, fecha, fecha);
+                } catch (RuntimeException e) {
+                    // Se reintenta en la próxima pasada
+                    marcar(negocioId, fecha);
+                    log.warn("No se pudo recalcular el agregado {} del negocio {}: {}", fecha, negocioId, e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Scheduled(cron = "${analitica.series.cron:0 15 0 * * *}", zone = "America/Lima")
+    public void reconciliar() {
+        if (!habilitado) {
+            return;
+        }
+        LocalDate hoy = LocalDate.now();
+        for (Long negocioId : negocioIds()) {
+            try {
+                recalcular(negocioId, hoy.minusDays(diasAtras), hoy.plusDays(diasAdelante));
+            } catch (RuntimeException e) {
+                log.warn("Reconciliación de agregados fallida para negocio {}: {}", negocioId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Genera el histórico si la tabla está vacía y avisa con AgregadosDiariosListos
+     * (también si está deshabilitado o falla: quien espera el evento no queda sin arrancar)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void alArrancar() {
+        boolean regenerados = false;
+        if (habilitado) {
+            try {
+                if (agregadoDiarioRepository.count() == 0) {
+                    regenerarTodo();
+                    regenerados = true;
+                }
+            } catch (RuntimeException e) {
+                log.warn("No se pudieron generar los agregados diarios: {}", e.getMessage());
+            }
+        }
+        eventPublisher.publishEvent(new AgregadosDiariosListos(regenerados));
+    }
+
+    /**
+     * Genera los agregados de todo el histórico de cada negocio, un mes por transacción
+     */
+    public void regenerarTodo() {
+        int negocios = 0;
+        for (Long negocioId : negocioIds()) {
+            LocalDate primera = agregadoDiarioRepository.primeraFechaArchivada(negocioId);
+            List<Object[]> rango = agregadoDiarioRepository.rangoReservas(negocioId);
+            LocalDate minCaliente = rango.isEmpty() ? null : (LocalDate) rango.get(0)[0];
+            LocalDate ultima = rango.isEmpty() ? null : (LocalDate) rango.get(0)[1];
+            if (primera == null || (minCaliente != null && minCaliente.isBefore(primera))) {
+                primera = minCaliente;
+            }
+            if (primera == null) {
+                continue;
+            }
+            if (ultima == null || ultima.isBefore(LocalDate.now())) {
+                ultima = LocalDate.now();
+            }
+            for (LocalDate mes = primera.withDayOfMonth(1); !mes.isAfter(ultima); mes = mes.plusMonths(1)) {
+                recalcular(negocioId, mes, mes.with(TemporalAdjusters.lastDayOfMonth()));
+            }
+            negocios++;
+        }
+        log.info("Agregados diarios generados para {} negocios", negocios);
+    }
+
+    /**
+     * Borra y vuelve a generar los agregados de [desde, hasta] de un negocio en una transacción
+     */
+    public synchronized void recalcular(Long negocioId, LocalDate desde, LocalDate hasta) {
+        transactionTemplate.executeWithoutResult(status -> {
+            agregadoDiarioRepository.deleteByNegocioIdAndRango(negocioId, desde, hasta);
+
+            Map<Clave, Totales> totales = new LinkedHashMap<>();
+            acumular(totales, DimensionAgregado.PROFESIONAL, agregadoDiarioRepository.agruparPorProfesional(negocioId, desde, hasta));
+            acumular(totales, DimensionAgregado.PROFESIONAL, agregadoDiarioRepository.agruparArchivoPorProfesional(negocioId, desde, hasta));
+            acumular(totales, DimensionAgregado.SERVICIO, agregadoDiarioRepository.agruparPorServicio(negocioId, desde, hasta));
+            acumular(totales, DimensionAgregado.SERVICIO, agregadoDiarioRepository.agruparArchivoPorServicio(negocioId, desde, hasta));
+
+            List<AgregadoDiario> filas = new ArrayList<>(totales.size());
+            totales.forEach((clave, t) -> filas.add(AgregadoDiario.builder()
+                    .negocioId(negocioId)
+                    .dimension(clave.dimension())
+                    .fecha(clave.fecha())
+                    .semana(inicioSemana(clave.fecha()))
+                    .mes(clave.fecha().withDayOfMonth(1))
+                    .referenciaId(clave.referenciaId())
+                    .reservas(t.reservas)
+                    .cancelaciones(t.cancelaciones)
+                    .ingreso(t.ingreso)
+                    .build()));
+            agregadoDiarioRepository.saveAll(filas);
+        });
+    }
+
+    static LocalDate inicioSemana(LocalDate fecha) {
+        return fecha.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    private static void acumular(Map<Clave, Totales> totales, DimensionAgregado dimension, List<Object[]> filas) {
+        for (Object[] fila : filas) {
+            // Reservas sin profesional quedan en la referencia 0
+            Long referenciaId = fila[1] == null ? SIN_REFERENCIA : (Long) fila[1];
+            Totales t = totales.computeIfAbsent(new Clave(dimension, (LocalDate) fila[0], referenciaId), c -> new Totales());
+            t.reservas += ((Number) fila[2]).longValue();
+            t.cancelaciones += ((Number) fila[3]).longValue();
+            t.ingreso = t.ingreso.add(decimal(fila[4]));
+        }
+    }
+
+    private static BigDecimal decimal(Object valor) {
+        if (valor == null) {
+            return BigDecimal.ZERO;
+        }
+        return valor instanceof BigDecimal b ? b : new BigDecimal(valor.toString());
+    }
+
+    private List<Long> negocioIds() {
+        return negocioRepository.findAll().stream().map(Negocio::getId).toList();
+    }
+
+    private record Clave(DimensionAgregado dimension, LocalDate fecha, Long referenciaId) {
+    }
+
+    private static final class Totales {
+        long reservas;
+        long cancelaciones;
+        BigDecimal ingreso = BigDecimal.ZERO;
+    }
+}
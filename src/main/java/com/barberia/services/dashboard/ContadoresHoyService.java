@@ -0,0 +1,216 @@
+package com.barberia.services.dashboard;
+
+import com.barberia.models.enums.EstadoReserva;
+import com.barberia.models.enums.TipoEventoReserva;
+import com.barberia.repositories.DashboardRepository;
+import com.barberia.services.eventos.ReservaEvento;
+import com.barberia.services.eventos.ReservaEventoListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores en memoria de las reservas de HOY, por negocio y por profesional.
+ *
+ * PROBLEMA:
+ * El dashboard operativo volvía a contar en MySQL las reservas de hoy, las pendientes,
+ * las atendidas y el ingreso en cada carga (varias consultas sobre el mismo día).
+ *
+ * FUNCIONAMIENTO:
+ * - Al arrancar y a medianoche se reconstruyen desde la BD con UNA consulta del día
+ * - Luego se mantienen con los eventos de reserva (outbox): por cada reserva se recuerda
+ *   su aporte actual (estado, precio, profesional); un evento resta el aporte anterior
+ *   y suma el nuevo. Recibir el mismo evento dos veces no cambia nada.
+ * - Los contadores son LongAdder (sin bloqueo al sumar desde varios hilos); leer es O(1)
+ *
+ * Si todavía no hay contadores para la fecha actual (justo después de medianoche, antes
+ * de reconstruir), obtener() devuelve vacío y el dashboard consulta la BD como antes.
+ *
+ * ZONA HORARIA: la aplicación trabaja en America/Lima (TimeZoneConfig) y los negocios
+ * no tienen zona propia, así que "hoy" y la medianoche son los de esa zona.
+ *
+ * VARIOS NODOS: los eventos llegan solo al nodo con el relay del outbox habilitado
+ * (outbox.relay.habilitado). En los demás los contadores no se mantienen: obtener()
+ * devuelve vacío y el dashboard consulta la BD, en vez de mostrar los contadores del
+ * arranque o de la medianoche sin los cambios posteriores.
+ */
+@Slf4j
+@Service
+public class ContadoresHoyService implements ReservaEventoListener {
+
+    private final DashboardRepository dashboardRepository;
+    private final boolean habilitado;
+
+    private volatile Dia actual;
+    // Día que se está reconstruyendo: recibe también los eventos que llegan mientras tanto
+    private volatile Dia enConstruccion;
+
+    public ContadoresHoyService(DashboardRepository dashboardRepository,
+                                @Value("${dashboard.contadores.habilitado:true}") boolean habilitado,
+                                @Value("${outbox.relay.habilitado:true}") boolean relay) {
+        this.dashboardRepository = dashboardRepository;
+        // Sin relay no llegan eventos: los contadores quedarían desactualizados
+        this.habilitado = habilitado && relay;
+        if (habilitado && !relay) {
+            log.info("Contadores de hoy deshabilitados: este nodo no tiene el relay del outbox");
+        }
+    }
+
+    /**
+     * Resumen de hoy del negocio (profesionalId null) o de un profesional.
+     * Vacío si los contadores no están listos para la fecha actual.
+     */
+    public Optional<ResumenHoy> obtener(Long negocioId, Long profesionalId) {
+        Dia dia = actual;
+        if (!habilitado || dia == null || !dia.fecha.equals(LocalDate.now())) {
+            return Optional.empty();
+        }
+        Contadores contadores = dia.porAmbito.get(new Ambito(negocioId, profesionalId));
+        return Optional.of(contadores == null ? ResumenHoy.VACIO : contadores.resumen());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alArrancar() {
+        reconstruir();
+    }
+
+    @Scheduled(cron = "${dashboard.contadores.cron:0 0 0 * * *}", zone = "America/Lima")
+    public void reconstruirProgramado() {
+        reconstruir();
+    }
+
+    /**
+     * Reemplaza los contadores por los de la fecha actual leídos de la BD
+     */
+    public synchronized void reconstruir() {
+        if (!habilitado) {
+            return;
+        }
+        Dia nuevo = new Dia(LocalDate.now());
+        enConstruccion = nuevo;
+        try {
+            List<Object[]> filas = dashboardRepository.findAportesDelDia(nuevo.fecha);
+            for (Object[] fila : filas) {
+                Long reservaId = (Long) fila[0];
+                Aporte aporte = new Aporte((Long) fila[1], (Long) fila[2], (EstadoReserva) fila[3], centimos((BigDecimal) fila[4]));
+                // Si un evento ya registró esta reserva durante la reconstrucción, ese dato es más nuevo
+                nuevo.porReserva.computeIfAbsent(reservaId, id -> {
+                    nuevo.sumar(aporte, 1);
+                    return aporte;
+                });
+            }
+            actual = nuevo;
+            log.info("Contadores de hoy reconstruidos: {} reservas del {}", filas.size(), nuevo.fecha);
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron reconstruir los contadores de hoy: {}", e.getMessage());
+        } finally {
+            enConstruccion = null;
+        }
+    }
+
+    @Override
+    public void onReservaEvento(ReservaEvento evento) {
+        aplicar(actual, evento);
+        aplicar(enConstruccion, evento);
+    }
+
+    private void aplicar(Dia dia, ReservaEvento evento) {
+        if (dia == null || evento.reservaId() == null) {
+            return;
+        }
+        Aporte nuevo = evento.tipo() != TipoEventoReserva.ELIMINADA && dia.fecha.equals(evento.fecha())
+                ? new Aporte(evento.negocioId(), evento.profesionalId(), evento.estadoReserva(), centimos(evento.precioTotal()))
+                : null;
+
+        dia.porReserva.compute(evento.reservaId(), (id, anterior) -> {
+            if (anterior != null) {
+                dia.sumar(anterior, -1);
+            }
+            if (nuevo != null) {
+                dia.sumar(nuevo, 1);
+            }
+            return nuevo;
+        });
+    }
+
+    private static long centimos(BigDecimal monto) {
+        return monto == null ? 0 : monto.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    // ========== ESTRUCTURAS ==========
+
+    /**
+     * Números de hoy. reservas e ingreso excluyen canceladas (igual que las consultas del dashboard)
+     */
+    public record ResumenHoy(long reservas, long pendientes, long atendidas, long cancelaciones, BigDecimal ingreso) {
+        static final ResumenHoy VACIO = new ResumenHoy(0, 0, 0, 0, BigDecimal.ZERO.setScale(2));
+    }
+
+    /** profesionalId null = total del negocio */
+    private record Ambito(Long negocioId, Long profesionalId) {
+    }
+
+    /** Lo que una reserva suma hoy a los contadores */
+    private record Aporte(Long negocioId, Long profesionalId, EstadoReserva estado, long centimos) {
+    }
+
+    private static final class Dia {
+        final LocalDate fecha;
+        final Map<Long, Aporte> porReserva = new ConcurrentHashMap<>();
+        final Map<Ambito, Contadores> porAmbito = new ConcurrentHashMap<>();
+
+        Dia(LocalDate fecha) {
+            this.fecha = fecha;
+        }
+
+        void sumar(Aporte aporte, int signo) {
+            contadores(new Ambito(aporte.negocioId(), null)).sumar(aporte, signo);
+            if (aporte.profesionalId() != null) {
+                contadores(new Ambito(aporte.negocioId(), aporte.profesionalId())).sumar(aporte, signo);
+            }
+        }
+
+        private Contadores contadores(Ambito ambito) {
+            return porAmbito.computeIfAbsent(ambito, a -> new Contadores());
+        }
+    }
+
+    private static final class Contadores {
+        final LongAdder reservas = new LongAdder();
+        final LongAdder pendientes = new LongAdder();
+        final LongAdder atendidas = new LongAdder();
+        final LongAdder cancelaciones = new LongAdder();
+        final LongAdder ingresoCentimos = new LongAdder();
+
+        void sumar(Aporte aporte, int signo) {
+            if (aporte.estado() == EstadoReserva.CANCELADA) {
+                cancelaciones.add(signo);
+                return;
+            }
+            reservas.add(signo);
+            ingresoCentimos.add(signo * aporte.centimos());
+            if (aporte.estado() == EstadoReserva.PENDIENTE) {
+                pendientes.add(signo);
+            } else if (aporte.estado() == EstadoReserva.ATENDIDA) {
+                atendidas.add(signo);
+            }
+        }
+
+        ResumenHoy resumen() {
+            return new ResumenHoy(reservas.sum(), pendientes.sum(), atendidas.sum(), cancelaciones.sum(),
+                    BigDecimal.valueOf(ingresoCentimos.sum(), 2));
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.barberia.services.dashboard;
+
+import com.barberia.dto.dashboard.DashboardResumenResponse;
+import com.barberia.services.eventos.ReservaEvento;
+import com.barberia.services.eventos.ReservaEventoListener;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caché de corta duración del resumen del dashboard.
+ *
+ * PROBLEMA:
+ * El dashboard se deja abierto con auto-refresco; cada refresco recalculaba todas las
+ * métricas, gráficos y widgets aunque los números casi no cambian en un minuto.
+ *
+ * FUNCIONAMIENTO (por clave negocio + día + período + tipo de dashboard):
+ * 1. FRESCO (edad < ttl y sin cambios de reservas): se devuelve tal cual
+ * 2. VIEJO (edad < ttl + stale, o hubo cambios): se devuelve el valor anterior y se
+ *    recalcula en segundo plano (stale-while-revalidate)
+ * 3. SIN VALOR o demasiado viejo: se calcula en el hilo de la petición
+ *
+ * UN SOLO CÁLCULO A LA VEZ (single-flight): si varias pestañas piden la misma clave
+ * mientras se calcula, todas esperan ese mismo cálculo en vez de lanzar uno cada una.
+ *
+ * INVALIDACIÓN: como ReservaEventoListener recibe los cambios de reservas del outbox y
+ * sube la versión del negocio; las entradas con versión anterior pasan a VIEJO.
+ * Un cálculo que empezó antes del cambio se guarda con la versión anterior, así que el
+ * siguiente refresco lo vuelve a calcular.
+ *
+ * El resumen guardado no incluye el nombre del usuario: DashboardService lo completa
+ * en cada petición, así dos administradores del mismo negocio comparten la entrada.
+ */
+@Slf4j
+@Service
+public class DashboardCacheService implements ReservaEventoListener {
+
+    private final boolean habilitado;
+    private final long ttlMillis;
+    private final long staleMillis;
+    private final int maxEntradas;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor;
+
+    private final Map<Clave, Entrada> entradas = new ConcurrentHashMap<>();
+    private final Map<Clave, CompletableFuture<DashboardResumenResponse>> enVuelo = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> versiones = new ConcurrentHashMap<>();
+
+    public DashboardCacheService(PlatformTransactionManager transactionManager,
+                                 @Value("${dashboard.cache.habilitado:true}") boolean habilitado,
+                                 @Value("${dashboard.cache.ttl-segundos:30}") long ttlSegundos,
+                                 @Value("${dashboard.cache.stale-segundos:120}") long staleSegundos,
+                                 @Value("${dashboard.cache.max-entradas:5000}") int maxEntradas,
+                                 @Value("${dashboard.cache.hilos:2}") int hilos) {
+        this.habilitado = habilitado;
+        this.ttlMillis = Duration.ofSeconds(ttlSegundos).toMillis();
+        this.staleMillis = Duration.ofSeconds(staleSegundos).toMillis();
+        this.maxEntradas = maxEntradas;
+
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(hilos, hilos, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(100),
+                r -> {
+                    Thread t = new Thread(r, "dashboard-cache-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Resumen en caché para la clave, o el resultado de cargador.
+     *
+     * El cargador NO debe depender del SecurityContext: en un recálculo en segundo plano
+     * se ejecuta en otro hilo (dentro de una transacción de solo lectura).
+     */
+    public DashboardResumenResponse obtener(Clave clave, Supplier<DashboardResumenResponse> cargador) {
+        if (!habilitado) {
+            return cargador.get();
+        }
+
+        long versionActual = version(clave.negocioId()).get();
+        long ahora = System.currentTimeMillis();
+
+        Entrada entrada = entradas.get(clave);
+        if (entrada != null) {
+            long edad = ahora - entrada.cargadoEn();
+            boolean vigente = entrada.version() == versionActual;
+            if (vigente && edad < ttlMillis) {
+                return entrada.resumen();
+            }
+            if (edad < ttlMillis + staleMillis) {
+                refrescarEnSegundoPlano(clave, cargador);
+                return entrada.resumen();
+            }
+        }
+
+        return cargarCompartido(clave, cargador);
+    }
+
+    /**
+     * Marca como viejos todos los resúmenes del negocio
+     */
+    public void invalidar(Long negocioId) {
+        if (negocioId != null) {
+            version(negocioId).incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onReservaEvento(ReservaEvento evento) {
+        invalidar(evento.negocioId());
+    }
+
+    @PreDestroy
+    public void detener() {
+        executor.shutdownNow();
+    }
+
+    // ========== CARGA ==========
+
+    /**
+     * Cálculo en el hilo actual; si ya hay uno en curso para la clave, lo espera
+     */
+    private DashboardResumenResponse cargarCompartido(Clave clave, Supplier<DashboardResumenResponse> cargador) {
+        CompletableFuture<DashboardResumenResponse> nuevo = new CompletableFuture<>();
+        CompletableFuture<DashboardResumenResponse> existente = enVuelo.putIfAbsent(clave, nuevo);
+        if (existente != null) {
+            return esperar(existente);
+        }
+
+        try {
+            DashboardResumenResponse resumen = calcular(clave, cargador);
+            nuevo.complete(resumen);
+            return resumen;
+        } catch (RuntimeException e) {
+            nuevo.completeExceptionally(e);
+            throw e;
+        } finally {
+            enVuelo.remove(clave, nuevo);
+        }
+    }
+
+    private void refrescarEnSegundoPlano(Clave clave, Supplier<DashboardResumenResponse> cargador) {
+        CompletableFuture<DashboardResumenResponse> nuevo = new CompletableFuture<>();
+        if (enVuelo.putIfAbsent(clave, nuevo) != null) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    nuevo.complete(transactionTemplate.execute(status -> calcular(clave, cargador)));
+                } catch (RuntimeException e) {
+                    log.warn("No se pudo recalcular el dashboard del negocio {}: {}", clave.negocioId(), e.getMessage());
+                    nuevo.completeExceptionally(e);
+                } finally {
+                    enVuelo.remove(clave, nuevo);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Pool saturado: se sigue sirviendo el valor viejo y se reintenta en el próximo refresco
+            enVuelo.remove(clave, nuevo);
+            nuevo.cancel(false);
+        }
+    }
+
+    private DashboardResumenResponse calcular(Clave clave, Supplier<DashboardResumenResponse> cargador) {
+        long version = version(clave.negocioId()).get();
+        DashboardResumenResponse resumen = cargador.get();
+        guardar(clave, new Entrada(resumen, version, System.currentTimeMillis()));
+        return resumen;
+    }
+
+    private void guardar(Clave clave, Entrada entrada) {
+        if (entradas.size() >= maxEntradas && !entradas.containsKey(clave)) {
+            long limite = System.currentTimeMillis() - ttlMillis - staleMillis;
+            entradas.values().removeIf(e -> e.cargadoEn() < limite);
+            if (entradas.size() >= maxEntradas) {
+                return;
+            }
+        }
+        entradas.put(clave, entrada);
+    }
+
+    private DashboardResumenResponse esperar(CompletableFuture<DashboardResumenResponse> futuro) {
+        try {
+            return futuro.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    private AtomicLong version(Long negocioId) {
+        return versiones.computeIfAbsent(negocioId, id -> new AtomicLong());
+    }
+
+    /**
+     * Clave del resumen. fecha = día en que se calcula, para no servir el "hoy" de ayer
+     * después de medianoche. profesionalId solo aplica al dashboard operativo.
+     */
+    public record Clave(Long negocioId, LocalDate fecha, String periodo, String tipo, Long profesionalId) {
+    }
+
+    private record Entrada(DashboardResumenResponse resumen, long version, long cargadoEn) {
+    }
+}
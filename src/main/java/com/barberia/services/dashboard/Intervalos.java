@@ -0,0 +1,134 @@
+package com.barberia.services.dashboard;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Aritmética de intervalos de un día en minutos: [inicio, fin) con 0 <= inicio < fin <= 1440.
+ *
+ * Todas las operaciones reciben y devuelven listas ORDENADAS y SIN SOLAPES (normalizadas
+ * con unir), así intersectar y restar son un recorrido lineal de dos punteros.
+ */
+final class Intervalos {
+
+    static final int MINUTOS_DIA = 24 * 60;
+
+    private Intervalos() {
+    }
+
+    record Intervalo(int inicio, int fin) {
+        int minutos() {
+            return fin - inicio;
+        }
+    }
+
+    /**
+     * Intervalo de un horario o reserva; null si está vacío o es inválido.
+     * horaFin 00:00 con inicio posterior se toma como fin del día.
+     */
+    static Intervalo de(LocalTime horaInicio, LocalTime horaFin) {
+        if (horaInicio == null || horaFin == null) {
+            return null;
+        }
+        int inicio = horaInicio.toSecondOfDay() / 60;
+        int fin = horaFin.toSecondOfDay() / 60;
+        if (fin == 0 && inicio > 0) {
+            fin = MINUTOS_DIA;
+        }
+        return fin > inicio ? new Intervalo(inicio, fin) : null;
+    }
+
+    /**
+     * Ordena y une los intervalos que se solapan o se tocan
+     */
+    static List<Intervalo> unir(List<Intervalo> intervalos) {
+        if (intervalos.size() < 2) {
+            return List.copyOf(intervalos);
+        }
+        List<Intervalo> ordenados = new ArrayList<>(intervalos);
+        ordenados.sort(Comparator.comparingInt(Intervalo::inicio));
+        List<Intervalo> resultado = new ArrayList<>();
+        Intervalo actual = ordenados.get(0);
+        for (int i = 1; i < ordenados.size(); i++) {
+            Intervalo siguiente = ordenados.get(i);
+            if (siguiente.inicio() <= actual.fin()) {
+                actual = new Intervalo(actual.inicio(), Math.max(actual.fin(), siguiente.fin()));
+            } else {
+                resultado.add(actual);
+                actual = siguiente;
+            }
+        }
+        resultado.add(actual);
+        return resultado;
+    }
+
+    static List<Intervalo> intersectar(List<Intervalo> a, List<Intervalo> b) {
+        List<Intervalo> resultado = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < a.size() && j < b.size()) {
+            int inicio = Math.max(a.get(i).inicio(), b.get(j).inicio());
+            int fin = Math.min(a.get(i).fin(), b.get(j).fin());
+            if (inicio < fin) {
+                resultado.add(new Intervalo(inicio, fin));
+            }
+            if (a.get(i).fin() < b.get(j).fin()) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Partes de a que no están cubiertas por b
+     */
+    static List<Intervalo> restar(List<Intervalo> a, List<Intervalo> b) {
+        List<Intervalo> resultado = new ArrayList<>();
+        int j = 0;
+        for (Intervalo intervalo : a) {
+            int inicio = intervalo.inicio();
+            while (j < b.size() && b.get(j).fin() <= inicio) {
+                j++;
+            }
+            int k = j;
+            while (k < b.size() && b.get(k).inicio() < intervalo.fin()) {
+                if (b.get(k).inicio() > inicio) {
+                    resultado.add(new Intervalo(inicio, b.get(k).inicio()));
+                }
+                inicio = Math.max(inicio, b.get(k).fin());
+                k++;
+            }
+            if (inicio < intervalo.fin()) {
+                resultado.add(new Intervalo(inicio, intervalo.fin()));
+            }
+        }
+        return resultado;
+    }
+
+    static int minutos(List<Intervalo> intervalos) {
+        int total = 0;
+        for (Intervalo intervalo : intervalos) {
+            total += intervalo.minutos();
+        }
+        return total;
+    }
+
+    /**
+     * Suma a porHora[h] los minutos de cada intervalo que caen en la hora h (0..23)
+     */
+    static void repartirPorHora(List<Intervalo> intervalos, long[] porHora) {
+        for (Intervalo intervalo : intervalos) {
+            int minuto = intervalo.inicio();
+            while (minuto < intervalo.fin()) {
+                int hora = minuto / 60;
+                int finHora = Math.min((hora + 1) * 60, intervalo.fin());
+                porHora[hora] += finHora - minuto;
+                minuto = finHora;
+            }
+        }
+    }
+}
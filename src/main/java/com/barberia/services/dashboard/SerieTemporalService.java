@@ -0,0 +1,237 @@
+package com.barberia.services.dashboard;
+
+import com.barberia.dto.dashboard.PuntoSerieDTO;
+import com.barberia.dto.dashboard.SerieDesgloseDTO;
+import com.barberia.dto.dashboard.SerieTemporalResponse;
+import com.barberia.models.Profesional;
+import com.barberia.models.Servicio;
+import com.barberia.models.enums.DimensionAgregado;
+import com.barberia.repositories.AgregadoDiarioRepository;
+import com.barberia.repositories.ProfesionalRepository;
+import com.barberia.repositories.ServicioRepository;
+import com.barberia.services.common.SecurityContextService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Series temporales de reservas, cancelaciones e ingreso para cualquier rango.
+ *
+ * Lee solo de reserva_agregados_diarios (AgregadosDiariosService), nunca de las reservas:
+ * un rango de varios años son unas pocas filas por día y una consulta GROUP BY.
+ *
+ * GRANULARIDAD "auto": hasta 92 días → día, hasta 2 años → semana, más → mes.
+ * Si la granularidad pedida daría más de analitica.series.max-puntos cubetas, se usa
+ * la siguiente más gruesa, así la respuesta siempre tiene un tamaño acotado.
+ * La primera y la última cubeta solo suman los días que caen dentro del rango.
+ *
+ * DESGLOSE: "profesional" o "servicio" agrega una serie por cada uno. En el desglose por
+ * servicio se cuentan líneas de servicio (una reserva con corte y barba suma en ambos),
+ * por eso la serie total siempre sale de la dimensión PROFESIONAL.
+ */
+@Service
+public class SerieTemporalService {
+
+    private static final int MAX_DIAS_RANGO = 3660;
+
+    private final AgregadoDiarioRepository agregadoDiarioRepository;
+    private final ProfesionalRepository profesionalRepository;
+    private final ServicioRepository servicioRepository;
+    private final SecurityContextService securityContextService;
+    private final int maxPuntos;
+
+    public SerieTemporalService(AgregadoDiarioRepository agregadoDiarioRepository,
+                                ProfesionalRepository profesionalRepository,
+                                ServicioRepository servicioRepository,
+                                SecurityContextService securityContextService,
+                                @Value("${analitica.series.max-puntos:400}") int maxPuntos) {
+        this.agregadoDiarioRepository = agregadoDiarioRepository;
+        this.profesionalRepository = profesionalRepository;
+        this.servicioRepository = servicioRepository;
+        this.securityContextService = securityContextService;
+        this.maxPuntos = maxPuntos;
+    }
+
+    /**
+     * Serie del negocio del usuario autenticado.
+     *
+     * @param granularidad "auto" (default), "dia", "semana" o "mes"
+     * @param desglose     null, "profesional" o "servicio"
+     */
+    @Transactional(readOnly = true)
+    public SerieTemporalResponse getSerie(LocalDate desde, LocalDate hasta, String granularidad, String desglose) {
+        if (desde == null || hasta == null) {
+            throw new IllegalArgumentException("Debe indicar desde y hasta");
+        }
+        if (hasta.isBefore(desde)) {
+            throw new IllegalArgumentException("La fecha hasta no puede ser anterior a desde");
+        }
+        if (ChronoUnit.DAYS.between(desde, hasta) > MAX_DIAS_RANGO) {
+            throw new IllegalArgumentException("El rango no puede superar los 10 años");
+        }
+        DimensionAgregado dimensionDesglose = parseDesglose(desglose);
+        Granularidad cubeta = elegirGranularidad(desde, hasta, granularidad, maxPuntos);
+
+        Long negocioId = securityContextService.getNegocioIdFromContext();
+        List<LocalDate> cubetas = cubetas(desde, hasta, cubeta);
+
+        List<Object[]> filasTotal = sumar(negocioId, DimensionAgregado.PROFESIONAL, desde, hasta, cubeta);
+        List<PuntoSerieDTO> puntos = completar(cubetas, acumular(filasTotal));
+
+        List<SerieDesgloseDTO> series = List.of();
+        if (dimensionDesglose != null) {
+            List<Object[]> filas = dimensionDesglose == DimensionAgregado.PROFESIONAL
+                    ? filasTotal
+                    : sumar(negocioId, dimensionDesglose, desde, hasta, cubeta);
+            series = desglosar(filas, cubetas, dimensionDesglose);
+        }
+
+        return SerieTemporalResponse.builder()
+                .desde(desde)
+                .hasta(hasta)
+                .granularidad(cubeta.nombre)
+                .desglose(dimensionDesglose == null ? null : desglose.toLowerCase())
+                .puntos(puntos)
+                .series(series)
+                .build();
+    }
+
+    // ========== GRANULARIDAD ==========
+
+    enum Granularidad {
+        DIA("dia"),
+        SEMANA("semana"),
+        MES("mes");
+
+        final String nombre;
+
+        Granularidad(String nombre) {
+            this.nombre = nombre;
+        }
+
+        LocalDate inicio(LocalDate fecha) {
+            return switch (this) {
+                case DIA -> fecha;
+                case SEMANA -> AgregadosDiariosService.inicioSemana(fecha);
+                case MES -> fecha.withDayOfMonth(1);
+            };
+        }
+
+        LocalDate siguiente(LocalDate inicio) {
+            return switch (this) {
+                case DIA -> inicio.plusDays(1);
+                case SEMANA -> inicio.plusWeeks(1);
+                case MES -> inicio.plusMonths(1);
+            };
+        }
+    }
+
+    static Granularidad elegirGranularidad(LocalDate desde, LocalDate hasta, String pedida, int maxPuntos) {
+        long dias = ChronoUnit.DAYS.between(desde, hasta) + 1;
+        Granularidad elegida;
+        if (pedida == null || pedida.isBlank() || pedida.equalsIgnoreCase("auto")) {
+            elegida = dias <= 92 ? Granularidad.DIA : dias <= 730 ? Granularidad.SEMANA : Granularidad.MES;
+        } else {
+            elegida = Arrays.stream(Granularidad.values())
+                    .filter(g -> g.nombre.equalsIgnoreCase(pedida))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException(
+                            "Granularidad inválida: " + pedida + " (use auto, dia, semana o mes)"));
+        }
+        // Subir a una cubeta más gruesa si se pasa del máximo de puntos
+        while (elegida != Granularidad.MES && cubetas(desde, hasta, elegida).size() > maxPuntos) {
+            elegida = Granularidad.values()[elegida.ordinal() + 1];
+        }
+        return elegida;
+    }
+
+    static List<LocalDate> cubetas(LocalDate desde, LocalDate hasta, Granularidad granularidad) {
+        List<LocalDate> cubetas = new ArrayList<>();
+        for (LocalDate inicio = granularidad.inicio(desde); !inicio.isAfter(hasta); inicio = granularidad.siguiente(inicio)) {
+            cubetas.add(inicio);
+        }
+        return cubetas;
+    }
+
+    private static DimensionAgregado parseDesglose(String desglose) {
+        if (desglose == null || desglose.isBlank()) {
+            return null;
+        }
+        return switch (desglose.toLowerCase()) {
+            case "profesional" -> DimensionAgregado.PROFESIONAL;
+            case "servicio" -> DimensionAgregado.SERVICIO;
+            default -> throw new IllegalArgumentException(
+                    "Desglose inválido: " + desglose + " (use profesional o servicio)");
+        };
+    }
+
+    // ========== ARMADO DE LA SERIE ==========
+
+    private List<Object[]> sumar(Long negocioId, DimensionAgregado dimension, LocalDate desde, LocalDate hasta,
+                                 Granularidad granularidad) {
+        return switch (granularidad) {
+            case DIA -> agregadoDiarioRepository.sumarPorDia(negocioId, dimension, desde, hasta);
+            case SEMANA -> agregadoDiarioRepository.sumarPorSemana(negocioId, dimension, desde, hasta);
+            case MES -> agregadoDiarioRepository.sumarPorMes(negocioId, dimension, desde, hasta);
+        };
+    }
+
+    /**
+     * Suma las filas [inicioCubeta, referenciaId, reservas, cancelaciones, ingreso] por cubeta
+     */
+    private static Map<LocalDate, PuntoSerieDTO> acumular(List<Object[]> filas) {
+        Map<LocalDate, PuntoSerieDTO> porCubeta = new HashMap<>();
+        for (Object[] fila : filas) {
+            PuntoSerieDTO punto = porCubeta.computeIfAbsent((LocalDate) fila[0], SerieTemporalService::puntoVacio);
+            punto.setReservas(punto.getReservas() + ((Number) fila[2]).longValue());
+            punto.setCancelaciones(punto.getCancelaciones() + ((Number) fila[3]).longValue());
+            punto.setIngreso(punto.getIngreso().add(fila[4] == null ? BigDecimal.ZERO : (BigDecimal) fila[4]));
+        }
+        return porCubeta;
+    }
+
+    private static List<PuntoSerieDTO> completar(List<LocalDate> cubetas, Map<LocalDate, PuntoSerieDTO> porCubeta) {
+        return cubetas.stream()
+                .map(inicio -> porCubeta.getOrDefault(inicio, puntoVacio(inicio)))
+                .toList();
+    }
+
+    private List<SerieDesgloseDTO> desglosar(List<Object[]> filas, List<LocalDate> cubetas, DimensionAgregado dimension) {
+        Map<Long, List<Object[]>> porReferencia = filas.stream()
+                .collect(Collectors.groupingBy(f -> (Long) f[1], TreeMap::new, Collectors.toList()));
+        Map<Long, String> nombres = nombres(porReferencia.keySet(), dimension);
+        return porReferencia.keySet().stream()
+                .map(id -> SerieDesgloseDTO.builder()
+                        .id(id)
+                        .nombre(nombres.getOrDefault(id, id == AgregadosDiariosService.SIN_REFERENCIA
+                                ? "Sin profesional"
+                                : "#" + id))
+                        .puntos(completar(cubetas, acumular(porReferencia.get(id))))
+                        .build())
+                .toList();
+    }
+
+    private Map<Long, String> nombres(Set<Long> ids, DimensionAgregado dimension) {
+        if (dimension == DimensionAgregado.PROFESIONAL) {
+            return profesionalRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Profesional::getId, Profesional::getNombreCompleto, (a, b) -> a));
+        }
+        return servicioRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Servicio::getId, Servicio::getNombre, (a, b) -> a));
+    }
+
+    private static PuntoSerieDTO puntoVacio(LocalDate inicio) {
+        return PuntoSerieDTO.builder()
+                .inicio(inicio)
+                .reservas(0L)
+                .cancelaciones(0L)
+                .ingreso(BigDecimal.ZERO)
+                .build();
+    }
+}
@@ -0,0 +1,304 @@
+package com.barberia.services.dashboard;
+
+import com.barberia.dto.dashboard.CeldaMapaCalorDTO;
+import com.barberia.dto.dashboard.UtilizacionPeriodoDTO;
+import com.barberia.dto.dashboard.UtilizacionProfesionalDTO;
+import com.barberia.dto.dashboard.UtilizacionResponse;
+import com.barberia.models.HorarioProfesional;
+import com.barberia.models.Profesional;
+import com.barberia.models.enums.DiaSemana;
+import com.barberia.repositories.DashboardRepository;
+import com.barberia.repositories.HorarioNegocioRepository;
+import com.barberia.repositories.HorarioProfesionalRepository;
+import com.barberia.repositories.ProfesionalRepository;
+import com.barberia.services.archivo.ReservaArchivoService;
+import com.barberia.services.common.SecurityContextService;
+import com.barberia.services.dashboard.Intervalos.Intervalo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Utilización de los profesionales: minutos reservados frente a minutos de horario.
+ *
+ * CAPACIDAD: el horario del día de la semana (HorarioProfesional, o HorarioNegocio si el
+ * profesional usa el horario del negocio). OCUPADO: reservas no canceladas del profesional.
+ * Por cada día se hace aritmética de intervalos (Intervalos):
+ * - ocupado dentro del horario = horario ∩ reservas  → numerador de la utilización
+ * - huecos libres              = horario − reservas
+ * - fuera de horario           = reservas − horario (se informa aparte)
+ * y los minutos se reparten por hora para el mapa de calor (día de la semana × hora).
+ *
+ * RENDIMIENTO: todo se lee con 4-5 consultas para el negocio completo (profesionales,
+ * horarios, reservas del rango); luego cada profesional se calcula en paralelo sobre
+ * datos en memoria, sin tocar la BD ni la sesión JPA desde otros hilos.
+ */
+@Service
+public class UtilizacionService {
+
+    private final DashboardRepository dashboardRepository;
+    private final ProfesionalRepository profesionalRepository;
+    private final HorarioNegocioRepository horarioNegocioRepository;
+    private final HorarioProfesionalRepository horarioProfesionalRepository;
+    private final ReservaArchivoService reservaArchivoService;
+    private final SecurityContextService securityContextService;
+    private final int maxDias;
+    private final int huecoMinimoMinutos;
+
+    public UtilizacionService(DashboardRepository dashboardRepository,
+                              ProfesionalRepository profesionalRepository,
+                              HorarioNegocioRepository horarioNegocioRepository,
+                              HorarioProfesionalRepository horarioProfesionalRepository,
+                              ReservaArchivoService reservaArchivoService,
+                              SecurityContextService securityContextService,
+                              @Value("${analitica.utilizacion.max-dias:366}") int maxDias,
+                              @Value("${analitica.utilizacion.hueco-minimo-minutos:15}") int huecoMinimoMinutos) {
+        this.dashboardRepository = dashboardRepository;
+        this.profesionalRepository = profesionalRepository;
+        this.horarioNegocioRepository = horarioNegocioRepository;
+        this.horarioProfesionalRepository = horarioProfesionalRepository;
+        this.reservaArchivoService = reservaArchivoService;
+        this.securityContextService = securityContextService;
+        this.maxDias = maxDias;
+        this.huecoMinimoMinutos = huecoMinimoMinutos;
+    }
+
+    /**
+     * Utilización del negocio del usuario autenticado.
+     *
+     * @param granularidad  "auto" (default: día hasta 31 días, si no semana), "dia" o "semana"
+     * @param profesionalId opcional: limitar a un profesional
+     */
+    @Transactional(readOnly = true)
+    public UtilizacionResponse getUtilizacion(LocalDate desde, LocalDate hasta, String granularidad, Long profesionalId) {
+        if (desde == null || hasta == null) {
+            throw new IllegalArgumentException("Debe indicar desde y hasta");
+        }
+        if (hasta.isBefore(desde)) {
+            throw new IllegalArgumentException("La fecha hasta no puede ser anterior a desde");
+        }
+        if (ChronoUnit.DAYS.between(desde, hasta) >= maxDias) {
+            throw new IllegalArgumentException("El rango no puede superar los " + maxDias + " días");
+        }
+        boolean porSemana = porSemana(desde, hasta, granularidad);
+        Long negocioId = securityContextService.getNegocioIdFromContext();
+
+        // ===== Lectura (hilo de la petición) =====
+        List<Profesional> profesionales = profesionalRepository.findByRegEstadoNotAndNegocioId(0, negocioId).stream()
+                .filter(p -> profesionalId == null || p.getId().equals(profesionalId))
+                .toList();
+
+        Map<DiaSemana, List<Intervalo>> horarioNegocio = agruparHorarios(
+                horarioNegocioRepository.findByNegocioAndDiaSemana(negocioId, null).stream()
+                        .map(h -> new Bloque(h.getDiaSemana(), Intervalos.de(h.getHoraInicio(), h.getHoraFin())))
+                        .toList());
+
+        Map<Long, List<Bloque>> porProfesional = new HashMap<>();
+        for (HorarioProfesional h : horarioProfesionalRepository.findActivosByNegocioId(negocioId)) {
+            porProfesional.computeIfAbsent(h.getProfesional().getId(), id -> new ArrayList<>())
+                    .add(new Bloque(h.getDiaSemana(), Intervalos.de(h.getHoraInicio(), h.getHoraFin())));
+        }
+
+        Map<Long, Map<LocalDate, List<Intervalo>>> ocupados = new HashMap<>();
+        agregarOcupados(ocupados, dashboardRepository.findIntervalosOcupados(negocioId, desde, hasta));
+        if (reservaArchivoService.rangoIncluyeArchivo(desde)) {
+            agregarOcupados(ocupados, dashboardRepository.findIntervalosOcupadosArchivo(negocioId, desde, hasta));
+        }
+
+        List<Entrada> entradas = profesionales.stream()
+                .map(p -> new Entrada(
+                        p.getId(),
+                        p.getNombreCompleto(),
+                        Boolean.TRUE.equals(p.getUsaHorarioNegocio())
+                                ? horarioNegocio
+                                : agruparHorarios(porProfesional.getOrDefault(p.getId(), List.of())),
+                        ocupados.getOrDefault(p.getId(), Map.of())))
+                .toList();
+
+        // ===== Cálculo en paralelo por profesional (solo datos en memoria) =====
+        List<Resultado> resultados = entradas.parallelStream()
+                .map(e -> calcular(e, desde, hasta, porSemana, huecoMinimoMinutos))
+                .toList();
+
+        long[][] capacidadHora = new long[7][24];
+        long[][] ocupadoHora = new long[7][24];
+        long capacidad = 0;
+        long ocupado = 0;
+        List<UtilizacionProfesionalDTO> detalle = new ArrayList<>(resultados.size());
+        for (Resultado r : resultados) {
+            detalle.add(r.profesional());
+            capacidad += r.profesional().getCapacidadMinutos();
+            ocupado += r.profesional().getOcupadosMinutos();
+            for (int d = 0; d < 7; d++) {
+                for (int h = 0; h < 24; h++) {
+                    capacidadHora[d][h] += r.capacidadHora()[d][h];
+                    ocupadoHora[d][h] += r.ocupadoHora()[d][h];
+                }
+            }
+        }
+
+        return UtilizacionResponse.builder()
+                .desde(desde)
+                .hasta(hasta)
+                .granularidad(porSemana ? "semana" : "dia")
+                .capacidadMinutos(capacidad)
+                .ocupadosMinutos(ocupado)
+                .utilizacion(porcentaje(ocupado, capacidad))
+                .profesionales(detalle)
+                .mapaCalor(mapaCalor(capacidadHora, ocupadoHora))
+                .build();
+    }
+
+    // ========== CÁLCULO ==========
+
+    /**
+     * Utilización de un profesional en [desde, hasta]. No accede a la BD: puede correr en cualquier hilo.
+     */
+    static Resultado calcular(Entrada entrada, LocalDate desde, LocalDate hasta, boolean porSemana, int huecoMinimo) {
+        long[][] capacidadHora = new long[7][24];
+        long[][] ocupadoHora = new long[7][24];
+        Map<LocalDate, long[]> periodos = new LinkedHashMap<>();
+        long capacidad = 0;
+        long dentro = 0;
+        long fuera = 0;
+        long huecos = 0;
+        long huecoMaximo = 0;
+
+        for (LocalDate fecha = desde; !fecha.isAfter(hasta); fecha = fecha.plusDays(1)) {
+            DiaSemana dia = DiaSemana.fromDayOfWeek(fecha.getDayOfWeek());
+            List<Intervalo> horario = entrada.horario().getOrDefault(dia, List.of());
+            List<Intervalo> reservas = Intervalos.unir(entrada.ocupados().getOrDefault(fecha, List.of()));
+
+            List<Intervalo> ocupadoEnHorario = Intervalos.intersectar(horario, reservas);
+            int minutosHorario = Intervalos.minutos(horario);
+            int minutosOcupados = Intervalos.minutos(ocupadoEnHorario);
+
+            capacidad += minutosHorario;
+            dentro += minutosOcupados;
+            fuera += Intervalos.minutos(reservas) - minutosOcupados;
+            for (Intervalo libre : Intervalos.restar(horario, reservas)) {
+                if (libre.minutos() >= huecoMinimo) {
+                    huecos++;
+                    huecoMaximo = Math.max(huecoMaximo, libre.minutos());
+                }
+            }
+
+            Intervalos.repartirPorHora(horario, capacidadHora[dia.ordinal()]);
+            Intervalos.repartirPorHora(ocupadoEnHorario, ocupadoHora[dia.ordinal()]);
+
+            LocalDate inicio = porSemana ? AgregadosDiariosService.inicioSemana(fecha) : fecha;
+            long[] periodo = periodos.computeIfAbsent(inicio, f -> new long[2]);
+            periodo[0] += minutosHorario;
+            periodo[1] += minutosOcupados;
+        }
+
+        List<UtilizacionPeriodoDTO> detalle = new ArrayList<>(periodos.size());
+        periodos.forEach((inicio, minutos) -> detalle.add(UtilizacionPeriodoDTO.builder()
+                .inicio(inicio)
+                .capacidadMinutos(minutos[0])
+                .ocupadosMinutos(minutos[1])
+                .utilizacion(porcentaje(minutos[1], minutos[0]))
+                .build()));
+
+        UtilizacionProfesionalDTO profesional = UtilizacionProfesionalDTO.builder()
+                .profesionalId(entrada.profesionalId())
+                .nombre(entrada.nombre())
+                .capacidadMinutos(capacidad)
+                .ocupadosMinutos(dentro)
+                .libresMinutos(capacidad - dentro)
+                .utilizacion(porcentaje(dentro, capacidad))
+                .huecos(huecos)
+                .huecoMaximoMinutos(huecoMaximo)
+                .fueraDeHorarioMinutos(fuera)
+                .periodos(detalle)
+                .build();
+        return new Resultado(profesional, capacidadHora, ocupadoHora);
+    }
+
+    private static List<CeldaMapaCalorDTO> mapaCalor(long[][] capacidadHora, long[][] ocupadoHora) {
+        List<CeldaMapaCalorDTO> celdas = new ArrayList<>();
+        for (DiaSemana dia : DiaSemana.values()) {
+            for (int hora = 0; hora < 24; hora++) {
+                long capacidad = capacidadHora[dia.ordinal()][hora];
+                if (capacidad == 0) {
+                    continue;
+                }
+                long ocupado = ocupadoHora[dia.ordinal()][hora];
+                celdas.add(CeldaMapaCalorDTO.builder()
+                        .diaSemana(dia)
+                        .hora(hora)
+                        .capacidadMinutos(capacidad)
+                        .ocupadosMinutos(ocupado)
+                        .saturacion(porcentaje(ocupado, capacidad))
+                        .build());
+            }
+        }
+        return celdas;
+    }
+
+    // ========== AUXILIARES ==========
+
+    private static boolean porSemana(LocalDate desde, LocalDate hasta, String granularidad) {
+        if (granularidad == null || granularidad.isBlank() || granularidad.equalsIgnoreCase("auto")) {
+            return ChronoUnit.DAYS.between(desde, hasta) >= 31;
+        }
+        return switch (granularidad.toLowerCase()) {
+            case "dia" -> false;
+            case "semana" -> true;
+            default -> throw new IllegalArgumentException(
+                    "Granularidad inválida: " + granularidad + " (use auto, dia o semana)");
+        };
+    }
+
+    private static Map<DiaSemana, List<Intervalo>> agruparHorarios(List<Bloque> horarios) {
+        Map<DiaSemana, List<Intervalo>> porDia = new EnumMap<>(DiaSemana.class);
+        for (Bloque horario : horarios) {
+            if (horario.intervalo() != null) {
+                porDia.computeIfAbsent(horario.dia(), d -> new ArrayList<>()).add(horario.intervalo());
+            }
+        }
+        porDia.replaceAll((dia, intervalos) -> Intervalos.unir(intervalos));
+        return porDia;
+    }
+
+    private static void agregarOcupados(Map<Long, Map<LocalDate, List<Intervalo>>> ocupados, List<Object[]> filas) {
+        for (Object[] fila : filas) {
+            Intervalo intervalo = Intervalos.de((LocalTime) fila[2], (LocalTime) fila[3]);
+            if (intervalo == null) {
+                continue;
+            }
+            ocupados.computeIfAbsent((Long) fila[0], id -> new HashMap<>())
+                    .computeIfAbsent((LocalDate) fila[1], f -> new ArrayList<>())
+                    .add(intervalo);
+        }
+    }
+
+    static BigDecimal porcentaje(long parte, long total) {
+        if (total == 0) {
+            return BigDecimal.ZERO;
+        }
+        return BigDecimal.valueOf(parte * 100)
+                .divide(BigDecimal.valueOf(total), 1, RoundingMode.HALF_UP);
+    }
+
+    /** Un bloque de horario (intervalo null si el bloque es inválido) */
+    private record Bloque(DiaSemana dia, Intervalo intervalo) {
+    }
+
+    /** Datos ya leídos de un profesional: horario por día de la semana y reservas por fecha */
+    record Entrada(Long profesionalId, String nombre,
+                   Map<DiaSemana, List<Intervalo>> horario,
+                   Map<LocalDate, List<Intervalo>> ocupados) {
+    }
+
+    /** Resultado de un profesional + sus minutos por [díaSemana][hora] para el mapa de calor */
+    record Resultado(UtilizacionProfesionalDTO profesional, long[][] capacidadHora, long[][] ocupadoHora) {
+    }
+}
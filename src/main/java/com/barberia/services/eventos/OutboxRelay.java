@@ -0,0 +1,240 @@
+package com.barberia.services.eventos;
+
+import com.barberia.models.OutboxEvento;
+import com.barberia.repositories.OutboxEventoRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Entrega los eventos del outbox a los ReservaEventoListener.
+ *
+ * FLUJO (cada outbox.relay.intervalo-ms):
+ * 1. Lee un lote de eventos PENDIENTE en orden de id
+ * 2. Los agrupa por profesional y por reserva (ver agrupar)
+ * 3. Cada grupo se entrega en su propio hilo (pool acotado), evento por evento y en orden
+ * 4. Los eventos entregados se marcan PROCESADO; si un listener falla, el evento suma un intento
+ *    y el resto del grupo espera al siguiente ciclo (así no se rompe el orden del profesional
+ *    ni el de la reserva)
+ * 5. Si el lote vino lleno y sin fallos, se lee el siguiente de inmediato
+ *
+ * CONTRAPRESIÓN: no se lee un lote nuevo hasta terminar el actual, y el pool tiene un
+ * número fijo de hilos. Si los listeners van lentos, los eventos se acumulan en la tabla
+ * (no en memoria) y la petición que creó la reserva nunca espera.
+ *
+ * Pensado para UN nodo relay: con varios nodos, dejar outbox.relay.habilitado=true solo en uno.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final OutboxEventoRepository outboxEventoRepository;
+    private final List<ReservaEventoListener> listeners;
+    private final boolean habilitado;
+    private final int tamanoLote;
+    private final int maxIntentos;
+    private final int diasRetencion;
+    private final ExecutorService executor;
+
+    private final AtomicBoolean enCurso = new AtomicBoolean(false);
+    private volatile long proximaLimpieza = 0;
+
+    public OutboxRelay(OutboxEventoRepository outboxEventoRepository,
+                       List<ReservaEventoListener> listeners,
+                       @Value("${outbox.relay.habilitado:true}") boolean habilitado,
+                       @Value("${outbox.relay.tamano-lote:200}") int tamanoLote,
+                       @Value("${outbox.relay.hilos:4}") int hilos,
+                       @Value("${outbox.relay.max-intentos:10}") int maxIntentos,
+                       @Value("${outbox.relay.dias-retencion:7}") int diasRetencion) {
+        this.outboxEventoRepository = outboxEventoRepository;
+        this.listeners = List.copyOf(listeners);
+        this.habilitado = habilitado;
+        this.tamanoLote = tamanoLote;
+        this.maxIntentos = maxIntentos;
+        this.diasRetencion = diasRetencion;
+
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(hilos, hilos, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(tamanoLote),
+                r -> {
+                    Thread t = new Thread(r, "outbox-relay-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.intervalo-ms:1000}")
+    public void drenar() {
+        if (!habilitado || !enCurso.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            boolean continuar = true;
+            while (continuar) {
+                continuar = procesarLote();
+            }
+            limpiarSiCorresponde();
+        } catch (RuntimeException e) {
+            log.error("Error en el relay del outbox de reservas", e);
+        } finally {
+            enCurso.set(false);
+        }
+    }
+
+    /**
+     * Procesa un lote.
+     *
+     * @return true si conviene leer otro lote de inmediato (lote lleno y sin fallos)
+     */
+    boolean procesarLote() {
+        List<OutboxEvento> lote = outboxEventoRepository.findPendientes(PageRequest.of(0, tamanoLote));
+        if (lote.isEmpty()) {
+            return false;
+        }
+
+        AtomicBoolean huboFallos = new AtomicBoolean(false);
+        List<Callable<Void>> tareas = new ArrayList<>();
+        for (List<OutboxEvento> grupo : agrupar(lote)) {
+            tareas.add(() -> {
+                if (!entregarGrupo(grupo)) {
+                    huboFallos.set(true);
+                }
+                return null;
+            });
+        }
+
+        try {
+            executor.invokeAll(tareas);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return lote.size() == tamanoLote && !huboFallos.get();
+    }
+
+    /**
+     * Reparte el lote en grupos que se pueden entregar en paralelo.
+     *
+     * Dos eventos van al mismo grupo si comparten reserva, profesional o profesional
+     * anterior, directa o indirectamente. Así una reserva que pasa del profesional A al B
+     * queda en orden con sus eventos previos (aún en A) y con los de ambos profesionales.
+     * Agrupar solo por el profesional actual los repartía en dos hilos.
+     *
+     * Cada grupo conserva el orden de id del lote.
+     */
+    static List<List<OutboxEvento>> agrupar(List<OutboxEvento> lote) {
+        Map<String, String> padres = new HashMap<>();
+        for (OutboxEvento evento : lote) {
+            String reserva = "r" + evento.getReservaId();
+            raiz(padres, reserva);
+            if (evento.getProfesionalId() != null) {
+                unir(padres, reserva, "p" + evento.getProfesionalId());
+            }
+            if (evento.getProfesionalAnteriorId() != null) {
+                unir(padres, reserva, "p" + evento.getProfesionalAnteriorId());
+            }
+        }
+
+        Map<String, List<OutboxEvento>> grupos = new LinkedHashMap<>();
+        for (OutboxEvento evento : lote) {
+            grupos.computeIfAbsent(raiz(padres, "r" + evento.getReservaId()), k -> new ArrayList<>()).add(evento);
+        }
+        return new ArrayList<>(grupos.values());
+    }
+
+    private static String raiz(Map<String, String> padres, String clave) {
+        String actual = clave;
+        String padre;
+        while (!(padre = padres.computeIfAbsent(actual, k -> k)).equals(actual)) {
+            actual = padre;
+        }
+        return actual;
+    }
+
+    private static void unir(Map<String, String> padres, String a, String b) {
+        String raizA = raiz(padres, a);
+        String raizB = raiz(padres, b);
+        if (!raizA.equals(raizB)) {
+            padres.put(raizB, raizA);
+        }
+    }
+
+    /**
+     * Entrega en orden los eventos de un grupo.
+     *
+     * @return false si algún evento falló
+     */
+    private boolean entregarGrupo(List<OutboxEvento> grupo) {
+        List<Long> entregados = new ArrayList<>();
+        boolean sinFallos = true;
+
+        for (OutboxEvento evento : grupo) {
+            try {
+                ReservaEvento reservaEvento = ReservaEvento.of(evento);
+                for (ReservaEventoListener listener : listeners) {
+                    listener.onReservaEvento(reservaEvento);
+                }
+                entregados.add(evento.getId());
+            } catch (RuntimeException e) {
+                sinFallos = false;
+                String mensaje = e.getClass().getSimpleName() + ": " + e.getMessage();
+                int intento = evento.getIntentos() + 1;
+                boolean agotado = intento >= maxIntentos;
+                outboxEventoRepository.registrarFallo(evento.getId(),
+                        mensaje.length() > 500 ? mensaje.substring(0, 500) : mensaje,
+                        agotado ? OutboxEvento.FALLIDO : OutboxEvento.PENDIENTE,
+                        agotado ? LocalDateTime.now() : null);
+
+                if (!agotado) {
+                    // Se reintentará: los eventos siguientes del grupo esperan para respetar el orden
+                    log.warn("Evento de outbox {} falló (intento {}): {}", evento.getId(), intento, mensaje);
+                    break;
+                }
+                log.error("Evento de outbox {} marcado FALLIDO tras {} intentos: {}", evento.getId(), maxIntentos, mensaje);
+            }
+        }
+
+        if (!entregados.isEmpty()) {
+            outboxEventoRepository.marcarProcesados(entregados, LocalDateTime.now());
+        }
+        return sinFallos;
+    }
+
+    /**
+     * Borra eventos procesados más antiguos que outbox.relay.dias-retencion (una vez por hora)
+     */
+    private void limpiarSiCorresponde() {
+        long ahora = System.currentTimeMillis();
+        if (ahora < proximaLimpieza) {
+            return;
+        }
+        proximaLimpieza = ahora + TimeUnit.HOURS.toMillis(1);
+        int borrados = outboxEventoRepository.deleteProcesadosAntesDe(LocalDateTime.now().minusDays(diasRetencion));
+        if (borrados > 0) {
+            log.info("Outbox de reservas: {} eventos procesados eliminados", borrados);
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,57 @@
+package com.barberia.services.eventos;
+
+import com.barberia.models.OutboxEvento;
+import com.barberia.models.Reserva;
+import com.barberia.models.enums.TipoEventoReserva;
+import com.barberia.repositories.OutboxEventoRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+/**
+ * Escribe eventos de reserva en el outbox.
+ *
+ * Debe llamarse DENTRO de la transacción que modifica la reserva (Propagation.MANDATORY):
+ * así el evento y el cambio se confirman o se descartan juntos. El costo en la petición
+ * es un INSERT; todo el trabajo pesado lo hacen los listeners desde OutboxRelay.
+ */
+@Service
+public class OutboxService {
+
+    private final OutboxEventoRepository outboxEventoRepository;
+
+    public OutboxService(OutboxEventoRepository outboxEventoRepository) {
+        this.outboxEventoRepository = outboxEventoRepository;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(Reserva reserva, TipoEventoReserva tipo) {
+        registrar(reserva, tipo, null, null);
+    }
+
+    /**
+     * Evento de un cambio que pudo mover la reserva de día o de profesional: fechaAnterior y
+     * profesionalAnteriorId son los valores antes del cambio y solo se guardan si cambiaron
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(Reserva reserva, TipoEventoReserva tipo, LocalDate fechaAnterior, Long profesionalAnteriorId) {
+        Long profesionalId = reserva.getProfesional() != null ? reserva.getProfesional().getId() : null;
+        outboxEventoRepository.save(OutboxEvento.builder()
+                .tipo(tipo)
+                .negocioId(reserva.getNegocio() != null ? reserva.getNegocio().getId() : null)
+                .reservaId(reserva.getId())
+                .profesionalId(profesionalId)
+                .profesionalAnteriorId(profesionalAnteriorId != null && !profesionalAnteriorId.equals(profesionalId)
+                        ? profesionalAnteriorId : null)
+                .clienteId(reserva.getCliente() != null ? reserva.getCliente().getId() : null)
+                .fecha(reserva.getFecha())
+                .fechaAnterior(fechaAnterior != null && !fechaAnterior.equals(reserva.getFecha()) ? fechaAnterior : null)
+                .horaInicio(reserva.getHoraInicio())
+                .horaFin(reserva.getHoraFin())
+                .estadoReserva(reserva.getEstado())
+                .precioTotal(reserva.getPrecioTotal())
+                .build());
+    }
+}
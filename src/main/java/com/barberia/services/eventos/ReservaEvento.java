@@ -0,0 +1,57 @@
+package com.barberia.services.eventos;
+
+import com.barberia.models.OutboxEvento;
+import com.barberia.models.enums.EstadoReserva;
+import com.barberia.models.enums.TipoEventoReserva;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Evento inmutable que reciben los ReservaEventoListener.
+ *
+ * El id es el del outbox: como la entrega es "al menos una vez", un listener puede
+ * recibir el mismo evento dos veces y debe usar el id para ignorar duplicados
+ * (o ser idempotente por naturaleza, como invalidar una caché).
+ *
+ * fechaAnterior y profesionalAnteriorId solo vienen cuando el cambio movió la reserva de
+ * día o de profesional: los listeners que agrupan por fecha o por profesional deben
+ * actualizar también el anterior.
+ */
+public record ReservaEvento(
+        Long id,
+        TipoEventoReserva tipo,
+        Long negocioId,
+        Long reservaId,
+        Long profesionalId,
+        Long profesionalAnteriorId,
+        Long clienteId,
+        LocalDate fecha,
+        LocalDate fechaAnterior,
+        LocalTime horaInicio,
+        LocalTime horaFin,
+        EstadoReserva estadoReserva,
+        BigDecimal precioTotal,
+        LocalDateTime ocurridoEn
+) {
+    static ReservaEvento of(OutboxEvento evento) {
+        return new ReservaEvento(
+                evento.getId(),
+                evento.getTipo(),
+                evento.getNegocioId(),
+                evento.getReservaId(),
+                evento.getProfesionalId(),
+                evento.getProfesionalAnteriorId(),
+                evento.getClienteId(),
+                evento.getFecha(),
+                evento.getFechaAnterior(),
+                evento.getHoraInicio(),
+                evento.getHoraFin(),
+                evento.getEstadoReserva(),
+                evento.getPrecioTotal(),
+                evento.getCreatedAt()
+        );
+    }
+}
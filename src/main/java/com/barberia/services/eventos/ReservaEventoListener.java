@@ -0,0 +1,17 @@
+package com.barberia.services.eventos;
+
+/**
+ * Suscriptor de cambios de reservas.
+ *
+ * Cualquier bean de Spring que implemente esta interfaz recibe los eventos desde
+ * OutboxRelay, fuera de la transacción de la reserva y fuera del hilo de la petición.
+ *
+ * GARANTÍAS:
+ * - Al menos una vez: si algún listener lanza excepción, el evento se reintenta para TODOS
+ * - Orden por profesional: los eventos de un mismo profesional llegan en el orden en que ocurrieron
+ * - Eventos de profesionales distintos pueden llegar en paralelo (el listener debe ser thread-safe)
+ */
+public interface ReservaEventoListener {
+
+    void onReservaEvento(ReservaEvento evento);
+}
@@ -0,0 +1,31 @@
+package com.barberia.services.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Creación de una reserva (ReservaService.create) sin el commit de la transacción.
+ * Las etapas van en EtapaEvento con proceso = "barberia.reserva.crear".
+ */
+@Name("barberia.Reserva")
+@Label("Creación de reserva")
+@Category({"Barbería", "Reservas"})
+@StackTrace(false)
+public class CreacionReservaEvento extends EventoBarberia {
+
+    @Label("Profesional")
+    long profesionalId;
+
+    @Label("Servicios")
+    int servicios;
+
+    public void registrar(Long negocioId, Long profesionalId, int servicios, Throwable error) {
+        if (cerrar(negocioId, resultado(error))) {
+            this.profesionalId = id(profesionalId);
+            this.servicios = servicios;
+            commit();
+        }
+    }
+}
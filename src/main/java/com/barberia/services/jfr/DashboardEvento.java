@@ -0,0 +1,42 @@
+package com.barberia.services.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Carga del resumen del dashboard (DashboardService.getResumen)
+ */
+@Name("barberia.Dashboard")
+@Label("Resumen del dashboard")
+@Category({"Barbería", "Dashboard"})
+@StackTrace(false)
+public class DashboardEvento extends EventoBarberia {
+
+    @Label("Profesional")
+    @Description("Solo en el dashboard operativo")
+    long profesionalId;
+
+    @Label("Periodo")
+    String periodo;
+
+    @Label("Tipo")
+    String tipo;
+
+    @Label("Calculado")
+    @Description("true si no estaba en la caché del dashboard y se calculó en esta petición")
+    boolean calculado;
+
+    public void registrar(Long negocioId, Long profesionalId, String periodo, String tipo, boolean calculado,
+                          Throwable error) {
+        if (cerrar(negocioId, resultado(error))) {
+            this.profesionalId = id(profesionalId);
+            this.periodo = periodo;
+            this.tipo = tipo;
+            this.calculado = calculado;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.barberia.services.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.time.LocalDate;
+
+/**
+ * Cálculo de horas disponibles de un profesional en una fecha (DisponibilidadService)
+ */
+@Name("barberia.Disponibilidad")
+@Label("Disponibilidad")
+@Category({"Barbería", "Reservas"})
+@StackTrace(false)
+public class DisponibilidadEvento extends EventoBarberia {
+
+    @Label("Profesional")
+    long profesionalId;
+
+    @Label("Fecha")
+    String fecha;
+
+    @Label("Horas disponibles")
+    int horasDisponibles;
+
+    public void registrar(Long negocioId, Long profesionalId, LocalDate fecha, Integer horasDisponibles,
+                          Throwable error) {
+        if (cerrar(negocioId, resultado(error))) {
+            this.profesionalId = id(profesionalId);
+            this.fecha = fecha != null ? fecha.toString() : null;
+            this.horasDisponibles = horasDisponibles != null ? horasDisponibles : 0;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.barberia.services.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Una etapa de un proceso medido con Metricas.Cronometro (ej: "solapamiento" de
+ * "barberia.reserva.crear"). Se emite desde el cronómetro, los servicios no lo usan directo.
+ */
+@Name("barberia.Etapa")
+@Label("Etapa")
+@Category({"Barbería", "Reservas"})
+@StackTrace(false)
+public class EtapaEvento extends EventoBarberia {
+
+    @Label("Proceso")
+    String proceso;
+
+    @Label("Etapa")
+    String etapa;
+
+    @Label("Profesional")
+    long profesionalId;
+
+    public void registrar(String proceso, String etapa, Long negocioId, Long profesionalId) {
+        if (cerrar(negocioId, "ok")) {
+            this.proceso = proceso;
+            this.etapa = etapa;
+            this.profesionalId = id(profesionalId);
+            commit();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.barberia.services.jfr;
+
+import com.barberia.services.consumo.ConsumoJdbc;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Base de los eventos JFR de la aplicación: negocio, filas leídas de la BD y resultado.
+ *
+ * USO (patrón de JFR: si el evento no está habilitado en la grabación, begin/end/commit no
+ * hacen nada y el JIT los elimina):
+ * <pre>
+ * DisponibilidadEvento evento = new DisponibilidadEvento();
+ * evento.iniciar();
+ * ...
+ * evento.registrar(negocioId, ..., error);
+ * </pre>
+ *
+ * Las filas son las que leyó la petición mientras el evento estaba abierto (ConsumoJdbc);
+ * fuera de una petición o con consumo.habilitado=false quedan en 0.
+ */
+public abstract class EventoBarberia extends Event {
+
+    @Label("Negocio")
+    long negocioId;
+
+    @Label("Filas leídas")
+    @Description("Filas que devolvió la BD durante el evento")
+    long filas;
+
+    @Label("Resultado")
+    @Description("ok, o el nombre de la excepción / motivo del rechazo")
+    String resultado;
+
+    private transient long filasInicio;
+
+    public void iniciar() {
+        filasInicio = ConsumoJdbc.filasLeidas();
+        begin();
+    }
+
+    /**
+     * Cierra el evento; devuelve false si no hay que registrarlo (deshabilitado o más corto
+     * que el threshold del .jfc) y entonces no vale la pena llenar el resto de los campos
+     */
+    protected boolean cerrar(Long negocioId, String resultado) {
+        end();
+        if (!shouldCommit()) {
+            return false;
+        }
+        this.negocioId = id(negocioId);
+        this.filas = ConsumoJdbc.filasLeidas() - filasInicio;
+        this.resultado = resultado;
+        return true;
+    }
+
+    protected static String resultado(Throwable error) {
+        return error == null ? "ok" : error.getClass().getSimpleName();
+    }
+
+    /** JFR no tiene Long nulo: 0 = sin negocio / sin profesional */
+    protected static long id(Long id) {
+        return id != null ? id : 0;
+    }
+}
@@ -0,0 +1,110 @@
+package com.barberia.services.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Grabación continua de Java Flight Recorder con los eventos de la aplicación, sin agentes
+ * ni flags de la JVM.
+ *
+ * Con jfr.grabacion.habilitado=true, al arrancar se inicia una grabación "barberia" con la
+ * configuración base del JDK (jfr.grabacion.base, "default" = ~1% de overhead) más los
+ * eventos de jfr/barberia.jfc. Se guarda en disco y se descartan los datos más viejos que
+ * max-edad-horas o más allá de max-tamano-mb.
+ *
+ * Para analizar (JDK Mission Control o "jfr print --events barberia.Etapa archivo.jfr"):
+ * - en cualquier momento: jcmd <pid> JFR.dump name=barberia filename=/tmp/barberia.jfr
+ * - al apagar la aplicación se vuelca sola en jfr.grabacion.destino (si no está vacío)
+ */
+@Slf4j
+@Component
+public class GrabacionJfr {
+
+    static final String NOMBRE = "barberia";
+
+    private final boolean habilitado;
+    private final String base;
+    private final Resource configuracion;
+    private final Duration maxEdad;
+    private final long maxBytes;
+    private final String destino;
+
+    private Recording grabacion;
+
+    public GrabacionJfr(@Value("${jfr.grabacion.habilitado:false}") boolean habilitado,
+                        @Value("${jfr.grabacion.base:default}") String base,
+                        @Value("${jfr.grabacion.configuracion:classpath:jfr/barberia.jfc}") Resource configuracion,
+                        @Value("${jfr.grabacion.max-edad-horas:6}") int maxEdadHoras,
+                        @Value("${jfr.grabacion.max-tamano-mb:250}") long maxTamanoMb,
+                        @Value("${jfr.grabacion.destino:}") String destino) {
+        this.habilitado = habilitado;
+        this.base = base;
+        this.configuracion = configuracion;
+        this.maxEdad = Duration.ofHours(maxEdadHoras);
+        this.maxBytes = maxTamanoMb * 1024 * 1024;
+        this.destino = destino;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void iniciar() {
+        if (!habilitado || grabacion != null) {
+            return;
+        }
+        try {
+            Map<String, String> ajustes = new HashMap<>(Configuration.getConfiguration(base).getSettings());
+            try (Reader reader = new InputStreamReader(configuracion.getInputStream(), StandardCharsets.UTF_8)) {
+                ajustes.putAll(Configuration.create(reader).getSettings());
+            }
+            Recording nueva = new Recording(ajustes);
+            nueva.setName(NOMBRE);
+            nueva.setToDisk(true);
+            nueva.setMaxAge(maxEdad);
+            nueva.setMaxSize(maxBytes);
+            nueva.start();
+            grabacion = nueva;
+            log.info("Grabación JFR '{}' iniciada (base {}, {}, máx {} / {} MB)", NOMBRE, base,
+                    configuracion.getFilename(), maxEdad, maxBytes / (1024 * 1024));
+        } catch (Exception e) {
+            // Sin JFR (JVM que no lo soporta, configuración inválida) la aplicación sigue igual
+            log.warn("No se pudo iniciar la grabación JFR: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void detener() {
+        if (grabacion == null) {
+            return;
+        }
+        try {
+            if (!destino.isBlank()) {
+                Path archivo = Path.of(destino);
+                if (archivo.getParent() != null) {
+                    Files.createDirectories(archivo.getParent());
+                }
+                grabacion.dump(archivo);
+                log.info("Grabación JFR volcada en {}", archivo.toAbsolutePath());
+            }
+        } catch (Exception e) {
+            log.warn("No se pudo volcar la grabación JFR: {}", e.getMessage());
+        } finally {
+            grabacion.close();
+            grabacion = null;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.barberia.services.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Verificación del JWT de una petición: firma, carga del usuario y validez
+ * (JwtAuthenticationFilter). Resultado: ok, invalido (firma o formato) o rechazado.
+ */
+@Name("barberia.Jwt")
+@Label("Verificación de JWT")
+@Category({"Barbería", "Seguridad"})
+@StackTrace(false)
+public class JwtEvento extends EventoBarberia {
+
+    public void registrar(Long negocioId, String resultado) {
+        if (cerrar(negocioId, resultado)) {
+            commit();
+        }
+    }
+}
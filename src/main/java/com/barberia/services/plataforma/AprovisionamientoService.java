@@ -0,0 +1,397 @@
+package com.barberia.services.plataforma;
+
+import com.barberia.dto.plataforma.AprovisionamientoResponse;
+import com.barberia.dto.plataforma.NegocioAprovisionadoDTO;
+import com.barberia.dto.plataforma.NegocioAprovisionarRequest;
+import com.barberia.models.Negocio;
+import com.barberia.models.Usuario;
+import com.barberia.models.enums.DiaSemana;
+import com.barberia.repositories.AprovisionamientoRepository;
+import com.barberia.repositories.AprovisionamientoRepository.ConfiguracionInicial;
+import com.barberia.repositories.AprovisionamientoRepository.FilaNegocio;
+import com.barberia.repositories.AprovisionamientoRepository.FilaUsuario;
+import com.barberia.repositories.AprovisionamientoRepository.HorarioInicial;
+import com.barberia.repositories.UsuarioRepository;
+import com.barberia.services.common.SecurityContextService;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Alta de negocios con todos sus datos iniciales, de a uno o masiva (cadenas, migraciones).
+ *
+ * ANTES: dar de alta un negocio eran varias llamadas (NegocioService.create, register del
+ * administrador, configuración de reservas, un horario por día), cada una con sus
+ * existsBy/findById y un INSERT por fila. Migrar cientos de negocios tardaba minutos.
+ *
+ * AHORA, para N negocios:
+ * 1. Validación: emails, RUC y slugs se verifican con UNA consulta IN por columna
+ * 2. Contraseñas: se cifran ANTES de abrir la transacción (BCrypt es lo más lento y
+ *    no debe retener conexiones), con un BCryptPasswordEncoder y un pool propios de
+ *    aprovisionamiento.hilos-hash hilos. NO usan el PasswordEncoder acotado de los logins:
+ *    un lote de cientos de negocios llenaría su cola y los logins recibirían 503
+ * 3. Inserción: por cada lote de aprovisionamiento.tamano-lote negocios, UNA transacción
+ *    con un batch JDBC por tabla (AprovisionamientoRepository): negocios → usuarios →
+ *    user_roles → configuracion_reservas → horarios_negocio
+ *
+ * PLANTILLA (aprovisionamiento.plantilla): rol del administrador, configuración de reservas
+ * y horario semanal con el que arranca cada negocio.
+ *
+ * Si falla un lote, los lotes anteriores ya quedaron confirmados; el error indica cuántos.
+ * Al terminar se limpia la caché de consultas de Hibernate (los INSERT por JDBC no la invalidan
+ * y una búsqueda previa por slug pudo quedar cacheada como "no existe").
+ */
+@Slf4j
+@Service
+public class AprovisionamientoService {
+
+    private static final int MAX_NEGOCIOS = 5000;
+    private static final int MAX_ERRORES_LISTADOS = 20;
+
+    private final AprovisionamientoRepository aprovisionamientoRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final SecurityContextService securityContextService;
+    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private final ExecutorService hashExecutor;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate escritura;
+    private final int tamanoLote;
+
+    private final String rolAdmin;
+    private final ConfiguracionInicial configuracionInicial;
+    private final List<HorarioInicial> horariosIniciales;
+
+    public AprovisionamientoService(AprovisionamientoRepository aprovisionamientoRepository,
+                                    UsuarioRepository usuarioRepository,
+                                    SecurityContextService securityContextService,
+                                    EntityManagerFactory entityManagerFactory,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${aprovisionamiento.tamano-lote:250}") int tamanoLote,
+                                    @Value("${aprovisionamiento.hilos-hash:2}") int hilosHash,
+                                    @Value("${aprovisionamiento.plantilla.rol-admin:ADMIN}") String rolAdmin,
+                                    @Value("${aprovisionamiento.plantilla.dias:LUNES,MARTES,MIERCOLES,JUEVES,VIERNES,SABADO}") List<String> dias,
+                                    @Value("${aprovisionamiento.plantilla.hora-inicio:09:00}") LocalTime horaInicio,
+                                    @Value("${aprovisionamiento.plantilla.hora-fin:20:00}") LocalTime horaFin,
+                                    @Value("${aprovisionamiento.plantilla.permite-mismo-dia:true}") boolean permiteMismoDia,
+                                    @Value("${aprovisionamiento.plantilla.anticipacion-horas:#{null}}") Integer anticipacionHoras,
+                                    @Value("${aprovisionamiento.plantilla.anticipacion-minima-horas:1}") Integer anticipacionMinimaHoras,
+                                    @Value("${aprovisionamiento.plantilla.anticipacion-maxima-dias:30}") Integer anticipacionMaximaDias,
+                                    @Value("${aprovisionamiento.plantilla.intervalo-turnos-minutos:30}") Integer intervaloTurnosMinutos,
+                                    @Value("${aprovisionamiento.plantilla.permite-cancelacion:true}") boolean permiteCancelacion,
+                                    @Value("${aprovisionamiento.plantilla.horas-minimas-cancelacion:2}") Integer horasMinimasCancelacion) {
+        this.aprovisionamientoRepository = aprovisionamientoRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.securityContextService = securityContextService;
+        this.entityManagerFactory = entityManagerFactory;
+        this.escritura = new TransactionTemplate(transactionManager);
+        this.tamanoLote = Math.max(tamanoLote, 1);
+        this.rolAdmin = rolAdmin;
+
+        int hilos = Math.max(hilosHash, 1);
+        AtomicInteger contador = new AtomicInteger();
+        this.hashExecutor = new ThreadPoolExecutor(hilos, hilos, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "aprovisionamiento-hash-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        ((ThreadPoolExecutor) this.hashExecutor).allowCoreThreadTimeOut(true);
+
+        // Misma regla que ConfiguracionReservaService
+        if (!permiteMismoDia && anticipacionHoras == null) {
+            throw new IllegalStateException("aprovisionamiento.plantilla: si no se permite reservar el mismo día, " +
+                    "debe indicar anticipacion-horas");
+        }
+        if (!horaFin.isAfter(horaInicio)) {
+            throw new IllegalStateException("aprovisionamiento.plantilla: hora-fin debe ser posterior a hora-inicio");
+        }
+        this.configuracionInicial = new ConfiguracionInicial(anticipacionHoras, anticipacionMaximaDias,
+                permiteMismoDia, intervaloTurnosMinutos, anticipacionMinimaHoras, permiteCancelacion,
+                horasMinimasCancelacion);
+        this.horariosIniciales = dias.stream()
+                .map(String::trim)
+                .filter(d -> !d.isEmpty())
+                .map(d -> new HorarioInicial(DiaSemana.valueOf(d.toUpperCase()), horaInicio, horaFin))
+                .toList();
+    }
+
+    public AprovisionamientoResponse aprovisionar(NegocioAprovisionarRequest negocio) {
+        return aprovisionarLote(List.of(negocio));
+    }
+
+    public AprovisionamientoResponse aprovisionarLote(List<NegocioAprovisionarRequest> negocios) {
+        if (negocios == null || negocios.isEmpty()) {
+            throw new IllegalArgumentException("Debe enviar al menos un negocio");
+        }
+        if (negocios.size() > MAX_NEGOCIOS) {
+            throw new IllegalArgumentException("Máximo " + MAX_NEGOCIOS + " negocios por petición");
+        }
+        long inicio = System.nanoTime();
+
+        validar(negocios);
+        Long rolId = aprovisionamientoRepository.findRolIdByName(rolAdmin);
+        if (rolId == null) {
+            throw new IllegalStateException("No existe el rol '" + rolAdmin + "' (aprovisionamiento.plantilla.rol-admin)");
+        }
+        Long registradoPor = usuarioActualId();
+        List<String> slugs = asignarSlugs(negocios);
+
+        // 1. Contraseñas fuera de la transacción
+        long inicioHash = System.nanoTime();
+        List<String> hashes = cifrarContrasenas(negocios);
+        long hashMs = (System.nanoTime() - inicioHash) / 1_000_000;
+
+        // 2. Un batch por tabla, una transacción por lote
+        long inicioInsercion = System.nanoTime();
+        List<NegocioAprovisionadoDTO> creados = new ArrayList<>(negocios.size());
+        long filas = 0;
+        int lotes = 0;
+        try {
+            for (int desde = 0; desde < negocios.size(); desde += tamanoLote) {
+                int hasta = Math.min(desde + tamanoLote, negocios.size());
+                int d = desde;
+                Resultado resultado = escritura.execute(status -> insertarLote(
+                        negocios.subList(d, hasta), slugs.subList(d, hasta), hashes.subList(d, hasta),
+                        rolId, registradoPor));
+                creados.addAll(resultado.negocios());
+                filas += resultado.filas();
+                lotes++;
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Error en el lote " + (lotes + 1) + " (" + creados.size() +
+                    " negocios ya creados): " + e.getMessage(), e);
+        } finally {
+            if (!creados.isEmpty()) {
+                limpiarCacheConsultas();
+            }
+        }
+        long insercionMs = (System.nanoTime() - inicioInsercion) / 1_000_000;
+        long totalMs = (System.nanoTime() - inicio) / 1_000_000;
+
+        log.info("Aprovisionados {} negocios en {} ms ({} lotes, {} filas; hash {} ms, inserción {} ms)",
+                creados.size(), totalMs, lotes, filas, hashMs, insercionMs);
+
+        return AprovisionamientoResponse.builder()
+                .negocios(creados)
+                .cantidad(creados.size())
+                .lotes(lotes)
+                .filas(filas)
+                .hashMs(hashMs)
+                .insercionMs(insercionMs)
+                .totalMs(totalMs)
+                .negociosPorSegundo(totalMs == 0 ? null
+                        : Math.round(creados.size() * 10_000.0 / totalMs) / 10.0)
+                .build();
+    }
+
+    /**
+     * BCrypt de cada contraseña, en el orden de la lista, repartido en el pool propio
+     */
+    List<String> cifrarContrasenas(List<NegocioAprovisionarRequest> negocios) {
+        List<Callable<String>> tareas = new ArrayList<>(negocios.size());
+        for (NegocioAprovisionarRequest n : negocios) {
+            tareas.add(() -> passwordEncoder.encode(n.getAdminPassword()));
+        }
+        try {
+            List<String> hashes = new ArrayList<>(negocios.size());
+            for (Future<String> hash : hashExecutor.invokeAll(tareas)) {
+                hashes.add(hash.get());
+            }
+            return hashes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Aprovisionamiento interrumpido al cifrar contraseñas", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error al cifrar contraseñas: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        hashExecutor.shutdown();
+    }
+
+    private record Resultado(List<NegocioAprovisionadoDTO> negocios, long filas) {
+    }
+
+    private Resultado insertarLote(List<NegocioAprovisionarRequest> negocios, List<String> slugs,
+                                   List<String> hashes, Long rolId, Long registradoPor) {
+        LocalDateTime ahora = LocalDateTime.now();
+
+        List<FilaNegocio> filasNegocio = new ArrayList<>(negocios.size());
+        for (int i = 0; i < negocios.size(); i++) {
+            NegocioAprovisionarRequest n = negocios.get(i);
+            filasNegocio.add(new FilaNegocio(n.getNombre().trim(), slugs.get(i), n.getRuc(), n.getDireccion(),
+                    n.getCiudad(), n.getTelefono(), n.getEmail()));
+        }
+        List<Long> negocioIds = aprovisionamientoRepository.insertarNegocios(filasNegocio, ahora);
+
+        List<FilaUsuario> filasUsuario = new ArrayList<>(negocios.size());
+        for (int i = 0; i < negocios.size(); i++) {
+            NegocioAprovisionarRequest n = negocios.get(i);
+            filasUsuario.add(new FilaUsuario(n.getAdminNombre().trim(), normalizarEmail(n.getAdminEmail()),
+                    hashes.get(i), negocioIds.get(i)));
+        }
+        List<Long> usuarioIds = aprovisionamientoRepository.insertarUsuarios(filasUsuario, registradoPor, ahora);
+
+        long filas = negocioIds.size() + usuarioIds.size();
+        filas += aprovisionamientoRepository.insertarRolesUsuario(usuarioIds, rolId);
+        // Configuración y horarios quedan registrados por el administrador de cada negocio
+        filas += aprovisionamientoRepository.insertarConfiguraciones(negocioIds, usuarioIds, configuracionInicial, ahora);
+        filas += aprovisionamientoRepository.insertarHorarios(negocioIds, usuarioIds, horariosIniciales, ahora);
+
+        List<NegocioAprovisionadoDTO> creados = new ArrayList<>(negocios.size());
+        for (int i = 0; i < negocios.size(); i++) {
+            creados.add(NegocioAprovisionadoDTO.builder()
+                    .negocioId(negocioIds.get(i))
+                    .nombre(filasNegocio.get(i).nombre())
+                    .slug(slugs.get(i))
+                    .adminUsuarioId(usuarioIds.get(i))
+                    .adminEmail(filasUsuario.get(i).email())
+                    .build());
+        }
+        return new Resultado(creados, filas);
+    }
+
+    // ========== VALIDACIÓN ==========
+
+    private void validar(List<NegocioAprovisionarRequest> negocios) {
+        List<String> errores = new ArrayList<>();
+
+        Map<String, Integer> emails = new LinkedHashMap<>();
+        Map<String, Integer> rucs = new LinkedHashMap<>();
+        Map<String, Integer> slugsExplicitos = new LinkedHashMap<>();
+        for (int i = 0; i < negocios.size(); i++) {
+            NegocioAprovisionarRequest n = negocios.get(i);
+            String etiqueta = "negocio[" + i + "]";
+            if (n.getNombre() == null || n.getNombre().isBlank()) {
+                errores.add(etiqueta + ": el nombre es obligatorio");
+            }
+            if (n.getAdminNombre() == null || n.getAdminNombre().isBlank()
+                    || n.getAdminEmail() == null || n.getAdminEmail().isBlank()
+                    || n.getAdminPassword() == null || n.getAdminPassword().isBlank()) {
+                errores.add(etiqueta + ": nombre, email y contraseña del administrador son obligatorios");
+                continue;
+            }
+            repetido(emails, normalizarEmail(n.getAdminEmail()), i, "email", errores);
+            if (n.getRuc() != null && !n.getRuc().isBlank()) {
+                repetido(rucs, n.getRuc().trim(), i, "RUC", errores);
+            }
+            if (n.getSlug() != null && !n.getSlug().isBlank()) {
+                repetido(slugsExplicitos, Negocio.generarSlug(n.getSlug()), i, "slug", errores);
+            }
+        }
+
+        for (String email : aprovisionamientoRepository.emailsExistentes(emails.keySet())) {
+            errores.add("negocio[" + emails.get(email) + "]: el email " + email + " ya está registrado");
+        }
+        for (String ruc : aprovisionamientoRepository.rucsExistentes(rucs.keySet())) {
+            errores.add("negocio[" + rucs.get(ruc) + "]: el RUC " + ruc + " ya está registrado");
+        }
+        for (String slug : aprovisionamientoRepository.slugsExistentes(slugsExplicitos.keySet())) {
+            errores.add("negocio[" + slugsExplicitos.get(slug) + "]: el slug " + slug + " ya está en uso");
+        }
+
+        if (!errores.isEmpty()) {
+            String detalle = String.join("; ", errores.subList(0, Math.min(errores.size(), MAX_ERRORES_LISTADOS)));
+            if (errores.size() > MAX_ERRORES_LISTADOS) {
+                detalle += "; ... y " + (errores.size() - MAX_ERRORES_LISTADOS) + " errores más";
+            }
+            throw new IllegalArgumentException("No se aprovisionó ningún negocio: " + detalle);
+        }
+    }
+
+    private static void repetido(Map<String, Integer> vistos, String valor, int indice, String campo, List<String> errores) {
+        Integer previo = vistos.putIfAbsent(valor, indice);
+        if (previo != null) {
+            errores.add("negocio[" + indice + "]: " + campo + " " + valor + " repetido (ya usado en negocio[" + previo + "])");
+        }
+    }
+
+    /**
+     * Slug final de cada negocio: el pedido (ya validado) o uno generado del nombre,
+     * con sufijo -2, -3, ... si choca con uno existente o con otro del mismo lote
+     */
+    List<String> asignarSlugs(List<NegocioAprovisionarRequest> negocios) {
+        List<String> slugs = new ArrayList<>(negocios.size());
+        Set<String> usados = new HashSet<>();
+        List<String> generados = new ArrayList<>();
+        for (NegocioAprovisionarRequest n : negocios) {
+            if (n.getSlug() != null && !n.getSlug().isBlank()) {
+                String slug = Negocio.generarSlug(n.getSlug());
+                slugs.add(slug);
+                usados.add(slug);
+            } else {
+                String base = Negocio.generarSlug(n.getNombre());
+                slugs.add(null);
+                generados.add(base.isEmpty() ? "negocio" : base);
+            }
+        }
+        if (generados.isEmpty()) {
+            return slugs;
+        }
+
+        // Una consulta para todos; solo las bases que chocan consultan sus variantes
+        Set<String> existentes = new HashSet<>(aprovisionamientoRepository.slugsExistentes(new HashSet<>(generados)));
+        Set<String> consultadas = new HashSet<>();
+        int g = 0;
+        for (int i = 0; i < slugs.size(); i++) {
+            if (slugs.get(i) != null) {
+                continue;
+            }
+            String base = generados.get(g++);
+            String slug = base;
+            if (existentes.contains(base) || usados.contains(base)) {
+                if (consultadas.add(base)) {
+                    existentes.addAll(aprovisionamientoRepository.slugsConPrefijo(base + "-"));
+                }
+                int sufijo = 2;
+                while (existentes.contains(base + "-" + sufijo) || usados.contains(base + "-" + sufijo)) {
+                    sufijo++;
+                }
+                slug = base + "-" + sufijo;
+            }
+            usados.add(slug);
+            slugs.set(i, slug);
+        }
+        return slugs;
+    }
+
+    private static String normalizarEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private Long usuarioActualId() {
+        String username = securityContextService.getUsernameFromContext();
+        if (username == null) {
+            return null;
+        }
+        return usuarioRepository.findByEmail(username).map(Usuario::getId).orElse(null);
+    }
+
+    private void limpiarCacheConsultas() {
+        try {
+            entityManagerFactory.getCache().unwrap(org.hibernate.Cache.class).evictDefaultQueryRegion();
+        } catch (RuntimeException e) {
+            log.warn("No se pudo limpiar la caché de consultas: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.barberia.services.plataforma;
+
+import com.barberia.dto.plataforma.MetricaMensualPlataformaDTO;
+import com.barberia.dto.plataforma.NegocioDestacadoDTO;
+import com.barberia.dto.plataforma.PlataformaResumenResponse;
+import com.barberia.models.MetricaPlataformaMensual;
+import com.barberia.repositories.MetricaPlataformaRepository;
+import com.barberia.repositories.NegocioRepository;
+import com.barberia.services.dashboard.AgregadosDiariosListos;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Analítica de plataforma: métricas de TODOS los negocios para el super admin.
+ *
+ * ROLLUP: plataforma_metricas_mensuales guarda una fila por negocio y mes (reservas,
+ * cancelaciones, ingreso, clientes nuevos). Las consultas globales solo suman esa tabla.
+ *
+ * ACTUALIZACIÓN:
+ * - Incremental (analitica.plataforma.cron, después de la reconciliación de agregados
+ *   diarios): solo se recalculan el mes actual y el anterior
+ * - Completa: al arrancar, después del backfill de agregados diarios (AgregadosDiariosListos),
+ *   si la tabla está vacía o si los agregados se acaban de generar (un rollup hecho sobre
+ *   agregados vacíos quedaría en cero); o a pedido (POST /api/plataforma/actualizar)
+ *
+ * MESES: el mes actual es el de America/Lima (como el cron), no el de la zona del servidor.
+ *
+ * PARALELISMO: los ids de negocio se parten en rangos de analitica.plataforma.negocios-por-rango
+ * y cada rango se lee en su propio hilo y su propia transacción de SOLO LECTURA. La escritura
+ * del rollup se hace después, en una transacción corta por rango.
+ *
+ * RÉPLICA: las lecturas van en transacciones readOnly, que marcan la conexión como de solo
+ * lectura. Con una URL de replicación de MySQL (jdbc:mysql:replication://primario,replica/...)
+ * el driver las envía a la réplica y no compiten con las reservas en el primario.
+ *
+ * Las reservas salen de reserva_agregados_diarios (AgregadosDiariosService), que ya junta
+ * tabla caliente y archivo.
+ */
+@Slf4j
+@Service
+public class PlataformaAnaliticaService {
+
+    private static final ZoneId ZONA = ZoneId.of("America/Lima");
+
+    private final MetricaPlataformaRepository metricaPlataformaRepository;
+    private final NegocioRepository negocioRepository;
+    private final TransactionTemplate lectura;
+    private final TransactionTemplate escritura;
+    private final ExecutorService executor;
+    private final boolean habilitado;
+    private final int negociosPorRango;
+
+    private final AtomicBoolean enCurso = new AtomicBoolean(false);
+
+    public PlataformaAnaliticaService(MetricaPlataformaRepository metricaPlataformaRepository,
+                                      NegocioRepository negocioRepository,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${analitica.plataforma.habilitado:true}") boolean habilitado,
+                                      @Value("${analitica.plataforma.hilos:4}") int hilos,
+                                      @Value("${analitica.plataforma.negocios-por-rango:200}") int negociosPorRango) {
+        this.metricaPlataformaRepository = metricaPlataformaRepository;
+        this.negocioRepository = negocioRepository;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+        this.escritura = new TransactionTemplate(transactionManager);
+        this.habilitado = habilitado;
+        this.negociosPorRango = Math.max(negociosPorRango, 1);
+
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(hilos, r -> {
+            Thread t = new Thread(r, "plataforma-analitica-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void detener() {
+        executor.shutdownNow();
+    }
+
+    @EventListener
+    public void alArrancar(AgregadosDiariosListos agregados) {
+        if (!habilitado) {
+            return;
+        }
+        try {
+            if (agregados.regenerados() || metricaPlataformaRepository.count() == 0) {
+                actualizar(null);
+            }
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron generar las métricas de plataforma: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${analitica.plataforma.cron:0 45 0 * * *}", zone = "America/Lima")
+    public void actualizarProgramado() {
+        if (!habilitado) {
+            return;
+        }
+        actualizar(LocalDate.now(ZONA).withDayOfMonth(1).minusMonths(1));
+    }
+
+    /**
+     * Recalcula el rollup desde el mes indicado (null = todo el histórico).
+     *
+     * @return cantidad de filas (negocio, mes) escritas; -1 si ya había una actualización en curso
+     */
+    public int actualizar(LocalDate desdeMes) {
+        if (!enCurso.compareAndSet(false, true)) {
+            return -1;
+        }
+        try {
+            LocalDate desde = desdeMes == null ? LocalDate.of(1970, 1, 1) : desdeMes.withDayOfMonth(1);
+            List<Object[]> rango = metricaPlataformaRepository.rangoNegocios();
+            if (rango.isEmpty() || rango.get(0)[0] == null) {
+                return 0;
+            }
+            long minId = (Long) rango.get(0)[0];
+            long maxId = (Long) rango.get(0)[1];
+
+            // Lectura en paralelo: un rango de ids por tarea
+            List<long[]> rangos = new ArrayList<>();
+            for (long inicio = minId; inicio <= maxId; inicio += negociosPorRango) {
+                rangos.add(new long[]{inicio, Math.min(inicio + negociosPorRango - 1, maxId)});
+            }
+            List<Future<List<MetricaPlataformaMensual>>> tareas = new ArrayList<>(rangos.size());
+            for (long[] r : rangos) {
+                tareas.add(executor.submit(() -> lectura.execute(status -> leerRango(r[0], r[1], desde))));
+            }
+
+            int filas = 0;
+            for (int i = 0; i < rangos.size(); i++) {
+                long[] r = rangos.get(i);
+                List<MetricaPlataformaMensual> metricas = esperar(tareas.get(i));
+                escritura.executeWithoutResult(status -> {
+                    metricaPlataformaRepository.deleteByRango(r[0], r[1], desde);
+                    metricaPlataformaRepository.saveAll(metricas);
+                });
+                filas += metricas.size();
+            }
+            log.info("Métricas de plataforma actualizadas desde {}: {} filas en {} rangos de negocios",
+                    desdeMes == null ? "el inicio" : desde, filas, rangos.size());
+            return filas;
+        } finally {
+            enCurso.set(false);
+        }
+    }
+
+    /**
+     * Métricas de los negocios con id en [idDesde, idHasta] desde el mes indicado
+     */
+    List<MetricaPlataformaMensual> leerRango(long idDesde, long idHasta, LocalDate desde) {
+        LocalDateTime ahora = LocalDateTime.now();
+        Map<String, MetricaPlataformaMensual> porClave = new LinkedHashMap<>();
+
+        for (Object[] fila : metricaPlataformaRepository.sumarReservasPorMes(idDesde, idHasta, desde)) {
+            MetricaPlataformaMensual m = metrica(porClave, (Long) fila[0], (LocalDate) fila[1], ahora);
+            m.setReservas(((Number) fila[2]).longValue());
+            m.setCancelaciones(((Number) fila[3]).longValue());
+            m.setIngreso(fila[4] == null ? BigDecimal.ZERO : (BigDecimal) fila[4]);
+        }
+        for (Object[] fila : metricaPlataformaRepository.contarClientesNuevosPorMes(idDesde, idHasta, desde.atStartOfDay())) {
+            LocalDate mes = LocalDate.of(((Number) fila[1]).intValue(), ((Number) fila[2]).intValue(), 1);
+            metrica(porClave, (Long) fila[0], mes, ahora).setClientesNuevos(((Number) fila[3]).longValue());
+        }
+        return new ArrayList<>(porClave.values());
+    }
+
+    private static MetricaPlataformaMensual metrica(Map<String, MetricaPlataformaMensual> porClave,
+                                                    Long negocioId, LocalDate mes, LocalDateTime ahora) {
+        return porClave.computeIfAbsent(negocioId + "|" + mes, k -> MetricaPlataformaMensual.builder()
+                .negocioId(negocioId)
+                .mes(mes)
+                .reservas(0L)
+                .cancelaciones(0L)
+                .ingreso(BigDecimal.ZERO)
+                .clientesNuevos(0L)
+                .actualizadoEn(ahora)
+                .build());
+    }
+
+    private static <T> T esperar(Future<T> tarea) {
+        try {
+            return tarea.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Actualización de métricas de plataforma interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error leyendo métricas de plataforma: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    // ========== LECTURA ==========
+
+    /**
+     * Resumen de los últimos N meses (incluye el actual) con crecimiento mes a mes
+     * y los negocios con más ingreso del mes actual.
+     */
+    public PlataformaResumenResponse getResumen(int meses, int top) {
+        int cantidadMeses = Math.min(Math.max(meses, 1), 60);
+        LocalDate mesActual = LocalDate.now(ZONA).withDayOfMonth(1);
+        LocalDate desde = mesActual.minusMonths(cantidadMeses);
+
+        return lectura.execute(status -> {
+            Map<LocalDate, Object[]> porMes = new HashMap<>();
+            for (Object[] fila : metricaPlataformaRepository.sumarPorMes(desde, mesActual)) {
+                porMes.put((LocalDate) fila[0], fila);
+            }
+
+            // Se lee un mes extra al inicio solo para calcular el crecimiento del primero
+            List<MetricaMensualPlataformaDTO> serie = new ArrayList<>();
+            MetricaMensualPlataformaDTO anterior = mensual(desde, porMes.get(desde));
+            for (LocalDate mes = desde.plusMonths(1); !mes.isAfter(mesActual); mes = mes.plusMonths(1)) {
+                MetricaMensualPlataformaDTO actual = mensual(mes, porMes.get(mes));
+                actual.setCrecimientoReservas(crecimiento(actual.getReservas(), anterior.getReservas()));
+                actual.setCrecimientoIngreso(crecimiento(actual.getIngreso(), anterior.getIngreso()));
+                serie.add(actual);
+                anterior = actual;
+            }
+
+            List<NegocioDestacadoDTO> destacados = metricaPlataformaRepository
+                    .findTopNegocios(mesActual, PageRequest.of(0, Math.min(Math.max(top, 1), 50)))
+                    .stream()
+                    .map(fila -> NegocioDestacadoDTO.builder()
+                            .negocioId((Long) fila[0])
+                            .nombre((String) fila[1])
+                            .reservas((Long) fila[2])
+                            .ingreso((BigDecimal) fila[3])
+                            .build())
+                    .toList();
+
+            return PlataformaResumenResponse.builder()
+                    .negociosRegistrados(negocioRepository.count())
+                    .meses(serie)
+                    .negociosDestacados(destacados)
+                    .actualizadoEn(metricaPlataformaRepository.ultimaActualizacion())
+                    .build();
+        });
+    }
+
+    private static MetricaMensualPlataformaDTO mensual(LocalDate mes, Object[] fila) {
+        return MetricaMensualPlataformaDTO.builder()
+                .mes(mes)
+                .reservas(fila == null ? 0L : ((Number) fila[1]).longValue())
+                .cancelaciones(fila == null ? 0L : ((Number) fila[2]).longValue())
+                .ingreso(fila == null || fila[3] == null ? BigDecimal.ZERO : (BigDecimal) fila[3])
+                .clientesNuevos(fila == null ? 0L : ((Number) fila[4]).longValue())
+                .negociosActivos(fila == null ? 0L : ((Number) fila[5]).longValue())
+                .build();
+    }
+
+    static BigDecimal crecimiento(Number actual, Number anterior) {
+        BigDecimal previo = new BigDecimal(anterior.toString());
+        if (previo.signum() == 0) {
+            return null;
+        }
+        return new BigDecimal(actual.toString()).subtract(previo)
+                .multiply(BigDecimal.valueOf(100))
+                .divide(previo, 1, RoundingMode.HALF_UP);
+    }
+}
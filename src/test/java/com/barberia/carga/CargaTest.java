@@ -0,0 +1,329 @@
+package com.barberia.carga;
+
+import com.barberia.services.plataforma.AprovisionamientoService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prueba de carga local de los flujos de reserva: throughput y latencia por endpoint.
+ *
+ * USO (no corre con mvn test, solo con el perfil de Maven "carga"):
+ * <pre>
+ * mvn -Pcarga test
+ * mvn -Pcarga test -Dcarga.negocios=100 -Dcarga.concurrencia=32 -Dcarga.duracion-segundos=60
+ * mvn -Pcarga test -Dcarga.base=target/carga/ultimo.json     (compara contra la corrida anterior)
+ * </pre>
+ *
+ * FUNCIONAMIENTO:
+ * 1. Levanta la aplicación completa en un puerto libre sobre H2 (perfil application-carga.yml)
+ * 2. DatosCarga crea carga.negocios negocios con profesionales, clientes e historial
+ * 3. carga.concurrencia usuarios virtuales repiten operaciones elegidas según carga.mezcla,
+ *    cada una contra un negocio al azar (lazo cerrado: cada usuario espera su respuesta):
+ *    - login: POST /api/auth/login (BCrypt)
+ *    - disponibilidad: POST /api/disponibilidades/disponibilidad de un profesional
+ *    - reserva: POST /api/reservas/register en un turno libre (no chocan entre sí)
+ *    - pagina-publica: GET /api/public/business/{slug}, anónimo
+ *    - dashboard: GET /api/dashboard/resumen
+ * 4. Un calentamiento (JIT, pool, cachés) que no se mide y luego carga.duracion-segundos medidos
+ * 5. Tabla p50/p95/p99 y pet/s por operación en el log, y el JSON en target/carga
+ *
+ * COMPARABLE ENTRE COMMITS: los datos y la secuencia de operaciones de cada usuario salen de
+ * carga.semilla, y el JSON guarda el commit y los parámetros. Comparar corridas de la misma
+ * máquina; H2 en memoria no tiene la latencia de red de MySQL, así que los números sirven
+ * para ver regresiones de la aplicación, no para dimensionar producción.
+ *
+ * Falla si los errores (respuestas que no son 2xx) superan carga.max-errores-porcentaje.
+ */
+@Slf4j
+@Tag("carga")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("carga")
+@DisplayName("Prueba de carga de los flujos de reserva")
+class CargaTest {
+
+    private static final List<String> OPERACIONES = List.of("login", "disponibilidad", "reserva", "pagina-publica", "dashboard");
+
+    @LocalServerPort
+    private int puerto;
+
+    @Autowired
+    private AprovisionamientoService aprovisionamientoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${carga.negocios}")
+    private int negocios;
+    @Value("${carga.profesionales}")
+    private int profesionales;
+    @Value("${carga.clientes}")
+    private int clientes;
+    @Value("${carga.reservas-historicas}")
+    private int reservasHistoricas;
+    @Value("${carga.concurrencia}")
+    private int concurrencia;
+    @Value("${carga.calentamiento-segundos}")
+    private int calentamientoSegundos;
+    @Value("${carga.duracion-segundos}")
+    private int duracionSegundos;
+    @Value("${carga.mezcla}")
+    private String mezcla;
+    @Value("${carga.semilla}")
+    private long semilla;
+    @Value("${carga.max-errores-porcentaje}")
+    private double maxErroresPorcentaje;
+    @Value("${carga.base:}")
+    private String base;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final Map<Long, String> tokens = new ConcurrentHashMap<>();
+
+    private List<DatosCarga.Negocio> datos;
+    private Map<String, Integer> pesos;
+    private LocalDate hoy;
+
+    @Test
+    @DisplayName("Debe medir latencia y throughput por endpoint con una mezcla realista")
+    void flujosDeReserva() throws Exception {
+        // ARRANGE
+        pesos = pesos(mezcla);
+        hoy = LocalDate.now();
+        long inicioDatos = System.nanoTime();
+        datos = new DatosCarga(aprovisionamientoService, jdbcTemplate)
+                .crear(negocios, profesionales, clientes, reservasHistoricas, semilla);
+        for (DatosCarga.Negocio negocio : datos) {
+            tokens.put(negocio.id(), login(negocio));
+        }
+        log.info("Datos de carga: {} negocios en {} ms", datos.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicioDatos));
+
+        // ACT
+        ejecutar(Duration.ofSeconds(calentamientoSegundos), semilla - 1);
+        long inicio = System.nanoTime();
+        ResultadoCarga resultado = ejecutar(Duration.ofSeconds(duracionSegundos), semilla);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        // ASSERT
+        JsonNode anterior = new ResultadoCarga(OPERACIONES).leer(base);
+        Map<String, Object> parametros = parametros();
+        Map<String, Object> resumen = resultado.resumen(parametros, segundos);
+        String commit = (String) parametros.get("commit");
+        Path archivo = resultado.guardar(resumen, LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"))
+                + "-" + commit.replace('+', '_'));
+        log.info("Resultado de la prueba de carga ({}):{}", archivo, resultado.tabla(resumen, anterior));
+
+        double erroresPorcentaje = resultado.total() == 0 ? 100 : 100.0 * resultado.errores() / resultado.total();
+        assertTrue(erroresPorcentaje <= maxErroresPorcentaje, String.format(
+                "%.2f%% de errores (máximo %.2f%%), ver muestrasError en %s", erroresPorcentaje, maxErroresPorcentaje, archivo));
+    }
+
+    /**
+     * Corre la mezcla durante la duración con carga.concurrencia usuarios virtuales
+     */
+    private ResultadoCarga ejecutar(Duration duracion, long semillaUsuarios) throws InterruptedException {
+        ResultadoCarga resultado = new ResultadoCarga(OPERACIONES);
+        long fin = System.nanoTime() + duracion.toNanos();
+        ExecutorService usuarios = Executors.newFixedThreadPool(concurrencia);
+        for (int i = 0; i < concurrencia; i++) {
+            Random random = new Random(semillaUsuarios * 31 + i);
+            usuarios.submit(() -> {
+                while (System.nanoTime() < fin) {
+                    String operacion = elegir(random);
+                    DatosCarga.Negocio negocio = datos.get(random.nextInt(datos.size()));
+                    HttpRequest pedido = pedido(operacion, negocio, random);
+                    long inicio = System.nanoTime();
+                    try {
+                        HttpResponse<String> respuesta = http.send(pedido, HttpResponse.BodyHandlers.ofString());
+                        boolean ok = respuesta.statusCode() / 100 == 2;
+                        resultado.registrar(operacion, System.nanoTime() - inicio, ok, ok ? null
+                                : respuesta.statusCode() + " " + recortar(respuesta.body()));
+                    } catch (IOException e) {
+                        resultado.registrar(operacion, System.nanoTime() - inicio, false, e.toString());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            });
+        }
+        usuarios.shutdown();
+        if (!usuarios.awaitTermination(duracion.toSeconds() + 120, TimeUnit.SECONDS)) {
+            usuarios.shutdownNow();
+        }
+        return resultado;
+    }
+
+    private HttpRequest pedido(String operacion, DatosCarga.Negocio negocio, Random random) {
+        return switch (operacion) {
+            case "login" -> post("/api/auth/login", null,
+                    Map.of("email", negocio.email(), "password", DatosCarga.PASSWORD));
+            case "disponibilidad" -> post("/api/disponibilidades/disponibilidad", tokens.get(negocio.id()), Map.of(
+                    "profesionalId", negocio.profesionales().get(random.nextInt(negocio.profesionales().size())),
+                    "fecha", diaHabil(1 + random.nextInt(7)).toString()));
+            case "reserva" -> {
+                DatosCarga.Turno turno = negocio.turno(hoy);
+                yield post("/api/reservas/register", tokens.get(negocio.id()), Map.of(
+                        "profesionalId", turno.profesionalId(),
+                        "clienteId", negocio.clientes().get(random.nextInt(negocio.clientes().size())),
+                        "fecha", turno.fecha().toString(),
+                        "horaInicio", turno.hora().toString(),
+                        "serviciosIds", List.of(negocio.servicioId())));
+            }
+            case "pagina-publica" -> get("/api/public/business/" + negocio.slug(), null);
+            case "dashboard" -> get("/api/dashboard/resumen", tokens.get(negocio.id()));
+            default -> throw new IllegalArgumentException("Operación desconocida: " + operacion);
+        };
+    }
+
+    private String login(DatosCarga.Negocio negocio) throws IOException, InterruptedException {
+        HttpResponse<String> respuesta = http.send(post("/api/auth/login", null,
+                Map.of("email", negocio.email(), "password", DatosCarga.PASSWORD)), HttpResponse.BodyHandlers.ofString());
+        if (respuesta.statusCode() != 200) {
+            throw new IllegalStateException("No se pudo iniciar sesión con " + negocio.email() + ": "
+                    + respuesta.statusCode() + " " + recortar(respuesta.body()));
+        }
+        return mapper.readTree(respuesta.body()).path("token").asText();
+    }
+
+    private HttpRequest get(String ruta, String token) {
+        return base(ruta, token).GET().build();
+    }
+
+    private HttpRequest post(String ruta, String token, Map<String, Object> cuerpo) {
+        try {
+            return base(ruta, token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(cuerpo), StandardCharsets.UTF_8))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpRequest.Builder base(String ruta, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + ruta))
+                .timeout(Duration.ofSeconds(30));
+        return token != null ? builder.header("Authorization", "Bearer " + token) : builder;
+    }
+
+    private String elegir(Random random) {
+        int total = pesos.values().stream().mapToInt(Integer::intValue).sum();
+        int valor = random.nextInt(total);
+        for (Map.Entry<String, Integer> peso : pesos.entrySet()) {
+            valor -= peso.getValue();
+            if (valor < 0) {
+                return peso.getKey();
+            }
+        }
+        throw new IllegalStateException("Mezcla vacía");
+    }
+
+    /** El n-ésimo día desde hoy, saltando domingos (el negocio no abre) */
+    private LocalDate diaHabil(int dias) {
+        LocalDate fecha = hoy.plusDays(dias);
+        return fecha.getDayOfWeek() == DayOfWeek.SUNDAY ? fecha.plusDays(1) : fecha;
+    }
+
+    private static Map<String, Integer> pesos(String mezcla) {
+        Map<String, Integer> pesos = new LinkedHashMap<>();
+        for (String parte : mezcla.split(",")) {
+            String[] par = parte.trim().split("=");
+            if (par.length != 2 || !OPERACIONES.contains(par[0].trim())) {
+                throw new IllegalArgumentException("carga.mezcla: '" + parte + "' no es operacion=peso. Operaciones: " + OPERACIONES);
+            }
+            int peso = Integer.parseInt(par[1].trim());
+            if (peso > 0) {
+                pesos.put(par[0].trim(), peso);
+            }
+        }
+        if (pesos.isEmpty()) {
+            throw new IllegalArgumentException("carga.mezcla no tiene ninguna operación con peso mayor a 0");
+        }
+        return pesos;
+    }
+
+    private Map<String, Object> parametros() {
+        Map<String, Object> comparables = new LinkedHashMap<>();
+        comparables.put("negocios", negocios);
+        comparables.put("profesionales", profesionales);
+        comparables.put("clientes", clientes);
+        comparables.put("reservasHistoricas", reservasHistoricas);
+        comparables.put("concurrencia", concurrencia);
+        comparables.put("duracionSegundos", duracionSegundos);
+        comparables.put("mezcla", pesos);
+        comparables.put("semilla", semilla);
+
+        Map<String, Object> parametros = new LinkedHashMap<>();
+        parametros.put("commit", commit());
+        parametros.put("fecha", hoy.toString());
+        parametros.put("procesadores", Runtime.getRuntime().availableProcessors());
+        parametros.put("java", System.getProperty("java.version"));
+        parametros.put("comparables", comparables);
+        return parametros;
+    }
+
+    /**
+     * Commit actual (con "+cambios" si hay archivos sin confirmar), o "desconocido" sin git
+     */
+    private static String commit() {
+        try {
+            String hash = git("rev-parse", "--short", "HEAD");
+            return git("status", "--porcelain", "--untracked-files=no").isEmpty() ? hash : hash + "+cambios";
+        } catch (IOException | InterruptedException e) {
+            return "desconocido";
+        }
+    }
+
+    private static String git(String... argumentos) throws IOException, InterruptedException {
+        List<String> comando = new ArrayList<>(List.of("git"));
+        comando.addAll(List.of(argumentos));
+        Process proceso = new ProcessBuilder(comando).redirectErrorStream(true).start();
+        String salida = new String(proceso.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+        if (proceso.waitFor() != 0) {
+            throw new IOException(salida);
+        }
+        return salida;
+    }
+
+    private static String recortar(String texto) {
+        return texto == null || texto.length() <= 200 ? texto : texto.substring(0, 200) + "...";
+    }
+}
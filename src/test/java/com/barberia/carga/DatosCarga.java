@@ -0,0 +1,175 @@
+package com.barberia.carga;
+
+import com.barberia.dto.plataforma.AprovisionamientoResponse;
+import com.barberia.dto.plataforma.NegocioAprovisionadoDTO;
+import com.barberia.dto.plataforma.NegocioAprovisionarRequest;
+import com.barberia.services.plataforma.AprovisionamientoService;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Time;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Datos de la prueba de carga: muchos negocios con profesionales, clientes, servicios e
+ * historial de reservas (para que el dashboard tenga qué agregar).
+ *
+ * - Negocios, administradores, configuración y horarios: AprovisionamientoService (la
+ *   misma alta masiva de producción, con la plantilla: lunes a sábado de 09:00 a 20:00)
+ * - El resto: batches JDBC por tabla; los ids generados se leen por negocio_id
+ *
+ * Con la misma semilla los datos son los mismos en cada corrida.
+ */
+final class DatosCarga {
+
+    static final String PASSWORD = "carga123";
+
+    /** Turnos de 30 minutos entre 09:00 y 20:00 (horario de la plantilla) */
+    private static final LocalTime APERTURA = LocalTime.of(9, 0);
+    private static final int TURNOS_POR_DIA = 22;
+    /** Reservas nuevas desde mañana hasta este día (la plantilla acepta 30 días) */
+    private static final int DIAS_RESERVABLES = 28;
+
+    /**
+     * Un negocio de la prueba. El contador reparte turnos distintos a cada reserva nueva:
+     * las reservas no chocan entre sí y la corrida es comparable con otra
+     */
+    record Negocio(Long id, String slug, String email, List<Long> profesionales, List<Long> clientes,
+                   Long servicioId, AtomicInteger reservas) {
+
+        /** Turno n-ésimo: profesional, fecha y hora (sin domingos, el negocio no abre) */
+        Turno turno(LocalDate hoy) {
+            int n = reservas.getAndIncrement();
+            Long profesional = profesionales.get(n % profesionales.size());
+            int indice = n / profesionales.size();
+            LocalDate fecha = hoy;
+            int dias = 1 + (indice / TURNOS_POR_DIA) % DIAS_RESERVABLES;
+            for (int d = 0; d < dias; d++) {
+                fecha = fecha.plusDays(1);
+                if (fecha.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                    fecha = fecha.plusDays(1);
+                }
+            }
+            return new Turno(profesional, fecha, APERTURA.plusMinutes(30L * (indice % TURNOS_POR_DIA)));
+        }
+    }
+
+    record Turno(Long profesionalId, LocalDate fecha, LocalTime hora) {
+    }
+
+    private final AprovisionamientoService aprovisionamientoService;
+    private final JdbcTemplate jdbc;
+
+    DatosCarga(AprovisionamientoService aprovisionamientoService, JdbcTemplate jdbc) {
+        this.aprovisionamientoService = aprovisionamientoService;
+        this.jdbc = jdbc;
+    }
+
+    List<Negocio> crear(int negocios, int profesionales, int clientes, int historicas, long semilla) {
+        List<NegocioAprovisionarRequest> altas = new ArrayList<>(negocios);
+        for (int i = 1; i <= negocios; i++) {
+            altas.add(NegocioAprovisionarRequest.builder()
+                    .nombre("Barbería Carga " + i)
+                    .slug("carga-" + i)
+                    .ciudad("Lima")
+                    .adminNombre("Admin " + i)
+                    .adminEmail("admin" + i + "@carga.test")
+                    .adminPassword(PASSWORD)
+                    .build());
+        }
+        AprovisionamientoResponse alta = aprovisionamientoService.aprovisionarLote(altas);
+        List<NegocioAprovisionadoDTO> creados = alta.getNegocios();
+
+        jdbc.batchUpdate("INSERT INTO categorias (nombre, estado, reg_estado, negocio_id, usuario_registro) " +
+                        "VALUES ('Cortes', true, 1, ?, ?)",
+                creados.stream().map(n -> new Object[]{n.getNegocioId(), n.getAdminUsuarioId()}).toList());
+        Map<Long, List<Long>> categorias = idsPorNegocio("categorias");
+
+        List<Object[]> servicios = new ArrayList<>();
+        for (NegocioAprovisionadoDTO n : creados) {
+            Long categoria = categorias.get(n.getNegocioId()).get(0);
+            servicios.add(new Object[]{"Corte", new BigDecimal("25.00"), 30, categoria, n.getNegocioId(), n.getAdminUsuarioId()});
+            servicios.add(new Object[]{"Barba", new BigDecimal("15.00"), 30, categoria, n.getNegocioId(), n.getAdminUsuarioId()});
+            servicios.add(new Object[]{"Corte y barba", new BigDecimal("35.00"), 60, categoria, n.getNegocioId(), n.getAdminUsuarioId()});
+        }
+        jdbc.batchUpdate("INSERT INTO servicios (nombre, precio, duracion_minutos_aprox, estado, reg_estado, " +
+                "categoria_id, negocio_id, usuario_registro) VALUES (?, ?, ?, true, 1, ?, ?, ?)", servicios);
+
+        List<Object[]> filasProfesionales = new ArrayList<>();
+        List<Object[]> filasClientes = new ArrayList<>();
+        for (NegocioAprovisionadoDTO n : creados) {
+            for (int p = 1; p <= profesionales; p++) {
+                filasProfesionales.add(new Object[]{"Profesional " + p, n.getNegocioId()});
+            }
+            for (int c = 1; c <= clientes; c++) {
+                filasClientes.add(new Object[]{"Cliente " + c, String.format("9%08d", c), n.getNegocioId()});
+            }
+        }
+        jdbc.batchUpdate("INSERT INTO profesionales (nombre_completo, reg_estado, usa_horario_negocio, negocio_id) " +
+                "VALUES (?, 1, true, ?)", filasProfesionales);
+        jdbc.batchUpdate("INSERT INTO clientes (nombre_completo, telefono, reg_estado, negocio_id) " +
+                "VALUES (?, ?, 1, ?)", filasClientes);
+
+        Map<Long, List<Long>> idsServicios = idsPorNegocio("servicios");
+        Map<Long, List<Long>> idsProfesionales = idsPorNegocio("profesionales");
+        Map<Long, List<Long>> idsClientes = idsPorNegocio("clientes");
+
+        List<Negocio> resultado = new ArrayList<>(creados.size());
+        for (NegocioAprovisionadoDTO n : creados) {
+            resultado.add(new Negocio(n.getNegocioId(), n.getSlug(), n.getAdminEmail(),
+                    idsProfesionales.get(n.getNegocioId()), idsClientes.get(n.getNegocioId()),
+                    idsServicios.get(n.getNegocioId()).get(0), new AtomicInteger()));
+        }
+        historial(resultado, historicas, new Random(semilla));
+        return resultado;
+    }
+
+    /**
+     * Reservas de los últimos 90 días (y algunas de hoy), todas con el servicio "Corte"
+     */
+    private void historial(List<Negocio> negocios, int porNegocio, Random random) {
+        if (porNegocio <= 0) {
+            return;
+        }
+        String[] estados = {"ATENDIDA", "ATENDIDA", "ATENDIDA", "CONFIRMADA", "PENDIENTE", "CANCELADA"};
+        LocalDate hoy = LocalDate.now();
+        List<Object[]> reservas = new ArrayList<>();
+        for (Negocio negocio : negocios) {
+            for (int i = 0; i < porNegocio; i++) {
+                LocalTime inicio = APERTURA.plusMinutes(30L * random.nextInt(TURNOS_POR_DIA));
+                reservas.add(new Object[]{
+                        negocio.id(),
+                        negocio.profesionales().get(random.nextInt(negocio.profesionales().size())),
+                        negocio.clientes().get(random.nextInt(negocio.clientes().size())),
+                        Date.valueOf(hoy.minusDays(random.nextInt(91))),
+                        Time.valueOf(inicio),
+                        Time.valueOf(inicio.plusMinutes(30)),
+                        estados[random.nextInt(estados.length)]});
+            }
+        }
+        jdbc.batchUpdate("INSERT INTO reservas (negocio_id, profesional_id, cliente_id, fecha, hora_inicio, hora_fin, " +
+                "estado, tipo, duracion_total_minutos, precio_total, reg_estado, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, 'INTERNA', 30, 25.00, 1, CURRENT_TIMESTAMP)", reservas);
+        jdbc.batchUpdate("INSERT INTO reserva_servicios (reserva_id, servicio_id, duracion_minutos, precio) " +
+                        "SELECT id, ?, 30, 25.00 FROM reservas WHERE negocio_id = ?",
+                negocios.stream().map(n -> new Object[]{n.servicioId(), n.id()}).toList());
+    }
+
+    private Map<Long, List<Long>> idsPorNegocio(String tabla) {
+        Map<Long, List<Long>> ids = new HashMap<>();
+        jdbc.query("SELECT negocio_id, id FROM " + tabla + " ORDER BY id",
+                rs -> {
+                    ids.computeIfAbsent(rs.getLong(1), k -> new ArrayList<>()).add(rs.getLong(2));
+                });
+        return ids;
+    }
+}
@@ -0,0 +1,159 @@
+package com.barberia.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencias y conteos de la prueba de carga por operación, y su reporte.
+ *
+ * - Latencias: un HdrHistogram por operación (percentiles exactos a 3 dígitos, sin guardar
+ *   cada muestra), de 1 µs a 60 s
+ * - Resultado: la tabla p50/p95/p99/máx y peticiones por segundo en el log, y un JSON en
+ *   target/carga con los parámetros de la corrida y el commit
+ * - Comparación: con carga.base apuntando al JSON de otra corrida, agrega la diferencia
+ *   porcentual por operación (y avisa si los parámetros no son los mismos)
+ */
+final class ResultadoCarga {
+
+    private static final long MAX_NANOS = TimeUnit.SECONDS.toNanos(60);
+    private static final int MAX_MUESTRAS_ERROR = 5;
+
+    private static final class Operacion {
+        final Histogram latencias = new ConcurrentHistogram(1_000, MAX_NANOS, 3);
+        final LongAdder ok = new LongAdder();
+        final LongAdder errores = new LongAdder();
+        final Queue<String> muestrasError = new ConcurrentLinkedQueue<>();
+    }
+
+    private final Map<String, Operacion> operaciones = new ConcurrentHashMap<>();
+    private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    ResultadoCarga(List<String> nombres) {
+        nombres.forEach(n -> operaciones.put(n, new Operacion()));
+    }
+
+    void registrar(String operacion, long nanos, boolean ok, String error) {
+        Operacion o = operaciones.get(operacion);
+        o.latencias.recordValue(Math.max(1_000, Math.min(nanos, MAX_NANOS)));
+        if (ok) {
+            o.ok.increment();
+        } else {
+            o.errores.increment();
+            if (o.muestrasError.size() < MAX_MUESTRAS_ERROR) {
+                o.muestrasError.add(error);
+            }
+        }
+    }
+
+    long total() {
+        return operaciones.values().stream().mapToLong(o -> o.ok.sum() + o.errores.sum()).sum();
+    }
+
+    long errores() {
+        return operaciones.values().stream().mapToLong(o -> o.errores.sum()).sum();
+    }
+
+    /**
+     * Resumen serializable: parámetros de la corrida + métricas por operación
+     */
+    Map<String, Object> resumen(Map<String, Object> parametros, double segundos) {
+        Map<String, Object> porOperacion = new LinkedHashMap<>();
+        operaciones.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(e -> {
+            Operacion o = e.getValue();
+            long cantidad = o.ok.sum() + o.errores.sum();
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("peticiones", cantidad);
+            m.put("errores", o.errores.sum());
+            m.put("porSegundo", redondear(cantidad / segundos));
+            m.put("p50Ms", ms(o.latencias.getValueAtPercentile(50)));
+            m.put("p95Ms", ms(o.latencias.getValueAtPercentile(95)));
+            m.put("p99Ms", ms(o.latencias.getValueAtPercentile(99)));
+            m.put("maxMs", ms(o.latencias.getMaxValue()));
+            if (!o.muestrasError.isEmpty()) {
+                m.put("muestrasError", List.copyOf(o.muestrasError));
+            }
+            porOperacion.put(e.getKey(), m);
+        });
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("parametros", parametros);
+        resumen.put("segundos", redondear(segundos));
+        resumen.put("peticiones", total());
+        resumen.put("porSegundo", redondear(total() / segundos));
+        resumen.put("operaciones", porOperacion);
+        return resumen;
+    }
+
+    /**
+     * Tabla para el log; con base, cada valor lleva su diferencia contra la corrida anterior
+     */
+    String tabla(Map<String, Object> resumen, JsonNode base) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%n%-16s %9s %7s %9s %9s %9s %9s %9s%n",
+                "operación", "peticiones", "errores", "pet/s", "p50 ms", "p95 ms", "p99 ms", "máx ms"));
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> ops = (Map<String, Map<String, Object>>) resumen.get("operaciones");
+        ops.forEach((nombre, m) -> {
+            JsonNode anterior = base != null ? base.path("operaciones").path(nombre) : null;
+            sb.append(String.format("%-16s %10d %7d %s %s %s %s %s%n", nombre,
+                    (Long) m.get("peticiones"), (Long) m.get("errores"),
+                    celda(m, anterior, "porSegundo"), celda(m, anterior, "p50Ms"), celda(m, anterior, "p95Ms"),
+                    celda(m, anterior, "p99Ms"), celda(m, anterior, "maxMs")));
+        });
+        sb.append(String.format("%-16s %10d %7d %9.1f%n", "TOTAL", total(), errores(), (Double) resumen.get("porSegundo")));
+        if (base != null) {
+            sb.append("(entre paréntesis: diferencia contra ").append(base.path("parametros").path("commit").asText("la base"))
+                    .append(")\n");
+            if (!mapper.valueToTree(resumen.get("parametros")).path("comparables")
+                    .equals(base.path("parametros").path("comparables"))) {
+                sb.append("AVISO: la base se corrió con otros parámetros; la comparación no es directa\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    Path guardar(Map<String, Object> resumen, String nombre) throws IOException {
+        Path carpeta = Path.of("target", "carga");
+        Files.createDirectories(carpeta);
+        Path archivo = carpeta.resolve(nombre + ".json");
+        mapper.writeValue(archivo.toFile(), resumen);
+        Files.copy(archivo, carpeta.resolve("ultimo.json"), StandardCopyOption.REPLACE_EXISTING);
+        return archivo;
+    }
+
+    JsonNode leer(String ruta) throws IOException {
+        return ruta == null || ruta.isBlank() ? null : mapper.readTree(Path.of(ruta).toFile());
+    }
+
+    private static String celda(Map<String, Object> m, JsonNode anterior, String campo) {
+        double valor = (Double) m.get(campo);
+        if (anterior == null || !anterior.has(campo) || anterior.get(campo).asDouble() == 0) {
+            return String.format("%9.1f", valor);
+        }
+        double cambio = 100.0 * (valor - anterior.get(campo).asDouble()) / anterior.get(campo).asDouble();
+        return String.format("%9.1f %-7s", valor, String.format("(%+.0f%%)", cambio));
+    }
+
+    private static double ms(long nanos) {
+        return redondear(nanos / 1_000_000.0);
+    }
+
+    private static double redondear(double valor) {
+        return Math.round(valor * 10) / 10.0;
+    }
+}
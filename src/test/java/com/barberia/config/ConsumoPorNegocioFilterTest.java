@@ -0,0 +1,82 @@
+package com.barberia.config;
+
+import com.barberia.services.common.Metricas;
+import com.barberia.services.consumo.ConsumoNegocioService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests para ConsumoPorNegocioFilter: bytes de respuesta y negocio de cada petición
+ */
+@DisplayName("Tests para ConsumoPorNegocioFilter")
+class ConsumoPorNegocioFilterTest {
+
+    private ConsumoNegocioService consumoNegocioService;
+    private ConsumoPorNegocioFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        consumoNegocioService = mock(ConsumoNegocioService.class);
+        filter = new ConsumoPorNegocioFilter(consumoNegocioService, true);
+    }
+
+    @Test
+    @DisplayName("Debe contar los bytes escritos en el stream de la respuesta")
+    void debeContarBytesEscritos() throws Exception {
+        // ARRANGE
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // ACT
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/reservas"), response,
+                (req, res) -> res.getOutputStream().write("{\"ok\":true}".getBytes(StandardCharsets.UTF_8)));
+
+        // ASSERT: sin token la petición va a "sin negocio"
+        verify(consumoNegocioService).registrar(isNull(), eq(0L), eq(0L), eq(0L), eq(11L));
+        assertEquals("{\"ok\":true}", response.getContentAsString());
+    }
+
+    @Test
+    @DisplayName("Con sendfile (nada pasa por el stream) debe usar el Content-Length declarado")
+    void debeUsarContentLengthConSendfile() throws Exception {
+        // ARRANGE: así responde ArchivoEstaticoService cuando delega el envío a Tomcat. Como
+        // Tomcat, la respuesta no devuelve el Content-Length en getHeader
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/galeria/foto.jpg");
+        HttpServletResponse response = mock(HttpServletResponse.class);
+
+        // ACT
+        filter.doFilter(request, response, (req, res) -> {
+            req.setAttribute(Metricas.ATRIBUTO_NEGOCIO, 5L);
+            req.setAttribute("org.apache.tomcat.sendfile.filename", "/tmp/foto.jpg");
+            ((HttpServletResponse) res).setContentLengthLong(48_213);
+        });
+
+        // ASSERT
+        verify(response).setContentLengthLong(48_213);
+        verify(consumoNegocioService).registrar(eq(5L), eq(0L), eq(0L), eq(0L), eq(48_213L));
+    }
+
+    @Test
+    @DisplayName("Debe usar el Content-Length puesto como cabecera")
+    void debeUsarContentLengthComoCabecera() throws Exception {
+        // ARRANGE
+        HttpServletResponse response = mock(HttpServletResponse.class);
+
+        // ACT
+        filter.doFilter(new MockHttpServletRequest("HEAD", "/uploads/galeria/foto.jpg"), response,
+                (req, res) -> ((HttpServletResponse) res).setHeader("content-length", "1024"));
+
+        // ASSERT
+        verify(consumoNegocioService).registrar(isNull(), eq(0L), eq(0L), eq(0L), eq(1024L));
+    }
+}
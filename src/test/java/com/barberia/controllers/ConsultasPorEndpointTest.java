@@ -0,0 +1,95 @@
+package com.barberia.controllers;
+
+import com.barberia.security.JwtService;
+import com.barberia.services.common.ConsultasSql;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Presupuesto de sentencias SQL de los endpoints más usados (detección de N+1).
+ *
+ * Corre la aplicación completa sobre H2 (perfil "consultas", datos en
+ * sql/consultas-datos.sql). Si un cambio en un mapper o DTO hace que un endpoint supere su
+ * presupuesto, el test falla y muestra qué sentencia se repite.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("consultas")
+@DisplayName("Tests de cantidad de consultas por endpoint")
+class ConsultasPorEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        UserDetails admin = userDetailsService.loadUserByUsername("admin@uno.com");
+        token = "Bearer " + jwtService.generateToken(admin, 1L, 1L);
+    }
+
+    @Test
+    @DisplayName("El listado de reservas no debe hacer una consulta por reserva")
+    void listadoDeReservas() throws Exception {
+        // ACT: 12 reservas de 3 profesionales y 4 clientes, 2 servicios cada una
+        ConsultasSql consultas = medir(get("/api/reservas").header("Authorization", token), 12);
+
+        // ASSERT: usuario del JWT + reservas (con profesional, cliente y servicios) + archivo
+        consultas.comoMaximo(3).sinRepetirMasDe(1);
+    }
+
+    @Test
+    @DisplayName("El resumen del dashboard debe tener un presupuesto fijo de consultas")
+    void resumenDelDashboard() throws Exception {
+        // ACT: 3 reservas de hoy en próximas reservas y agenda del día
+        ConsultasSql consultas = medir(get("/api/dashboard/resumen").header("Authorization", token), null);
+
+        // ASSERT: una consulta por KPI/gráfico/widget, ninguna por reserva
+        consultas.comoMaximo(16).sinRepetirMasDe(1);
+    }
+
+    @Test
+    @DisplayName("La página pública del negocio debe tener un presupuesto fijo de consultas")
+    void paginaPublica() throws Exception {
+        // ACT
+        ConsultasSql consultas = medir(get("/api/public/business/uno"), null);
+
+        // ASSERT: negocio, profesionales y horarios salen de la caché de segundo nivel; la galería no
+        consultas.comoMaximo(1);
+    }
+
+    /**
+     * Mide la segunda llamada: la primera carga las cachés (catálogo, segundo nivel) que en
+     * producción ya están calientes, y el resultado no depende del orden de los tests
+     */
+    private ConsultasSql medir(MockHttpServletRequestBuilder pedido, Integer filas) throws Exception {
+        mockMvc.perform(pedido).andExpect(status().isOk());
+        return ConsultasSql.al(() -> {
+            ResultActions resultado = mockMvc.perform(pedido).andExpect(status().isOk());
+            if (filas != null) {
+                resultado.andExpect(jsonPath("$.data.length()").value(filas));
+            }
+        });
+    }
+}
@@ -0,0 +1,67 @@
+package com.barberia.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests para LoginRateLimiter
+ *
+ * Usan un reloj manual para verificar el consumo y la recarga de fichas.
+ */
+@DisplayName("Tests para LoginRateLimiter")
+class LoginRateLimiterTest {
+
+    private final AtomicLong reloj = new AtomicLong();
+    private LoginRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        // 3 intentos por email, 10 por IP; ambos recargan 6 por minuto (1 cada 10 s)
+        limiter = new LoginRateLimiter(true,
+                new LoginRateLimiter.Limite(3, 6),
+                new LoginRateLimiter.Limite(10, 6),
+                reloj::get);
+    }
+
+    @Test
+    @DisplayName("Debe bloquear un email al agotar sus intentos y liberarlo al recargar")
+    void debeBloquearYRecargarPorEmail() {
+        // ARRANGE
+        for (int i = 0; i < 3; i++) {
+            limiter.verificar("Juan@Mail.com", "10.0.0." + i);
+        }
+
+        // ACT + ASSERT: el cuarto intento (mismo email, sin importar mayúsculas) se rechaza
+        DemasiadosIntentosException ex = assertThrows(DemasiadosIntentosException.class,
+                () -> limiter.verificar("juan@mail.com", "10.0.0.9"));
+        assertEquals(10, ex.getReintentarEnSegundos());
+
+        // 10 segundos después hay una ficha nueva
+        reloj.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertDoesNotThrow(() -> limiter.verificar("juan@mail.com", "10.0.0.9"));
+    }
+
+    @Test
+    @DisplayName("Debe bloquear una IP que prueba muchas cuentas distintas")
+    void debeBloquearPorIp() {
+        // ARRANGE
+        for (int i = 0; i < 10; i++) {
+            limiter.verificar("cuenta" + i + "@mail.com", "200.1.1.1");
+        }
+
+        // ACT + ASSERT
+        assertThrows(DemasiadosIntentosException.class, () -> limiter.verificar("otra@mail.com", "200.1.1.1"));
+        assertDoesNotThrow(() -> limiter.verificar("otra@mail.com", "200.1.1.2"));
+
+        // Las cubetas llenas se limpian
+        reloj.addAndGet(TimeUnit.MINUTES.toNanos(5));
+        limiter.limpiar();
+        assertEquals(0, limiter.cantidadCubetas());
+    }
+}
@@ -0,0 +1,98 @@
+package com.barberia.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests para PasswordEncoderAcotado
+ *
+ * Simulan una ráfaga de logins con un encoder lento para verificar que nunca
+ * corren más hashes que hilos y que el exceso se rechaza al instante.
+ */
+@DisplayName("Tests para PasswordEncoderAcotado")
+class PasswordEncoderAcotadoTest {
+
+    private final AtomicInteger simultaneos = new AtomicInteger();
+    private final AtomicInteger maximoSimultaneos = new AtomicInteger();
+    private PasswordEncoderAcotado encoder;
+
+    @AfterEach
+    void tearDown() {
+        encoder.detener();
+    }
+
+    @Test
+    @DisplayName("Debe acotar la concurrencia y rechazar rápido el exceso de una ráfaga")
+    void debeAcotarRafaga() throws Exception {
+        // ARRANGE: 2 hilos + 2 en cola; cada "hash" tarda 100 ms
+        encoder = new PasswordEncoderAcotado(lento(100), 2, 2, 5_000);
+        ExecutorService clientes = Executors.newFixedThreadPool(20);
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<Long>> intentos = new ArrayList<>();
+
+        // ACT: 20 logins a la vez
+        for (int i = 0; i < 20; i++) {
+            intentos.add(clientes.submit(() -> {
+                salida.await();
+                long inicio = System.nanoTime();
+                try {
+                    encoder.matches("secret", "hash");
+                    return -1L;
+                } catch (ServicioSaturadoException e) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+                }
+            }));
+        }
+        salida.countDown();
+
+        int aceptados = 0;
+        long peorRechazoMs = 0;
+        for (Future<Long> intento : intentos) {
+            long resultado = intento.get(10, TimeUnit.SECONDS);
+            if (resultado < 0) {
+                aceptados++;
+            } else {
+                peorRechazoMs = Math.max(peorRechazoMs, resultado);
+            }
+        }
+        clientes.shutdown();
+
+        // ASSERT
+        assertTrue(maximoSimultaneos.get() <= 2, "Nunca más hashes que hilos");
+        assertTrue(aceptados >= 4, "Al menos hilos + cola se atienden");
+        assertEquals(20 - aceptados, encoder.estadisticas().rechazados());
+        assertTrue(peorRechazoMs < 100, "El rechazo es inmediato, no espera un hash");
+    }
+
+    private PasswordEncoder lento(long ms) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return "hash";
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                int actuales = simultaneos.incrementAndGet();
+                maximoSimultaneos.accumulateAndGet(actuales, Math::max);
+                try {
+                    Thread.sleep(ms);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    simultaneos.decrementAndGet();
+                }
+                return true;
+            }
+        };
+    }
+}
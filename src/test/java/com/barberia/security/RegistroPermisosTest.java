@@ -0,0 +1,96 @@
+package com.barberia.security;
+
+import com.barberia.models.Permiso;
+import com.barberia.models.Rol;
+import com.barberia.repositories.PermisoRepository;
+import com.barberia.repositories.RolRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests para RegistroPermisos y PermisosCompilados
+ */
+@DisplayName("Tests para RegistroPermisos")
+class RegistroPermisosTest {
+
+    private RolRepository rolRepository;
+    private PermisoRepository permisoRepository;
+    private RegistroPermisos registro;
+
+    private Permiso leerClientes;
+    private Permiso fullAccess;
+    private Rol admin;
+    private Rol barbero;
+
+    @BeforeEach
+    void setUp() {
+        rolRepository = mock(RolRepository.class);
+        permisoRepository = mock(PermisoRepository.class);
+        registro = new RegistroPermisos(rolRepository, permisoRepository, mock(PlatformTransactionManager.class));
+
+        leerClientes = Permiso.builder().id(1L).name("READ_CLIENTS").build();
+        fullAccess = Permiso.builder().id(2L).name("FULL_ACCESS").build();
+        admin = Rol.builder().id(10L).name("ADMIN").permissions(Set.of(leerClientes, fullAccess)).build();
+        barbero = Rol.builder().id(20L).name("BARBERO").permissions(Set.of(leerClientes)).build();
+
+        when(permisoRepository.findAll()).thenReturn(List.of(leerClientes, fullAccess));
+        when(rolRepository.findAll()).thenReturn(List.of(admin, barbero));
+    }
+
+    @Test
+    @DisplayName("Debe compartir los permisos compilados entre usuarios del mismo rol")
+    void debeCompilarUnRol() {
+        // ACT
+        PermisosCompilados permisos = registro.compilar(Set.of(barbero));
+
+        // ASSERT
+        assertSame(permisos, registro.compilar(Set.of(barbero)));
+        assertTrue(permisos.tieneRol("BARBERO"));
+        assertTrue(permisos.tieneRol("ROLE_BARBERO"));
+        assertTrue(permisos.tieneAuthority("READ_CLIENTS"));
+        assertFalse(permisos.tieneAuthority("FULL_ACCESS"));
+        assertFalse(permisos.tieneAlgunRol("ADMIN", "MANAGER"));
+        assertFalse(permisos.tieneAuthority("NO_EXISTE"));
+        assertEquals(Set.of("ROLE_BARBERO", "READ_CLIENTS"), nombres(permisos));
+        verify(rolRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("Debe unir los bits de varios roles y recompilar tras invalidar")
+    void debeUnirRolesYRecompilar() {
+        // ACT
+        PermisosCompilados ambos = registro.compilar(Set.of(admin, barbero));
+
+        // ASSERT
+        assertTrue(ambos.tieneAlgunRol("MANAGER", "ADMIN"));
+        assertTrue(ambos.tieneRol("BARBERO"));
+        assertTrue(ambos.tieneAlgunaAuthority("VIEW_DASHBOARD_ADMIN", "FULL_ACCESS"));
+        assertEquals(Set.of("ROLE_ADMIN", "ROLE_BARBERO", "READ_CLIENTS", "FULL_ACCESS"), nombres(ambos));
+
+        // ARRANGE: el rol BARBERO recibe FULL_ACCESS y se invalida el registro
+        barbero.setPermissions(Set.of(leerClientes, fullAccess));
+        registro.invalidar();
+
+        // ACT + ASSERT
+        PermisosCompilados recompilado = registro.compilar(Set.of(barbero));
+        assertTrue(recompilado.tieneAuthority("FULL_ACCESS"));
+        assertTrue(recompilado.version() > ambos.version());
+        verify(rolRepository, times(2)).findAll();
+    }
+
+    private static Set<String> nombres(PermisosCompilados permisos) {
+        return permisos.authorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet());
+    }
+}
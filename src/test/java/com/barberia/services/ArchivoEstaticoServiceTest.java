@@ -0,0 +1,99 @@
+package com.barberia.services;
+
+import com.barberia.repositories.ArchivoSubidoRepository;
+import com.barberia.services.almacenamiento.AlmacenamientoLocal;
+import com.barberia.services.common.Metricas;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests para ArchivoEstaticoService (sin Tomcat: se usa el envío por transferTo)
+ */
+@DisplayName("Tests para ArchivoEstaticoService")
+class ArchivoEstaticoServiceTest {
+
+    private static final String URL = "/uploads/galeria/0f8fad5b-d9cb-469f-a165-70867728950e.jpg";
+
+    @TempDir
+    Path uploads;
+
+    private ArchivoEstaticoService service;
+    private byte[] contenido;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        FileStorageService fileStorageService = new FileStorageService(new AlmacenamientoLocal(uploads),
+                mock(ArchivoSubidoRepository.class),
+                mock(PlatformTransactionManager.class), new Metricas(new SimpleMeterRegistry(), 10), uploads.toString(), 40_000_000L, List.of(320));
+        service = new ArchivoEstaticoService(fileStorageService, 3600, 100);
+        contenido = new byte[1000];
+        for (int i = 0; i < contenido.length; i++) {
+            contenido[i] = (byte) i;
+        }
+        Files.createDirectories(uploads.resolve("galeria"));
+        Files.write(uploads.resolve("galeria/0f8fad5b-d9cb-469f-a165-70867728950e.jpg"), contenido);
+    }
+
+    private MockHttpServletResponse get(String... cabeceras) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", URL);
+        for (int i = 0; i < cabeceras.length; i += 2) {
+            request.addHeader(cabeceras[i], cabeceras[i + 1]);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        service.servir(request, response);
+        return response;
+    }
+
+    @Test
+    @DisplayName("Debe servir el archivo con ETag, caché inmutable y responder 304 si no cambió")
+    void debeServirConCacheYResponder304() throws Exception {
+        // ACT
+        MockHttpServletResponse completo = get();
+
+        // ASSERT
+        assertEquals(200, completo.getStatus());
+        assertArrayEquals(contenido, completo.getContentAsByteArray());
+        assertEquals("image/jpeg", completo.getContentType());
+        assertEquals("public, max-age=31536000, immutable", completo.getHeader("Cache-Control"));
+        String etag = completo.getHeader("ETag");
+        assertNotNull(etag);
+
+        // ACT: el navegador revalida con el ETag
+        MockHttpServletResponse revalidado = get("If-None-Match", etag);
+
+        // ASSERT: 304 sin cuerpo
+        assertEquals(304, revalidado.getStatus());
+        assertEquals(0, revalidado.getContentAsByteArray().length);
+    }
+
+    @Test
+    @DisplayName("Debe responder rangos de bytes y 416 fuera del archivo")
+    void debeResponderRangos() throws Exception {
+        // ACT
+        MockHttpServletResponse parcial = get("Range", "bytes=100-199");
+        MockHttpServletResponse sufijo = get("Range", "bytes=-10");
+        MockHttpServletResponse fuera = get("Range", "bytes=5000-");
+
+        // ASSERT
+        assertEquals(206, parcial.getStatus());
+        assertEquals("bytes 100-199/1000", parcial.getHeader("Content-Range"));
+        assertArrayEquals(Arrays.copyOfRange(contenido, 100, 200), parcial.getContentAsByteArray());
+        assertArrayEquals(Arrays.copyOfRange(contenido, 990, 1000), sufijo.getContentAsByteArray());
+        assertEquals(416, fuera.getStatus());
+        assertEquals("bytes */1000", fuera.getHeader("Content-Range"));
+    }
+}
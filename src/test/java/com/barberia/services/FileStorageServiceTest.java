@@ -0,0 +1,84 @@
+package com.barberia.services;
+
+import com.barberia.models.ArchivoSubido;
+import com.barberia.repositories.ArchivoSubidoRepository;
+import com.barberia.services.almacenamiento.AlmacenamientoLocal;
+import com.barberia.services.common.Metricas;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests para el almacenamiento por contenido de FileStorageService
+ */
+@DisplayName("Tests para FileStorageService")
+class FileStorageServiceTest {
+
+    @TempDir
+    Path uploads;
+
+    private ArchivoSubidoRepository repository;
+    private FileStorageService service;
+    private MockMultipartFile imagen;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repository = mock(ArchivoSubidoRepository.class);
+        service = new FileStorageService(new AlmacenamientoLocal(uploads), repository, mock(PlatformTransactionManager.class),
+                new Metricas(new SimpleMeterRegistry(), 10), uploads.toString(), 40_000_000L, List.of(320));
+
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB), "png", png);
+        imagen = new MockMultipartFile("imagen", "logo.png", "image/png", png.toByteArray());
+    }
+
+    @Test
+    @DisplayName("Debe guardar una sola copia del mismo contenido y contar referencias")
+    void debeDeduplicarPorContenido() throws Exception {
+        // ARRANGE: la primera vez no hay fila, la segunda se incrementa
+        when(repository.incrementarReferencias(any(), any())).thenReturn(0, 1);
+
+        // ACT
+        String primera = service.saveGaleria(imagen);
+        String segunda = service.saveGaleria(imagen);
+
+        // ASSERT: misma URL (SHA-256), un archivo, una fila creada
+        assertEquals(primera, segunda);
+        assertTrue(primera.matches("/uploads/galeria/[0-9a-f]{64}\\.png"));
+        try (var archivos = Files.list(uploads.resolve("galeria"))) {
+            assertEquals(1, archivos.count());
+        }
+        assertTrue(Files.list(uploads.resolve(".tmp")).findAny().isEmpty());
+        verify(repository, times(1)).saveAndFlush(any(ArchivoSubido.class));
+    }
+
+    @Test
+    @DisplayName("Debe restar una referencia en vez de borrar un archivo guardado por contenido")
+    void debeLiberarReferenciaAlEliminar() throws Exception {
+        // ARRANGE
+        String url = service.saveLogo(imagen);
+
+        // ACT
+        service.deleteFile(url);
+
+        // ASSERT: el archivo queda para la limpieza
+        verify(repository).decrementarReferencias(eq(url), any());
+        assertTrue(Files.exists(service.resolverRuta(url)));
+    }
+}
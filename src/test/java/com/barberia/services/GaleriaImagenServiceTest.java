@@ -0,0 +1,202 @@
+package com.barberia.services;
+
+import com.barberia.models.GaleriaImagen;
+import com.barberia.models.Negocio;
+import com.barberia.repositories.ArchivoSubidoRepository;
+import com.barberia.repositories.GaleriaImagenRepository;
+import com.barberia.repositories.NegocioRepository;
+import com.barberia.services.almacenamiento.AlmacenamientoLocal;
+import com.barberia.services.common.Metricas;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests para GaleriaImagenService: subida en dos fases sin agotar el pool de conexiones
+ */
+@DisplayName("Tests para GaleriaImagenService")
+class GaleriaImagenServiceTest {
+
+    private static final int CONEXIONES = 2;
+    private static final int SUBIDAS = 12;
+
+    @TempDir
+    Path uploads;
+
+    private PoolDeConexiones pool;
+    private ArchivoSubidoRepository archivoSubidoRepository;
+    private GaleriaImagenRepository galeriaImagenRepository;
+    private GaleriaImagenService service;
+    private final AtomicInteger escriturasConConexion = new AtomicInteger();
+
+    /**
+     * Transacciones que toman una "conexión" de un pool de tamaño fijo; si no hay una libre
+     * en 1 segundo fallan como Hikari con connection-timeout
+     */
+    static class PoolDeConexiones extends AbstractPlatformTransactionManager {
+        private final Semaphore libres = new Semaphore(CONEXIONES);
+        private final AtomicInteger enUso = new AtomicInteger();
+        private final AtomicInteger maximoEnUso = new AtomicInteger();
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            try {
+                if (!libres.tryAcquire(1, TimeUnit.SECONDS)) {
+                    throw new CannotCreateTransactionException("Pool de conexiones agotado");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CannotCreateTransactionException("Interrumpido", e);
+            }
+            maximoEnUso.accumulateAndGet(enUso.incrementAndGet(), Math::max);
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doCleanupAfterCompletion(Object transaction) {
+            enUso.decrementAndGet();
+            libres.release();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        pool = new PoolDeConexiones();
+        archivoSubidoRepository = mock(ArchivoSubidoRepository.class);
+        galeriaImagenRepository = mock(GaleriaImagenRepository.class);
+        NegocioRepository negocioRepository = mock(NegocioRepository.class);
+        when(negocioRepository.findById(1L)).thenReturn(Optional.of(new Negocio()));
+        when(galeriaImagenRepository.findMaxOrdenByNegocioId(1L)).thenReturn(0);
+        AtomicLong ids = new AtomicLong();
+        when(galeriaImagenRepository.save(any())).thenAnswer(inv -> {
+            GaleriaImagen imagen = inv.getArgument(0);
+            imagen.setId(ids.incrementAndGet());
+            return imagen;
+        });
+
+        // Almacenamiento lento (S3 lejano): cada escritura tarda 200ms
+        AlmacenamientoLocal almacenamiento = new AlmacenamientoLocal(uploads) {
+            @Override
+            public void guardar(String clave, Path archivo, String contentType) throws java.io.IOException {
+                if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                    escriturasConConexion.incrementAndGet();
+                }
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.guardar(clave, archivo, contentType);
+            }
+        };
+        FileStorageService fileStorageService = new FileStorageService(almacenamiento, archivoSubidoRepository,
+                pool, new Metricas(new SimpleMeterRegistry(), 10), uploads.toString(), 40_000_000L, List.of(320));
+        service = new GaleriaImagenService(galeriaImagenRepository, negocioRepository, fileStorageService,
+                mock(ImagenVariantesService.class), pool);
+    }
+
+    private static MockMultipartFile imagen(int semilla) throws Exception {
+        BufferedImage imagen = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        imagen.setRGB(0, 0, semilla);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(imagen, "png", png);
+        return new MockMultipartFile("imagen", "foto.png", "image/png", png.toByteArray());
+    }
+
+    @Test
+    @DisplayName("Debe completar subidas concurrentes sin tener conexiones tomadas mientras escribe el archivo")
+    void debeSubirEnParaleloSinAgotarElPool() throws Exception {
+        // ARRANGE: 12 subidas distintas a la vez con un pool de 2 conexiones
+        ExecutorService hilos = Executors.newFixedThreadPool(SUBIDAS);
+        List<Future<GaleriaImagen>> resultados = new ArrayList<>();
+
+        // ACT
+        try {
+            for (int i = 0; i < SUBIDAS; i++) {
+                MockMultipartFile archivo = imagen(i + 1);
+                resultados.add(hilos.submit(() -> service.upload(1L, archivo)));
+            }
+            for (Future<GaleriaImagen> resultado : resultados) {
+                assertNotNull(resultado.get(30, TimeUnit.SECONDS).getId());
+            }
+        } finally {
+            hilos.shutdownNow();
+        }
+
+        // ASSERT: ninguna escritura ocupó una conexión y el pool nunca pasó de su tamaño
+        assertEquals(0, escriturasConConexion.get());
+        assertTrue(pool.maximoEnUso.get() <= CONEXIONES);
+        assertEquals(0, pool.enUso.get());
+        verify(galeriaImagenRepository, times(SUBIDAS)).save(any());
+    }
+
+    @Test
+    @DisplayName("Debe devolver la referencia del archivo si el registro falla")
+    void debeCompensarSiFallaElRegistro() throws Exception {
+        // ARRANGE: la galería ya está llena
+        when(galeriaImagenRepository.countByNegocioId(1L)).thenReturn(20L);
+
+        // ACT
+        RuntimeException error = assertThrows(RuntimeException.class, () -> service.upload(1L, imagen(1)));
+
+        // ASSERT: la referencia registrada en la fase 1 se devolvió
+        assertTrue(error.getMessage().contains("máximo"));
+        verify(archivoSubidoRepository).decrementarReferencias(any(), any());
+        verify(galeriaImagenRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Debe reordenar con una sola sentencia y rechazar ids de otro negocio")
+    void debeReordenarConUnaSentencia() {
+        // ARRANGE: el id 9 no es del negocio
+        when(galeriaImagenRepository.actualizarOrden(eq(1L), any())).thenReturn(2);
+
+        // ACT + ASSERT
+        service.reordenar(1L, List.of(3L, 5L));
+        assertThrows(RuntimeException.class, () -> service.reordenar(1L, List.of(3L, 5L, 9L)));
+        assertThrows(RuntimeException.class, () -> service.reordenar(1L, List.of(3L, 3L)));
+        verify(galeriaImagenRepository, times(2)).actualizarOrden(eq(1L), any());
+        verify(galeriaImagenRepository, never()).findByIdAndNegocioId(anyLong(), anyLong());
+    }
+}
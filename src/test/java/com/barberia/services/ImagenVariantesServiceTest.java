@@ -0,0 +1,155 @@
+package com.barberia.services;
+
+import com.barberia.repositories.ArchivoSubidoRepository;
+import com.barberia.services.almacenamiento.AlmacenamientoLocal;
+import com.barberia.services.common.Metricas;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests para ImagenVariantesService y la validación de cabeceras de FileStorageService
+ */
+@DisplayName("Tests para ImagenVariantesService")
+class ImagenVariantesServiceTest {
+
+    @TempDir
+    Path uploads;
+
+    private FileStorageService fileStorageService;
+    private ImagenVariantesService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AlmacenamientoLocal almacenamiento = new AlmacenamientoLocal(uploads);
+        fileStorageService = new FileStorageService(almacenamiento, mock(ArchivoSubidoRepository.class),
+                mock(PlatformTransactionManager.class), new Metricas(new SimpleMeterRegistry(), 10), uploads.toString(), 40_000_000L, List.of(800, 320, 1600));
+        service = new ImagenVariantesService(fileStorageService, almacenamiento,
+                mock(PlatformTransactionManager.class), 0.8f, 1, 10);
+        Files.createDirectories(uploads.resolve("hero"));
+    }
+
+    @Test
+    @DisplayName("Debe generar solo las variantes menores al original y armar el srcset")
+    void debeGenerarVariantesYSrcset() throws Exception {
+        // ARRANGE: original de 1000px de ancho
+        ImageIO.write(new BufferedImage(1000, 500, BufferedImage.TYPE_INT_RGB), "jpg",
+                uploads.resolve("hero/foto.jpg").toFile());
+
+        // ACT
+        String srcset = service.generar("/uploads/hero/foto.jpg");
+
+        // ASSERT: 1600 no se genera (no se agranda), el original cierra el srcset
+        assertEquals("/uploads/hero/foto-w320.jpg 320w, /uploads/hero/foto-w800.jpg 800w, "
+                + "/uploads/hero/foto.jpg 1000w", srcset);
+        BufferedImage mediana = ImageIO.read(uploads.resolve("hero/foto-w800.jpg").toFile());
+        assertEquals(800, mediana.getWidth());
+        assertEquals(400, mediana.getHeight());
+        assertFalse(Files.exists(uploads.resolve("hero/foto-w1600.jpg")));
+
+        // ACT: al eliminar el original se eliminan sus variantes
+        fileStorageService.deleteFile("/uploads/hero/foto.jpg");
+
+        // ASSERT
+        assertFalse(Files.exists(uploads.resolve("hero/foto-w320.jpg")));
+        assertFalse(Files.exists(uploads.resolve("hero/foto-w800.jpg")));
+    }
+
+    @Test
+    @DisplayName("Debe reconocer el formato por la cabecera y no por la extensión")
+    void debeDetectarFormatoPorCabecera() throws Exception {
+        assertEquals(FileStorageService.FormatoImagen.JPEG,
+                FileStorageService.detectarFormato(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 0x00}));
+        assertEquals(FileStorageService.FormatoImagen.WEBP,
+                FileStorageService.detectarFormato("RIFF\0\0\0\0WEBP".getBytes()));
+        assertNull(FileStorageService.detectarFormato("<html><script>".getBytes()));
+        // Fuera de /uploads no se toca nada
+        assertNull(service.generar("/uploads/../../etc/passwd"));
+    }
+
+    @Test
+    @DisplayName("Debe aplicar la orientación EXIF antes de redimensionar")
+    void debeAplicarOrientacionExif() throws Exception {
+        // ARRANGE: foto apaisada (izquierda roja, derecha azul) guardada con Orientation=6,
+        // es decir, el celular estaba vertical y hay que girarla 90° en sentido horario
+        BufferedImage foto = new BufferedImage(1000, 500, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = foto.createGraphics();
+        g.setColor(Color.RED);
+        g.fillRect(0, 0, 500, 500);
+        g.setColor(Color.BLUE);
+        g.fillRect(500, 0, 500, 500);
+        g.dispose();
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        ImageIO.write(foto, "jpg", jpeg);
+        byte[] conExif = conOrientacion(jpeg.toByteArray(), 6);
+        Files.write(uploads.resolve("hero/vertical.jpg"), conExif);
+
+        // ACT
+        String srcset = service.generar("/uploads/hero/vertical.jpg");
+
+        // ASSERT: el original derecho mide 500x1000 y la variante conserva esa proporción
+        assertEquals(6, ImagenVariantesService.orientacionExif(conExif));
+        assertTrue(srcset.endsWith("/uploads/hero/vertical.jpg 500w"), srcset);
+        BufferedImage variante = ImageIO.read(uploads.resolve("hero/vertical-w320.jpg").toFile());
+        assertEquals(320, variante.getWidth());
+        assertEquals(640, variante.getHeight());
+        // Lo que estaba a la izquierda queda arriba
+        Color arriba = new Color(variante.getRGB(160, 100));
+        Color abajo = new Color(variante.getRGB(160, 540));
+        assertTrue(arriba.getRed() > 200 && arriba.getBlue() < 60, "arriba: " + arriba);
+        assertTrue(abajo.getBlue() > 200 && abajo.getRed() < 60, "abajo: " + abajo);
+    }
+
+    @Test
+    @DisplayName("Cada orientación EXIF debe dejar la imagen como la muestra el navegador")
+    void debeOrientarCadaValor() {
+        // ARRANGE: 3x2 con un solo píxel marcado en la esquina superior izquierda
+        BufferedImage imagen = new BufferedImage(3, 2, BufferedImage.TYPE_INT_RGB);
+        imagen.setRGB(0, 0, 0xFFFFFF);
+
+        // ACT + ASSERT: dónde termina la esquina marcada en cada caso
+        int[][] esperado = {{1, 0, 0}, {2, 2, 0}, {3, 2, 1}, {4, 0, 1}, {5, 0, 0}, {6, 1, 0}, {7, 1, 2}, {8, 0, 2}};
+        for (int[] caso : esperado) {
+            BufferedImage orientada = ImagenVariantesService.orientar(imagen, caso[0]);
+            assertEquals(0xFFFFFF, orientada.getRGB(caso[1], caso[2]) & 0xFFFFFF, "orientación " + caso[0]);
+            assertEquals(caso[0] >= 5 ? 2 : 3, orientada.getWidth(), "orientación " + caso[0]);
+        }
+    }
+
+    /**
+     * Inserta un bloque APP1 Exif (big-endian) con solo el tag Orientation después del SOI
+     */
+    private static byte[] conOrientacion(byte[] jpeg, int orientacion) {
+        ByteBuffer tiff = ByteBuffer.allocate(26);
+        tiff.put("MM".getBytes(StandardCharsets.US_ASCII)).putShort((short) 42).putInt(8)
+                .putShort((short) 1)
+                .putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) orientacion).putShort((short) 0)
+                .putInt(0);
+        byte[] exif = "Exif\0\0".getBytes(StandardCharsets.US_ASCII);
+        int largo = 2 + exif.length + tiff.capacity();
+
+        ByteBuffer salida = ByteBuffer.allocate(jpeg.length + 2 + largo);
+        salida.put(jpeg, 0, 2)
+                .put((byte) 0xFF).put((byte) 0xE1).putShort((short) largo)
+                .put(exif).put(tiff.array())
+                .put(jpeg, 2, jpeg.length - 2);
+        return salida.array();
+    }
+}
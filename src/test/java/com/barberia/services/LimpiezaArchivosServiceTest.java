@@ -0,0 +1,104 @@
+package com.barberia.services;
+
+import com.barberia.repositories.ArchivoSubidoRepository;
+import com.barberia.services.almacenamiento.AlmacenamientoLocal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests para la reconciliación de LimpiezaArchivosService
+ */
+@DisplayName("Tests para LimpiezaArchivosService")
+class LimpiezaArchivosServiceTest {
+
+    @TempDir
+    Path uploads;
+
+    @TempDir
+    Path temporales;
+
+    private ArchivoSubidoRepository repository;
+    private FileStorageService fileStorageService;
+    private LimpiezaArchivosService service;
+    private Path huerfano;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repository = mock(ArchivoSubidoRepository.class);
+        fileStorageService = mock(FileStorageService.class);
+        when(fileStorageService.getTemporalDirectory()).thenReturn(temporales);
+        service = new LimpiezaArchivosService(repository, fileStorageService, new AlmacenamientoLocal(uploads),
+                mock(PlatformTransactionManager.class), true, true, 24, 200);
+
+        // Archivo con nombre UUID, de hace una semana y que no usa nadie
+        Files.createDirectories(uploads.resolve("galeria"));
+        Files.write(uploads.resolve("galeria/usado.jpg"), new byte[]{1});
+        huerfano = Files.write(uploads.resolve("galeria/huerfano.jpg"), new byte[]{1});
+        FileTime semanaPasada = FileTime.from(Instant.now().minus(7, ChronoUnit.DAYS));
+        Files.setLastModifiedTime(uploads.resolve("galeria/usado.jpg"), semanaPasada);
+        Files.setLastModifiedTime(huerfano, semanaPasada);
+    }
+
+    @Test
+    @DisplayName("Debe borrar los archivos que no usa ninguna entidad")
+    void debeBorrarArchivosSinUso() {
+        // ARRANGE
+        when(repository.findUrlsReferenciadas()).thenReturn(List.of("/uploads/galeria/usado.jpg"));
+
+        // ACT
+        int encontrados = service.reconciliar();
+
+        // ASSERT
+        assertEquals(1, encontrados);
+        verify(fileStorageService).eliminarArchivo("/uploads/galeria/huerfano.jpg");
+        verify(fileStorageService, never()).eliminarArchivo("/uploads/galeria/usado.jpg");
+    }
+
+    @Test
+    @DisplayName("Debe ignorar las URLs externas, como un og:image de otro sitio")
+    void debeIgnorarUrlsExternas() {
+        // ARRANGE
+        when(repository.findUrlsReferenciadas()).thenReturn(List.of(
+                "/uploads/galeria/usado.jpg",
+                "https://cdn.otro-sitio.com/portada.jpg"));
+
+        // ACT
+        int encontrados = service.reconciliar();
+
+        // ASSERT
+        assertEquals(1, encontrados);
+        verify(fileStorageService).eliminarArchivo("/uploads/galeria/huerfano.jpg");
+    }
+
+    @Test
+    @DisplayName("Debe cancelar si una URL del almacenamiento no corresponde a ninguna clave")
+    void debeCancelarConUrlsDesconocidas() {
+        // ARRANGE: con el prefijo /uploads/ pero fuera de la carpeta: no se sabe qué archivo usa
+        when(repository.findUrlsReferenciadas()).thenReturn(List.of(
+                "/uploads/galeria/usado.jpg",
+                "/uploads/../galeria/huerfano.jpg"));
+
+        // ACT
+        int encontrados = service.reconciliar();
+
+        // ASSERT
+        assertEquals(0, encontrados);
+        assertTrue(Files.exists(huerfano));
+        verify(fileStorageService, never()).eliminarArchivo(any());
+        verify(repository, never()).reiniciarReferencias(any(), any(), any());
+    }
+}
@@ -0,0 +1,119 @@
+package com.barberia.services.common;
+
+import com.barberia.models.Categoria;
+import com.barberia.models.ConfiguracionReserva;
+import com.barberia.models.Servicio;
+import com.barberia.repositories.CategoriaRepository;
+import com.barberia.repositories.ConfiguracionReservaRepository;
+import com.barberia.repositories.ServicioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests para CatalogoCacheService
+ *
+ * Verifican que el catálogo se carga una sola vez por negocio
+ * y que invalidar() obliga a recargarlo solo a ese negocio.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para CatalogoCacheService")
+class CatalogoCacheServiceTest {
+
+    @Mock
+    private ServicioRepository servicioRepository;
+
+    @Mock
+    private CategoriaRepository categoriaRepository;
+
+    @Mock
+    private ConfiguracionReservaRepository configuracionReservaRepository;
+
+    private CatalogoCacheService catalogoCacheService;
+
+    @BeforeEach
+    void setUp() {
+        catalogoCacheService = new CatalogoCacheService(servicioRepository, categoriaRepository,
+                configuracionReservaRepository, 10, 30);
+
+        Categoria categoria = new Categoria();
+        categoria.setId(1L);
+        categoria.setNombre("Cortes");
+        categoria.setEstado(true);
+        categoria.setRegEstado(1);
+
+        Servicio corte = Servicio.builder().id(5L).nombre("Corte clásico").precio(new BigDecimal("25.00"))
+                .duracionMinutosAprox(30).estado(true).regEstado(1).categoria(categoria).build();
+        Servicio barba = Servicio.builder().id(6L).nombre("Barba").precio(new BigDecimal("15.00"))
+                .duracionMinutosAprox(20).estado(false).regEstado(1).categoria(categoria).build();
+
+        ConfiguracionReserva config = new ConfiguracionReserva();
+        config.setId(3L);
+        config.setPermiteMismoDia(true);
+
+        when(servicioRepository.findCatalogoByNegocioId(1L)).thenReturn(List.of(corte, barba));
+        when(categoriaRepository.findByRegEstadoNotAndNegocioId(0, 1L)).thenReturn(List.of(categoria));
+        when(configuracionReservaRepository.findByNegocioId(1L)).thenReturn(Optional.of(config));
+    }
+
+    @Test
+    @DisplayName("Debe cargar el catálogo una sola vez y servirlo desde memoria")
+    void debeCargarUnaSolaVez() {
+        // ACT
+        CatalogoNegocio primero = catalogoCacheService.obtener(1L);
+        CatalogoNegocio segundo = catalogoCacheService.obtener(1L);
+
+        // ASSERT
+        assertSame(primero, segundo);
+        assertEquals(2, primero.serviciosPorIds(List.of(6L, 5L, 6L, 99L)).size());
+        assertEquals(1, primero.serviciosPublicos().size());
+        assertEquals("Corte clásico", primero.nombreServicio(5L));
+        assertTrue(primero.configuracion().permiteMismoDia());
+        verify(servicioRepository, times(1)).findCatalogoByNegocioId(1L);
+        verify(configuracionReservaRepository, times(1)).findByNegocioId(1L);
+    }
+
+    @Test
+    @DisplayName("Debe recargar el catálogo después de invalidar")
+    void debeRecargarDespuesDeInvalidar() {
+        // ACT
+        CatalogoNegocio antes = catalogoCacheService.obtener(1L);
+        catalogoCacheService.invalidar(1L);
+        CatalogoNegocio despues = catalogoCacheService.obtener(1L);
+
+        // ASSERT
+        assertNotSame(antes, despues);
+        assertTrue(despues.version() > antes.version());
+        verify(servicioRepository, times(2)).findCatalogoByNegocioId(1L);
+    }
+
+    @Test
+    @DisplayName("Invalidar un negocio no debe descartar el catálogo de otro")
+    void debeInvalidarSoloElNegocio() {
+        // ARRANGE
+        when(servicioRepository.findCatalogoByNegocioId(2L)).thenReturn(List.of());
+        when(categoriaRepository.findByRegEstadoNotAndNegocioId(0, 2L)).thenReturn(List.of());
+        when(configuracionReservaRepository.findByNegocioId(2L)).thenReturn(Optional.empty());
+        CatalogoNegocio otro = catalogoCacheService.obtener(2L);
+        catalogoCacheService.obtener(1L);
+
+        // ACT
+        catalogoCacheService.invalidar(1L);
+
+        // ASSERT
+        assertSame(otro, catalogoCacheService.obtener(2L));
+        catalogoCacheService.obtener(1L);
+        verify(servicioRepository, times(1)).findCatalogoByNegocioId(2L);
+        verify(servicioRepository, times(2)).findCatalogoByNegocioId(1L);
+    }
+}
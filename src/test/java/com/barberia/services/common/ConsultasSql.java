@@ -0,0 +1,71 @@
+package com.barberia.services.common;
+
+import org.opentest4j.AssertionFailedError;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * DSL de tests para acotar las sentencias SQL de una operación (ver ContadorConsultas).
+ *
+ * USO:
+ * <pre>
+ * ConsultasSql.al(() -> mockMvc.perform(get("/api/reservas")).andExpect(status().isOk()))
+ *         .comoMaximo(4)
+ *         .sinRepetirMasDe(1);
+ * </pre>
+ *
+ * comoMaximo(n) fija el presupuesto del endpoint; sinRepetirMasDe(k) detecta un N+1 aunque
+ * los datos del test sean pocos (la misma sentencia una vez por fila). Al fallar, el mensaje
+ * lista las sentencias con la cantidad de veces que se ejecutó cada una.
+ */
+public final class ConsultasSql {
+
+    @FunctionalInterface
+    public interface Accion {
+        void ejecutar() throws Exception;
+    }
+
+    private final ContadorConsultas.Medicion medicion;
+
+    private ConsultasSql(ContadorConsultas.Medicion medicion) {
+        this.medicion = medicion;
+    }
+
+    /**
+     * Ejecuta la acción contando las sentencias de este hilo (MockMvc corre en el mismo hilo)
+     */
+    public static ConsultasSql al(Accion accion) throws Exception {
+        try (ContadorConsultas.Medicion medicion = ContadorConsultas.iniciar(true)) {
+            accion.ejecutar();
+            return new ConsultasSql(medicion);
+        }
+    }
+
+    public int total() {
+        return medicion.total();
+    }
+
+    public ConsultasSql comoMaximo(int maximo) {
+        if (medicion.total() > maximo) {
+            throw new AssertionFailedError("Se esperaban como máximo " + maximo + " sentencias SQL y se ejecutaron "
+                    + medicion.total() + ":\n" + detalle(), maximo, medicion.total());
+        }
+        return this;
+    }
+
+    public ConsultasSql sinRepetirMasDe(int veces) {
+        Map.Entry<String, Integer> masRepetida = medicion.sentencias().isEmpty() ? null : medicion.sentencias().get(0);
+        if (masRepetida != null && masRepetida.getValue() > veces) {
+            throw new AssertionFailedError("La sentencia se ejecutó " + masRepetida.getValue()
+                    + " veces (máximo " + veces + "), posible N+1:\n" + masRepetida.getKey() + "\n\n" + detalle());
+        }
+        return this;
+    }
+
+    private String detalle() {
+        return medicion.sentencias().stream()
+                .map(e -> String.format("%4dx %s", e.getValue(), e.getKey()))
+                .collect(Collectors.joining("\n"));
+    }
+}
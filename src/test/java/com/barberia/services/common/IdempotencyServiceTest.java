@@ -0,0 +1,180 @@
+package com.barberia.services.common;
+
+import com.barberia.dto.ApiResponse;
+import com.barberia.repositories.IdempotencyKeyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests para IdempotencyService
+ *
+ * Verifican que un reintento con la misma Idempotency-Key:
+ * - Repite la respuesta original sin volver a ejecutar
+ * - Espera a la ejecución en curso si llega en paralelo
+ * - Es rechazado si trae un cuerpo distinto
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para IdempotencyService")
+class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Mock
+    private SecurityContextService securityContextService;
+
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(securityContextService.getNegocioIdFromContext()).thenReturn(1L);
+        lenient().when(securityContextService.getUsernameFromContext()).thenReturn("admin@barberia.com");
+        idempotencyService = new IdempotencyService(idempotencyKeyRepository, securityContextService,
+                new ObjectMapper(), 60, 100, 5, false);
+    }
+
+    private ResponseEntity<ApiResponse<String>> creado(String data) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(
+                ApiResponse.<String>builder().code(201).success(true).data(data).build());
+    }
+
+    @Test
+    @DisplayName("Debe repetir la respuesta guardada sin ejecutar de nuevo")
+    void debeRepetirRespuesta() {
+        // ARRANGE
+        AtomicInteger ejecuciones = new AtomicInteger();
+        Map<String, Object> request = Map.of("telefono", "987654321");
+
+        // ACT
+        ResponseEntity<ApiResponse<String>> primera = idempotencyService.ejecutar("clientes.register", "clave-1",
+                request, String.class, () -> creado("cliente-" + ejecuciones.incrementAndGet()));
+        ResponseEntity<ApiResponse<String>> segunda = idempotencyService.ejecutar("clientes.register", "clave-1",
+                request, String.class, () -> creado("cliente-" + ejecuciones.incrementAndGet()));
+
+        // ASSERT
+        assertEquals(1, ejecuciones.get());
+        assertEquals("cliente-1", segunda.getBody().getData());
+        assertEquals(HttpStatus.CREATED, segunda.getStatusCode());
+        assertNull(primera.getHeaders().getFirst(IdempotencyService.HEADER_REPLAYED));
+        assertEquals("true", segunda.getHeaders().getFirst(IdempotencyService.HEADER_REPLAYED));
+        verifyNoInteractions(idempotencyKeyRepository);
+    }
+
+    @Test
+    @DisplayName("Debe unir peticiones concurrentes en una sola ejecución")
+    void debeUnirPeticionesConcurrentes() throws Exception {
+        // ARRANGE
+        AtomicInteger ejecuciones = new AtomicInteger();
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        Map<String, Object> request = Map.of("profesionalId", 3);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+
+        // ACT
+        List<Future<ResponseEntity<ApiResponse<String>>>> resultados = new ArrayList<>();
+        resultados.add(pool.submit(() -> idempotencyService.ejecutar("reservas.register", "clave-2",
+                request, String.class, () -> {
+                    ejecuciones.incrementAndGet();
+                    enCurso.countDown();
+                    try {
+                        liberar.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return creado("reserva-10");
+                })));
+        assertTrue(enCurso.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 3; i++) {
+            resultados.add(pool.submit(() -> idempotencyService.ejecutar("reservas.register", "clave-2",
+                    request, String.class, () -> creado("reserva-" + (100 + ejecuciones.incrementAndGet())))));
+        }
+        liberar.countDown();
+
+        // ASSERT
+        for (Future<ResponseEntity<ApiResponse<String>>> resultado : resultados) {
+            assertEquals("reserva-10", resultado.get(5, TimeUnit.SECONDS).getBody().getData());
+        }
+        assertEquals(1, ejecuciones.get());
+        pool.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Debe rechazar la misma clave con otro cuerpo y no guardar errores")
+    void debeRechazarOtroCuerpoYNoGuardarErrores() {
+        // ARRANGE
+        AtomicInteger ejecuciones = new AtomicInteger();
+
+        // ACT
+        ResponseEntity<ApiResponse<String>> error = idempotencyService.ejecutar("reservas.register", "clave-3",
+                Map.of("hora", "10:00"), String.class, () -> {
+                    ejecuciones.incrementAndGet();
+                    return ResponseEntity.badRequest().body(ApiResponse.<String>builder().code(400).build());
+                });
+        ResponseEntity<ApiResponse<String>> reintento = idempotencyService.ejecutar("reservas.register", "clave-3",
+                Map.of("hora", "10:00"), String.class, () -> creado("reserva-" + ejecuciones.incrementAndGet()));
+        ResponseEntity<ApiResponse<String>> otroCuerpo = idempotencyService.ejecutar("reservas.register", "clave-3",
+                Map.of("hora", "11:00"), String.class, () -> creado("reserva-" + ejecuciones.incrementAndGet()));
+
+        // ASSERT
+        assertEquals(HttpStatus.BAD_REQUEST, error.getStatusCode());
+        assertEquals("reserva-2", reintento.getBody().getData());
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, otroCuerpo.getStatusCode());
+        assertEquals(2, ejecuciones.get());
+    }
+
+    @Test
+    @DisplayName("Sin usuario, la misma clave desde otra IP no debe repetir la respuesta ajena")
+    void debeAislarAnonimosPorIp() {
+        // ARRANGE
+        when(securityContextService.getUsernameFromContext()).thenReturn(null);
+        AtomicInteger ejecuciones = new AtomicInteger();
+        Map<String, Object> request = Map.of("negocioId", 1, "telefono", "987654321");
+
+        // ACT
+        ResponseEntity<ApiResponse<String>> visitanteA = ejecutarDesde("10.0.0.1", request, ejecuciones);
+        ResponseEntity<ApiResponse<String>> visitanteB = ejecutarDesde("10.0.0.2", request, ejecuciones);
+        ResponseEntity<ApiResponse<String>> reintentoA = ejecutarDesde("10.0.0.1", request, ejecuciones);
+
+        // ASSERT
+        assertEquals("cliente-1", visitanteA.getBody().getData());
+        assertEquals("cliente-2", visitanteB.getBody().getData());
+        assertEquals("cliente-1", reintentoA.getBody().getData());
+        assertEquals("true", reintentoA.getHeaders().getFirst(IdempotencyService.HEADER_REPLAYED));
+        assertEquals(2, ejecuciones.get());
+    }
+
+    private ResponseEntity<ApiResponse<String>> ejecutarDesde(String ip, Object request, AtomicInteger ejecuciones) {
+        MockHttpServletRequest http = new MockHttpServletRequest();
+        http.setRemoteAddr(ip);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(http));
+        try {
+            return idempotencyService.ejecutar("clientes.registerCliente", "1", request, String.class,
+                    () -> creado("cliente-" + ejecuciones.incrementAndGet()));
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.barberia.services.common;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests para Metricas (etiquetas de negocio y resultado)
+ */
+@DisplayName("Tests para Metricas")
+class MetricasTest {
+
+    private SimpleMeterRegistry registry;
+    private Metricas metricas;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metricas = new Metricas(registry, 2);
+    }
+
+    @Test
+    @DisplayName("Debe agrupar en 'otros' los negocios que superan el máximo")
+    void debeAcotarLaEtiquetaNegocio() {
+        // ACT
+        String primero = metricas.negocio(10L);
+        String segundo = metricas.negocio(20L);
+        String tercero = metricas.negocio(30L);
+
+        // ASSERT: los ya vistos conservan su id aunque se haya llegado al máximo
+        assertEquals("10", primero);
+        assertEquals("20", segundo);
+        assertEquals(Metricas.OTROS, tercero);
+        assertEquals("10", metricas.negocio(10L));
+        assertEquals(Metricas.SIN_NEGOCIO, metricas.negocio(null));
+    }
+
+    @Test
+    @DisplayName("Debe registrar el resultado y las etapas aunque la operación falle")
+    void debeRegistrarResultadoYEtapas() {
+        // ACT
+        assertEquals("x", metricas.medir("prueba", 10L, () -> "x", "carpeta", "logos"));
+        assertThrows(IllegalStateException.class, () -> metricas.medir("prueba", 10L, () -> {
+            throw new IllegalStateException("falla");
+        }, "carpeta", "logos"));
+
+        Metricas.Cronometro cronometro = metricas.cronometro("reserva", 10L);
+        cronometro.etapa("catalogo");
+        cronometro.etapa("guardado");
+        cronometro.terminar(null);
+
+        // ASSERT
+        assertEquals(1, registry.get("prueba").tags("resultado", "ok", "negocio", "10", "carpeta", "logos")
+                .timer().count());
+        Timer error = registry.get("prueba").tags("resultado", "error", "excepcion", "IllegalStateException")
+                .timer();
+        assertEquals(1, error.count());
+        assertEquals(2, registry.get("reserva.etapa").timers().size());
+        assertEquals(1, registry.get("reserva").tag("resultado", "ok").timer().count());
+    }
+
+    @Test
+    @DisplayName("Debe emitir un evento JFR por etapa con negocio y profesional")
+    void debeEmitirEventosJfrPorEtapa() throws Exception {
+        // ARRANGE
+        Path archivo = Files.createTempFile("etapas", ".jfr");
+        List<RecordedEvent> eventos;
+        try (Recording grabacion = new Recording()) {
+            grabacion.enable("barberia.Etapa").withThreshold(Duration.ZERO);
+            grabacion.start();
+
+            // ACT
+            Metricas.Cronometro cronometro = metricas.cronometro("reserva", 10L);
+            cronometro.profesional(7L);
+            cronometro.etapa("catalogo");
+            cronometro.etapa("guardado");
+            cronometro.terminar(null);
+
+            grabacion.stop();
+            grabacion.dump(archivo);
+            eventos = RecordingFile.readAllEvents(archivo);
+        } finally {
+            Files.deleteIfExists(archivo);
+        }
+
+        // ASSERT
+        assertEquals(List.of("catalogo", "guardado"), eventos.stream().map(e -> e.getString("etapa")).toList());
+        assertEquals("reserva", eventos.get(0).getString("proceso"));
+        assertEquals(10L, eventos.get(0).getLong("negocioId"));
+        assertEquals(7L, eventos.get(0).getLong("profesionalId"));
+    }
+}
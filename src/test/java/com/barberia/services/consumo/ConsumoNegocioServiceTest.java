@@ -0,0 +1,91 @@
+package com.barberia.services.consumo;
+
+import com.barberia.dto.plataforma.ConsumoNegociosResponse;
+import com.barberia.models.Negocio;
+import com.barberia.repositories.NegocioRepository;
+import com.barberia.services.common.Metricas;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests para ConsumoNegocioService (acumuladores por negocio y reporte de negocios ruidosos)
+ */
+@DisplayName("Tests para ConsumoNegocioService")
+class ConsumoNegocioServiceTest {
+
+    private SimpleMeterRegistry registry;
+    private ConsumoNegocioService service;
+
+    @BeforeEach
+    void setUp() {
+        NegocioRepository negocioRepository = mock(NegocioRepository.class);
+        when(negocioRepository.findAllById(anyIterable())).thenReturn(List.of(
+                Negocio.builder().id(1L).nombre("Uno").build(),
+                Negocio.builder().id(2L).nombre("Dos").build()));
+        registry = new SimpleMeterRegistry();
+        service = new ConsumoNegocioService(negocioRepository, new Metricas(registry, 10));
+    }
+
+    @Test
+    @DisplayName("Debe ordenar los negocios por tiempo de BD con su porcentaje del total")
+    void debeOrdenarPorTiempoDeBd() {
+        // ARRANGE: el negocio 1 hace muchas peticiones baratas, el 2 pocas y pesadas
+        for (int i = 0; i < 10; i++) {
+            service.registrar(1L, 2, 1_000_000, 5, 100);
+        }
+        service.registrar(2L, 40, 90_000_000, 4000, 50_000);
+        service.registrar(null, 1, 0, 1, 10);
+        service.registrar(null, 1, 0, 1, 10);
+
+        // ACT
+        ConsumoNegociosResponse porBd = service.top("bd", 2);
+        ConsumoNegociosResponse porPeticiones = service.top("peticiones", 10);
+
+        // ASSERT
+        assertEquals(3, porBd.getNegocios());
+        assertEquals(13, porBd.getPeticiones());
+        assertEquals(100, porBd.getTiempoBdMs());
+        assertEquals(2, porBd.getTop().size());
+        assertEquals(2L, porBd.getTop().get(0).getNegocioId());
+        assertEquals("Dos", porBd.getTop().get(0).getNombre());
+        assertEquals(90.0, porBd.getTop().get(0).getPorcentajeBd());
+        assertEquals(4000, porBd.getTop().get(0).getFilas());
+        assertEquals(1L, porPeticiones.getTop().get(0).getNegocioId());
+        assertEquals(1.0, porPeticiones.getTop().get(0).getTiempoBdMsPorPeticion());
+        assertNull(porPeticiones.getTop().get(1).getNegocioId());
+    }
+
+    @Test
+    @DisplayName("Debe olvidar el consumo después de dos ventanas y mantener las métricas acumuladas")
+    void debeRotarLaVentana() {
+        // ARRANGE
+        service.registrar(1L, 1, 1_000_000, 1, 100);
+
+        // ACT
+        service.rotar();
+        long despuesDeUna = service.top("peticiones", 10).getPeticiones();
+        service.rotar();
+        long despuesDeDos = service.top("peticiones", 10).getPeticiones();
+
+        // ASSERT
+        assertEquals(1, despuesDeUna);
+        assertEquals(0, despuesDeDos);
+        assertEquals(1.0, registry.get("barberia.negocio.peticiones").tag("negocio", "1").functionCounter().count());
+        assertEquals(100.0, registry.get("barberia.negocio.respuesta").tag("negocio", "1").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar un orden desconocido")
+    void debeRechazarOrdenDesconocido() {
+        assertThrows(IllegalArgumentException.class, () -> service.top("memoria", 10));
+    }
+}
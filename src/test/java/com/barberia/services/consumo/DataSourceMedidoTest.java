@@ -0,0 +1,131 @@
+package com.barberia.services.consumo;
+
+import org.h2.jdbc.JdbcConnection;
+import org.h2.jdbc.JdbcResultSet;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests para DataSourceMedido
+ *
+ * Usan H2 en memoria: verifican qué cuenta como sentencia y como fila, y que el
+ * envoltorio no esconde el pool ni los objetos del driver.
+ */
+@DisplayName("Tests para DataSourceMedido")
+class DataSourceMedidoTest {
+
+    private JdbcDataSource destino;
+    private DataSourceMedido dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        destino = new JdbcDataSource();
+        destino.setURL("jdbc:h2:mem:medido;DB_CLOSE_DELAY=-1");
+        dataSource = new DataSourceMedido(destino);
+        try (Connection conexion = destino.getConnection(); Statement st = conexion.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS item");
+            st.execute("CREATE TABLE item (id BIGINT AUTO_INCREMENT PRIMARY KEY, nombre VARCHAR(20))");
+            st.execute("INSERT INTO item (nombre) VALUES ('a'), ('b'), ('c')");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        ConsumoJdbc.terminar();
+    }
+
+    @Test
+    @DisplayName("Debe contar sentencias y filas solo con una medición abierta")
+    void debeContarSentenciasYFilas() throws Exception {
+        // ARRANGE
+        ConsumoJdbc consumo = ConsumoJdbc.iniciar();
+
+        // ACT
+        StringBuilder nombres = new StringBuilder();
+        try (Connection conexion = dataSource.getConnection();
+             PreparedStatement ps = conexion.prepareStatement("SELECT nombre FROM item ORDER BY id");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                nombres.append(rs.getString(1));
+            }
+        }
+        ConsumoJdbc.terminar();
+        try (Connection conexion = dataSource.getConnection();
+             Statement st = conexion.createStatement();
+             ResultSet rs = st.executeQuery("SELECT nombre FROM item")) {
+            while (rs.next()) {
+                assertFalse(rs instanceof ResultSetMedido);
+            }
+        }
+
+        // ASSERT
+        assertEquals("abc", nombres.toString());
+        assertEquals(1, consumo.getSentencias());
+        assertEquals(3, consumo.getFilas());
+        assertTrue(consumo.getNanosBd() > 0);
+    }
+
+    @Test
+    @DisplayName("Un batch debe contar como una sentencia y las claves generadas como filas")
+    void debeContarBatchYClavesGeneradas() throws Exception {
+        // ARRANGE
+        ConsumoJdbc consumo = ConsumoJdbc.iniciar();
+
+        // ACT
+        long clave;
+        try (Connection conexion = dataSource.getConnection()) {
+            try (PreparedStatement ps = conexion.prepareStatement("INSERT INTO item (nombre) VALUES (?)")) {
+                for (String nombre : new String[]{"d", "e", "f"}) {
+                    ps.setString(1, nombre);
+                    ps.addBatch();
+                }
+                assertEquals(3, ps.executeBatch().length);
+            }
+            try (PreparedStatement ps = conexion.prepareStatement("INSERT INTO item (nombre) VALUES ('g')",
+                    Statement.RETURN_GENERATED_KEYS)) {
+                ps.executeUpdate();
+                try (ResultSet claves = ps.getGeneratedKeys()) {
+                    assertTrue(claves.next());
+                    clave = claves.getLong(1);
+                }
+            }
+        }
+
+        // ASSERT
+        assertEquals(7, clave);
+        assertEquals(2, consumo.getSentencias());
+        assertEquals(1, consumo.getFilas());
+    }
+
+    @Test
+    @DisplayName("unwrap e isWrapperFor deben llegar al DataSource y a los objetos del driver")
+    void debeDesenvolverHastaElDriver() throws Exception {
+        // ARRANGE
+        ConsumoJdbc.iniciar();
+
+        // ACT + ASSERT: el DataSource (las métricas de Hikari lo buscan así)
+        assertTrue(dataSource.isWrapperFor(JdbcDataSource.class));
+        assertSame(destino, dataSource.unwrap(JdbcDataSource.class));
+
+        // ACT + ASSERT: conexión y ResultSet
+        try (Connection conexion = dataSource.getConnection();
+             Statement st = conexion.createStatement();
+             ResultSet rs = st.executeQuery("SELECT id FROM item")) {
+            assertTrue(conexion.isWrapperFor(JdbcConnection.class));
+            assertNotNull(conexion.unwrap(JdbcConnection.class));
+            assertInstanceOf(ResultSetMedido.class, rs);
+            assertTrue(rs.isWrapperFor(JdbcResultSet.class));
+            assertNotNull(rs.unwrap(JdbcResultSet.class));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.barberia.services.dashboard;
+
+import com.barberia.models.enums.EstadoReserva;
+import com.barberia.models.enums.TipoEventoReserva;
+import com.barberia.repositories.AgregadoDiarioRepository;
+import com.barberia.repositories.NegocioRepository;
+import com.barberia.services.eventos.ReservaEvento;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests para AgregadosDiariosService
+ *
+ * Verifican que un evento de reserva recalcula los días que tocó, incluido
+ * el día anterior cuando la reserva se reprogramó.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para AgregadosDiariosService")
+class AgregadosDiariosServiceTest {
+
+    @Mock
+    private AgregadoDiarioRepository agregadoDiarioRepository;
+
+    @Mock
+    private NegocioRepository negocioRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private AgregadosDiariosService agregadosDiariosService;
+
+    @BeforeEach
+    void setUp() {
+        agregadosDiariosService = new AgregadosDiariosService(agregadoDiarioRepository, negocioRepository,
+                transactionManager, eventPublisher, true, 7, 90);
+    }
+
+    @Test
+    @DisplayName("Una reprogramación debe recalcular el día nuevo y el día anterior")
+    void debeRecalcularAmbosDiasAlReprogramar() {
+        // ARRANGE
+        LocalDate antes = LocalDate.of(2025, 3, 10);
+        LocalDate despues = LocalDate.of(2025, 3, 14);
+        ReservaEvento reprogramada = new ReservaEvento(5L, TipoEventoReserva.ACTUALIZADA, 1L, 10L, 7L, null, null,
+                despues, antes, LocalTime.of(10, 0), LocalTime.of(10, 30), EstadoReserva.PENDIENTE,
+                new BigDecimal("25.00"), LocalDateTime.now());
+
+        // ACT
+        agregadosDiariosService.onReservaEvento(reprogramada);
+        agregadosDiariosService.procesarSucios();
+
+        // ASSERT
+        verify(agregadoDiarioRepository).deleteByNegocioIdAndRango(1L, despues, despues);
+        verify(agregadoDiarioRepository).deleteByNegocioIdAndRango(1L, antes, antes);
+        verify(agregadoDiarioRepository, times(2)).deleteByNegocioIdAndRango(eq(1L), any(), any());
+    }
+}
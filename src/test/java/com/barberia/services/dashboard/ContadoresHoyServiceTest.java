@@ -0,0 +1,104 @@
+package com.barberia.services.dashboard;
+
+import com.barberia.models.enums.EstadoReserva;
+import com.barberia.models.enums.TipoEventoReserva;
+import com.barberia.repositories.DashboardRepository;
+import com.barberia.services.dashboard.ContadoresHoyService.ResumenHoy;
+import com.barberia.services.eventos.ReservaEvento;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests para ContadoresHoyService
+ *
+ * Verifican la reconstrucción desde la BD y que los eventos de reserva
+ * mueven los contadores sin contar dos veces un evento repetido.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para ContadoresHoyService")
+class ContadoresHoyServiceTest {
+
+    @Mock
+    private DashboardRepository dashboardRepository;
+
+    private ContadoresHoyService contadoresHoyService;
+
+    private final LocalDate hoy = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        contadoresHoyService = new ContadoresHoyService(dashboardRepository, true, true);
+
+        List<Object[]> filas = new ArrayList<>();
+        filas.add(new Object[]{10L, 1L, 7L, EstadoReserva.PENDIENTE, new BigDecimal("25.00")});
+        filas.add(new Object[]{11L, 1L, 7L, EstadoReserva.ATENDIDA, new BigDecimal("15.00")});
+        filas.add(new Object[]{12L, 1L, 8L, EstadoReserva.CANCELADA, new BigDecimal("40.00")});
+        when(dashboardRepository.findAportesDelDia(hoy)).thenReturn(filas);
+
+        contadoresHoyService.reconstruir();
+    }
+
+    @Test
+    @DisplayName("Debe reconstruir los totales del negocio y de cada profesional")
+    void debeReconstruirDesdeLaBd() {
+        // ACT
+        ResumenHoy negocio = contadoresHoyService.obtener(1L, null).orElseThrow();
+        ResumenHoy profesional = contadoresHoyService.obtener(1L, 7L).orElseThrow();
+
+        // ASSERT
+        assertEquals(2, negocio.reservas());
+        assertEquals(1, negocio.cancelaciones());
+        assertEquals(0, new BigDecimal("40.00").compareTo(negocio.ingreso()));
+        assertEquals(1, profesional.pendientes());
+        assertEquals(1, profesional.atendidas());
+        assertEquals(0, contadoresHoyService.obtener(2L, null).orElseThrow().reservas());
+    }
+
+    @Test
+    @DisplayName("Una cancelación repetida debe restar la reserva una sola vez")
+    void debeAplicarTransicionUnaSolaVez() {
+        // ARRANGE
+        ReservaEvento cancelada = new ReservaEvento(99L, TipoEventoReserva.CANCELADA, 1L, 10L, 7L, null, null,
+                hoy, null, LocalTime.of(10, 0), LocalTime.of(10, 30), EstadoReserva.CANCELADA,
+                new BigDecimal("25.00"), LocalDateTime.now());
+
+        // ACT
+        contadoresHoyService.onReservaEvento(cancelada);
+        contadoresHoyService.onReservaEvento(cancelada);
+
+        // ASSERT
+        ResumenHoy negocio = contadoresHoyService.obtener(1L, null).orElseThrow();
+        assertEquals(1, negocio.reservas());
+        assertEquals(2, negocio.cancelaciones());
+        assertEquals(0, new BigDecimal("15.00").compareTo(negocio.ingreso()));
+        assertEquals(0, contadoresHoyService.obtener(1L, 7L).orElseThrow().pendientes());
+    }
+
+    @Test
+    @DisplayName("Sin el relay del outbox no debe usar contadores (el dashboard va a la BD)")
+    void noDebeUsarContadoresSinRelay() {
+        // ARRANGE
+        ContadoresHoyService sinRelay = new ContadoresHoyService(dashboardRepository, true, false);
+
+        // ACT
+        sinRelay.reconstruir();
+
+        // ASSERT
+        assertTrue(sinRelay.obtener(1L, null).isEmpty());
+        verify(dashboardRepository, times(1)).findAportesDelDia(hoy); // solo el del setUp
+    }
+}
@@ -0,0 +1,121 @@
+package com.barberia.services.dashboard;
+
+import com.barberia.dto.dashboard.DashboardResumenResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests para DashboardCacheService
+ *
+ * Verifican el cálculo compartido entre peticiones simultáneas y que, tras un cambio
+ * de reservas, se sirve el valor anterior mientras se recalcula en segundo plano.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para DashboardCacheService")
+class DashboardCacheServiceTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DashboardCacheService dashboardCacheService;
+
+    private final DashboardCacheService.Clave clave =
+            new DashboardCacheService.Clave(1L, LocalDate.of(2026, 3, 10), "dia", "administrativo", null);
+
+    @BeforeEach
+    void setUp() {
+        dashboardCacheService = new DashboardCacheService(transactionManager, true, 30, 120, 100, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dashboardCacheService.detener();
+    }
+
+    @Test
+    @DisplayName("Peticiones simultáneas de la misma clave deben compartir un solo cálculo")
+    void debeCompartirCalculoEnCurso() throws Exception {
+        // ARRANGE
+        AtomicInteger calculos = new AtomicInteger();
+        CountDownLatch calculando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        Supplier<DashboardResumenResponse> cargadorLento = () -> {
+            calculos.incrementAndGet();
+            calculando.countDown();
+            try {
+                liberar.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return resumen("Negocio");
+        };
+
+        // ACT
+        CompletableFuture<DashboardResumenResponse> primera =
+                CompletableFuture.supplyAsync(() -> dashboardCacheService.obtener(clave, cargadorLento));
+        assertTrue(calculando.await(5, TimeUnit.SECONDS));
+        CompletableFuture<DashboardResumenResponse> segunda =
+                CompletableFuture.supplyAsync(() -> dashboardCacheService.obtener(clave, cargadorLento));
+        liberar.countDown();
+
+        // ASSERT
+        assertSame(primera.get(5, TimeUnit.SECONDS), segunda.get(5, TimeUnit.SECONDS));
+        assertEquals(1, calculos.get());
+    }
+
+    @Test
+    @DisplayName("Tras invalidar debe devolver el valor anterior y recalcular en segundo plano")
+    void debeServirViejoMientrasRecalcula() throws Exception {
+        // ARRANGE
+        DashboardResumenResponse anterior = dashboardCacheService.obtener(clave, () -> resumen("Antes"));
+        CountDownLatch recalculado = new CountDownLatch(1);
+
+        // ACT
+        dashboardCacheService.invalidar(1L);
+        DashboardResumenResponse servido = dashboardCacheService.obtener(clave, () -> {
+            recalculado.countDown();
+            return resumen("Después");
+        });
+
+        // ASSERT
+        assertSame(anterior, servido);
+        assertTrue(recalculado.await(5, TimeUnit.SECONDS));
+        DashboardResumenResponse nuevo = esperarValor("Después");
+        assertEquals("Después", nuevo.getNombreNegocio());
+    }
+
+    private DashboardResumenResponse esperarValor(String nombreNegocio) throws InterruptedException {
+        for (int i = 0; i < 50; i++) {
+            DashboardResumenResponse actual = dashboardCacheService.obtener(clave, () -> resumen("Otro"));
+            if (nombreNegocio.equals(actual.getNombreNegocio())) {
+                return actual;
+            }
+            Thread.sleep(20);
+        }
+        fail("El recálculo en segundo plano no se guardó");
+        return null;
+    }
+
+    private DashboardResumenResponse resumen(String nombreNegocio) {
+        return DashboardResumenResponse.builder()
+                .tipoDashboard("administrativo")
+                .nombreNegocio(nombreNegocio)
+                .periodoActivo("dia")
+                .build();
+    }
+}
@@ -0,0 +1,95 @@
+package com.barberia.services.dashboard;
+
+import com.barberia.dto.dashboard.PuntoSerieDTO;
+import com.barberia.dto.dashboard.SerieTemporalResponse;
+import com.barberia.models.enums.DimensionAgregado;
+import com.barberia.repositories.AgregadoDiarioRepository;
+import com.barberia.repositories.ProfesionalRepository;
+import com.barberia.repositories.ServicioRepository;
+import com.barberia.services.common.SecurityContextService;
+import com.barberia.services.dashboard.SerieTemporalService.Granularidad;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests para SerieTemporalService
+ *
+ * Verifican la elección automática de granularidad y que las cubetas sin
+ * datos se completan con ceros.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para SerieTemporalService")
+class SerieTemporalServiceTest {
+
+    @Mock
+    private AgregadoDiarioRepository agregadoDiarioRepository;
+
+    @Mock
+    private ProfesionalRepository profesionalRepository;
+
+    @Mock
+    private ServicioRepository servicioRepository;
+
+    @Mock
+    private SecurityContextService securityContextService;
+
+    private SerieTemporalService serieTemporalService;
+
+    @BeforeEach
+    void setUp() {
+        serieTemporalService = new SerieTemporalService(agregadoDiarioRepository, profesionalRepository,
+                servicioRepository, securityContextService, 400);
+    }
+
+    @Test
+    @DisplayName("Debe elegir día, semana o mes según el largo del rango")
+    void debeElegirGranularidadAutomatica() {
+        // ARRANGE
+        LocalDate desde = LocalDate.of(2024, 1, 1);
+
+        // ACT + ASSERT
+        assertEquals(Granularidad.DIA, SerieTemporalService.elegirGranularidad(desde, desde.plusDays(30), "auto", 400));
+        assertEquals(Granularidad.SEMANA, SerieTemporalService.elegirGranularidad(desde, desde.plusMonths(18), "auto", 400));
+        assertEquals(Granularidad.MES, SerieTemporalService.elegirGranularidad(desde, desde.plusYears(5), "auto", 400));
+        // Pedir "dia" para 5 años supera el máximo de puntos → se sube a semana
+        assertEquals(Granularidad.SEMANA, SerieTemporalService.elegirGranularidad(desde, desde.plusYears(5), "dia", 400));
+    }
+
+    @Test
+    @DisplayName("Debe completar con ceros las semanas sin reservas")
+    void debeCompletarCubetasVacias() {
+        // ARRANGE: del miércoles 3 al domingo 21 de enero de 2024 → semanas del 1, 8 y 15
+        LocalDate desde = LocalDate.of(2024, 1, 3);
+        LocalDate hasta = LocalDate.of(2024, 1, 21);
+        List<Object[]> filas = new ArrayList<>();
+        filas.add(new Object[]{LocalDate.of(2024, 1, 1), 7L, 3L, 1L, new BigDecimal("75.00")});
+        filas.add(new Object[]{LocalDate.of(2024, 1, 15), 7L, 2L, 0L, new BigDecimal("40.00")});
+        when(securityContextService.getNegocioIdFromContext()).thenReturn(1L);
+        when(agregadoDiarioRepository.sumarPorSemana(1L, DimensionAgregado.PROFESIONAL, desde, hasta)).thenReturn(filas);
+
+        // ACT
+        SerieTemporalResponse serie = serieTemporalService.getSerie(desde, hasta, "semana", null);
+
+        // ASSERT
+        List<PuntoSerieDTO> puntos = serie.getPuntos();
+        assertEquals("semana", serie.getGranularidad());
+        assertEquals(3, puntos.size());
+        assertEquals(3L, puntos.get(0).getReservas());
+        assertEquals(LocalDate.of(2024, 1, 8), puntos.get(1).getInicio());
+        assertEquals(0L, puntos.get(1).getReservas());
+        assertEquals(new BigDecimal("40.00"), puntos.get(2).getIngreso());
+        assertTrue(serie.getSeries().isEmpty());
+    }
+}
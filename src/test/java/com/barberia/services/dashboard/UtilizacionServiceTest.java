@@ -0,0 +1,82 @@
+package com.barberia.services.dashboard;
+
+import com.barberia.dto.dashboard.UtilizacionProfesionalDTO;
+import com.barberia.models.enums.DiaSemana;
+import com.barberia.services.dashboard.Intervalos.Intervalo;
+import com.barberia.services.dashboard.UtilizacionService.Entrada;
+import com.barberia.services.dashboard.UtilizacionService.Resultado;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests para el cálculo de utilización de UtilizacionService
+ *
+ * Verifican la aritmética de intervalos: reservas solapadas, reservas fuera de
+ * horario, huecos libres y el reparto por hora del mapa de calor.
+ */
+@DisplayName("Tests para UtilizacionService")
+class UtilizacionServiceTest {
+
+    // Lunes
+    private final LocalDate lunes = LocalDate.of(2024, 1, 1);
+
+    @Test
+    @DisplayName("Debe calcular utilización, huecos y minutos fuera de horario")
+    void debeCalcularUtilizacionDeUnDia() {
+        // ARRANGE: horario 09:00-13:00 y 14:00-18:00 (480 min)
+        Map<DiaSemana, List<Intervalo>> horario = Map.of(DiaSemana.LUNES, List.of(
+                intervalo("09:00", "13:00"), intervalo("14:00", "18:00")));
+        // Reservas: dos solapadas 09:00-10:30 (90 min), una 12:30-14:30 (60 min dentro + 60 fuera, 13:00-14:00)
+        Map<LocalDate, List<Intervalo>> ocupados = Map.of(lunes, List.of(
+                intervalo("09:00", "10:00"), intervalo("09:30", "10:30"), intervalo("12:30", "14:30")));
+        Entrada entrada = new Entrada(7L, "Pedro", horario, ocupados);
+
+        // ACT
+        Resultado resultado = UtilizacionService.calcular(entrada, lunes, lunes, false, 15);
+        UtilizacionProfesionalDTO profesional = resultado.profesional();
+
+        // ASSERT
+        assertEquals(480L, profesional.getCapacidadMinutos());
+        assertEquals(150L, profesional.getOcupadosMinutos());
+        assertEquals(new BigDecimal("31.3"), profesional.getUtilizacion());
+        assertEquals(60L, profesional.getFueraDeHorarioMinutos());
+        // Huecos: 10:30-12:30 (120) y 14:30-18:00 (210)
+        assertEquals(2L, profesional.getHuecos());
+        assertEquals(210L, profesional.getHuecoMaximoMinutos());
+        // Mapa de calor: la hora 9 está llena, la 12 a medias
+        assertEquals(60L, resultado.ocupadoHora()[DiaSemana.LUNES.ordinal()][9]);
+        assertEquals(30L, resultado.ocupadoHora()[DiaSemana.LUNES.ordinal()][12]);
+        assertEquals(0L, resultado.capacidadHora()[DiaSemana.LUNES.ordinal()][13]);
+    }
+
+    @Test
+    @DisplayName("Debe agrupar el detalle por semana y dejar sin capacidad los días sin horario")
+    void debeAgruparPorSemana() {
+        // ARRANGE: solo trabaja los lunes, 09:00-10:00
+        Map<DiaSemana, List<Intervalo>> horario = Map.of(DiaSemana.LUNES, List.of(intervalo("09:00", "10:00")));
+        Map<LocalDate, List<Intervalo>> ocupados = Map.of(lunes.plusWeeks(1), List.of(intervalo("09:00", "09:30")));
+        Entrada entrada = new Entrada(7L, "Pedro", horario, ocupados);
+
+        // ACT: tres semanas completas
+        Resultado resultado = UtilizacionService.calcular(entrada, lunes, lunes.plusDays(20), true, 15);
+
+        // ASSERT
+        var periodos = resultado.profesional().getPeriodos();
+        assertEquals(3, periodos.size());
+        assertEquals(60L, periodos.get(1).getCapacidadMinutos());
+        assertEquals(new BigDecimal("50.0"), periodos.get(1).getUtilizacion());
+        assertEquals(BigDecimal.ZERO.setScale(1), periodos.get(2).getUtilizacion());
+    }
+
+    private static Intervalo intervalo(String inicio, String fin) {
+        return Intervalos.de(LocalTime.parse(inicio), LocalTime.parse(fin));
+    }
+}
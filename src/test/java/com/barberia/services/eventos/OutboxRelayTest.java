@@ -0,0 +1,139 @@
+package com.barberia.services.eventos;
+
+import com.barberia.models.OutboxEvento;
+import com.barberia.models.enums.TipoEventoReserva;
+import com.barberia.repositories.OutboxEventoRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests para OutboxRelay
+ *
+ * Verifican la entrega "al menos una vez" con orden por profesional:
+ * un fallo detiene solo los eventos siguientes del MISMO profesional.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para OutboxRelay")
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventoRepository outboxEventoRepository;
+
+    private OutboxEvento evento(long id, long profesionalId) {
+        return OutboxEvento.builder()
+                .id(id)
+                .tipo(TipoEventoReserva.CREADA)
+                .reservaId(100 + id)
+                .profesionalId(profesionalId)
+                .estado(OutboxEvento.PENDIENTE)
+                .intentos(0)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Debe entregar en orden y frenar solo al profesional con fallo")
+    void debeRespetarOrdenPorProfesional() {
+        // ARRANGE
+        List<Long> recibidos = new CopyOnWriteArrayList<>();
+        ReservaEventoListener listener = evento -> {
+            if (evento.id() == 1L) {
+                throw new IllegalStateException("listener caído");
+            }
+            recibidos.add(evento.id());
+        };
+        when(outboxEventoRepository.findPendientes(any(Pageable.class)))
+                .thenReturn(List.of(evento(1, 7), evento(2, 8), evento(3, 7), evento(4, 8)));
+        OutboxRelay relay = new OutboxRelay(outboxEventoRepository, List.of(listener), true, 10, 2, 5, 7);
+
+        // ACT
+        boolean continuar = relay.procesarLote();
+
+        // ASSERT
+        assertFalse(continuar);
+        assertEquals(List.of(2L, 4L), recibidos);
+        verify(outboxEventoRepository).registrarFallo(eq(1L), contains("listener caído"), eq(OutboxEvento.PENDIENTE), isNull());
+        verify(outboxEventoRepository).marcarProcesados(eq(List.of(2L, 4L)), any());
+        verify(outboxEventoRepository, never()).marcarProcesados(argThat(ids -> ids.contains(3L)), any());
+        relay.detener();
+    }
+
+    @Test
+    @DisplayName("Una reserva que cambia de profesional debe esperar a los eventos pendientes del anterior")
+    void debeRespetarOrdenAlCambiarDeProfesional() {
+        // ARRANGE: el evento 2 mueve la reserva 10 del profesional 7 al 8; el 3 sigue en el 8
+        List<Long> recibidos = new CopyOnWriteArrayList<>();
+        ReservaEventoListener listener = evento -> {
+            if (evento.id() == 1L) {
+                throw new IllegalStateException("listener caído");
+            }
+            recibidos.add(evento.id());
+        };
+        OutboxEvento movida = evento(2, 8);
+        movida.setReservaId(10L);
+        movida.setProfesionalAnteriorId(7L);
+        OutboxEvento siguiente = evento(3, 8);
+        siguiente.setReservaId(10L);
+        when(outboxEventoRepository.findPendientes(any(Pageable.class)))
+                .thenReturn(List.of(evento(1, 7), movida, siguiente, evento(4, 9)));
+        OutboxRelay relay = new OutboxRelay(outboxEventoRepository, List.of(listener), true, 10, 2, 5, 7);
+
+        // ACT
+        boolean continuar = relay.procesarLote();
+
+        // ASSERT
+        assertFalse(continuar);
+        assertEquals(List.of(4L), recibidos);
+        verify(outboxEventoRepository).marcarProcesados(eq(List.of(4L)), any());
+        relay.detener();
+    }
+
+    @Test
+    @DisplayName("Con 3 intentos máximos el evento debe pasar a FALLIDO en el tercer fallo, no antes")
+    void debeMarcarFallidoEnElUltimoIntento() {
+        // ARRANGE: un listener que siempre falla; cada ciclo lee el evento con un intento más
+        OutboxEvento fallando = evento(1, 7);
+        when(outboxEventoRepository.findPendientes(any(Pageable.class))).thenReturn(List.of(fallando));
+        OutboxRelay relay = new OutboxRelay(outboxEventoRepository,
+                List.of(evento -> { throw new IllegalStateException("listener caído"); }), true, 10, 1, 3, 7);
+
+        // ACT
+        for (int intentos = 0; intentos < 3; intentos++) {
+            fallando.setIntentos(intentos);
+            relay.procesarLote();
+        }
+
+        // ASSERT
+        var orden = inOrder(outboxEventoRepository);
+        orden.verify(outboxEventoRepository, times(2)).registrarFallo(eq(1L), anyString(), eq(OutboxEvento.PENDIENTE), isNull());
+        orden.verify(outboxEventoRepository).registrarFallo(eq(1L), anyString(), eq(OutboxEvento.FALLIDO), notNull());
+        relay.detener();
+    }
+
+    @Test
+    @DisplayName("Debe pedir otro lote si el actual vino lleno y sin fallos")
+    void debeContinuarConLoteLleno() {
+        // ARRANGE
+        when(outboxEventoRepository.findPendientes(any(Pageable.class)))
+                .thenReturn(List.of(evento(1, 7), evento(2, 8)));
+        OutboxRelay relay = new OutboxRelay(outboxEventoRepository, List.of(evento -> { }), true, 2, 2, 5, 7);
+
+        // ACT
+        boolean continuar = relay.procesarLote();
+
+        // ASSERT
+        assertTrue(continuar);
+        verify(outboxEventoRepository, times(2)).marcarProcesados(anyList(), any());
+        relay.detener();
+    }
+}
@@ -0,0 +1,114 @@
+package com.barberia.services.plataforma;
+
+import com.barberia.dto.plataforma.NegocioAprovisionarRequest;
+import com.barberia.repositories.AprovisionamientoRepository;
+import com.barberia.repositories.UsuarioRepository;
+import com.barberia.services.common.SecurityContextService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests para AprovisionamientoService (validación, asignación de slugs y contraseñas)
+ */
+@DisplayName("Tests para AprovisionamientoService")
+class AprovisionamientoServiceTest {
+
+    private AprovisionamientoRepository repository;
+    private AprovisionamientoService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(AprovisionamientoRepository.class);
+        when(repository.emailsExistentes(anyCollection())).thenReturn(Set.of());
+        when(repository.rucsExistentes(anyCollection())).thenReturn(Set.of());
+        when(repository.slugsExistentes(anyCollection())).thenReturn(Set.of());
+        service = new AprovisionamientoService(repository, mock(UsuarioRepository.class),
+                mock(SecurityContextService.class), mock(EntityManagerFactory.class),
+                mock(PlatformTransactionManager.class), 250, 2, "ADMIN", List.of("LUNES", "MARTES"),
+                LocalTime.of(9, 0), LocalTime.of(20, 0), true, null, 1, 30, 30, true, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.detener();
+    }
+
+    private static NegocioAprovisionarRequest negocio(String nombre, String email) {
+        return NegocioAprovisionarRequest.builder()
+                .nombre(nombre)
+                .adminNombre("Admin")
+                .adminEmail(email)
+                .adminPassword("secret123")
+                .build();
+    }
+
+    @Test
+    @DisplayName("Debe agregar sufijo a slugs repetidos en la BD y dentro del lote")
+    void debeAsignarSufijosASlugsRepetidos() {
+        // ARRANGE: "barberia-centro" y "barberia-centro-2" ya existen
+        when(repository.slugsExistentes(anyCollection())).thenReturn(Set.of("barberia-centro"));
+        when(repository.slugsConPrefijo("barberia-centro-")).thenReturn(Set.of("barberia-centro-2"));
+
+        // ACT
+        List<String> slugs = service.asignarSlugs(List.of(
+                negocio("Barbería Centro", "a@x.com"),
+                negocio("Barberia Centro", "b@x.com"),
+                negocio("Norte", "c@x.com")));
+
+        // ASSERT: una sola consulta de prefijo aunque dos negocios choquen
+        assertEquals(List.of("barberia-centro-3", "barberia-centro-4", "norte"), slugs);
+        verify(repository, times(1)).slugsConPrefijo("barberia-centro-");
+    }
+
+    @Test
+    @DisplayName("Debe rechazar el lote completo si hay emails repetidos o ya registrados")
+    void debeRechazarLoteConEmailsRepetidos() {
+        // ARRANGE
+        when(repository.emailsExistentes(anyCollection())).thenReturn(Set.of("viejo@x.com"));
+
+        // ACT
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> service.aprovisionarLote(List.of(
+                        negocio("Uno", "Nuevo@x.com"),
+                        negocio("Dos", "nuevo@x.com"),
+                        negocio("Tres", "viejo@x.com"))));
+
+        // ASSERT: nada se insertó
+        assertTrue(error.getMessage().contains("negocio[1]: email nuevo@x.com repetido"));
+        assertTrue(error.getMessage().contains("negocio[2]: el email viejo@x.com ya está registrado"));
+        verify(repository, never()).insertarNegocios(any(), any());
+    }
+
+    @Test
+    @DisplayName("Debe cifrar las contraseñas con BCrypt en su propio pool y en orden")
+    void debeCifrarContrasenasEnOrden() {
+        // ARRANGE
+        NegocioAprovisionarRequest uno = negocio("Uno", "uno@x.com");
+        NegocioAprovisionarRequest dos = negocio("Dos", "dos@x.com");
+        dos.setAdminPassword("otra-clave");
+
+        // ACT
+        List<String> hashes = service.cifrarContrasenas(List.of(uno, dos, negocio("Tres", "tres@x.com")));
+
+        // ASSERT: los hashes valen para el login (también BCrypt)
+        BCryptPasswordEncoder login = new BCryptPasswordEncoder();
+        assertEquals(3, hashes.size());
+        assertTrue(login.matches("secret123", hashes.get(0)));
+        assertTrue(login.matches("otra-clave", hashes.get(1)));
+        assertTrue(login.matches("secret123", hashes.get(2)));
+    }
+}
@@ -0,0 +1,5 @@
+-- Datos base de la prueba de carga: el rol que usa la plantilla de aprovisionamiento.
+-- Negocios, administradores, profesionales, servicios y reservas los crea DatosCarga.
+INSERT INTO roles (id, name, description) VALUES (1, 'ADMIN', 'admin');
+INSERT INTO permisos (id, name, description) VALUES (1, 'FULL_ACCESS', 'todo');
+INSERT INTO role_permissions (rol_id, permiso_id) VALUES (1, 1);
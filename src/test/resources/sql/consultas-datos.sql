@@ -0,0 +1,64 @@
+-- Datos para ConsultasPorEndpointTest (H2 en modo MySQL, esquema creado por Hibernate).
+-- Negocio 1 con 3 profesionales, 4 clientes y 12 reservas de 2 servicios cada una (3 de hoy):
+-- con un N+1 la misma sentencia se repite una vez por reserva y el test lo detecta.
+INSERT INTO negocios (id, nombre, slug, estado, created_at) VALUES (1, 'Barberia Uno', 'uno', true, CURRENT_TIMESTAMP);
+INSERT INTO negocios (id, nombre, slug, estado, created_at) VALUES (2, 'Barberia Dos', 'dos', true, CURRENT_TIMESTAMP);
+INSERT INTO roles (id, name, description) VALUES (1, 'ADMIN', 'admin');
+INSERT INTO permisos (id, name, description) VALUES (1, 'FULL_ACCESS', 'todo');
+INSERT INTO role_permissions (rol_id, permiso_id) VALUES (1, 1);
+INSERT INTO usuarios (id, name, email, password, negocio_id, reg_estado, tipo_usuario) VALUES (1, 'Admin Uno', 'admin@uno.com', '$2a$10$mFxFezwe1JOiMFsCuu2OW.Q9XFbEKONmF16ZA5mgsg9sOWvwFY9LG', 1, 1, 1);
+INSERT INTO usuarios (id, name, email, password, negocio_id, reg_estado, tipo_usuario) VALUES (2, 'Admin Dos', 'admin@dos.com', '$2a$10$mFxFezwe1JOiMFsCuu2OW.Q9XFbEKONmF16ZA5mgsg9sOWvwFY9LG', 2, 1, 1);
+INSERT INTO user_roles (usuario_id, rol_id) VALUES (1, 1);
+INSERT INTO user_roles (usuario_id, rol_id) VALUES (2, 1);
+INSERT INTO categorias (id, nombre, estado, reg_estado, negocio_id, usuario_registro) VALUES (1, 'Cortes', true, 1, 1, 1);
+INSERT INTO categorias (id, nombre, estado, reg_estado, negocio_id, usuario_registro) VALUES (2, 'Cortes', true, 1, 2, 2);
+INSERT INTO servicios (id, nombre, precio, duracion_minutos_aprox, estado, reg_estado, categoria_id, negocio_id, usuario_registro) VALUES (1, 'Corte', 25.00, 30, true, 1, 1, 1, 1);
+INSERT INTO servicios (id, nombre, precio, duracion_minutos_aprox, estado, reg_estado, categoria_id, negocio_id, usuario_registro) VALUES (2, 'Barba', 15.00, 20, true, 1, 1, 1, 1);
+INSERT INTO servicios (id, nombre, precio, duracion_minutos_aprox, estado, reg_estado, categoria_id, negocio_id, usuario_registro) VALUES (3, 'Corte Dos', 30.00, 30, true, 1, 2, 2, 2);
+INSERT INTO profesionales (id, nombre_completo, reg_estado, usa_horario_negocio, negocio_id) VALUES (1, 'Pedro', 1, true, 1);
+INSERT INTO profesionales (id, nombre_completo, reg_estado, usa_horario_negocio, negocio_id) VALUES (2, 'Luis', 1, true, 1);
+INSERT INTO profesionales (id, nombre_completo, reg_estado, usa_horario_negocio, negocio_id) VALUES (3, 'Otro', 1, true, 2);
+INSERT INTO clientes (id, nombre_completo, telefono, reg_estado, negocio_id) VALUES (1, 'Juan', '987654321', 1, 1);
+INSERT INTO clientes (id, nombre_completo, telefono, reg_estado, negocio_id) VALUES (2, 'Ana', '987654322', 1, 2);
+INSERT INTO configuracion_reservas (id, permite_mismo_dia, permite_cancelacion, reg_estado, negocio_id, usuario_registro, anticipacion_maxima_dias) VALUES (1, true, true, 1, 1, 1, 60);
+INSERT INTO configuracion_reservas (id, permite_mismo_dia, permite_cancelacion, reg_estado, negocio_id, usuario_registro, anticipacion_maxima_dias) VALUES (2, true, true, 1, 2, 2, 60);
+INSERT INTO profesionales (id, nombre_completo, reg_estado, usa_horario_negocio, negocio_id) VALUES (4, 'Mario', 1, true, 1);
+INSERT INTO clientes (id, nombre_completo, telefono, reg_estado, negocio_id) VALUES (3, 'Rosa', '987654323', 1, 1);
+INSERT INTO clientes (id, nombre_completo, telefono, reg_estado, negocio_id) VALUES (4, 'Carlos', '987654324', 1, 1);
+INSERT INTO clientes (id, nombre_completo, telefono, reg_estado, negocio_id) VALUES (5, 'Lucia', '987654325', 1, 1);
+INSERT INTO reservas (id, negocio_id, profesional_id, cliente_id, fecha, hora_inicio, hora_fin, estado, tipo, duracion_total_minutos, precio_total, reg_estado, usuario_registro) VALUES (1, 1, 1, 1, DATEADD('DAY', -6, CURRENT_DATE), '09:00:00', '09:50:00', 'PENDIENTE', 'INTERNA', 50, 40.00, 1, 1);
+INSERT INTO reserva_servicios (id, reserva_id, servicio_id, duracion_minutos, precio) VALUES (1, 1, 1, 30, 25.00);
+INSERT INTO reserva_servicios (id, reserva_id, servicio_id, duracion_minutos, precio) VALUES (2, 1, 2, 20, 15.00);
+INSERT INTO reservas (id, negocio_id, profesional_id, cliente_id, fecha, hora_inicio, hora_fin, estado, tipo, duracion_total_minutos, precio_total, reg_estado, usuario_registro) VALUES (2, 1, 2, 3, DATEADD('DAY', -5, CURRENT_DATE), '10:00:00', '10:50:00', 'CONFIRMADA', 'INTERNA', 50, 40.00, 1, 1);
+INSERT INTO reserva_servicios (id, reserva_id, servicio_id, duracion_minutos, precio) VALUES (3, 2, 1, 30, 25.00);
+INSERT INTO reserva_servicios (id, reserva_id, servicio_id, duracion_minutos, precio) VALUES (4, 2, 2, 20, 15.00);
+INSERT INTO reservas (id, negocio_id, profesional_id, cliente_id, fecha, hora_inicio, hora_fin, estado, tipo, duracion_total_minutos, precio_total, reg_estado, usuario_registro) VALUES (3, 1, 4, 4, DATEADD('DAY', -4, CURRENT_DATE), '11:00:00', '11:50:00', 'ATENDIDA', 'INTERNA', 50, 40.00, 1, 1);
+INSERT INTO reserva_servicios (id, reserva_id, servicio_id, duracion_minutos, precio) VALUES (5, 3, 1, 30, 25.00);
+INSERT INTO reserva_servicios (id, reserva_id, servicio_id, duracion_minutos, precio) VALUES (6, 3, 2, 20, 15.00);
+INSERT INTO reservas (id, negocio_id, profesional_id, cliente_id, fecha, hora_inicio, hora_fin, estado, tipo, duracion_total_minutos, precio_total, reg_estado, usuario_registro) VALUES (4, 1, 1, 5, DATEADD('DAY', -3, CURRENT_DATE), '12:00:00', '12:50:00', 'PENDIENTE', 'INTERNA', 50, 40.00, 1, 1);
+INSERT INTO reserva_servicios (id, reserva_id, servicio_id, duracion_minutos, precio) VALUES (7, 4, 1, 30, 25.00);
+INSERT INTO reserva_servicios (id, reserva_id, servicio_id, duracion_minutos, precio) VALUES (8, 4, 2, 20, 15.00);
+INSERT INTO reservas (id, negocio_id, profesional_id, cliente_id, fecha, hora_inicio, hora_fin, estado, tipo, duracion_total_minutos, precio_total, reg_estado, usuario_registro) VALUES (5, 1, 2, 1, DATEADD('DAY', -2, CURRENT_DATE), '13:00:00', '13:50:00', 'CONFIRMADA', 'INTERNA', 50, 40.00, 1, 1);
+INSERT INTO reserva_servicios (id, reserva_id, servicio_id, duracion_minutos, precio) VALUES (9, 5, 1, 30, 25.00);
+INSERT INTO reserva_servicios (id, reserva_id, servicio_id, duracion_minutos, precio) VALUES (10, 5, 2, 20, 15.00);
+INSERT INTO reservas (id, negocio_id, profesional_id, cliente_id, fecha, hora_inicio, hora_fin, estado, tipo, duracion_total_minutos, precio_total, reg_estado, usuario_registro) VALUES (6, 1, 4, 3, DATEADD('DAY', -1, CURRENT_DATE), '14:00:00', '14:50:00', 'ATENDIDA', 'INTERNA', 50, 40.00, 1, 1);
+INSERT INTO reserva_servicios (id, reserva_id, servicio_id, duracion_minutos, precio) VALUES (11, 6, 1, 30, 25.00);
+INSERT INTO reserva_servicios (id, reserva_id, servicio_id, duracion_minutos, precio) VALUES (12, 6, 2, 20, 15.00);
+INSERT INTO reservas (id, negocio_id, profesional_id, cliente_id, fecha, hora_inicio, hora_fin, estado, tipo, duracion_total_minutos, precio_total, reg_estado, usuario_registro) VALUES (7, 1, 1, 4, DATEADD('DAY', 0, CURRENT_DATE), '15:00:00', '15:50:00', 'PENDIENTE', 'INTERNA', 50, 40.00, 1, 1);
+INSERT INTO reserva_servicios (id, reserva_id, servicio_id, duracion_minutos, precio) VALUES (13, 7, 1, 30, 25.00);
+INSERT INTO reserva_servicios (id, reserva_id, servicio_id, duracion_minutos, precio) VALUES (14, 7, 2, 20, 15.00);
+INSERT INTO reservas (id, negocio_id, profesional_id, cliente_id, fecha, hora_inicio, hora_fin, estado, tipo, duracion_total_minutos, precio_total, reg_estado, usuario_registro) VALUES (8, 1, 2, 5, DATEADD('DAY', 0, CURRENT_DATE), '16:00:00', '16:50:00', 'CONFIRMADA', 'INTERNA', 50, 40.00, 1, 1);
+INSERT INTO reserva_servicios (id, reserva_id, servicio_id, duracion_minutos, precio) VALUES (15, 8, 1, 30, 25.00);
+INSERT INTO reserva_servicios (id, reserva_id, servicio_id, duracion_minutos, precio) VALUES (16, 8, 2, 20, 15.00);
+INSERT INTO reservas (id, negocio_id, profesional_id, cliente_id, fecha, hora_inicio, hora_fin, estado, tipo, duracion_total_minutos, precio_total, reg_estado, usuario_registro) VALUES (9, 1, 4, 1, DATEADD('DAY', 0, CURRENT_DATE), '09:00:00', '09:50:00', 'ATENDIDA', 'INTERNA', 50, 40.00, 1, 1);
+INSERT INTO reserva_servicios (id, reserva_id, servicio_id, duracion_minutos, precio) VALUES (17, 9, 1, 30, 25.00);
+INSERT INTO reserva_servicios (id, reserva_id, servicio_id, duracion_minutos, precio) VALUES (18, 9, 2, 20, 15.00);
+INSERT INTO reservas (id, negocio_id, profesional_id, cliente_id, fecha, hora_inicio, hora_fin, estado, tipo, duracion_total_minutos, precio_total, reg_estado, usuario_registro) VALUES (10, 1, 1, 3, DATEADD('DAY', 1, CURRENT_DATE), '10:00:00', '10:50:00', 'PENDIENTE', 'INTERNA', 50, 40.00, 1, 1);
+INSERT INTO reserva_servicios (id, reserva_id, servicio_id, duracion_minutos, precio) VALUES (19, 10, 1, 30, 25.00);
+INSERT INTO reserva_servicios (id, reserva_id, servicio_id, duracion_minutos, precio) VALUES (20, 10, 2, 20, 15.00);
+INSERT INTO reservas (id, negocio_id, profesional_id, cliente_id, fecha, hora_inicio, hora_fin, estado, tipo, duracion_total_minutos, precio_total, reg_estado, usuario_registro) VALUES (11, 1, 2, 4, DATEADD('DAY', 2, CURRENT_DATE), '11:00:00', '11:50:00', 'CONFIRMADA', 'INTERNA', 50, 40.00, 1, 1);
+INSERT INTO reserva_servicios (id, reserva_id, servicio_id, duracion_minutos, precio) VALUES (21, 11, 1, 30, 25.00);
+INSERT INTO reserva_servicios (id, reserva_id, servicio_id, duracion_minutos, precio) VALUES (22, 11, 2, 20, 15.00);
+INSERT INTO reservas (id, negocio_id, profesional_id, cliente_id, fecha, hora_inicio, hora_fin, estado, tipo, duracion_total_minutos, precio_total, reg_estado, usuario_registro) VALUES (12, 1, 4, 5, DATEADD('DAY', 3, CURRENT_DATE), '12:00:00', '12:50:00', 'ATENDIDA', 'INTERNA', 50, 40.00, 1, 1);
+INSERT INTO reserva_servicios (id, reserva_id, servicio_id, duracion_minutos, precio) VALUES (23, 12, 1, 30, 25.00);
+INSERT INTO reserva_servicios (id, reserva_id, servicio_id, duracion_minutos, precio) VALUES (24, 12, 2, 20, 15.00);